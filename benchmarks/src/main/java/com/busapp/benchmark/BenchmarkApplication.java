@@ -0,0 +1,54 @@
+package com.busapp.benchmark;
+
+import com.busapp.BusTransportationApplication;
+import com.busapp.dto.BusRequest;
+import com.busapp.dto.BusRouteRequest;
+import com.busapp.service.BusRouteService;
+import com.busapp.service.BusService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Starts the application without a web server on a private in-memory H2 database
+ * and seeds it with one route and a given number of buses.
+ */
+final class BenchmarkApplication {
+    
+    private BenchmarkApplication() {
+    }
+    
+    /**
+     * @param arguments - Command-line style settings ("--name=value"); unlike the defaults
+     *                    below, they take precedence over application.properties
+     */
+    static ConfigurableApplicationContext start(String... arguments) {
+        return new SpringApplicationBuilder(BusTransportationApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID(),
+                        "spring.jpa.show-sql=false",
+                        "spring.jpa.properties.hibernate.format_sql=false",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN")
+                .run(arguments);
+    }
+    
+    /**
+     * @return Long - ID of the seeded route
+     */
+    static Long seedRoute(ConfigurableApplicationContext context, int fleetSize) {
+        Long routeId = context.getBean(BusRouteService.class)
+                .createRoute(new BusRouteRequest("BENCH", "Depot", "Terminal", "Stop 1, Stop 2, Stop 3"))
+                .getId();
+        List<BusRequest> buses = new ArrayList<>(fleetSize);
+        for (int i = 0; i < fleetSize; i++) {
+            buses.add(new BusRequest("BUS-" + i, i % 2 == 0 ? "Blue" : "Red", 40 + i % 20, routeId));
+        }
+        context.getBean(BusService.class).createBuses(buses);
+        return routeId;
+    }
+}
@@ -0,0 +1,69 @@
+package com.busapp.benchmark;
+
+import com.busapp.dto.BusRequest;
+import com.busapp.dto.BusResponse;
+import com.busapp.registration.BusRegistration;
+import com.busapp.registration.BusRegistrationQueue;
+import com.busapp.service.BusService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bus registrations from 32 concurrent clients, spread over 8 routes
+ * 
+ * - createBus: BusService.createBus, one transaction (and route lock) per bus
+ * - registerCommitted: BusRegistrationQueue with COMMITTED durability; each call returns once
+ *   the group commit holding its bus is done, so both variants end with the bus committed
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 4)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(1)
+public class BusRegistrationBenchmark {
+    private static final int ROUTES = 8;
+    
+    private ConfigurableApplicationContext context;
+    private BusService busService;
+    private BusRegistrationQueue busRegistrationQueue;
+    private Long[] routeIds;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(
+                // Logging every INSERT would dominate both variants
+                "--spring.jpa.show-sql=false",
+                "--transport.bus.write-behind.enabled=true",
+                "--transport.bus.write-behind.durability=COMMITTED");
+        busService = context.getBean(BusService.class);
+        busRegistrationQueue = context.getBean(BusRegistrationQueue.class);
+        routeIds = new Long[ROUTES];
+        for (int i = 0; i < ROUTES; i++) {
+            routeIds[i] = BenchmarkApplication.seedRoute(context, 0);
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public BusResponse createBus() {
+        return busService.createBus(newBus());
+    }
+    
+    @Benchmark
+    public BusRegistration registerCommitted() {
+        return busRegistrationQueue.register(newBus());
+    }
+    
+    private BusRequest newBus() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return new BusRequest("BUS-" + random.nextInt(1_000_000), "Blue", 40, routeIds[random.nextInt(ROUTES)]);
+    }
+}
@@ -0,0 +1,63 @@
+package com.busapp.benchmark;
+
+import com.busapp.config.CacheConfig;
+import com.busapp.dto.BusResponse;
+import com.busapp.service.BusService;
+import com.busapp.service.RouteBodyService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service-level read paths against H2 with one seeded route of fleetSize buses
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BusServiceBenchmark {
+    
+    @Param({"10", "100", "1000"})
+    public int fleetSize;
+    
+    private ConfigurableApplicationContext context;
+    private BusService busService;
+    private RouteBodyService routeBodyService;
+    private Cache routeBodiesCache;
+    private Long routeId;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        busService = context.getBean(BusService.class);
+        routeBodyService = context.getBean(RouteBodyService.class);
+        routeBodiesCache = context.getBean(CacheManager.class).getCache(CacheConfig.ROUTE_BODIES_CACHE);
+        routeId = BenchmarkApplication.seedRoute(context, fleetSize);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public List<BusResponse> getBusesByRouteId() {
+        return busService.getBusesByRouteId(routeId);
+    }
+    
+    @Benchmark
+    public RouteBodyService.EncodedRoute getRouteBodyCacheHit() {
+        return routeBodyService.getRouteBody(routeId);
+    }
+    
+    @Benchmark
+    public RouteBodyService.EncodedRoute getRouteBodyCacheMiss() {
+        routeBodiesCache.evict(routeId);
+        return routeBodyService.getRouteBody(routeId);
+    }
+}
@@ -0,0 +1,48 @@
+package com.busapp.benchmark;
+
+import com.busapp.dto.BusResponse;
+import com.busapp.service.BusService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 32 concurrent clients reading the buses of the same route (1,000 buses, not cached),
+ * with and without request coalescing (transport.coalescing.enabled)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 4)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(1)
+public class CoalescingBenchmark {
+    
+    @Param({"true", "false"})
+    public boolean coalescing;
+    
+    private ConfigurableApplicationContext context;
+    private BusService busService;
+    private Long routeId;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(
+                "--spring.jpa.show-sql=false",
+                "--transport.coalescing.enabled=" + coalescing);
+        busService = context.getBean(BusService.class);
+        routeId = BenchmarkApplication.seedRoute(context, 1000);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public List<BusResponse> getBusesByRouteId() {
+        return busService.getBusesByRouteId(routeId);
+    }
+}
@@ -0,0 +1,73 @@
+package com.busapp.benchmark;
+
+import com.busapp.index.DepartureIndex;
+import org.openjdk.jmh.annotations.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Departure boards on a synthetic timetable of 10,000 stations
+ * 
+ * 1,000 routes of 25 random stops, each run by 55 trips between 05:00 and 23:00, give
+ * 1,375,000 departures (about 140 per station). Each query asks for the next departures
+ * of a random station after a random time of day.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DepartureBoardBenchmark {
+    private static final int STATIONS = 10_000;
+    private static final int ROUTES = 1_000;
+    private static final int STOPS_PER_ROUTE = 25;
+    private static final int TRIPS_PER_ROUTE = 55;
+    private static final int QUERY_COUNT = 1024;
+    
+    @Param({"10"})
+    public int limit;
+    
+    private DepartureIndex departureIndex;
+    private long[] stations;
+    private int[] times;
+    private int next;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        departureIndex = new DepartureIndex();
+        Random random = new Random(42);
+        long tripId = 1;
+        for (long routeId = 1; routeId <= ROUTES; routeId++) {
+            long[] stationIds = new long[STOPS_PER_ROUTE];
+            List<String> stationNames = new ArrayList<>();
+            for (int stop = 0; stop < STOPS_PER_ROUTE; stop++) {
+                stationIds[stop] = 1 + random.nextInt(STATIONS);
+                stationNames.add("Station " + stationIds[stop]);
+            }
+            for (int trip = 0; trip < TRIPS_PER_ROUTE; trip++) {
+                int[] departures = new int[STOPS_PER_ROUTE];
+                departures[0] = 5 * 3600 + trip * 18 * 3600 / TRIPS_PER_ROUTE + random.nextInt(600);
+                for (int stop = 1; stop < STOPS_PER_ROUTE; stop++) {
+                    departures[stop] = departures[stop - 1] + 60 + random.nextInt(180);
+                }
+                departureIndex.addTrip(tripId++, routeId, "Route " + routeId, stationIds, stationNames, departures);
+            }
+        }
+        
+        stations = new long[QUERY_COUNT];
+        times = new int[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            stations[i] = 1 + random.nextInt(STATIONS);
+            times[i] = random.nextInt(24 * 3600);
+        }
+    }
+    
+    @Benchmark
+    public List<DepartureIndex.Departure> nextDepartures() {
+        int query = next++ & (QUERY_COUNT - 1);
+        return departureIndex.getDepartures(stations[query], times[query], limit);
+    }
+}
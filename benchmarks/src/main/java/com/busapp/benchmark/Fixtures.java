@@ -0,0 +1,29 @@
+package com.busapp.benchmark;
+
+import com.busapp.dto.BusRouteResponse;
+import com.busapp.entity.Bus;
+import com.busapp.entity.BusRoute;
+
+/**
+ * In-memory entities and DTOs shared by the database-free benchmarks
+ */
+final class Fixtures {
+    
+    private Fixtures() {
+    }
+    
+    static BusRoute route(int fleetSize) {
+        BusRoute route = new BusRoute("PUNE_TO_MUMBAI_BUS", "Pune", "Mumbai", "Lonavala, Khopoli, Panvel");
+        route.setId(1L);
+        for (int i = 0; i < fleetSize; i++) {
+            Bus bus = new Bus("MH12 AU-" + (1000 + i), i % 2 == 0 ? "Green" : "Red", 40 + i % 20, route);
+            bus.setId((long) i + 1);
+            route.getBuses().add(bus);
+        }
+        return route;
+    }
+    
+    static BusRouteResponse routeResponse(int fleetSize) {
+        return new BusRouteResponse(route(fleetSize));
+    }
+}
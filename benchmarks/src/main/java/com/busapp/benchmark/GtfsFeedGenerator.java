@@ -0,0 +1,96 @@
+package com.busapp.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes a synthetic GTFS feed for timing POST /transport/import/gtfs
+ *
+ * Every route has "trips" trips over the same "stops-per-trip" stops (drawn at random from
+ * "stops" stops, two platforms per station name), so stop_times.txt makes up almost all of
+ * the feed, as in real feeds. The defaults give about 50 MB of uncompressed text.
+ *
+ *   java -cp benchmarks/target/classes com.busapp.benchmark.GtfsFeedGenerator --out feed.zip
+ *   curl --data-binary @feed.zip -H "Content-Type: application/zip" http://localhost:8080/transport/import/gtfs
+ */
+public final class GtfsFeedGenerator {
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        Path out = Path.of(options.getOrDefault("out", "feed.zip"));
+        int stops = Integer.parseInt(options.getOrDefault("stops", "20000"));
+        int routes = Integer.parseInt(options.getOrDefault("routes", "1000"));
+        int trips = Integer.parseInt(options.getOrDefault("trips", "55"));
+        int stopsPerTrip = Integer.parseInt(options.getOrDefault("stops-per-trip", "25"));
+        Random random = new Random(42);
+
+        long rows = 0;
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(out));
+             Writer writer = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), 1 << 16)) {
+            zip.putNextEntry(new ZipEntry("stops.txt"));
+            writer.write("stop_id,stop_name,stop_lat,stop_lon\n");
+            for (int stop = 0; stop < stops; stop++) {
+                // Platforms "S12A" and "S12B" share the name "Station 12, Main Street" (quoted: it has a comma)
+                writer.write("S" + stop / 2 + (stop % 2 == 0 ? "A" : "B") + ",\"Station " + stop / 2 + ", Main Street\","
+                        + (48 + random.nextDouble()) + "," + (11 + random.nextDouble()) + "\n");
+            }
+            writer.flush();
+            zip.closeEntry();
+
+            zip.putNextEntry(new ZipEntry("routes.txt"));
+            writer.write("route_id,route_short_name,route_long_name,route_type\n");
+            for (int route = 0; route < routes; route++) {
+                writer.write("R" + route + "," + route + ",Line " + route + ",3\n");
+            }
+            writer.flush();
+            zip.closeEntry();
+
+            zip.putNextEntry(new ZipEntry("trips.txt"));
+            writer.write("route_id,service_id,trip_id,direction_id\n");
+            for (int route = 0; route < routes; route++) {
+                for (int trip = 0; trip < trips; trip++) {
+                    writer.write("R" + route + ",WEEKDAY,T" + route + "_" + trip + "," + trip % 2 + "\n");
+                }
+            }
+            writer.flush();
+            zip.closeEntry();
+
+            zip.putNextEntry(new ZipEntry("stop_times.txt"));
+            writer.write("trip_id,arrival_time,departure_time,stop_id,stop_sequence\n");
+            for (int route = 0; route < routes; route++) {
+                int[] pattern = new int[stopsPerTrip];
+                for (int i = 0; i < stopsPerTrip; i++) {
+                    pattern[i] = random.nextInt(stops);
+                }
+                for (int trip = 0; trip < trips; trip++) {
+                    int minutes = 5 * 60 + trip * 20;
+                    for (int i = 0; i < stopsPerTrip; i++) {
+                        int stop = pattern[trip % 2 == 0 ? i : stopsPerTrip - 1 - i];
+                        String time = String.format("%02d:%02d:00", minutes / 60, minutes % 60);
+                        writer.write("T" + route + "_" + trip + "," + time + "," + time + ",S" + stop / 2 + (stop % 2 == 0 ? "A" : "B")
+                                + "," + (i + 1) + "\n");
+                        minutes += 2;
+                        rows++;
+                    }
+                }
+            }
+            writer.flush();
+            zip.closeEntry();
+        }
+        System.out.printf("%s: %d stops, %d routes, %d trips, %d stop times, %d KB compressed%n",
+                out, stops, routes, routes * trips, rows, Files.size(out) / 1024);
+    }
+}
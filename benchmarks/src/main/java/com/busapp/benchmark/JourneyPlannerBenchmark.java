@@ -0,0 +1,80 @@
+package com.busapp.benchmark;
+
+import com.busapp.index.JourneyPlanner;
+import com.busapp.index.TransitGraph;
+import org.openjdk.jmh.annotations.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Journey planning on a synthetic network of 10,000 stations
+ * 
+ * Stations form a 100 x 100 grid. Every row and every column is a route (200 routes of
+ * 100 stops), plus 300 random "express" routes of 20 stops, so most trips need 1-3 transfers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JourneyPlannerBenchmark {
+    private static final int GRID = 100;
+    private static final int QUERY_COUNT = 1024;
+    
+    @Param({"2"})
+    public int maxTransfers;
+    
+    private TransitGraph.Snapshot graph;
+    private int[] origins;
+    private int[] targets;
+    private int next;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        TransitGraph transitGraph = new TransitGraph();
+        Random random = new Random(42);
+        long routeId = 1;
+        for (int row = 0; row < GRID; row++) {
+            List<String> keys = new ArrayList<>();
+            for (int column = 0; column < GRID; column++) {
+                keys.add(station(row, column));
+            }
+            transitGraph.addRoute(routeId++, keys, keys);
+        }
+        for (int column = 0; column < GRID; column++) {
+            List<String> keys = new ArrayList<>();
+            for (int row = 0; row < GRID; row++) {
+                keys.add(station(row, column));
+            }
+            transitGraph.addRoute(routeId++, keys, keys);
+        }
+        for (int i = 0; i < 300; i++) {
+            List<String> keys = new ArrayList<>();
+            for (int stop = 0; stop < 20; stop++) {
+                keys.add(station(random.nextInt(GRID), random.nextInt(GRID)));
+            }
+            transitGraph.addRoute(routeId++, keys, keys);
+        }
+        graph = transitGraph.snapshot();
+        
+        origins = new int[QUERY_COUNT];
+        targets = new int[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            origins[i] = graph.stationIndex(station(random.nextInt(GRID), random.nextInt(GRID)));
+            targets[i] = graph.stationIndex(station(random.nextInt(GRID), random.nextInt(GRID)));
+        }
+    }
+    
+    @Benchmark
+    public List<JourneyPlanner.Itinerary> plan() {
+        int query = next++ & (QUERY_COUNT - 1);
+        return JourneyPlanner.plan(graph, origins[query], targets[query], maxTransfers);
+    }
+    
+    private static String station(int row, int column) {
+        return "s" + row + "-" + column;
+    }
+}
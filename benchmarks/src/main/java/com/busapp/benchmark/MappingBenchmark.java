@@ -0,0 +1,48 @@
+package com.busapp.benchmark;
+
+import com.busapp.dto.BusResponse;
+import com.busapp.dto.BusRouteResponse;
+import com.busapp.entity.Bus;
+import com.busapp.entity.BusRoute;
+import org.openjdk.jmh.annotations.*;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Entity -> DTO mapping cost in BusResponse and BusRouteResponse (no database)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+    
+    @Param({"10", "100", "1000"})
+    public int fleetSize;
+    
+    private BusRoute route;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        route = Fixtures.route(fleetSize);
+    }
+    
+    @Benchmark
+    public BusRouteResponse routeToResponse() {
+        return new BusRouteResponse(route);
+    }
+    
+    @Benchmark
+    public List<BusResponse> busesToResponses() {
+        return route.getBuses().stream().map(BusResponse::new).collect(Collectors.toList());
+    }
+    
+    @Benchmark
+    public BusResponse busToResponse() {
+        Bus bus = route.getBuses().get(0);
+        return new BusResponse(bus);
+    }
+}
@@ -0,0 +1,99 @@
+package com.busapp.benchmark;
+
+import com.busapp.index.StationLocationIndex;
+import org.openjdk.jmh.annotations.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nearest stations on a synthetic network of 100,000 stops
+ * 
+ * Stops are spread over a 60 x 60 km metropolitan area, normally distributed around its centre
+ * (standard deviation 15 km), so there are about 70 stops per km2 in the middle and a few at the
+ * edge. Each query looks for the 10 nearest stops around a random point of the area.
+ * 
+ * - grid: StationLocationIndex, which visits only the cells around the point
+ * - scan: the same search over plain arrays of all stops, for comparison
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NearbyStationsBenchmark {
+    private static final int STATIONS = 100_000;
+    private static final double CENTER_LATITUDE = 52.52;
+    private static final double CENTER_LONGITUDE = 13.40;
+    // 30 km north-south / east-west at this latitude
+    private static final double LATITUDE_SPAN = 0.27;
+    private static final double LONGITUDE_SPAN = 0.44;
+    // Standard deviation of the stop positions, as a fraction of the span (15 km)
+    private static final double SPREAD = 0.5;
+    private static final int QUERY_COUNT = 1024;
+    private static final int LIMIT = 10;
+    
+    @Param({"500", "2000"})
+    public int radius;
+    
+    private StationLocationIndex index;
+    private double[] latitudes;
+    private double[] longitudes;
+    private double[] queryLatitudes;
+    private double[] queryLongitudes;
+    private int next;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new StationLocationIndex();
+        latitudes = new double[STATIONS];
+        longitudes = new double[STATIONS];
+        Random random = new Random(42);
+        for (int i = 0; i < STATIONS; i++) {
+            latitudes[i] = CENTER_LATITUDE + inSpan(random) * LATITUDE_SPAN;
+            longitudes[i] = CENTER_LONGITUDE + inSpan(random) * LONGITUDE_SPAN;
+            index.locate(i + 1, "Stop " + (i + 1), "stop " + (i + 1), latitudes[i], longitudes[i]);
+        }
+        
+        queryLatitudes = new double[QUERY_COUNT];
+        queryLongitudes = new double[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            queryLatitudes[i] = CENTER_LATITUDE + (random.nextDouble() * 2 - 1) * LATITUDE_SPAN;
+            queryLongitudes[i] = CENTER_LONGITUDE + (random.nextDouble() * 2 - 1) * LONGITUDE_SPAN;
+        }
+    }
+    
+    @Benchmark
+    public List<StationLocationIndex.Nearby> grid() {
+        int query = next++ & (QUERY_COUNT - 1);
+        return index.findNearby(queryLatitudes[query], queryLongitudes[query], radius, LIMIT);
+    }
+    
+    @Benchmark
+    public List<double[]> scan() {
+        int query = next++ & (QUERY_COUNT - 1);
+        List<double[]> found = new ArrayList<>();
+        for (int i = 0; i < STATIONS; i++) {
+            double distance = StationLocationIndex.distance(queryLatitudes[query], queryLongitudes[query], latitudes[i], longitudes[i]);
+            if (distance <= radius) {
+                found.add(new double[]{i, distance});
+            }
+        }
+        found.sort(Comparator.comparingDouble(station -> station[1]));
+        return found.subList(0, Math.min(LIMIT, found.size()));
+    }
+    
+    /**
+     * @return double - Normally distributed offset from the centre, -1 to 1 (drawn again outside)
+     */
+    private static double inSpan(Random random) {
+        double offset;
+        do {
+            offset = random.nextGaussian() * SPREAD;
+        } while (offset < -1 || offset > 1);
+        return offset;
+    }
+}
@@ -0,0 +1,72 @@
+package com.busapp.benchmark;
+
+import com.busapp.dto.BusRouteResponse;
+import com.busapp.service.BusRouteService;
+import com.busapp.service.RouteBodyService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Body of GET /transport/route/{id} on a cache hit: Jackson over a BusRouteResponse
+ * already in memory (previous path) vs the pre-encoded bytes of RouteBodyService
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouteBodyBenchmark {
+    
+    @Param({"10", "100", "1000"})
+    public int fleetSize;
+    
+    private ConfigurableApplicationContext context;
+    private BusRouteResponse response;
+    private RouteBodyService routeBodyService;
+    private ObjectMapper objectMapper;
+    private Long routeId;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        routeBodyService = context.getBean(RouteBodyService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        routeId = BenchmarkApplication.seedRoute(context, fleetSize);
+        response = context.getBean(BusRouteService.class).getRouteById(routeId);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public byte[] serializeCachedResponse() throws IOException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+    
+    @Benchmark
+    public byte[] serializeAndGzipCachedResponse() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(out, response);
+        }
+        return bytes.toByteArray();
+    }
+    
+    @Benchmark
+    public byte[] encodedBody() {
+        return routeBodyService.getRouteBody(routeId).json();
+    }
+    
+    @Benchmark
+    public byte[] encodedGzipBody() {
+        return routeBodyService.getRouteBody(routeId).gzip();
+    }
+}
@@ -0,0 +1,43 @@
+package com.busapp.benchmark;
+
+import com.busapp.dto.BusResponse;
+import com.busapp.dto.BusRouteResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the response DTOs (what the controllers return)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+    
+    @Param({"10", "100", "1000"})
+    public int fleetSize;
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private BusRouteResponse routeResponse;
+    private List<BusResponse> busResponses;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        routeResponse = Fixtures.routeResponse(fleetSize);
+        busResponses = routeResponse.getBuses();
+    }
+    
+    @Benchmark
+    public byte[] serializeRoute() throws Exception {
+        return objectMapper.writeValueAsBytes(routeResponse);
+    }
+    
+    @Benchmark
+    public byte[] serializeBusSearch() throws Exception {
+        return objectMapper.writeValueAsBytes(busResponses);
+    }
+}
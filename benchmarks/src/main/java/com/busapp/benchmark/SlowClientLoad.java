@@ -0,0 +1,258 @@
+package com.busapp.benchmark;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Load generator for many concurrent slow clients against a running server
+ * (servlet stack vs. the "reactive" profile, see scripts/slow-client-benchmark.sh)
+ *
+ * Seeds one route with a fleet of buses through the public API, then keeps "clients"
+ * connections busy with GET /transport/bus/search/{routeId}. Each client reads at most
+ * "chunk" bytes of its response every "interval-ms", so a large response takes seconds to
+ * drain and the server has to hold the connection (and whatever it buffered for it) that
+ * long. A client that finished its response reconnects and asks again.
+ *
+ * Reports completed responses per second and, with --pid, the server's resident memory
+ * and thread count: before the load, and at their peak while it runs.
+ *
+ *   java -cp benchmarks/target/classes com.busapp.benchmark.SlowClientLoad --port 8080 --clients 10000 --pid 1234
+ */
+public final class SlowClientLoad {
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    private final Map<String, String> options;
+    private final String host;
+    private final int port;
+
+    private SlowClientLoad(Map<String, String> options) {
+        this.options = options;
+        this.host = option("host", "localhost");
+        this.port = Integer.parseInt(option("port", "8080"));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        new SlowClientLoad(options).run();
+    }
+
+    private String option(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    private void run() throws Exception {
+        int clients = Integer.parseInt(option("clients", "10000"));
+        int fleetSize = Integer.parseInt(option("fleet", "5000"));
+        int chunk = Integer.parseInt(option("chunk", "1024"));
+        long intervalMillis = Long.parseLong(option("interval-ms", "100"));
+        long durationMillis = Long.parseLong(option("duration-s", "60")) * 1000;
+        String accept = option("accept", "application/json");
+        String pid = options.get("pid");
+
+        long routeId = seed(fleetSize);
+        byte[] request = ("GET /transport/bus/search/" + routeId + " HTTP/1.1\r\nHost: " + host + "\r\nAccept: " + accept
+                + "\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+        Sample idle = Sample.of(pid);
+        System.out.printf("route %d with %d buses; server before load: %s%n", routeId, fleetSize, idle);
+
+        List<Client> active = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            active.add(new Client(request));
+        }
+        System.out.printf("%d clients connecting, reading %d bytes every %d ms each%n", clients, chunk, intervalMillis);
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(chunk);
+        Sample peak = idle;
+        long completed = 0;
+        long failed = 0;
+        long start = System.currentTimeMillis();
+        long end = start + durationMillis;
+        long nextReport = start + 5000;
+        while (System.currentTimeMillis() < end) {
+            long tick = System.currentTimeMillis();
+            for (int i = 0; i < active.size(); i++) {
+                Client client = active.get(i);
+                buffer.clear();
+                int read;
+                try {
+                    if (!client.send()) {
+                        continue;
+                    }
+                    read = client.channel.read(buffer);
+                } catch (IOException e) {
+                    read = -2;
+                }
+                if (read > 0) {
+                    client.received(buffer);
+                    continue;
+                }
+                if (read == 0) {
+                    continue;
+                }
+                // End of the response (the server closes the connection): count it, then ask again
+                if (read == -1 && client.ok()) {
+                    completed++;
+                } else {
+                    failed++;
+                }
+                client.channel.close();
+                active.set(i, new Client(request));
+            }
+            long now = System.currentTimeMillis();
+            if (now >= nextReport) {
+                peak = peak.max(Sample.of(pid));
+                System.out.printf("%3ds: %d responses, %d failed, server %s%n", (now - start) / 1000, completed, failed, Sample.of(pid));
+                nextReport += 5000;
+            }
+            Thread.sleep(Math.max(0, intervalMillis - (now - tick)));
+        }
+        double seconds = (System.currentTimeMillis() - start) / 1000.0;
+        for (Client client : active) {
+            client.channel.close();
+        }
+
+        System.out.printf("%nclients            : %d%n", clients);
+        System.out.printf("responses / second : %.1f (%d completed, %d failed in %.0f s)%n", completed / seconds, completed, failed, seconds);
+        if (pid != null) {
+            System.out.printf("server RSS         : %d MB idle, %d MB peak, %.1f KB per connection%n",
+                    idle.rssKb() / 1024, peak.rssKb() / 1024, (peak.rssKb() - idle.rssKb()) / (double) clients);
+            System.out.printf("server threads     : %d idle, %d peak%n", idle.threads(), peak.threads());
+        }
+    }
+
+    /**
+     * Creates the route and its buses (64 requests in flight)
+     *
+     * @return long - ID of the route
+     */
+    private long seed(int fleetSize) throws Exception {
+        HttpClient http = HttpClient.newHttpClient();
+        String base = "http://" + host + ":" + port + "/transport";
+        String route = post(http, base + "/route", "{\"title\":\"SLOW\",\"source\":\"Depot\",\"destination\":\"Terminal\",\"stations\":\"Stop 1, Stop 2\"}");
+        Matcher matcher = ID.matcher(route);
+        if (!matcher.find()) {
+            throw new IllegalStateException("Unexpected response to POST /transport/route: " + route);
+        }
+        long routeId = Long.parseLong(matcher.group(1));
+        Semaphore inFlight = new Semaphore(64);
+        List<CompletableFuture<?>> requests = new ArrayList<>(fleetSize);
+        for (int i = 0; i < fleetSize; i++) {
+            inFlight.acquire();
+            String body = "{\"busNo\":\"SLOW-" + i + "\",\"color\":\"" + (i % 2 == 0 ? "Blue" : "Red") + "\",\"capacity\":" + (40 + i % 20)
+                    + ",\"routeId\":" + routeId + "}";
+            requests.add(http.sendAsync(jsonPost(base + "/bus", body), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> inFlight.release()));
+        }
+        CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new)).join();
+        return routeId;
+    }
+
+    private static String post(HttpClient http, String url, String body) throws IOException, InterruptedException {
+        return http.send(jsonPost(url, body), HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    private static HttpRequest jsonPost(String url, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    /**
+     * One connection and its request; remembers the status line of the response
+     */
+    private final class Client {
+        private final SocketChannel channel;
+        private final ByteBuffer request;
+        private final StringBuilder statusLine = new StringBuilder();
+
+        Client(byte[] request) throws IOException {
+            this.request = ByteBuffer.wrap(request);
+            channel = SocketChannel.open();
+            // A small receive window, so the kernel does not drain the response on the client's behalf
+            channel.setOption(StandardSocketOptions.SO_RCVBUF, 4096);
+            channel.configureBlocking(false);
+            // Non-blocking: a server that is not accepting more connections leaves this one pending
+            channel.connect(new InetSocketAddress(host, port));
+        }
+
+        /**
+         * Connects and writes the request as far as possible without blocking
+         *
+         * @return boolean - Whether the request has been sent completely
+         */
+        boolean send() throws IOException {
+            if (!request.hasRemaining()) {
+                return true;
+            }
+            if (channel.isConnectionPending() && !channel.finishConnect()) {
+                return false;
+            }
+            channel.write(request);
+            return !request.hasRemaining();
+        }
+
+        void received(ByteBuffer buffer) {
+            buffer.flip();
+            while (statusLine.length() < 12 && buffer.hasRemaining()) {
+                statusLine.append((char) buffer.get());
+            }
+        }
+
+        boolean ok() {
+            return statusLine.toString().startsWith("HTTP/1.1 200");
+        }
+    }
+
+    /**
+     * Resident memory and thread count of a process (from /proc/{pid}/status)
+     */
+    private record Sample(long rssKb, long threads) {
+
+        static Sample of(String pid) throws IOException {
+            if (pid == null) {
+                return new Sample(0, 0);
+            }
+            long rss = 0;
+            long threads = 0;
+            for (String line : Files.readAllLines(Path.of("/proc", pid, "status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    rss = Long.parseLong(line.replaceAll("\\D", ""));
+                } else if (line.startsWith("Threads:")) {
+                    threads = Long.parseLong(line.replaceAll("\\D", ""));
+                }
+            }
+            return new Sample(rss, threads);
+        }
+
+        Sample max(Sample other) {
+            return new Sample(Math.max(rssKb, other.rssKb), Math.max(threads, other.threads));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d MB RSS, %d threads", rssKb / 1024, threads);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+#!/usr/bin/env bash
+# Starts the application in fast-startup mode: AOT-generated bean definitions plus the
+# class-data-sharing archive written by the training run.
+#
+#   mvn -Pfast-startup package
+#   scripts/run-fast.sh [application arguments]
+#
+# The archive is only valid for the JDK and the exact jars it was created with; the JVM
+# prints a warning and starts without it if they changed (rebuild with the profile).
+set -euo pipefail
+
+TARGET="$(cd "$(dirname "$0")/../target" && pwd)"
+JAR="$TARGET/bus-transportation-api-1.0.0.jar"
+ARCHIVE="$TARGET/app.jsa"
+
+if [[ ! -f "$ARCHIVE" || ! -d "$TARGET/lib" ]]; then
+    echo "No CDS archive in $TARGET - build with: mvn -Pfast-startup package" >&2
+    exit 1
+fi
+
+# The jar is started from target/ so the class path matches the one recorded in the archive
+cd "$TARGET"
+exec "${JAVA:-java}" -XX:SharedArchiveFile="$ARCHIVE" -Dspring.aot.enabled=true \
+    ${JAVA_OPTS:-} -jar "$(basename "$JAR")" "$@"
@@ -0,0 +1,57 @@
+#!/usr/bin/env bash
+# Compares the servlet stack with the "reactive" profile under many concurrent slow clients.
+#
+#   mvn -Preactive package -DskipTests           # the exec jar (with the reactive variant)
+#   (cd benchmarks && mvn compile)               # the load generator (SlowClientLoad)
+#   scripts/slow-client-benchmark.sh [clients] [duration-s]
+#
+# Every variant (MODES, default "servlet virtual reactive") is started on its own, gets a
+# route with FLEET buses and is then hit by the clients, each reading its bus search
+# response at 10 KB/s. Per variant it reports responses per second and the server's RSS
+# and thread count at idle and at peak (RSS growth / clients = memory per connection).
+set -euo pipefail
+
+CLIENTS="${1:-10000}"
+DURATION="${2:-60}"
+PORT="${PORT:-18080}"
+FLEET="${FLEET:-5000}"
+MODES="${MODES:-servlet virtual reactive}"
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+EXEC_JAR="$ROOT/target/bus-transportation-api-1.0.0-exec.jar"
+LOAD_CLASSES="$ROOT/benchmarks/target/classes"
+URL="http://localhost:$PORT/actuator/health"
+
+if [[ ! -f "$EXEC_JAR" || ! -f "$LOAD_CLASSES/com/busapp/benchmark/SlowClientLoad.class" ]]; then
+    echo "Build first with: mvn -Preactive package -DskipTests && (cd benchmarks && mvn compile)" >&2
+    exit 1
+fi
+
+# Both the server and the load generator hold one socket per client
+ulimit -n $(( CLIENTS * 2 + 1024 )) 2>/dev/null || echo "warning: could not raise the open file limit (ulimit -n is $(ulimit -n))" >&2
+
+if curl -s -o /dev/null "$URL"; then
+    echo "Port $PORT is already in use - stop that process or set PORT" >&2
+    exit 1
+fi
+
+for mode in $MODES; do
+    profile=""
+    if [[ "$mode" != "servlet" ]]; then
+        profile="--spring.profiles.active=$mode"
+    fi
+    echo "=== $mode"
+    "${JAVA:-java}" -jar "$EXEC_JAR" --server.port="$PORT" --spring.jpa.show-sql=false $profile >/dev/null 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "$URL"; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "application exited during startup" >&2
+            exit 1
+        fi
+        sleep 0.2
+    done
+    "${JAVA:-java}" -cp "$LOAD_CLASSES" com.busapp.benchmark.SlowClientLoad \
+        --port "$PORT" --clients "$CLIENTS" --duration-s "$DURATION" --fleet "$FLEET" --pid "$pid" || true
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    echo
+done
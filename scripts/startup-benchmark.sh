@@ -0,0 +1,66 @@
+#!/usr/bin/env bash
+# Compares startup of the regular executable jar with fast-startup mode (scripts/run-fast.sh).
+#
+#   mvn -Pfast-startup package      # builds both the exec jar and the fast-startup artifacts
+#   scripts/startup-benchmark.sh [runs]
+#
+# Per run it reports:
+# - time to first request: from launching the JVM until GET /actuator/health answers
+# - RSS: resident set size of the JVM right after that first request (VmRSS)
+set -euo pipefail
+
+RUNS="${1:-5}"
+PORT="${PORT:-18080}"
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+EXEC_JAR="$ROOT/target/bus-transportation-api-1.0.0-exec.jar"
+URL="http://localhost:$PORT/actuator/health"
+
+if [[ ! -f "$EXEC_JAR" || ! -f "$ROOT/target/app.jsa" ]]; then
+    echo "Build first with: mvn -Pfast-startup package" >&2
+    exit 1
+fi
+
+if curl -s -o /dev/null "$URL"; then
+    echo "Port $PORT is already in use - stop that process or set PORT" >&2
+    exit 1
+fi
+
+now_ms() {
+    date +%s%3N
+}
+
+# Runs one start, prints "<millis to first request> <rss in MB>"
+measure() {
+    local start pid millis rss
+    start=$(now_ms)
+    "$@" --server.port="$PORT" --spring.jpa.show-sql=false >/dev/null 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "$URL"; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "application exited during startup" >&2
+            exit 1
+        fi
+        sleep 0.01
+    done
+    millis=$(( $(now_ms) - start ))
+    rss=$(awk '/VmRSS/ { printf "%.0f", $2 / 1024 }' "/proc/$pid/status")
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    echo "$millis $rss"
+}
+
+report() {
+    local label="$1"
+    shift
+    local total_ms=0 total_rss=0 result
+    for ((i = 1; i <= RUNS; i++)); do
+        result=$(measure "$@")
+        printf '%-14s run %d: %5d ms  %4d MB\n' "$label" "$i" ${result}
+        total_ms=$(( total_ms + ${result% *} ))
+        total_rss=$(( total_rss + ${result#* } ))
+    done
+    printf '%-14s mean : %5d ms  %4d MB\n\n' "$label" $(( total_ms / RUNS )) $(( total_rss / RUNS ))
+}
+
+report "exec jar" "${JAVA:-java}" -jar "$EXEC_JAR"
+report "fast-startup" "$ROOT/scripts/run-fast.sh"
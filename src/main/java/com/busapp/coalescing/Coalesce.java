@@ -0,0 +1,25 @@
+package com.busapp.coalescing;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Concurrent calls of the annotated method with the same key share one execution
+ * (see CoalescingAspect)
+ *
+ * The value names the group of calls (it tags the metrics); the key is a SpEL expression over
+ * the method parameters, e.g. "#routeId", and may reference beans ("@routeVersionMap"). Calls
+ * arriving while the first one is running get its result (or exception), so the method must
+ * be a read, and callers must not modify the returned object.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Coalesce {
+    String value();
+
+    String key();
+}
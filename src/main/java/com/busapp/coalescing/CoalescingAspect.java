@@ -0,0 +1,92 @@
+package com.busapp.coalescing;
+
+import com.busapp.replica.ReadYourWrites;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.expression.BeanFactoryResolver;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.Order;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.stereotype.Component;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coalesces concurrent calls of methods annotated with @Coalesce (single flight)
+ *
+ * When a popular route drops out of the cache, hundreds of requests for it can arrive before
+ * the first one has reloaded it; without coalescing each of them opens a transaction and runs
+ * the same queries. Here the first call for a key runs the method and the others wait for its
+ * result. Keys also include the method, so equal keys of different methods never mix, and
+ * the caller's read-your-writes sequence (see ReadYourWrites), so a client that must see its
+ * own write never gets a replica read started for a client that need not. Clients without
+ * the cookie, the usual crowd, all share the same key.
+ *
+ * Ordered before ShardAspect, @Transactional and @Cacheable: a waiting call takes no
+ * connection and does not touch the cache.
+ *
+ * Metrics (tagged with the @Coalesce name): transport.coalescing.calls, tagged
+ * result=loaded|shared (shared / all calls is the coalescing ratio), and
+ * transport.coalescing.in.flight (gauge). Switched off with transport.coalescing.enabled=false.
+ */
+@Aspect
+@Component
+@Order(-1)
+@ConditionalOnProperty(name = "transport.coalescing.enabled", havingValue = "true", matchIfMissing = true)
+public class CoalescingAspect {
+    private final SpelExpressionParser parser = new SpelExpressionParser();
+    private final ParameterNameDiscoverer parameterNames = new DefaultParameterNameDiscoverer();
+    private final Map<Method, Expression> expressions = new ConcurrentHashMap<>();
+    private final Map<String, Group> groups = new ConcurrentHashMap<>();
+
+    private record Group(SingleFlight<List<Object>, Object> flights, Counter loaded, Counter shared) {
+    }
+
+    @Autowired
+    private BeanFactory beanFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Around("@annotation(coalesce)")
+    public Object coalesce(ProceedingJoinPoint joinPoint, Coalesce coalesce) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Expression expression = expressions.computeIfAbsent(method, key -> parser.parseExpression(coalesce.key()));
+        MethodBasedEvaluationContext context = new MethodBasedEvaluationContext(null, method, joinPoint.getArgs(), parameterNames);
+        context.setBeanResolver(new BeanFactoryResolver(beanFactory));
+        List<Object> key = Arrays.asList(method, expression.getValue(context), ReadYourWrites.requiredSequence());
+
+        Group group = groups.computeIfAbsent(coalesce.value(), this::newGroup);
+        SingleFlight.Result<Object> result = group.flights().load(key, joinPoint::proceed);
+        (result.shared() ? group.shared() : group.loaded()).increment();
+        return result.value();
+    }
+
+    private Group newGroup(String name) {
+        SingleFlight<List<Object>, Object> flights = new SingleFlight<>();
+        Gauge.builder("transport.coalescing.in.flight", flights, SingleFlight::inFlight)
+                .description("Coalesced loads running")
+                .tag("name", name).register(meterRegistry);
+        return new Group(flights, callCounter(name, "loaded"), callCounter(name, "shared"));
+    }
+
+    private Counter callCounter(String name, String result) {
+        return Counter.builder("transport.coalescing.calls")
+                .description("Completed calls of coalesced methods, by whether they ran the load or shared another call's")
+                .tags("name", name, "result", result).register(meterRegistry);
+    }
+}
@@ -0,0 +1,63 @@
+package com.busapp.coalescing;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * At most one load in flight per key: callers that find a load of their key running wait
+ * for it and get its result instead of starting their own
+ *
+ * Only running loads are shared; the result is not kept once the load is done (that is the
+ * caches' job), so a call that starts after a load finished always loads again.
+ */
+public class SingleFlight<K, V> {
+
+    @FunctionalInterface
+    public interface Loader<V> {
+        V load() throws Throwable;
+    }
+
+    /**
+     * @param shared - true if the value came from another caller's load
+     */
+    public record Result<V>(V value, boolean shared) {
+    }
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @throws Throwable whatever the load threw, for the caller that ran it and for every caller that waited on it
+     */
+    public Result<V> load(K key, Loader<V> loader) throws Throwable {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, flight);
+        if (running != null) {
+            try {
+                return new Result<>(running.join(), true);
+            } catch (CompletionException e) {
+                throw e.getCause();
+            }
+        }
+        V value;
+        try {
+            value = loader.load();
+        } catch (Throwable e) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        // Removed before completing: a caller arriving from now on starts a new load
+        inFlight.remove(key, flight);
+        flight.complete(value);
+        return new Result<>(value, false);
+    }
+
+    /**
+     * @return int - Keys with a load running
+     */
+    public int inFlight() {
+        return inFlight.size();
+    }
+}
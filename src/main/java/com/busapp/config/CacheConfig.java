@@ -0,0 +1,51 @@
+package com.busapp.config;
+
+import com.busapp.service.RouteBodyService;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import java.util.List;
+
+/**
+ * CacheConfig - Caching setup for read-heavy lookups
+ * 
+ * @EnableCaching - Activates Spring's @Cacheable / @CacheEvict annotations
+ * 
+ * The "routeBodies" cache holds routes (with their buses) already encoded as JSON and
+ * gzip bytes, keyed by route ID (see RouteBodyService). It is backed by Caffeine, which
+ * evicts entries by age (TTL) and by total size in bytes according to the
+ * "transport.cache.route-bodies.spec" property, since a body grows with the route's fleet.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    
+    public static final String ROUTE_BODIES_CACHE = "routeBodies";
+    
+    /**
+     * Creates the cache manager
+     * 
+     * TransactionAwareCacheManagerProxy delays evictions made inside a @Transactional
+     * method until the transaction commits, so an entry is not dropped while the old data
+     * is still the committed data. It does not stop a read that loaded the old data before
+     * the commit from putting it back after the eviction: RouteBodyService guards against
+     * that by keeping the route version with each entry and rebuilding entries older than
+     * the version in RouteVersionMap. Loads run outside the cache (no @Cacheable(sync = true),
+     * which would run them inside Caffeine's map lock and pin virtual threads).
+     */
+    @Bean
+    public CacheManager cacheManager(@Value("${transport.cache.route-bodies.spec}") String routeBodiesSpec) {
+        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager();
+        // No caches created on demand: an unknown name has no cache
+        caffeineCacheManager.setCacheNames(List.of());
+        caffeineCacheManager.registerCustomCache(ROUTE_BODIES_CACHE, Caffeine.from(routeBodiesSpec)
+                .weigher((Object key, Object value) -> value instanceof RouteBodyService.EncodedRoute body ? body.size() : 1)
+                .build());
+        return new TransactionAwareCacheManagerProxy(caffeineCacheManager);
+    }
+}
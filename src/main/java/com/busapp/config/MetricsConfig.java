@@ -0,0 +1,26 @@
+package com.busapp.config;
+
+import com.busapp.metrics.SqlCountInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * MetricsConfig - Registers the per-request SQL statement metric for the /transport API
+ * 
+ * Latency histograms, Hibernate statistics, connection-pool and cache metrics are
+ * configured in application.properties and bound automatically by Spring Boot Actuator.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class MetricsConfig implements WebMvcConfigurer {
+    @Autowired
+    private SqlCountInterceptor sqlCountInterceptor;
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(sqlCountInterceptor).addPathPatterns("/transport/**");
+    }
+}
@@ -0,0 +1,24 @@
+package com.busapp.config;
+
+import com.busapp.replica.ReadYourWritesInterceptor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * ReplicaConfig - Read-your-writes for the /transport API when read replicas are enabled
+ * 
+ * The replica DataSources themselves are built in ShardingConfig.
+ */
+@Configuration
+@ConditionalOnProperty(name = "transport.replica.enabled", havingValue = "true")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ReplicaConfig implements WebMvcConfigurer {
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ReadYourWritesInterceptor()).addPathPatterns("/transport/**");
+    }
+}
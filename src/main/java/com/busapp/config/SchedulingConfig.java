@@ -0,0 +1,12 @@
+package com.busapp.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * SchedulingConfig - Activates @Scheduled methods (periodic background jobs)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
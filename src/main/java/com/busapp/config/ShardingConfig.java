@@ -0,0 +1,102 @@
+package com.busapp.config;
+
+import com.busapp.replica.ReplicaReadDataSource;
+import com.busapp.replica.ReplicatingDataSource;
+import com.busapp.replica.ReplicationLog;
+import com.busapp.shard.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ShardingConfig - Spreads routes and their buses over "transport.shards.count" databases
+ *
+ * Shard 0 is spring.datasource.url; shard k > 0 uses "transport.shards.url-template" with
+ * k filled in. Every shard gets its own Hikari pool (configured from spring.datasource.hikari.*
+ * and named shard-k in the hikaricp metrics); the application only sees the routing
+ * DataSource, which picks the pool of the current ShardContext. With one shard (the
+ * default) this is a plain single database.
+ *
+ * With transport.replica.enabled=true every shard also gets a replica database
+ * ("transport.replica.url-template", pool replica-k) that is kept in sync from the primary's
+ * commits and serves the read-only transactions (see ReplicationLog).
+ */
+@Configuration
+public class ShardingConfig {
+
+    @Bean
+    public ShardRoutingDataSource dataSource(DataSourceProperties properties, Environment environment,
+                                             ObjectProvider<MeterRegistry> meterRegistry,
+                                             @Value("${transport.shards.count:1}") int shardCount,
+                                             @Value("${transport.shards.url-template}") String urlTemplate,
+                                             @Value("${transport.replica.enabled:false}") boolean replicaEnabled,
+                                             @Value("${transport.replica.url-template}") String replicaUrlTemplate,
+                                             @Value("${transport.replica.max-lag-ms:1000}") long maxLagMillis,
+                                             @Value("${transport.replica.apply-delay-ms:0}") long applyDelayMillis) {
+        if (shardCount < 1) {
+            throw new IllegalStateException("transport.shards.count must be at least 1, was " + shardCount);
+        }
+        List<DataSource> shards = new ArrayList<>(shardCount);
+        List<DataSource> readers = replicaEnabled ? new ArrayList<>(shardCount) : null;
+        AtomicLong writeSequence = new AtomicLong();
+        for (int shard = 0; shard < shardCount; shard++) {
+            HikariDataSource primary = pool(properties, environment, meterRegistry, "shard-" + shard,
+                    shard == 0 ? null : String.format(urlTemplate, shard));
+            if (!replicaEnabled) {
+                shards.add(primary);
+                continue;
+            }
+            HikariDataSource replica = pool(properties, environment, meterRegistry, "replica-" + shard,
+                    String.format(replicaUrlTemplate, shard));
+            ReplicationLog replicationLog = new ReplicationLog(shard, replica, writeSequence, maxLagMillis, applyDelayMillis);
+            meterRegistry.ifAvailable(replicationLog::bindTo);
+            shards.add(new ReplicatingDataSource(primary, replicationLog));
+            readers.add(new ReplicaReadDataSource(replica, primary, replicationLog));
+        }
+        return new ShardRoutingDataSource(shards, readers);
+    }
+
+    /**
+     * @param url - JDBC URL, or null for spring.datasource.url
+     */
+    private static HikariDataSource pool(DataSourceProperties properties, Environment environment,
+                                         ObjectProvider<MeterRegistry> meterRegistry, String name, String url) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        if (url != null) {
+            pool.setJdbcUrl(url);
+        }
+        pool.setPoolName(name);
+        // Spring Boot only instruments the pool it finds behind the routing DataSource (shard 0)
+        meterRegistry.ifAvailable(registry -> pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+        return pool;
+    }
+
+    /**
+     * With several shards every ID comes straight from the current shard's sequence
+     *
+     * Hibernate's default pooled optimizer keeps one block of IDs per sequence in memory and
+     * would hand IDs fetched from one shard's range to rows inserted into another shard.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer shardedIdCustomizer(@Value("${transport.shards.count:1}") int shardCount) {
+        return hibernateProperties -> {
+            if (shardCount > 1) {
+                hibernateProperties.put("hibernate.id.optimizer.pooled.preferred", "none");
+            }
+        };
+    }
+}
@@ -1,30 +1,87 @@
 package com.busapp.controller;
 
+import com.busapp.dto.BatchResponse;
 import com.busapp.dto.BusRequest;
 import com.busapp.dto.BusResponse;
+import com.busapp.service.BusRouteService;
 import com.busapp.service.BusService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
 @RequestMapping("/transport")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class BusController {
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    public static final String NEXT_AFTER_ID_HEADER = "X-Next-After-Id";
+    private static final int MAX_PAGE_SIZE = 1000;
+    
     @Autowired
     private BusService busService;
     
+    @Autowired
+    private BusRouteService busRouteService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
     @PostMapping("/bus")
     public ResponseEntity<BusResponse> createBus(@Valid @RequestBody BusRequest request) {
         BusResponse response = busService.createBus(request);
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
     
+    @PostMapping("/bus/batch")
+    public ResponseEntity<BatchResponse<BusResponse>> createBuses(@RequestBody List<BusRequest> requests) {
+        BatchResponse<BusResponse> response = busService.createBuses(requests);
+        return ResponseEntity.ok(response);
+    }
+    
     @GetMapping("/bus/search/{routeId}")
-    public ResponseEntity<List<BusResponse>> getBusesByRouteId(@PathVariable Long routeId) {
-        List<BusResponse> buses = busService.getBusesByRouteId(routeId);
-        return ResponseEntity.ok(buses);
+    public ResponseEntity<List<BusResponse>> getBusesByRouteId(@PathVariable Long routeId,
+                                                               @RequestParam(required = false) Long afterId,
+                                                               @RequestParam(required = false) Integer limit,
+                                                               WebRequest webRequest) {
+        // The route's version changes whenever a bus is added to it
+        String eTag = busRouteService.getRouteETag(routeId);
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        if (afterId == null && limit == null) {
+            List<BusResponse> buses = busService.getBusesByRouteId(routeId);
+            return ResponseEntity.ok().eTag(eTag).body(buses);
+        }
+        int pageSize = limit == null ? MAX_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<BusResponse> buses = busService.getBusesByRouteId(routeId, afterId == null ? 0L : afterId, pageSize);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().eTag(eTag);
+        if (buses.size() == pageSize) {
+            builder.header(NEXT_AFTER_ID_HEADER, String.valueOf(buses.get(buses.size() - 1).getId()));
+        }
+        return builder.body(buses);
+    }
+    
+    @GetMapping(value = "/bus/search/{routeId}", produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamBusesByRouteId(@PathVariable Long routeId) {
+        busService.checkRouteExists(routeId);
+        StreamingResponseBody body = outputStream -> busService.streamBusesByRouteId(routeId, bus -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(bus));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE)).body(body);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,52 @@
+package com.busapp.controller;
+
+import com.busapp.dto.BusRegistrationResponse;
+import com.busapp.dto.BusRequest;
+import com.busapp.registration.BusRegistration;
+import com.busapp.registration.BusRegistrationQueue;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.net.URI;
+
+/**
+ * Asynchronous bus registration through the write-behind queue (see BusRegistrationQueue);
+ * only present when "transport.bus.write-behind.enabled" is true
+ */
+@RestController
+@RequestMapping("/transport")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "transport.bus.write-behind.enabled", havingValue = "true")
+public class BusRegistrationController {
+    @Autowired
+    private BusRegistrationQueue busRegistrationQueue;
+    
+    /**
+     * 202 with the ticket (Location header) while the bus is queued; once its group commit
+     * is done (COMMITTED durability) 201, or 400 if the commit rejected the bus
+     */
+    @PostMapping("/bus/async")
+    public ResponseEntity<BusRegistrationResponse> registerBus(@Valid @RequestBody BusRequest request) {
+        BusRegistration registration = busRegistrationQueue.register(request);
+        URI location = URI.create("/transport/bus/registrations/" + registration.getId());
+        return ResponseEntity.status(statusOf(registration)).location(location).body(new BusRegistrationResponse(registration));
+    }
+    
+    @GetMapping("/bus/registrations/{id}")
+    public ResponseEntity<BusRegistrationResponse> getRegistration(@PathVariable String id) {
+        return ResponseEntity.ok(new BusRegistrationResponse(busRegistrationQueue.getRegistration(id)));
+    }
+    
+    private static HttpStatus statusOf(BusRegistration registration) {
+        return switch (registration.getState()) {
+            case QUEUED -> HttpStatus.ACCEPTED;
+            case COMMITTED -> HttpStatus.CREATED;
+            case REJECTED -> HttpStatus.BAD_REQUEST;
+            case FAILED -> HttpStatus.INTERNAL_SERVER_ERROR;
+        };
+    }
+}
@@ -1,29 +1,105 @@
 package com.busapp.controller;
 
+import com.busapp.dto.BatchResponse;
 import com.busapp.dto.BusRouteRequest;
 import com.busapp.dto.BusRouteResponse;
 import com.busapp.service.BusRouteService;
+import com.busapp.service.RouteBodyService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/transport")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class BusRouteController {
     @Autowired
     private BusRouteService busRouteService;
     
+    @Autowired
+    private RouteBodyService routeBodyService;
+    
     @PostMapping("/route")
     public ResponseEntity<BusRouteResponse> createRoute(@Valid @RequestBody BusRouteRequest request) {
         BusRouteResponse response = busRouteService.createRoute(request);
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
     
-    @GetMapping("/route/{id}")
-    public ResponseEntity<BusRouteResponse> getRouteById(@PathVariable Long id) {
-        BusRouteResponse response = busRouteService.getRouteById(id);
+    @PostMapping("/route/batch")
+    public ResponseEntity<BatchResponse<BusRouteResponse>> createRoutes(@RequestBody List<BusRouteRequest> requests) {
+        BatchResponse<BusRouteResponse> response = busRouteService.createRoutes(requests);
         return ResponseEntity.ok(response);
     }
+    
+    @GetMapping("/route/{id}")
+    public ResponseEntity<byte[]> getRouteById(@PathVariable Long id,
+                                               @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                               WebRequest webRequest) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        if (webRequest.checkNotModified(busRouteService.getRouteETag(id, gzip))) {
+            // 304 Not Modified has already been set on the response; nothing is loaded
+            return null;
+        }
+        // Pre-encoded bytes, written as-is (no Jackson on a cache hit)
+        RouteBodyService.EncodedRoute body = routeBodyService.getRouteBody(id);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .eTag(body.eTag(gzip));
+        if (gzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return builder.body(gzip ? body.gzip() : body.json());
+    }
+    
+    /**
+     * True if the Accept-Encoding header allows gzip: a "gzip" (or its alias "x-gzip") coding,
+     * or else "*", with a non-zero q value; "gzip;q=0" refuses it even when "*" is accepted
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double anyQuality = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = quality(parts);
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzipQuality = gzipQuality == null ? quality : Math.max(gzipQuality, quality);
+            } else if (name.equals("*")) {
+                anyQuality = quality;
+            }
+        }
+        if (gzipQuality != null) {
+            return gzipQuality > 0;
+        }
+        return anyQuality != null && anyQuality > 0;
+    }
+    
+    /**
+     * @return double - The coding's q parameter (1 if absent, 0 if malformed)
+     */
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.length() > 1 && Character.toLowerCase(parameter.charAt(0)) == 'q' && parameter.charAt(1) == '=') {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
 }
\ No newline at end of file
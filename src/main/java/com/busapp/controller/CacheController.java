@@ -0,0 +1,28 @@
+package com.busapp.controller;
+
+import com.busapp.dto.CacheStatsResponse;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/transport")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class CacheController {
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @GetMapping("/cache/{name}/stats")
+    public ResponseEntity<CacheStatsResponse> getCacheStats(@PathVariable String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache == null || !(cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache)) {
+            return ResponseEntity.notFound().build();
+        }
+        CacheStats stats = nativeCache.stats();
+        return ResponseEntity.ok(new CacheStatsResponse(name, nativeCache.estimatedSize(), stats.hitCount(), stats.missCount(), stats.hitRate(), stats.evictionCount()));
+    }
+}
@@ -0,0 +1,39 @@
+package com.busapp.controller;
+
+import com.busapp.dto.GtfsImportResponse;
+import com.busapp.gtfs.GtfsImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.io.InputStream;
+import java.net.URI;
+
+@RestController
+@RequestMapping("/transport")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ImportController {
+    @Autowired
+    private GtfsImportService gtfsImportService;
+    
+    /**
+     * Uploads a GTFS zip as the raw request body (curl --data-binary @feed.zip);
+     * the import runs in the background, its status is at the Location URL
+     */
+    @PostMapping(value = "/import/gtfs", consumes = {"application/zip", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<GtfsImportResponse> startGtfsImport(InputStream feed) {
+        GtfsImportResponse response = new GtfsImportResponse(gtfsImportService.start(feed));
+        return ResponseEntity.accepted().location(URI.create("/transport/import/gtfs/" + response.getId())).body(response);
+    }
+    
+    @GetMapping("/import/gtfs/{id}")
+    public ResponseEntity<GtfsImportResponse> getGtfsImport(@PathVariable String id) {
+        return ResponseEntity.ok(new GtfsImportResponse(gtfsImportService.getImport(id)));
+    }
+    
+    @PostMapping("/import/gtfs/{id}/resume")
+    public ResponseEntity<GtfsImportResponse> resumeGtfsImport(@PathVariable String id) {
+        return ResponseEntity.accepted().body(new GtfsImportResponse(gtfsImportService.resume(id)));
+    }
+}
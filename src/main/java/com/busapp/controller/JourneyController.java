@@ -0,0 +1,24 @@
+package com.busapp.controller;
+
+import com.busapp.dto.JourneyResponse;
+import com.busapp.service.JourneyService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/transport")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class JourneyController {
+    @Autowired
+    private JourneyService journeyService;
+    
+    @GetMapping("/journey")
+    public ResponseEntity<JourneyResponse> planJourney(@RequestParam String from,
+                                                       @RequestParam String to,
+                                                       @RequestParam(defaultValue = "2") Integer maxTransfers) {
+        JourneyResponse response = journeyService.planJourney(from, to, maxTransfers);
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,29 @@
+package com.busapp.controller;
+
+import com.busapp.dto.BusPositionResponse;
+import com.busapp.live.LiveUpdateHub;
+import com.busapp.service.PositionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.util.List;
+
+@RestController
+@RequestMapping("/transport")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class LiveController {
+    @Autowired
+    private PositionService positionService;
+    
+    @Autowired
+    private LiveUpdateHub liveUpdateHub;
+    
+    @GetMapping(value = "/route/{id}/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@PathVariable Long id,
+                                @RequestParam(defaultValue = "COALESCE") LiveUpdateHub.OverflowPolicy policy) {
+        List<BusPositionResponse> currentPositions = positionService.getRoutePositions(id);
+        return liveUpdateHub.subscribe(id, policy, currentPositions);
+    }
+}
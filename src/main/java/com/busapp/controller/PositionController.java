@@ -0,0 +1,60 @@
+package com.busapp.controller;
+
+import com.busapp.dto.BusPositionResponse;
+import com.busapp.dto.PositionIngestResponse;
+import com.busapp.dto.PositionPing;
+import com.busapp.service.PositionService;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+@RestController
+@RequestMapping("/transport")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class PositionController {
+    @Autowired
+    private PositionService positionService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    // Reads either one ping object or an array of pings
+    private ObjectReader pingsReader;
+    
+    @PostConstruct
+    public void init() {
+        pingsReader = objectMapper.readerForListOf(PositionPing.class).with(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY);
+    }
+    
+    @PostMapping(value = "/bus/{id}/positions", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<PositionIngestResponse> recordPositions(@PathVariable Long id, InputStream body) throws IOException {
+        List<PositionPing> pings = pingsReader.readValue(body);
+        PositionIngestResponse response = positionService.recordPositions(id, pings);
+        return new ResponseEntity<>(response, HttpStatus.ACCEPTED);
+    }
+    
+    @GetMapping("/bus/{id}/position")
+    public ResponseEntity<BusPositionResponse> getPosition(@PathVariable Long id) {
+        return positionService.getPosition(id).map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.noContent().build());
+    }
+    
+    @GetMapping("/bus/{id}/positions")
+    public ResponseEntity<List<BusPositionResponse>> getPositionHistory(@PathVariable Long id) {
+        return ResponseEntity.ok(positionService.getPositionHistory(id));
+    }
+    
+    @GetMapping("/route/{id}/positions")
+    public ResponseEntity<List<BusPositionResponse>> getRoutePositions(@PathVariable Long id) {
+        return ResponseEntity.ok(positionService.getRoutePositions(id));
+    }
+}
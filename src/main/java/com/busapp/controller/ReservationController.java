@@ -0,0 +1,35 @@
+package com.busapp.controller;
+
+import com.busapp.dto.ReservationRequest;
+import com.busapp.dto.ReservationResponse;
+import com.busapp.service.ReservationService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/transport")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ReservationController {
+    @Autowired
+    private ReservationService reservationService;
+    
+    @PostMapping("/bus/{id}/reservations")
+    public ResponseEntity<ReservationResponse> hold(@PathVariable Long id, @Valid @RequestBody ReservationRequest request) {
+        ReservationResponse response = reservationService.hold(id, request.getSeats());
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+    
+    @PostMapping("/bus/{id}/reservations/{holdId}/confirm")
+    public ResponseEntity<ReservationResponse> confirm(@PathVariable Long id, @PathVariable String holdId) {
+        return ResponseEntity.ok(reservationService.confirm(id, holdId));
+    }
+    
+    @DeleteMapping("/bus/{id}/reservations/{holdId}")
+    public ResponseEntity<ReservationResponse> release(@PathVariable Long id, @PathVariable String holdId) {
+        return ResponseEntity.ok(reservationService.release(id, holdId));
+    }
+}
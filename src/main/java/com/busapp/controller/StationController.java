@@ -0,0 +1,44 @@
+package com.busapp.controller;
+
+import com.busapp.dto.BusRouteResponse;
+import com.busapp.dto.NearbyStationResponse;
+import com.busapp.dto.StationLocationRequest;
+import com.busapp.dto.StationResponse;
+import com.busapp.service.StationService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+
+@RestController
+@RequestMapping("/transport")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class StationController {
+    @Autowired
+    private StationService stationService;
+    
+    @GetMapping("/station/{name}/routes")
+    public ResponseEntity<List<BusRouteResponse>> getRoutesByStation(@PathVariable String name) {
+        List<BusRouteResponse> routes = stationService.getRoutesByStation(name);
+        return ResponseEntity.ok(routes);
+    }
+    
+    @PutMapping("/station/{id}/location")
+    public ResponseEntity<StationResponse> updateLocation(@PathVariable Long id, @Valid @RequestBody StationLocationRequest request) {
+        return ResponseEntity.ok(stationService.updateLocation(id, request));
+    }
+    
+    /**
+     * @param radius - Meters (default 500, at most 5000)
+     * @param limit - Number of stations (default 10, at most 100)
+     */
+    @GetMapping("/station/nearby")
+    public ResponseEntity<List<NearbyStationResponse>> getNearbyStations(@RequestParam Double lat,
+                                                                         @RequestParam Double lon,
+                                                                         @RequestParam(defaultValue = "500") Integer radius,
+                                                                         @RequestParam(defaultValue = "10") Integer limit) {
+        return ResponseEntity.ok(stationService.getNearbyStations(lat, lon, radius, limit));
+    }
+}
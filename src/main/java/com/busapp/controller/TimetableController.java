@@ -0,0 +1,48 @@
+package com.busapp.controller;
+
+import com.busapp.dto.DepartureBoardResponse;
+import com.busapp.dto.TripRequest;
+import com.busapp.dto.TripResponse;
+import com.busapp.service.TimetableService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+
+@RestController
+@RequestMapping("/transport")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class TimetableController {
+    @Autowired
+    private TimetableService timetableService;
+    
+    @PostMapping("/route/{id}/trips")
+    public ResponseEntity<TripResponse> createTrip(@PathVariable Long id, @Valid @RequestBody TripRequest request) {
+        TripResponse response = timetableService.createTrip(id, request);
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+    
+    @GetMapping("/route/{id}/trips")
+    public ResponseEntity<List<TripResponse>> getTrips(@PathVariable Long id) {
+        return ResponseEntity.ok(timetableService.getTrips(id));
+    }
+    
+    @DeleteMapping("/trip/{id}")
+    public ResponseEntity<Void> deleteTrip(@PathVariable Long id) {
+        timetableService.deleteTrip(id);
+        return ResponseEntity.noContent().build();
+    }
+    
+    /**
+     * @param after - "HH:mm" or "HH:mm:ss" (default: now)
+     */
+    @GetMapping("/station/{id}/departures")
+    public ResponseEntity<DepartureBoardResponse> getDepartures(@PathVariable Long id,
+                                                                @RequestParam(required = false) String after,
+                                                                @RequestParam(defaultValue = "10") Integer limit) {
+        return ResponseEntity.ok(timetableService.getDepartures(id, after, limit));
+    }
+}
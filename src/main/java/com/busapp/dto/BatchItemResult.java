@@ -0,0 +1,93 @@
+package com.busapp.dto;
+
+import java.util.Map;
+
+/**
+ * BatchItemResult - Outcome of a single item in a batch request
+ * 
+ * This class represents one entry of the "items" array returned by:
+ * - POST /transport/bus/batch
+ * - POST /transport/route/batch
+ * 
+ * @param <T> - The response DTO type of a successfully created item
+ */
+public class BatchItemResult<T> {
+    
+    public static final String CREATED = "CREATED";
+    public static final String REJECTED = "REJECTED";
+    
+    /**
+     * Position of the item in the request array (0-based)
+     */
+    private Integer index;
+    
+    /**
+     * CREATED or REJECTED
+     */
+    private String status;
+    
+    /**
+     * The created object (only set when status is CREATED)
+     */
+    private T result;
+    
+    /**
+     * Field name to error message (only set when status is REJECTED)
+     * Same shape as the "errors" object of a 400 Validation Failed response
+     */
+    private Map<String, String> errors;
+    
+    // ==================== Constructors ====================
+    
+    public BatchItemResult() {
+    }
+    
+    public BatchItemResult(Integer index, String status, T result, Map<String, String> errors) {
+        this.index = index;
+        this.status = status;
+        this.result = result;
+        this.errors = errors;
+    }
+    
+    public static <T> BatchItemResult<T> created(int index, T result) {
+        return new BatchItemResult<>(index, CREATED, result, null);
+    }
+    
+    public static <T> BatchItemResult<T> rejected(int index, Map<String, String> errors) {
+        return new BatchItemResult<>(index, REJECTED, null, errors);
+    }
+    
+    // ==================== Getters and Setters ====================
+    
+    public Integer getIndex() {
+        return index;
+    }
+    
+    public void setIndex(Integer index) {
+        this.index = index;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public void setStatus(String status) {
+        this.status = status;
+    }
+    
+    public T getResult() {
+        return result;
+    }
+    
+    public void setResult(T result) {
+        this.result = result;
+    }
+    
+    public Map<String, String> getErrors() {
+        return errors;
+    }
+    
+    public void setErrors(Map<String, String> errors) {
+        this.errors = errors;
+    }
+}
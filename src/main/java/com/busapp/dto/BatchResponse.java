@@ -0,0 +1,58 @@
+package com.busapp.dto;
+
+import java.util.List;
+
+/**
+ * BatchResponse - Data Transfer Object for returning the result of a batch request
+ * 
+ * This class represents the JSON response body for:
+ * - POST /transport/bus/batch
+ * - POST /transport/route/batch
+ * 
+ * Items are returned in the same order as the request array.
+ * 
+ * @param <T> - The response DTO type of a successfully created item
+ */
+public class BatchResponse<T> {
+    
+    private Integer created;
+    private Integer rejected;
+    private List<BatchItemResult<T>> items;
+    
+    // ==================== Constructors ====================
+    
+    public BatchResponse() {
+    }
+    
+    public BatchResponse(List<BatchItemResult<T>> items) {
+        this.items = items;
+        this.created = (int) items.stream().filter(item -> BatchItemResult.CREATED.equals(item.getStatus())).count();
+        this.rejected = items.size() - this.created;
+    }
+    
+    // ==================== Getters and Setters ====================
+    
+    public Integer getCreated() {
+        return created;
+    }
+    
+    public void setCreated(Integer created) {
+        this.created = created;
+    }
+    
+    public Integer getRejected() {
+        return rejected;
+    }
+    
+    public void setRejected(Integer rejected) {
+        this.rejected = rejected;
+    }
+    
+    public List<BatchItemResult<T>> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<BatchItemResult<T>> items) {
+        this.items = items;
+    }
+}
@@ -0,0 +1,36 @@
+package com.busapp.dto;
+
+import com.busapp.live.PositionStore;
+import java.time.Instant;
+
+/**
+ * BusPositionResponse - A reported position of a bus
+ */
+public class BusPositionResponse {
+    private Long busId;
+    private Long routeId;
+    private Double latitude;
+    private Double longitude;
+    private Instant recordedAt;
+    
+    public BusPositionResponse() {}
+    
+    public BusPositionResponse(PositionStore.Position position) {
+        this.busId = position.busId();
+        this.routeId = position.routeId();
+        this.latitude = position.latitude();
+        this.longitude = position.longitude();
+        this.recordedAt = Instant.ofEpochMilli(position.recordedAtMillis());
+    }
+    
+    public Long getBusId() { return busId; }
+    public void setBusId(Long busId) { this.busId = busId; }
+    public Long getRouteId() { return routeId; }
+    public void setRouteId(Long routeId) { this.routeId = routeId; }
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+    public Instant getRecordedAt() { return recordedAt; }
+    public void setRecordedAt(Instant recordedAt) { this.recordedAt = recordedAt; }
+}
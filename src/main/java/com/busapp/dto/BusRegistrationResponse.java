@@ -0,0 +1,48 @@
+package com.busapp.dto;
+
+import com.busapp.registration.BusRegistration;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * BusRegistrationResponse - Status of a queued bus registration
+ * (POST /transport/bus/async, GET /transport/bus/registrations/{id})
+ * 
+ * busId is set once the state is COMMITTED; errors once it is REJECTED or FAILED.
+ */
+public class BusRegistrationResponse {
+    private String id;
+    private String state;
+    private Long busId;
+    private Long routeId;
+    private Map<String, String> errors;
+    private Instant acceptedAt;
+    private Instant finishedAt;
+    
+    public BusRegistrationResponse() {}
+    
+    public BusRegistrationResponse(BusRegistration registration) {
+        this.id = registration.getId();
+        this.state = registration.getState().name();
+        this.busId = registration.getBusId();
+        this.routeId = registration.getRequest().getRouteId();
+        this.errors = registration.getErrors();
+        this.acceptedAt = registration.getAcceptedAt();
+        this.finishedAt = registration.getFinishedAt();
+    }
+    
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getState() { return state; }
+    public void setState(String state) { this.state = state; }
+    public Long getBusId() { return busId; }
+    public void setBusId(Long busId) { this.busId = busId; }
+    public Long getRouteId() { return routeId; }
+    public void setRouteId(Long routeId) { this.routeId = routeId; }
+    public Map<String, String> getErrors() { return errors; }
+    public void setErrors(Map<String, String> errors) { this.errors = errors; }
+    public Instant getAcceptedAt() { return acceptedAt; }
+    public void setAcceptedAt(Instant acceptedAt) { this.acceptedAt = acceptedAt; }
+    public Instant getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(Instant finishedAt) { this.finishedAt = finishedAt; }
+}
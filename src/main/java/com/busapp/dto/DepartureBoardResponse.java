@@ -0,0 +1,31 @@
+package com.busapp.dto;
+
+import java.util.List;
+
+/**
+ * DepartureBoardResponse - Response body of GET /transport/station/{id}/departures
+ */
+public class DepartureBoardResponse {
+    private Long stationId;
+    private String stationName;
+    private String after;
+    private List<DepartureResponse> departures;
+    
+    public DepartureBoardResponse() {}
+    
+    public DepartureBoardResponse(Long stationId, String stationName, String after, List<DepartureResponse> departures) {
+        this.stationId = stationId;
+        this.stationName = stationName;
+        this.after = after;
+        this.departures = departures;
+    }
+    
+    public Long getStationId() { return stationId; }
+    public void setStationId(Long stationId) { this.stationId = stationId; }
+    public String getStationName() { return stationName; }
+    public void setStationName(String stationName) { this.stationName = stationName; }
+    public String getAfter() { return after; }
+    public void setAfter(String after) { this.after = after; }
+    public List<DepartureResponse> getDepartures() { return departures; }
+    public void setDepartures(List<DepartureResponse> departures) { this.departures = departures; }
+}
@@ -0,0 +1,29 @@
+package com.busapp.dto;
+
+/**
+ * DepartureResponse - One departure of a departure board (part of DepartureBoardResponse)
+ */
+public class DepartureResponse {
+    private Long tripId;
+    private Long routeId;
+    private String headsign;
+    private String departure;
+    
+    public DepartureResponse() {}
+    
+    public DepartureResponse(Long tripId, Long routeId, String headsign, String departure) {
+        this.tripId = tripId;
+        this.routeId = routeId;
+        this.headsign = headsign;
+        this.departure = departure;
+    }
+    
+    public Long getTripId() { return tripId; }
+    public void setTripId(Long tripId) { this.tripId = tripId; }
+    public Long getRouteId() { return routeId; }
+    public void setRouteId(Long routeId) { this.routeId = routeId; }
+    public String getHeadsign() { return headsign; }
+    public void setHeadsign(String headsign) { this.headsign = headsign; }
+    public String getDeparture() { return departure; }
+    public void setDeparture(String departure) { this.departure = departure; }
+}
@@ -0,0 +1,81 @@
+package com.busapp.dto;
+
+import com.busapp.gtfs.GtfsImport;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * GtfsImportResponse - State and progress of a GTFS feed import
+ *
+ * While the feed is read, phase names the file being parsed and bytesRead / bytesTotal
+ * (uncompressed) and rowsRead refer to that file; while writing, routesImported counts up
+ * to routesTotal.
+ */
+public class GtfsImportResponse {
+    private String id;
+    private String state;
+    private String phase;
+    private long bytesRead;
+    private long bytesTotal;
+    private long rowsRead;
+    private int routesTotal;
+    private int routesImported;
+    private int routesSkipped;
+    private int stationsCreated;
+    private int stationsReused;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private Long elapsedMs;
+    private String error;
+
+    public GtfsImportResponse() {}
+
+    public GtfsImportResponse(GtfsImport gtfsImport) {
+        this.id = gtfsImport.getId();
+        this.state = gtfsImport.getState().name();
+        this.phase = gtfsImport.getPhase();
+        this.bytesRead = gtfsImport.getBytesRead();
+        this.bytesTotal = gtfsImport.getBytesTotal();
+        this.rowsRead = gtfsImport.getRowsRead();
+        this.routesTotal = gtfsImport.getRoutesTotal();
+        this.routesImported = gtfsImport.getRoutesImported();
+        this.routesSkipped = gtfsImport.getRoutesSkipped();
+        this.stationsCreated = gtfsImport.getStationsCreated();
+        this.stationsReused = gtfsImport.getStationsReused();
+        this.startedAt = gtfsImport.getStartedAt();
+        this.finishedAt = gtfsImport.getFinishedAt();
+        this.elapsedMs = startedAt == null ? null : Duration.between(startedAt, finishedAt != null ? finishedAt : Instant.now()).toMillis();
+        this.error = gtfsImport.getError();
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getState() { return state; }
+    public void setState(String state) { this.state = state; }
+    public String getPhase() { return phase; }
+    public void setPhase(String phase) { this.phase = phase; }
+    public long getBytesRead() { return bytesRead; }
+    public void setBytesRead(long bytesRead) { this.bytesRead = bytesRead; }
+    public long getBytesTotal() { return bytesTotal; }
+    public void setBytesTotal(long bytesTotal) { this.bytesTotal = bytesTotal; }
+    public long getRowsRead() { return rowsRead; }
+    public void setRowsRead(long rowsRead) { this.rowsRead = rowsRead; }
+    public int getRoutesTotal() { return routesTotal; }
+    public void setRoutesTotal(int routesTotal) { this.routesTotal = routesTotal; }
+    public int getRoutesImported() { return routesImported; }
+    public void setRoutesImported(int routesImported) { this.routesImported = routesImported; }
+    public int getRoutesSkipped() { return routesSkipped; }
+    public void setRoutesSkipped(int routesSkipped) { this.routesSkipped = routesSkipped; }
+    public int getStationsCreated() { return stationsCreated; }
+    public void setStationsCreated(int stationsCreated) { this.stationsCreated = stationsCreated; }
+    public int getStationsReused() { return stationsReused; }
+    public void setStationsReused(int stationsReused) { this.stationsReused = stationsReused; }
+    public Instant getStartedAt() { return startedAt; }
+    public void setStartedAt(Instant startedAt) { this.startedAt = startedAt; }
+    public Instant getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(Instant finishedAt) { this.finishedAt = finishedAt; }
+    public Long getElapsedMs() { return elapsedMs; }
+    public void setElapsedMs(Long elapsedMs) { this.elapsedMs = elapsedMs; }
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
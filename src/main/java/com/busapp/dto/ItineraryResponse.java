@@ -0,0 +1,27 @@
+package com.busapp.dto;
+
+import java.util.List;
+
+/**
+ * ItineraryResponse - One way to travel between two stations (part of GET /transport/journey)
+ */
+public class ItineraryResponse {
+    private Integer transfers;
+    private Integer stops;
+    private List<JourneyLegResponse> legs;
+    
+    public ItineraryResponse() {}
+    
+    public ItineraryResponse(Integer transfers, Integer stops, List<JourneyLegResponse> legs) {
+        this.transfers = transfers;
+        this.stops = stops;
+        this.legs = legs;
+    }
+    
+    public Integer getTransfers() { return transfers; }
+    public void setTransfers(Integer transfers) { this.transfers = transfers; }
+    public Integer getStops() { return stops; }
+    public void setStops(Integer stops) { this.stops = stops; }
+    public List<JourneyLegResponse> getLegs() { return legs; }
+    public void setLegs(List<JourneyLegResponse> legs) { this.legs = legs; }
+}
@@ -0,0 +1,29 @@
+package com.busapp.dto;
+
+/**
+ * JourneyLegResponse - One ride of an itinerary (part of GET /transport/journey)
+ */
+public class JourneyLegResponse {
+    private Long routeId;
+    private String fromStation;
+    private String toStation;
+    private Integer stops;
+    
+    public JourneyLegResponse() {}
+    
+    public JourneyLegResponse(Long routeId, String fromStation, String toStation, Integer stops) {
+        this.routeId = routeId;
+        this.fromStation = fromStation;
+        this.toStation = toStation;
+        this.stops = stops;
+    }
+    
+    public Long getRouteId() { return routeId; }
+    public void setRouteId(Long routeId) { this.routeId = routeId; }
+    public String getFromStation() { return fromStation; }
+    public void setFromStation(String fromStation) { this.fromStation = fromStation; }
+    public String getToStation() { return toStation; }
+    public void setToStation(String toStation) { this.toStation = toStation; }
+    public Integer getStops() { return stops; }
+    public void setStops(Integer stops) { this.stops = stops; }
+}
@@ -0,0 +1,30 @@
+package com.busapp.dto;
+
+import java.util.List;
+
+/**
+ * JourneyResponse - Data Transfer Object for GET /transport/journey
+ * 
+ * Holds the best itinerary for each number of transfers (fewest transfers first).
+ * An itinerary with more transfers is only included when it needs fewer stops.
+ */
+public class JourneyResponse {
+    private String from;
+    private String to;
+    private List<ItineraryResponse> itineraries;
+    
+    public JourneyResponse() {}
+    
+    public JourneyResponse(String from, String to, List<ItineraryResponse> itineraries) {
+        this.from = from;
+        this.to = to;
+        this.itineraries = itineraries;
+    }
+    
+    public String getFrom() { return from; }
+    public void setFrom(String from) { this.from = from; }
+    public String getTo() { return to; }
+    public void setTo(String to) { this.to = to; }
+    public List<ItineraryResponse> getItineraries() { return itineraries; }
+    public void setItineraries(List<ItineraryResponse> itineraries) { this.itineraries = itineraries; }
+}
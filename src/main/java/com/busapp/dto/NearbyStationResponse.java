@@ -0,0 +1,42 @@
+package com.busapp.dto;
+
+import java.util.List;
+
+/**
+ * NearbyStationResponse - One station found by GET /transport/station/nearby
+ * 
+ * distance is in whole meters from the requested point; routeIds are the routes serving
+ * the station, in ID order.
+ */
+public class NearbyStationResponse {
+    private Long stationId;
+    private String name;
+    private Double latitude;
+    private Double longitude;
+    private Long distance;
+    private List<Long> routeIds;
+    
+    public NearbyStationResponse() {}
+    
+    public NearbyStationResponse(Long stationId, String name, Double latitude, Double longitude, Long distance, List<Long> routeIds) {
+        this.stationId = stationId;
+        this.name = name;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.distance = distance;
+        this.routeIds = routeIds;
+    }
+    
+    public Long getStationId() { return stationId; }
+    public void setStationId(Long stationId) { this.stationId = stationId; }
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+    public Long getDistance() { return distance; }
+    public void setDistance(Long distance) { this.distance = distance; }
+    public List<Long> getRouteIds() { return routeIds; }
+    public void setRouteIds(List<Long> routeIds) { this.routeIds = routeIds; }
+}
@@ -0,0 +1,21 @@
+package com.busapp.dto;
+
+/**
+ * PositionIngestResponse - Outcome of POST /transport/bus/{id}/positions
+ */
+public class PositionIngestResponse {
+    private Integer accepted;
+    private Integer rejected;
+    
+    public PositionIngestResponse() {}
+    
+    public PositionIngestResponse(Integer accepted, Integer rejected) {
+        this.accepted = accepted;
+        this.rejected = rejected;
+    }
+    
+    public Integer getAccepted() { return accepted; }
+    public void setAccepted(Integer accepted) { this.accepted = accepted; }
+    public Integer getRejected() { return rejected; }
+    public void setRejected(Integer rejected) { this.rejected = rejected; }
+}
@@ -0,0 +1,31 @@
+package com.busapp.dto;
+
+import java.time.Instant;
+
+/**
+ * PositionPing - One GPS ping of a bus (request body of POST /transport/bus/{id}/positions)
+ * 
+ * The endpoint accepts a single ping or a JSON array of pings.
+ * recordedAt is optional; the server time is used when it is missing.
+ * Pings outside latitude -90..90 / longitude -180..180 are rejected.
+ */
+public class PositionPing {
+    private Double latitude;
+    private Double longitude;
+    private Instant recordedAt;
+    
+    public PositionPing() {}
+    
+    public PositionPing(Double latitude, Double longitude, Instant recordedAt) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.recordedAt = recordedAt;
+    }
+    
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+    public Instant getRecordedAt() { return recordedAt; }
+    public void setRecordedAt(Instant recordedAt) { this.recordedAt = recordedAt; }
+}
@@ -0,0 +1,22 @@
+package com.busapp.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * ReservationRequest - Request body of POST /transport/bus/{id}/reservations
+ */
+public class ReservationRequest {
+    @NotNull(message = "Seats cannot be null")
+    @Min(value = 1, message = "At least one seat must be reserved")
+    private Integer seats;
+    
+    public ReservationRequest() {}
+    
+    public ReservationRequest(Integer seats) {
+        this.seats = seats;
+    }
+    
+    public Integer getSeats() { return seats; }
+    public void setSeats(Integer seats) { this.seats = seats; }
+}
@@ -0,0 +1,36 @@
+package com.busapp.dto;
+
+import com.busapp.reservation.SeatHold;
+import java.time.Instant;
+
+/**
+ * ReservationResponse - A seat hold and its status (HELD, CONFIRMED, RELEASED)
+ */
+public class ReservationResponse {
+    private String holdId;
+    private Long busId;
+    private Integer seats;
+    private String status;
+    private Instant expiresAt;
+    
+    public ReservationResponse() {}
+    
+    public ReservationResponse(SeatHold hold) {
+        this.holdId = hold.id();
+        this.busId = hold.busId();
+        this.seats = hold.seats();
+        this.status = hold.status().name();
+        this.expiresAt = hold.status() == SeatHold.Status.HELD ? Instant.ofEpochMilli(hold.expiresAtMillis()) : null;
+    }
+    
+    public String getHoldId() { return holdId; }
+    public void setHoldId(String holdId) { this.holdId = holdId; }
+    public Long getBusId() { return busId; }
+    public void setBusId(Long busId) { this.busId = busId; }
+    public Integer getSeats() { return seats; }
+    public void setSeats(Integer seats) { this.seats = seats; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public Instant getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(Instant expiresAt) { this.expiresAt = expiresAt; }
+}
@@ -0,0 +1,31 @@
+package com.busapp.dto;
+
+import com.busapp.entity.Station;
+
+/**
+ * StationResponse - A station with its location (null until one is set)
+ */
+public class StationResponse {
+    private Long id;
+    private String name;
+    private Double latitude;
+    private Double longitude;
+    
+    public StationResponse() {}
+    
+    public StationResponse(Station station) {
+        this.id = station.getId();
+        this.name = station.getName();
+        this.latitude = station.getLatitude();
+        this.longitude = station.getLongitude();
+    }
+    
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+}
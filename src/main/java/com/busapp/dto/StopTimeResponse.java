@@ -0,0 +1,25 @@
+package com.busapp.dto;
+
+/**
+ * StopTimeResponse - One stop of a trip (part of TripResponse)
+ */
+public class StopTimeResponse {
+    private Long stationId;
+    private String stationName;
+    private String departure;
+    
+    public StopTimeResponse() {}
+    
+    public StopTimeResponse(Long stationId, String stationName, String departure) {
+        this.stationId = stationId;
+        this.stationName = stationName;
+        this.departure = departure;
+    }
+    
+    public Long getStationId() { return stationId; }
+    public void setStationId(Long stationId) { this.stationId = stationId; }
+    public String getStationName() { return stationName; }
+    public void setStationName(String stationName) { this.stationName = stationName; }
+    public String getDeparture() { return departure; }
+    public void setDeparture(String departure) { this.departure = departure; }
+}
@@ -0,0 +1,31 @@
+package com.busapp.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * TripRequest - Request body of POST /transport/route/{id}/trips
+ * 
+ * One departure time ("HH:mm" or "HH:mm:ss") per stop of the route, in travel order.
+ * The headsign is optional; it defaults to the name of the last stop.
+ */
+public class TripRequest {
+    @Size(max = 255, message = "Headsign cannot be longer than 255 characters")
+    private String headsign;
+    
+    @NotEmpty(message = "Departures cannot be empty")
+    private List<String> departures;
+    
+    public TripRequest() {}
+    
+    public TripRequest(String headsign, List<String> departures) {
+        this.headsign = headsign;
+        this.departures = departures;
+    }
+    
+    public String getHeadsign() { return headsign; }
+    public void setHeadsign(String headsign) { this.headsign = headsign; }
+    public List<String> getDepartures() { return departures; }
+    public void setDepartures(List<String> departures) { this.departures = departures; }
+}
@@ -0,0 +1,42 @@
+package com.busapp.dto;
+
+import com.busapp.entity.StopTime;
+import com.busapp.entity.Trip;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * TripResponse - Response body of POST /transport/route/{id}/trips (and one element of
+ * GET /transport/route/{id}/trips)
+ */
+public class TripResponse {
+    private Long id;
+    private Long routeId;
+    private String headsign;
+    private List<StopTimeResponse> stopTimes;
+    
+    public TripResponse() {}
+    
+    /**
+     * Constructor that converts a Trip entity (with its stop times and stations loaded)
+     * @param trip - The Trip entity from database
+     */
+    public TripResponse(Trip trip) {
+        this.id = trip.getId();
+        this.routeId = trip.getRoute().getId();
+        this.headsign = trip.getHeadsign();
+        this.stopTimes = trip.getStopTimes().stream()
+                .map(stopTime -> new StopTimeResponse(stopTime.getStation().getId(), stopTime.getStation().getName(),
+                        StopTime.formatTime(stopTime.getDepartureTime())))
+                .collect(Collectors.toList());
+    }
+    
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Long getRouteId() { return routeId; }
+    public void setRouteId(Long routeId) { this.routeId = routeId; }
+    public String getHeadsign() { return headsign; }
+    public void setHeadsign(String headsign) { this.headsign = headsign; }
+    public List<StopTimeResponse> getStopTimes() { return stopTimes; }
+    public void setStopTimes(List<StopTimeResponse> stopTimes) { this.stopTimes = stopTimes; }
+}
@@ -10,7 +10,9 @@ import jakarta.persistence.*;
  * It has a Many-to-One relationship with BusRoute entity (many buses can belong to one route)
  */
 @Entity  // Marks this class as a JPA entity (database table)
-@Table(name = "buses")  // Specifies the table name in the database
+@Table(name = "buses",  // Specifies the table name in the database
+       // Composite index used by route searches and keyset pagination (route_id = ? AND id > ?)
+       indexes = @Index(name = "idx_buses_route_id_id", columnList = "route_id, id"))
 public class Bus {
     
     /**
@@ -18,10 +20,16 @@ public class Bus {
      * 
      * @Id - Marks this field as the primary key
      * @GeneratedValue - Tells JPA to auto-generate the value
-     * GenerationType.IDENTITY - Uses database auto-increment feature
+     * GenerationType.SEQUENCE - Takes values from the "bus_seq" database sequence
+     * 
+     * @SequenceGenerator(allocationSize = 50) - Hibernate reserves 50 IDs per
+     *   sequence call (pooled optimizer). Because the ID is known before the
+     *   INSERT runs, Hibernate can group many INSERTs into one JDBC batch
+     *   (IDENTITY columns would force one round trip per row).
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bus_seq")
+    @SequenceGenerator(name = "bus_seq", sequenceName = "bus_seq", allocationSize = 50)
     private Long id;
     
     /**
@@ -83,6 +91,16 @@ public class Bus {
     @Column(name = "route_id", insertable = false, updatable = false)
     private Long routeId;
     
+    /**
+     * Version number used for optimistic locking
+     * 
+     * @Version - Hibernate increments this on every UPDATE of the bus and adds
+     *            "AND version = ?" to the UPDATE, so a concurrent change fails
+     *            instead of silently overwriting the other one
+     */
+    @Version
+    private Long version;
+    
     // ==================== Constructors ====================
     
     /**
@@ -212,4 +230,12 @@ public class Bus {
     public void setRouteId(Long routeId) {
         this.routeId = routeId;
     }
+    
+    /**
+     * Gets the version number of this bus (managed by Hibernate)
+     * @return Long - The version
+     */
+    public Long getVersion() {
+        return version;
+    }
 }
\ No newline at end of file
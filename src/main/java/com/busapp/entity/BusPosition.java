@@ -0,0 +1,88 @@
+package com.busapp.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * BusPosition Entity - Last known position of a bus, as of the latest snapshot
+ * 
+ * This class maps to the "bus_positions" table in the database (one row per bus).
+ * Live positions are kept in memory (PositionStore); this table is only written by
+ * the periodic PositionSnapshotWriter, with batched JDBC MERGE statements.
+ */
+@Entity  // Marks this class as a JPA entity (database table)
+@Table(name = "bus_positions")  // Specifies the table name in the database
+public class BusPosition {
+    
+    /**
+     * Primary Key - The ID of the bus (not generated: one row per bus)
+     */
+    @Id
+    private Long busId;
+    
+    @Column(nullable = false)
+    private Long routeId;
+    
+    @Column(nullable = false)
+    private Double latitude;
+    
+    @Column(nullable = false)
+    private Double longitude;
+    
+    /**
+     * When the bus reported this position
+     */
+    @Column(nullable = false)
+    private Instant recordedAt;
+    
+    // ==================== Constructors ====================
+    
+    /**
+     * Default no-argument constructor
+     * Required by JPA for creating entity instances
+     */
+    public BusPosition() {
+    }
+    
+    // ==================== Getters and Setters ====================
+    
+    public Long getBusId() {
+        return busId;
+    }
+    
+    public void setBusId(Long busId) {
+        this.busId = busId;
+    }
+    
+    public Long getRouteId() {
+        return routeId;
+    }
+    
+    public void setRouteId(Long routeId) {
+        this.routeId = routeId;
+    }
+    
+    public Double getLatitude() {
+        return latitude;
+    }
+    
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+    
+    public Double getLongitude() {
+        return longitude;
+    }
+    
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+    
+    public Instant getRecordedAt() {
+        return recordedAt;
+    }
+    
+    public void setRecordedAt(Instant recordedAt) {
+        this.recordedAt = recordedAt;
+    }
+}
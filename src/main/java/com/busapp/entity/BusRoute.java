@@ -1,5 +1,6 @@
 package com.busapp.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import java.util.ArrayList;
@@ -20,10 +21,16 @@ public class BusRoute {
      * 
      * @Id - Marks this field as the primary key
      * @GeneratedValue - Tells JPA to auto-generate the value
-     * GenerationType.IDENTITY - Uses database auto-increment feature
+     * GenerationType.SEQUENCE - Takes values from the "bus_route_seq" database sequence
+     * 
+     * @SequenceGenerator(allocationSize = 50) - Hibernate reserves 50 IDs per
+     *   sequence call (pooled optimizer). Because the ID is known before the
+     *   INSERT runs, Hibernate can group many INSERTs into one JDBC batch
+     *   (IDENTITY columns would force one round trip per row).
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bus_route_seq")
+    @SequenceGenerator(name = "bus_route_seq", sequenceName = "bus_route_seq", allocationSize = 50)
     private Long id;
     
     /**
@@ -80,6 +87,41 @@ public class BusRoute {
     @JsonManagedReference
     private List<Bus> buses = new ArrayList<>();
     
+    /**
+     * Ordered stops of this route (source, intermediate stations, destination)
+     * 
+     * This is the normalized form of source/stations/destination: each stop points
+     * to a shared Station row. The "stations" string above is kept as entered by the client.
+     * 
+     * @OrderBy("stopSequence") - Stops are always loaded in travel order
+     * @JsonIgnore - Not part of the JSON representation of a route
+     */
+    @OneToMany(mappedBy = "route", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("stopSequence")
+    @JsonIgnore
+    private List<RouteStop> stops = new ArrayList<>();
+    
+    /**
+     * Scheduled trips of this route, each with its departure times (see Trip)
+     * 
+     * @JsonIgnore - Not part of the JSON representation of a route
+     */
+    @OneToMany(mappedBy = "route", cascade = CascadeType.ALL, orphanRemoval = true)
+    @JsonIgnore
+    private List<Trip> trips = new ArrayList<>();
+    
+    /**
+     * Version number of the route, used for optimistic locking and as its ETag
+     * 
+     * @Version - Hibernate increments this on every UPDATE of the route.
+     * Adding buses does not update the bus_routes row by itself, so BusService
+     * loads the route with LockModeType.PESSIMISTIC_FORCE_INCREMENT: the version
+     * then also changes whenever the route's list of buses changes.
+     */
+    @Version
+    @JsonIgnore
+    private Long version;
+    
     // ==================== Constructors ====================
     
     /**
@@ -153,4 +195,24 @@ public class BusRoute {
     public void setBuses(List<Bus> buses) {
         this.buses = buses;
     }
+    
+    public List<RouteStop> getStops() {
+        return stops;
+    }
+    
+    public void setStops(List<RouteStop> stops) {
+        this.stops = stops;
+    }
+    
+    public List<Trip> getTrips() {
+        return trips;
+    }
+    
+    public void setTrips(List<Trip> trips) {
+        this.trips = trips;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,89 @@
+package com.busapp.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * RouteStop Entity - One stop of a route, in travel order
+ * 
+ * This class maps to the "route_stops" table, the ordered join between
+ * BusRoute and Station:
+ * - route_id + stop_sequence is unique (a position on a route holds one station)
+ * - station_id is indexed so "which routes serve station X" does not scan the table
+ */
+@Entity
+@Table(name = "route_stops",
+       uniqueConstraints = @UniqueConstraint(name = "uk_route_stops_route_sequence", columnNames = {"route_id", "stop_sequence"}),
+       indexes = @Index(name = "idx_route_stops_station_id", columnList = "station_id"))
+public class RouteStop {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "route_stop_seq")
+    @SequenceGenerator(name = "route_stop_seq", sequenceName = "route_stop_seq", allocationSize = 50)
+    private Long id;
+    
+    /**
+     * The route this stop belongs to
+     * fetch = FetchType.LAZY - The route is loaded only when accessed
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "route_id", nullable = false)
+    private BusRoute route;
+    
+    /**
+     * The station served at this stop
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "station_id", nullable = false)
+    private Station station;
+    
+    /**
+     * Position of this stop on the route (0 = source, last = destination)
+     */
+    @Column(name = "stop_sequence", nullable = false)
+    private Integer stopSequence;
+    
+    // ==================== Constructors ====================
+    
+    public RouteStop() {
+    }
+    
+    public RouteStop(BusRoute route, Station station, Integer stopSequence) {
+        this.route = route;
+        this.station = station;
+        this.stopSequence = stopSequence;
+    }
+    
+    // ==================== Getters and Setters ====================
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public BusRoute getRoute() {
+        return route;
+    }
+    
+    public void setRoute(BusRoute route) {
+        this.route = route;
+    }
+    
+    public Station getStation() {
+        return station;
+    }
+    
+    public void setStation(Station station) {
+        this.station = station;
+    }
+    
+    public Integer getStopSequence() {
+        return stopSequence;
+    }
+    
+    public void setStopSequence(Integer stopSequence) {
+        this.stopSequence = stopSequence;
+    }
+}
@@ -0,0 +1,79 @@
+package com.busapp.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * SeatReservation Entity - A confirmed seat reservation on a bus
+ * 
+ * This class maps to the "seat_reservations" table in the database.
+ * Holds live in memory only (ReservationService); a reservation is written here once it
+ * is confirmed, by the write-behind ReservationJournal (batched JDBC INSERTs).
+ */
+@Entity  // Marks this class as a JPA entity (database table)
+@Table(name = "seat_reservations",
+       // Used to count the reserved seats of a bus when its seat inventory is loaded
+       indexes = @Index(name = "idx_seat_reservations_bus_id", columnList = "bus_id"))
+public class SeatReservation {
+    
+    /**
+     * Primary Key - The ID of the hold that was confirmed (a UUID)
+     */
+    @Id
+    private String id;
+    
+    @Column(name = "bus_id", nullable = false)
+    private Long busId;
+    
+    /**
+     * Number of seats reserved
+     */
+    @Column(nullable = false)
+    private Integer seats;
+    
+    @Column(nullable = false)
+    private Instant confirmedAt;
+    
+    // ==================== Constructors ====================
+    
+    /**
+     * Default no-argument constructor
+     * Required by JPA for creating entity instances
+     */
+    public SeatReservation() {
+    }
+    
+    // ==================== Getters and Setters ====================
+    
+    public String getId() {
+        return id;
+    }
+    
+    public void setId(String id) {
+        this.id = id;
+    }
+    
+    public Long getBusId() {
+        return busId;
+    }
+    
+    public void setBusId(Long busId) {
+        this.busId = busId;
+    }
+    
+    public Integer getSeats() {
+        return seats;
+    }
+    
+    public void setSeats(Integer seats) {
+        this.seats = seats;
+    }
+    
+    public Instant getConfirmedAt() {
+        return confirmedAt;
+    }
+    
+    public void setConfirmedAt(Instant confirmedAt) {
+        this.confirmedAt = confirmedAt;
+    }
+}
@@ -0,0 +1,117 @@
+package com.busapp.entity;
+
+import jakarta.persistence.*;
+import java.util.Locale;
+
+/**
+ * Station Entity - Represents a bus stop that one or more routes pass through
+ * 
+ * This class maps to the "stations" table in the database
+ * Routes reference stations through RouteStop (an ordered join table), so a station
+ * stored once can be shared by any number of routes.
+ */
+@Entity  // Marks this class as a JPA entity (database table)
+@Table(name = "stations")  // Specifies the table name in the database
+public class Station {
+    
+    /**
+     * Primary Key - Unique identifier for each station
+     * Values come from the pooled "station_seq" sequence (see Bus for details)
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "station_seq")
+    @SequenceGenerator(name = "station_seq", sequenceName = "station_seq", allocationSize = 50)
+    private Long id;
+    
+    /**
+     * Display name of the station as it was first entered (e.g., "Station A")
+     */
+    @Column(nullable = false)
+    private String name;
+    
+    /**
+     * Normalized name used for lookups (see normalize())
+     * 
+     * @Column(unique = true) - Two spellings like "Station A" and " station  a"
+     *                          resolve to the same station
+     */
+    @Column(nullable = false, unique = true)
+    private String nameKey;
+    
+    /**
+     * Position of the station in WGS 84 degrees (as in GTFS stops.txt)
+     * Both are null for a station created through the API until its location is set
+     */
+    private Double latitude;
+    
+    private Double longitude;
+    
+    // ==================== Constructors ====================
+    
+    /**
+     * Default no-argument constructor
+     * Required by JPA for creating entity instances
+     */
+    public Station() {
+    }
+    
+    /**
+     * Parameterized constructor for creating a Station from its display name
+     * @param name - Station name
+     */
+    public Station(String name) {
+        this.name = name.trim();
+        this.nameKey = normalize(name);
+    }
+    
+    /**
+     * Converts a station name to its lookup key: trimmed, inner whitespace collapsed, lower case
+     * @param name - Station name as entered by a client
+     * @return String - The normalized key
+     */
+    public static String normalize(String name) {
+        return name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+    
+    // ==================== Getters and Setters ====================
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public String getNameKey() {
+        return nameKey;
+    }
+    
+    public void setNameKey(String nameKey) {
+        this.nameKey = nameKey;
+    }
+    
+    public Double getLatitude() {
+        return latitude;
+    }
+    
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+    
+    public Double getLongitude() {
+        return longitude;
+    }
+    
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+}
@@ -0,0 +1,134 @@
+package com.busapp.entity;
+
+import jakarta.persistence.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * StopTime Entity - The time a trip departs from one station
+ * 
+ * This class maps to the "stop_times" table:
+ * - trip_id + stop_sequence is unique (a position on a trip holds one station)
+ * - station_id is indexed so the departures of a station can be loaded without a scan
+ * 
+ * Times are seconds after midnight of the day the trip starts. As in GTFS they may
+ * exceed 24 hours: a trip leaving at 23:50 reaches its last stop at "24:20:00" (86400 + 1200).
+ */
+@Entity
+@Table(name = "stop_times",
+       uniqueConstraints = @UniqueConstraint(name = "uk_stop_times_trip_sequence", columnNames = {"trip_id", "stop_sequence"}),
+       indexes = @Index(name = "idx_stop_times_station_id", columnList = "station_id"))
+public class StopTime {
+    
+    /**
+     * Times are entered as HH:mm or HH:mm:ss; hours up to 47 cover trips running past midnight
+     */
+    private static final Pattern TIME = Pattern.compile("(\\d{1,2}):(\\d{2})(?::(\\d{2}))?");
+    private static final int MAX_HOURS = 48;
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stop_time_seq")
+    @SequenceGenerator(name = "stop_time_seq", sequenceName = "stop_time_seq", allocationSize = 50)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "trip_id", nullable = false)
+    private Trip trip;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "station_id", nullable = false)
+    private Station station;
+    
+    /**
+     * Position of this stop on the trip (0 = first stop)
+     */
+    @Column(name = "stop_sequence", nullable = false)
+    private Integer stopSequence;
+    
+    /**
+     * Departure time in seconds after midnight (see class comment)
+     */
+    @Column(name = "departure_time", nullable = false)
+    private Integer departureTime;
+    
+    // ==================== Constructors ====================
+    
+    public StopTime() {
+    }
+    
+    public StopTime(Trip trip, Station station, Integer stopSequence, Integer departureTime) {
+        this.trip = trip;
+        this.station = station;
+        this.stopSequence = stopSequence;
+        this.departureTime = departureTime;
+    }
+    
+    /**
+     * Converts a time such as "08:05" or "25:10:30" to seconds after midnight
+     * @param time - Time as entered by a client
+     * @return int - Seconds after midnight, or -1 if the value is not a valid time
+     */
+    public static int parseTime(String time) {
+        Matcher matcher = TIME.matcher(time.trim());
+        if (!matcher.matches()) {
+            return -1;
+        }
+        int hours = Integer.parseInt(matcher.group(1));
+        int minutes = Integer.parseInt(matcher.group(2));
+        int seconds = matcher.group(3) == null ? 0 : Integer.parseInt(matcher.group(3));
+        if (hours >= MAX_HOURS || minutes >= 60 || seconds >= 60) {
+            return -1;
+        }
+        return hours * 3600 + minutes * 60 + seconds;
+    }
+    
+    /**
+     * @param seconds - Seconds after midnight
+     * @return String - The time as HH:mm:ss (hours may exceed 23, as in GTFS)
+     */
+    public static String formatTime(int seconds) {
+        return String.format("%02d:%02d:%02d", seconds / 3600, seconds / 60 % 60, seconds % 60);
+    }
+    
+    // ==================== Getters and Setters ====================
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Trip getTrip() {
+        return trip;
+    }
+    
+    public void setTrip(Trip trip) {
+        this.trip = trip;
+    }
+    
+    public Station getStation() {
+        return station;
+    }
+    
+    public void setStation(Station station) {
+        this.station = station;
+    }
+    
+    public Integer getStopSequence() {
+        return stopSequence;
+    }
+    
+    public void setStopSequence(Integer stopSequence) {
+        this.stopSequence = stopSequence;
+    }
+    
+    public Integer getDepartureTime() {
+        return departureTime;
+    }
+    
+    public void setDepartureTime(Integer departureTime) {
+        this.departureTime = departureTime;
+    }
+}
@@ -0,0 +1,91 @@
+package com.busapp.entity;
+
+import jakarta.persistence.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Trip Entity - One scheduled run of a bus along a route
+ * 
+ * This class maps to the "trips" table. A route has any number of trips; each trip
+ * lists the time it departs from every stop (see StopTime).
+ */
+@Entity
+@Table(name = "trips", indexes = @Index(name = "idx_trips_route_id", columnList = "route_id"))
+public class Trip {
+    
+    /**
+     * Values come from the pooled "trip_seq" sequence (see Bus for details)
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trip_seq")
+    @SequenceGenerator(name = "trip_seq", sequenceName = "trip_seq", allocationSize = 50)
+    private Long id;
+    
+    /**
+     * The route this trip runs on
+     * fetch = FetchType.LAZY - The route is loaded only when accessed
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "route_id", nullable = false)
+    private BusRoute route;
+    
+    /**
+     * Destination shown on the bus and on departure boards (e.g., "Central Station")
+     */
+    @Column(nullable = false)
+    private String headsign;
+    
+    /**
+     * Departure times of this trip, in travel order
+     * 
+     * @OrderBy("stopSequence") - Stop times are always loaded in travel order
+     */
+    @OneToMany(mappedBy = "trip", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("stopSequence")
+    private List<StopTime> stopTimes = new ArrayList<>();
+    
+    // ==================== Constructors ====================
+    
+    public Trip() {
+    }
+    
+    public Trip(BusRoute route, String headsign) {
+        this.route = route;
+        this.headsign = headsign;
+    }
+    
+    // ==================== Getters and Setters ====================
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public BusRoute getRoute() {
+        return route;
+    }
+    
+    public void setRoute(BusRoute route) {
+        this.route = route;
+    }
+    
+    public String getHeadsign() {
+        return headsign;
+    }
+    
+    public void setHeadsign(String headsign) {
+        this.headsign = headsign;
+    }
+    
+    public List<StopTime> getStopTimes() {
+        return stopTimes;
+    }
+    
+    public void setStopTimes(List<StopTime> stopTimes) {
+        this.stopTimes = stopTimes;
+    }
+}
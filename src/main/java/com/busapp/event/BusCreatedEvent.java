@@ -0,0 +1,14 @@
+package com.busapp.event;
+
+/**
+ * Published by BusService for every newly created bus
+ * 
+ * Listeners use @TransactionalEventListener, so they only see the event once the
+ * bus has been committed.
+ * 
+ * @param busId - ID of the new bus
+ * @param routeId - ID of the route the bus was added to
+ * @param routeVersion - Version of that route after the bus was added
+ */
+public record BusCreatedEvent(Long busId, Long routeId, Long routeVersion) {
+}
@@ -0,0 +1,13 @@
+package com.busapp.event;
+
+/**
+ * Published by CatalogueSnapshotService after a snapshot was loaded into the database at startup
+ * 
+ * The rows were inserted with plain JDBC, bypassing RouteCreatedEvent/BusCreatedEvent,
+ * so in-memory indexes rebuild themselves from the database when they receive this event.
+ * 
+ * @param routes - Number of routes loaded
+ * @param buses - Number of buses loaded
+ */
+public record CatalogueLoadedEvent(int routes, int buses) {
+}
@@ -0,0 +1,16 @@
+package com.busapp.event;
+
+import java.util.List;
+
+/**
+ * Published by BusRouteService for every newly created route
+ * 
+ * Listeners use @TransactionalEventListener, so they only see the event once the
+ * route has been committed.
+ * 
+ * @param routeId - ID of the new route
+ * @param stationKeys - Normalized station names of the route, in travel order
+ * @param stationNames - Display names of the same stations
+ */
+public record RouteCreatedEvent(Long routeId, List<String> stationKeys, List<String> stationNames) {
+}
@@ -0,0 +1,17 @@
+package com.busapp.event;
+
+/**
+ * Published when a station gets (or changes) its location: by StationService, and by the
+ * GTFS import for stations with coordinates in stops.txt
+ * 
+ * Listeners use @TransactionalEventListener, so they only see the event once the
+ * location has been committed.
+ * 
+ * @param stationId - ID of the station
+ * @param name - Display name of the station
+ * @param nameKey - Normalized name (see Station.normalize())
+ * @param latitude - WGS 84 degrees
+ * @param longitude - WGS 84 degrees
+ */
+public record StationLocatedEvent(Long stationId, String name, String nameKey, double latitude, double longitude) {
+}
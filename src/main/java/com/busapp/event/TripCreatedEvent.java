@@ -0,0 +1,20 @@
+package com.busapp.event;
+
+import java.util.List;
+
+/**
+ * Published for every newly created trip (by TimetableService and the GTFS import)
+ * 
+ * Listeners use @TransactionalEventListener, so they only see the event once the
+ * trip has been committed.
+ * 
+ * @param tripId - ID of the new trip
+ * @param routeId - ID of the route it runs on
+ * @param headsign - Destination shown on departure boards
+ * @param stationIds - Stations of the trip, in travel order
+ * @param stationNames - Display names of the same stations
+ * @param departureTimes - Departure time at each station, in seconds after midnight
+ */
+public record TripCreatedEvent(Long tripId, Long routeId, String headsign, long[] stationIds, List<String> stationNames,
+                               int[] departureTimes) {
+}
@@ -0,0 +1,11 @@
+package com.busapp.event;
+
+/**
+ * Published by TimetableService when a trip is deleted (after the commit, for
+ * @TransactionalEventListener listeners)
+ * 
+ * @param tripId - ID of the deleted trip
+ * @param stationIds - Stations the trip served
+ */
+public record TripDeletedEvent(Long tripId, long[] stationIds) {
+}
@@ -0,0 +1,18 @@
+package com.busapp.exception;
+
+/**
+ * BusRegistrationNotFoundException - Thrown when no queued bus registration has the given ticket
+ * (unknown, or finished longer than "transport.bus.write-behind.ticket-ttl-ms" ago)
+ * 
+ * Handled by GlobalExceptionHandler (HTTP 404)
+ */
+public class BusRegistrationNotFoundException extends RuntimeException {
+    
+    /**
+     * Constructor that creates a standard error message
+     * @param registrationId - The ticket that was not found
+     */
+    public BusRegistrationNotFoundException(String registrationId) {
+        super("Bus registration " + registrationId + " not found");
+    }
+}
@@ -0,0 +1,18 @@
+package com.busapp.exception;
+
+/**
+ * BusRegistrationQueueFullException - Thrown when the write-behind queue of bus
+ * registrations is full (or the application is shutting down)
+ * 
+ * Handled by GlobalExceptionHandler (HTTP 429 TOO MANY REQUESTS, with Retry-After)
+ */
+public class BusRegistrationQueueFullException extends RuntimeException {
+    
+    /**
+     * Constructor that creates a standard error message
+     * @param capacity - Size of the queue
+     */
+    public BusRegistrationQueueFullException(int capacity) {
+        super("Bus registration queue is full (" + capacity + " pending), retry later");
+    }
+}
@@ -1,6 +1,13 @@
 package com.busapp.exception;
 
+import com.busapp.metrics.SqlCountInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -13,6 +20,7 @@ import java.util.Map;
 
 /**
  * GlobalExceptionHandler - Centralized exception handling for the entire application
+ * (servlet stack; the "reactive" profile uses ReactiveExceptionHandler)
  * 
  * @ControllerAdvice - This annotation makes this class a global exception handler
  *                     It intercepts exceptions thrown by any @Controller or @RestController
@@ -23,14 +31,22 @@ import java.util.Map;
  * - Separates error handling from business logic
  */
 @ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class GlobalExceptionHandler {
     
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
     /**
      * Handles InvalidRouteIdException
      * 
      * @ExceptionHandler - Tells Spring to invoke this method when InvalidRouteIdException is thrown
      * 
+     * Each occurrence is also counted in the "transport.invalid.route.id" metric,
+     * tagged with the endpoint (uri pattern) that raised it.
+     * 
      * @param ex - The exception that was thrown
+     * @param request - The current HTTP request (used for the metric tag)
      * @return ResponseEntity with error details and HTTP 404 NOT FOUND status
      * 
      * Response format:
@@ -42,7 +58,81 @@ public class GlobalExceptionHandler {
      * }
      */
     @ExceptionHandler(InvalidRouteIdException.class)
-    public ResponseEntity<Map<String, Object>> handleInvalidRouteId(InvalidRouteIdException ex) {
+    public ResponseEntity<Map<String, Object>> handleInvalidRouteId(InvalidRouteIdException ex, HttpServletRequest request) {
+        meterRegistry.counter("transport.invalid.route.id", "uri", SqlCountInterceptor.uriTag(request)).increment();
+        
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("timestamp", LocalDateTime.now());
+        errorResponse.put("status", HttpStatus.NOT_FOUND.value());  // 404
+        errorResponse.put("error", HttpStatus.NOT_FOUND.getReasonPhrase());  // "Not Found"
+        errorResponse.put("message", ex.getMessage());
+        
+        // Always JSON, even when the client asked for another format (e.g. application/x-ndjson)
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON).body(errorResponse);
+    }
+    
+    /**
+     * Handles InvalidStationException
+     * 
+     * @param ex - The exception that was thrown
+     * @return ResponseEntity with error details and HTTP 404 NOT FOUND status
+     *         (same format as handleInvalidRouteId)
+     */
+    @ExceptionHandler(InvalidStationException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidStation(InvalidStationException ex) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("timestamp", LocalDateTime.now());
+        errorResponse.put("status", HttpStatus.NOT_FOUND.value());  // 404
+        errorResponse.put("error", HttpStatus.NOT_FOUND.getReasonPhrase());  // "Not Found"
+        errorResponse.put("message", ex.getMessage());
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
+    }
+    
+    /**
+     * Handles InvalidBusIdException
+     * 
+     * @param ex - The exception that was thrown
+     * @return ResponseEntity with error details and HTTP 404 NOT FOUND status
+     *         (same format as handleInvalidRouteId)
+     */
+    @ExceptionHandler(InvalidBusIdException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidBusId(InvalidBusIdException ex) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("timestamp", LocalDateTime.now());
+        errorResponse.put("status", HttpStatus.NOT_FOUND.value());  // 404
+        errorResponse.put("error", HttpStatus.NOT_FOUND.getReasonPhrase());  // "Not Found"
+        errorResponse.put("message", ex.getMessage());
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
+    }
+    
+    /**
+     * Handles ReservationNotFoundException
+     * 
+     * @param ex - The exception that was thrown
+     * @return ResponseEntity with error details and HTTP 404 NOT FOUND status
+     *         (same format as handleInvalidRouteId)
+     */
+    @ExceptionHandler(ReservationNotFoundException.class)
+    public ResponseEntity<Map<String, Object>> handleReservationNotFound(ReservationNotFoundException ex) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("timestamp", LocalDateTime.now());
+        errorResponse.put("status", HttpStatus.NOT_FOUND.value());  // 404
+        errorResponse.put("error", HttpStatus.NOT_FOUND.getReasonPhrase());  // "Not Found"
+        errorResponse.put("message", ex.getMessage());
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
+    }
+    
+    /**
+     * Handles GtfsImportNotFoundException
+     * 
+     * @param ex - The exception that was thrown
+     * @return ResponseEntity with error details and HTTP 404 NOT FOUND status
+     */
+    @ExceptionHandler(GtfsImportNotFoundException.class)
+    public ResponseEntity<Map<String, Object>> handleGtfsImportNotFound(GtfsImportNotFoundException ex) {
         Map<String, Object> errorResponse = new HashMap<>();
         errorResponse.put("timestamp", LocalDateTime.now());
         errorResponse.put("status", HttpStatus.NOT_FOUND.value());  // 404
@@ -52,6 +142,128 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
     }
     
+    /**
+     * Handles InvalidGtfsFeedException (an upload that is not a usable GTFS zip)
+     * 
+     * @param ex - The exception that was thrown
+     * @return ResponseEntity with error details and HTTP 400 BAD REQUEST status
+     */
+    @ExceptionHandler(InvalidGtfsFeedException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidGtfsFeed(InvalidGtfsFeedException ex) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("timestamp", LocalDateTime.now());
+        errorResponse.put("status", HttpStatus.BAD_REQUEST.value());  // 400
+        errorResponse.put("error", HttpStatus.BAD_REQUEST.getReasonPhrase());  // "Bad Request"
+        errorResponse.put("message", ex.getMessage());
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+    
+    /**
+     * Handles TripNotFoundException
+     * 
+     * @param ex - The exception that was thrown
+     * @return ResponseEntity with error details and HTTP 404 NOT FOUND status
+     */
+    @ExceptionHandler(TripNotFoundException.class)
+    public ResponseEntity<Map<String, Object>> handleTripNotFound(TripNotFoundException ex) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("timestamp", LocalDateTime.now());
+        errorResponse.put("status", HttpStatus.NOT_FOUND.value());  // 404
+        errorResponse.put("error", HttpStatus.NOT_FOUND.getReasonPhrase());  // "Not Found"
+        errorResponse.put("message", ex.getMessage());
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
+    }
+    
+    /**
+     * Handles InvalidTimetableException (unusable departure times)
+     * 
+     * @param ex - The exception that was thrown
+     * @return ResponseEntity with error details and HTTP 400 BAD REQUEST status
+     */
+    @ExceptionHandler(InvalidTimetableException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidTimetable(InvalidTimetableException ex) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("timestamp", LocalDateTime.now());
+        errorResponse.put("status", HttpStatus.BAD_REQUEST.value());  // 400
+        errorResponse.put("error", HttpStatus.BAD_REQUEST.getReasonPhrase());  // "Bad Request"
+        errorResponse.put("message", ex.getMessage());
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+    
+    /**
+     * Handles InvalidLocationException (coordinates or radius out of range)
+     * 
+     * @param ex - The exception that was thrown
+     * @return ResponseEntity with error details and HTTP 400 BAD REQUEST status
+     */
+    @ExceptionHandler(InvalidLocationException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidLocation(InvalidLocationException ex) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("timestamp", LocalDateTime.now());
+        errorResponse.put("status", HttpStatus.BAD_REQUEST.value());  // 400
+        errorResponse.put("error", HttpStatus.BAD_REQUEST.getReasonPhrase());  // "Bad Request"
+        errorResponse.put("message", ex.getMessage());
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+    
+    /**
+     * Handles SeatsUnavailableException
+     * 
+     * @param ex - The exception that was thrown
+     * @return ResponseEntity with error details and HTTP 409 CONFLICT status
+     */
+    @ExceptionHandler(SeatsUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> handleSeatsUnavailable(SeatsUnavailableException ex) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("timestamp", LocalDateTime.now());
+        errorResponse.put("status", HttpStatus.CONFLICT.value());  // 409
+        errorResponse.put("error", HttpStatus.CONFLICT.getReasonPhrase());  // "Conflict"
+        errorResponse.put("message", ex.getMessage());
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+    
+    /**
+     * Handles BusRegistrationNotFoundException
+     * 
+     * @param ex - The exception that was thrown
+     * @return ResponseEntity with error details and HTTP 404 NOT FOUND status
+     */
+    @ExceptionHandler(BusRegistrationNotFoundException.class)
+    public ResponseEntity<Map<String, Object>> handleBusRegistrationNotFound(BusRegistrationNotFoundException ex) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("timestamp", LocalDateTime.now());
+        errorResponse.put("status", HttpStatus.NOT_FOUND.value());  // 404
+        errorResponse.put("error", HttpStatus.NOT_FOUND.getReasonPhrase());  // "Not Found"
+        errorResponse.put("message", ex.getMessage());
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
+    }
+    
+    /**
+     * Handles BusRegistrationQueueFullException (backpressure from the write-behind queue)
+     * 
+     * The Retry-After header (seconds) tells well-behaved clients when to try again
+     * instead of retrying in a tight loop.
+     * 
+     * @param ex - The exception that was thrown
+     * @return ResponseEntity with error details and HTTP 429 TOO MANY REQUESTS status
+     */
+    @ExceptionHandler(BusRegistrationQueueFullException.class)
+    public ResponseEntity<Map<String, Object>> handleBusRegistrationQueueFull(BusRegistrationQueueFullException ex) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("timestamp", LocalDateTime.now());
+        errorResponse.put("status", HttpStatus.TOO_MANY_REQUESTS.value());  // 429
+        errorResponse.put("error", HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase());  // "Too Many Requests"
+        errorResponse.put("message", ex.getMessage());
+        
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1").body(errorResponse);
+    }
+    
     /**
      * Handles validation errors from @Valid annotation
      * 
@@ -122,4 +334,4 @@ public class GlobalExceptionHandler {
         
         return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,17 @@
+package com.busapp.exception;
+
+/**
+ * GtfsImportNotFoundException - Thrown when no GTFS import (and no checkpoint of one) has the given ID
+ * 
+ * Handled by GlobalExceptionHandler (HTTP 404)
+ */
+public class GtfsImportNotFoundException extends RuntimeException {
+    
+    /**
+     * Constructor that creates a standard error message
+     * @param importId - The import ID that was not found
+     */
+    public GtfsImportNotFoundException(String importId) {
+        super("GTFS import " + importId + " not found");
+    }
+}
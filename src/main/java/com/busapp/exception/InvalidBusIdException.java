@@ -0,0 +1,17 @@
+package com.busapp.exception;
+
+/**
+ * InvalidBusIdException - Thrown when a bus ID is not found
+ * 
+ * Handled by GlobalExceptionHandler (HTTP 404), like InvalidRouteIdException
+ */
+public class InvalidBusIdException extends RuntimeException {
+    
+    /**
+     * Constructor that creates a standard error message
+     * @param busId - The bus ID that was not found
+     */
+    public InvalidBusIdException(Long busId) {
+        super("Bus with ID " + busId + " not found");
+    }
+}
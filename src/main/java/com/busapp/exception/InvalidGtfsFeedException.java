@@ -0,0 +1,17 @@
+package com.busapp.exception;
+
+/**
+ * InvalidGtfsFeedException - Thrown when an uploaded GTFS feed is not a zip file
+ * or lacks one of the files the import needs
+ * 
+ * Handled by GlobalExceptionHandler (HTTP 400)
+ */
+public class InvalidGtfsFeedException extends RuntimeException {
+    
+    /**
+     * @param reason - What is wrong with the feed
+     */
+    public InvalidGtfsFeedException(String reason) {
+        super("Invalid GTFS feed: " + reason);
+    }
+}
@@ -0,0 +1,17 @@
+package com.busapp.exception;
+
+/**
+ * InvalidLocationException - Thrown when a position cannot be used: latitude outside
+ * -90..90, longitude outside -180..180, or a search radius that is not positive
+ * 
+ * Handled by GlobalExceptionHandler (HTTP 400)
+ */
+public class InvalidLocationException extends RuntimeException {
+    
+    /**
+     * @param message - What is wrong with the position
+     */
+    public InvalidLocationException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,27 @@
+package com.busapp.exception;
+
+/**
+ * InvalidStationException - Custom exception for unknown stations
+ * 
+ * This exception is thrown when a station name is not served by any route, or when no
+ * station has the given ID.
+ * Like InvalidRouteIdException, it is handled by GlobalExceptionHandler (404 Not Found).
+ */
+public class InvalidStationException extends RuntimeException {
+    
+    /**
+     * Constructor that creates a standard error message
+     * @param stationName - The station name that was not found
+     */
+    public InvalidStationException(String stationName) {
+        super("Station '" + stationName + "' not found");
+    }
+    
+    /**
+     * Constructor for lookups by station ID
+     * @param stationId - The station ID that was not found
+     */
+    public InvalidStationException(Long stationId) {
+        super("Station with ID " + stationId + " not found");
+    }
+}
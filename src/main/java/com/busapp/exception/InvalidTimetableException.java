@@ -0,0 +1,17 @@
+package com.busapp.exception;
+
+/**
+ * InvalidTimetableException - Thrown when departure times cannot be used: not a valid time,
+ * not one per stop of the route, or earlier than the departure from the previous stop
+ * 
+ * Handled by GlobalExceptionHandler (HTTP 400)
+ */
+public class InvalidTimetableException extends RuntimeException {
+    
+    /**
+     * @param message - What is wrong with the times
+     */
+    public InvalidTimetableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,18 @@
+package com.busapp.exception;
+
+/**
+ * ReservationNotFoundException - Thrown when a seat hold does not exist, has expired
+ * or was already confirmed or released
+ * 
+ * Handled by GlobalExceptionHandler (HTTP 404)
+ */
+public class ReservationNotFoundException extends RuntimeException {
+    
+    /**
+     * Constructor that creates a standard error message
+     * @param holdId - The hold ID that was not found
+     */
+    public ReservationNotFoundException(String holdId) {
+        super("Seat hold " + holdId + " not found (it may have expired)");
+    }
+}
@@ -0,0 +1,17 @@
+package com.busapp.exception;
+
+/**
+ * SeatsUnavailableException - Thrown when a bus has fewer free seats than requested
+ * 
+ * Handled by GlobalExceptionHandler (HTTP 409 CONFLICT)
+ */
+public class SeatsUnavailableException extends RuntimeException {
+    
+    /**
+     * Constructor with custom error message
+     * @param message - The error message to display
+     */
+    public SeatsUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package com.busapp.exception;
+
+/**
+ * TripNotFoundException - Thrown when no trip has the given ID
+ * 
+ * Handled by GlobalExceptionHandler (HTTP 404)
+ */
+public class TripNotFoundException extends RuntimeException {
+    
+    /**
+     * Constructor that creates a standard error message
+     * @param tripId - The trip ID that was not found
+     */
+    public TripNotFoundException(Long tripId) {
+        super("Trip with ID " + tripId + " not found");
+    }
+}
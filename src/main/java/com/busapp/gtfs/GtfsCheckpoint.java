@@ -0,0 +1,89 @@
+package com.busapp.gtfs;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * Resume point of a GTFS import, kept next to the uploaded feed as "{id}.checkpoint"
+ *
+ * Routes are written in feed order, a chunk per transaction. Before a chunk commits, the
+ * checkpoint records it as pending (with the ID of its first route); after the commit,
+ * routesDone moves past it. A resumed import that finds a pending chunk checks whether its
+ * first route exists, so a crash between commit and checkpoint neither loses nor repeats
+ * the chunk. The file is replaced atomically on every update.
+ *
+ * @param shard - Shard receiving the import (fixed when the import first starts)
+ * @param routesDone - Routes of the feed (in feed order) that are committed
+ * @param pendingFirstRouteId - First route ID of the chunk being committed, 0 if none
+ * @param pendingRoutes - Number of routes in that chunk
+ * @param completed - true once the whole feed is imported
+ */
+record GtfsCheckpoint(int shard, int routesDone, long pendingFirstRouteId, int pendingRoutes, boolean completed) {
+
+    static GtfsCheckpoint start(int shard) {
+        return new GtfsCheckpoint(shard, 0, 0, 0, false);
+    }
+
+    GtfsCheckpoint pending(long firstRouteId, int routes) {
+        return new GtfsCheckpoint(shard, routesDone, firstRouteId, routes, false);
+    }
+
+    GtfsCheckpoint committed() {
+        return new GtfsCheckpoint(shard, routesDone + pendingRoutes, 0, 0, false);
+    }
+
+    /**
+     * Drops a pending chunk that turned out not to be committed
+     */
+    GtfsCheckpoint rolledBack() {
+        return new GtfsCheckpoint(shard, routesDone, 0, 0, false);
+    }
+
+    GtfsCheckpoint complete() {
+        return new GtfsCheckpoint(shard, routesDone, 0, 0, true);
+    }
+
+    /**
+     * @return GtfsCheckpoint - The saved checkpoint, or null if the file does not exist
+     */
+    static GtfsCheckpoint load(Path file) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read GTFS import checkpoint " + file, e);
+        }
+        return new GtfsCheckpoint(Integer.parseInt(properties.getProperty("shard", "0")),
+                Integer.parseInt(properties.getProperty("routesDone", "0")),
+                Long.parseLong(properties.getProperty("pendingFirstRouteId", "0")),
+                Integer.parseInt(properties.getProperty("pendingRoutes", "0")),
+                Boolean.parseBoolean(properties.getProperty("completed", "false")));
+    }
+
+    void save(Path file) {
+        Properties properties = new Properties();
+        properties.setProperty("shard", Integer.toString(shard));
+        properties.setProperty("routesDone", Integer.toString(routesDone));
+        properties.setProperty("pendingFirstRouteId", Long.toString(pendingFirstRouteId));
+        properties.setProperty("pendingRoutes", Integer.toString(pendingRoutes));
+        properties.setProperty("completed", Boolean.toString(completed));
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temporary)) {
+                properties.store(writer, "GTFS import checkpoint");
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write GTFS import checkpoint " + file, e);
+        }
+    }
+}
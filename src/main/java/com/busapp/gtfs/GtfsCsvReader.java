@@ -0,0 +1,307 @@
+package com.busapp.gtfs;
+
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Streaming reader for one GTFS text file (CSV as in RFC 4180, UTF-8, header row first)
+ *
+ * Reads one record at a time into a reused char buffer, so a file of any size needs only
+ * the memory of its longest record. Quoted fields may contain commas, line breaks and
+ * doubled quotes; a UTF-8 byte order mark and CRLF line ends are accepted, blank lines
+ * are skipped. Fields are trimmed.
+ *
+ * Values are only turned into Strings on request (get); getInt, getTime and matches read
+ * the buffer directly, so hot columns such as stop_times.txt's stop_sequence, departure_time
+ * and trip_id cost no allocation per row.
+ */
+public final class GtfsCsvReader implements Closeable {
+    private final CountingInputStream input;
+    private final Reader reader;
+    private final char[] buffer = new char[64 * 1024];
+    private int position;
+    private int limit;
+
+    private char[] record = new char[256];
+    private int[] fieldStart = new int[16];
+    private int[] fieldEnd = new int[16];
+    private int fieldCount;
+    private long line;
+
+    private final String[] header;
+
+    public GtfsCsvReader(InputStream in) throws IOException {
+        this.input = new CountingInputStream(in);
+        this.reader = new InputStreamReader(input, StandardCharsets.UTF_8);
+        if (!next()) {
+            throw new IOException("File is empty (no header row)");
+        }
+        header = new String[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            header[i] = get(i);
+        }
+        if (header.length > 0 && header[0].startsWith("\uFEFF")) {
+            header[0] = header[0].substring(1).trim();
+        }
+    }
+
+    /**
+     * @return int - Index of the header column, or -1 if the file does not have it
+     */
+    public int column(String name) {
+        for (int i = 0; i < header.length; i++) {
+            if (header[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reads the next record
+     *
+     * @return boolean - false at the end of the file
+     */
+    public boolean next() throws IOException {
+        do {
+            if (!readRecord()) {
+                return false;
+            }
+        } while (fieldCount == 1 && fieldStart[0] == fieldEnd[0]);
+        return true;
+    }
+
+    /**
+     * @return String - The trimmed field of the current record ("" if the column is -1 or the record is shorter)
+     */
+    public String get(int column) {
+        if (column < 0 || column >= fieldCount) {
+            return "";
+        }
+        return new String(record, fieldStart[column], fieldEnd[column] - fieldStart[column]);
+    }
+
+    /**
+     * @return int - The field as an integer, or defaultValue if it is empty or missing
+     * @throws NumberFormatException if the field is not an integer
+     */
+    public int getInt(int column, int defaultValue) {
+        if (column < 0 || column >= fieldCount || fieldStart[column] == fieldEnd[column]) {
+            return defaultValue;
+        }
+        int start = fieldStart[column];
+        int end = fieldEnd[column];
+        boolean negative = record[start] == '-';
+        if (negative || record[start] == '+') {
+            start++;
+        }
+        if (start == end || end - start > 10) {
+            throw new NumberFormatException("Not an integer: " + get(column));
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = record[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Not an integer: " + get(column));
+            }
+            value = value * 10 + digit;
+        }
+        value = negative ? -value : value;
+        if (value != (int) value) {
+            throw new NumberFormatException("Out of range: " + get(column));
+        }
+        return (int) value;
+    }
+
+    /**
+     * @return double - The field as a decimal number (e.g. stop_lat), or NaN if it is empty or missing
+     * @throws NumberFormatException if the field is not a number
+     */
+    public double getDouble(int column) {
+        if (column < 0 || column >= fieldCount || fieldStart[column] == fieldEnd[column]) {
+            return Double.NaN;
+        }
+        return Double.parseDouble(get(column));
+    }
+
+    /**
+     * @return int - A GTFS time (H:MM:SS, hours may exceed 23) as seconds after midnight,
+     *         or -1 if the field is empty or missing
+     * @throws NumberFormatException if the field is not such a time
+     */
+    public int getTime(int column) {
+        if (column < 0 || column >= fieldCount || fieldStart[column] == fieldEnd[column]) {
+            return -1;
+        }
+        int seconds = 0;
+        int part = 0;
+        int digits = 0;
+        int parts = 0;
+        for (int i = fieldStart[column]; i <= fieldEnd[column]; i++) {
+            char c = i < fieldEnd[column] ? record[i] : ':';
+            if (c == ':') {
+                // Hours have 1-3 digits; minutes and seconds 2 digits, below 60
+                if (parts == 3 || digits == 0 || (parts > 0 && (digits != 2 || part >= 60))) {
+                    throw new NumberFormatException("Not a time: " + get(column));
+                }
+                seconds = seconds * 60 + part;
+                part = 0;
+                digits = 0;
+                parts++;
+            } else if (c >= '0' && c <= '9' && digits < 3) {
+                part = part * 10 + (c - '0');
+                digits++;
+            } else {
+                throw new NumberFormatException("Not a time: " + get(column));
+            }
+        }
+        if (parts != 3) {
+            throw new NumberFormatException("Not a time: " + get(column));
+        }
+        return seconds;
+    }
+
+    /**
+     * @return boolean - Whether the field equals the value (without creating a String)
+     */
+    public boolean matches(int column, String value) {
+        if (column < 0 || column >= fieldCount) {
+            return value.isEmpty();
+        }
+        int length = fieldEnd[column] - fieldStart[column];
+        if (length != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (record[fieldStart[column] + i] != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return long - Line number of the current record (1 = header); for error messages
+     */
+    public long line() {
+        return line;
+    }
+
+    /**
+     * @return long - Bytes consumed from the underlying stream so far (for progress reporting)
+     */
+    public long bytesRead() {
+        return input.count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private boolean readRecord() throws IOException {
+        int length = 0;
+        fieldCount = 0;
+        boolean quoted = false;
+        int start = 0;
+        int c = read();
+        if (c < 0) {
+            return false;
+        }
+        line++;
+        while (true) {
+            if (quoted) {
+                if (c < 0) {
+                    throw new IOException("Line " + line + ": quoted field is not closed");
+                }
+                if (c == '"') {
+                    c = read();
+                    if (c != '"') {
+                        quoted = false;
+                        continue;
+                    }
+                } else if (c == '\n') {
+                    line++;
+                }
+                record = ensureCapacity(record, length + 1);
+                record[length++] = (char) c;
+            } else if (c < 0 || c == '\n' || c == ',') {
+                addField(start, length);
+                if (c != ',') {
+                    return true;
+                }
+                start = length;
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c != '\r') {
+                record = ensureCapacity(record, length + 1);
+                record[length++] = (char) c;
+            }
+            c = read();
+        }
+    }
+
+    private void addField(int start, int end) {
+        while (start < end && Character.isWhitespace(record[start])) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(record[end - 1])) {
+            end--;
+        }
+        if (fieldCount == fieldStart.length) {
+            fieldStart = Arrays.copyOf(fieldStart, fieldCount * 2);
+            fieldEnd = Arrays.copyOf(fieldEnd, fieldCount * 2);
+        }
+        fieldStart[fieldCount] = start;
+        fieldEnd[fieldCount] = end;
+        fieldCount++;
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+
+    private static char[] ensureCapacity(char[] array, int size) {
+        return size <= array.length ? array : Arrays.copyOf(array, Math.max(size, array.length * 2));
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,403 @@
+package com.busapp.gtfs;
+
+import com.busapp.entity.Station;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Turns a GTFS feed into routes with their ordered stations (the shape of BusRoute + RouteStop)
+ * and their trips with departure times (Trip + StopTime)
+ *
+ * The files are streamed one after the other with GtfsCsvReader:
+ * - stops.txt: stop_id -> station; stops with the same normalized name (the platforms of
+ *   one station, say) become one station, as Station.normalize does for the API. The station
+ *   is placed at stop_lat / stop_lon of the first of its stops that has them
+ * - routes.txt: one route each; the title is route_short_name and/or route_long_name
+ * - trips.txt: trip_id -> route and headsign
+ * - stop_times.txt (by far the largest file): only four ints per row are kept (trip,
+ *   station, stop_sequence, departure time), so the rows of a 50 MB feed take a few MB of arrays
+ *
+ * A route's stops are those of its trip with the most stops (the first such trip in
+ * trips.txt), ordered by stop_sequence; a station repeated right after itself is dropped.
+ * Every trip keeps its own stops and times: stop times without departure_time (or
+ * arrival_time) are left out of its timetable, and for a station repeated right after itself
+ * the later time is kept. Services (calendar.txt) are not read: every trip counts as daily.
+ * Routes without any trip are skipped. Only stations served by a route or trip are returned.
+ */
+final class GtfsFeedReader {
+    static final List<String> REQUIRED_FILES = List.of("stops.txt", "routes.txt", "trips.txt", "stop_times.txt");
+    private static final int PROGRESS_ROWS = 8192;
+
+    /**
+     * @param gtfsId - route_id in the feed
+     * @param stations - Indexes into Network.stationNames / stationKeys, in travel order
+     */
+    record Route(String gtfsId, String title, int[] stations, List<Trip> trips) {
+    }
+
+    /**
+     * @param headsign - trip_headsign, or the name of the trip's last station
+     * @param stations - Indexes into Network.stationNames / stationKeys, in travel order
+     * @param departures - Departure time at each station, in seconds after midnight
+     */
+    record Trip(String headsign, int[] stations, int[] departures) {
+    }
+
+    /**
+     * @param stationLatitudes - Latitude per station index (NaN for a station without a location)
+     * @param stationLongitudes - Longitude per station index (NaN for a station without a location)
+     */
+    record Network(List<String> stationNames, List<String> stationKeys, double[] stationLatitudes, double[] stationLongitudes,
+                   List<Route> routes, int routesSkipped) {
+    }
+
+    private final ZipFile zip;
+    private final GtfsImport progress;
+
+    private GtfsFeedReader(ZipFile zip, GtfsImport progress) {
+        this.zip = zip;
+        this.progress = progress;
+    }
+
+    static Network read(ZipFile zip, GtfsImport progress) throws IOException {
+        return new GtfsFeedReader(zip, progress).read();
+    }
+
+    /**
+     * @return ZipEntry - The file, at the top level or in a single folder of the archive; null if missing
+     */
+    static ZipEntry entry(ZipFile zip, String name) {
+        ZipEntry entry = zip.getEntry(name);
+        if (entry != null) {
+            return entry;
+        }
+        Enumeration<? extends ZipEntry> entries = zip.entries();
+        while (entries.hasMoreElements()) {
+            ZipEntry candidate = entries.nextElement();
+            if (!candidate.isDirectory() && candidate.getName().endsWith("/" + name)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private Network read() throws IOException {
+        // stops.txt: stop_id -> index of the (deduplicated) station
+        Map<String, Integer> stationByStopId = new HashMap<>();
+        Map<String, Integer> stationByKey = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        double[] latitudes = new double[1024];
+        double[] longitudes = new double[1024];
+        try (GtfsCsvReader csv = open("stops.txt")) {
+            int stopId = required(csv, "stops.txt", "stop_id");
+            int stopName = csv.column("stop_name");
+            int stopLatitude = csv.column("stop_lat");
+            int stopLongitude = csv.column("stop_lon");
+            long rows = 0;
+            while (csv.next()) {
+                String name = csv.get(stopName);
+                // Generic nodes and boarding areas may be nameless; no trip stops there
+                if (!name.isEmpty()) {
+                    String key = Station.normalize(name);
+                    Integer station = stationByKey.get(key);
+                    if (station == null) {
+                        station = keys.size();
+                        stationByKey.put(key, station);
+                        keys.add(key);
+                        names.add(name);
+                        latitudes = grow(latitudes, station + 1);
+                        longitudes = grow(longitudes, station + 1);
+                        latitudes[station] = Double.NaN;
+                        longitudes[station] = Double.NaN;
+                    }
+                    stationByStopId.put(csv.get(stopId), station);
+                    if (Double.isNaN(latitudes[station])) {
+                        double latitude = coordinate(csv, stopLatitude, "stop_lat", 90);
+                        double longitude = coordinate(csv, stopLongitude, "stop_lon", 180);
+                        if (!Double.isNaN(latitude) && !Double.isNaN(longitude)) {
+                            latitudes[station] = latitude;
+                            longitudes[station] = longitude;
+                        }
+                    }
+                }
+                progress(csv, ++rows);
+            }
+            progress.read(csv.bytesRead(), rows);
+        }
+
+        // routes.txt
+        List<String> routeIds = new ArrayList<>();
+        List<String> titles = new ArrayList<>();
+        Map<String, Integer> routeById = new HashMap<>();
+        try (GtfsCsvReader csv = open("routes.txt")) {
+            int routeId = required(csv, "routes.txt", "route_id");
+            int shortName = csv.column("route_short_name");
+            int longName = csv.column("route_long_name");
+            long rows = 0;
+            while (csv.next()) {
+                String id = csv.get(routeId);
+                String title = (csv.get(shortName) + " " + csv.get(longName)).trim();
+                if (routeById.putIfAbsent(id, routeIds.size()) == null) {
+                    routeIds.add(id);
+                    titles.add(title.isEmpty() ? id : title);
+                }
+                progress(csv, ++rows);
+            }
+            progress.read(csv.bytesRead(), rows);
+        }
+
+        // trips.txt: trip_id -> route index and headsign
+        Map<String, Integer> tripById = new HashMap<>();
+        int[] routeOfTrip = new int[1024];
+        List<String> headsigns = new ArrayList<>();
+        try (GtfsCsvReader csv = open("trips.txt")) {
+            int routeId = required(csv, "trips.txt", "route_id");
+            int tripId = required(csv, "trips.txt", "trip_id");
+            int tripHeadsign = csv.column("trip_headsign");
+            long rows = 0;
+            while (csv.next()) {
+                Integer route = routeById.get(csv.get(routeId));
+                if (route == null) {
+                    throw invalid(csv, "trips.txt", "unknown route_id " + csv.get(routeId));
+                }
+                if (tripById.putIfAbsent(csv.get(tripId), tripById.size()) == null) {
+                    routeOfTrip = grow(routeOfTrip, tripById.size());
+                    routeOfTrip[tripById.size() - 1] = route;
+                    String headsign = csv.get(tripHeadsign);
+                    headsigns.add(headsign.isEmpty() ? null : headsign);
+                }
+                progress(csv, ++rows);
+            }
+            progress.read(csv.bytesRead(), rows);
+        }
+
+        // stop_times.txt: (trip, station, stop_sequence, departure) per row
+        int[] rowTrip = new int[64 * 1024];
+        int[] rowStation = new int[64 * 1024];
+        int[] rowSequence = new int[64 * 1024];
+        int[] rowTime = new int[64 * 1024];
+        int rowCount = 0;
+        try (GtfsCsvReader csv = open("stop_times.txt")) {
+            int tripId = required(csv, "stop_times.txt", "trip_id");
+            int stopId = required(csv, "stop_times.txt", "stop_id");
+            int stopSequence = required(csv, "stop_times.txt", "stop_sequence");
+            int departureTime = csv.column("departure_time");
+            int arrivalTime = csv.column("arrival_time");
+            // Rows of one trip are usually consecutive: its ID is only looked up when it changes
+            String currentTripId = null;
+            int currentTrip = -1;
+            while (csv.next()) {
+                if (currentTripId == null || !csv.matches(tripId, currentTripId)) {
+                    currentTripId = csv.get(tripId);
+                    Integer trip = tripById.get(currentTripId);
+                    if (trip == null) {
+                        throw invalid(csv, "stop_times.txt", "unknown trip_id " + currentTripId);
+                    }
+                    currentTrip = trip;
+                }
+                Integer station = stationByStopId.get(csv.get(stopId));
+                if (station == null) {
+                    throw invalid(csv, "stop_times.txt", "unknown or unnamed stop_id " + csv.get(stopId));
+                }
+                int sequence;
+                int time;
+                try {
+                    sequence = csv.getInt(stopSequence, -1);
+                    time = csv.getTime(departureTime);
+                    if (time < 0) {
+                        time = csv.getTime(arrivalTime);
+                    }
+                } catch (NumberFormatException e) {
+                    throw invalid(csv, "stop_times.txt", e.getMessage());
+                }
+                if (sequence < 0) {
+                    throw invalid(csv, "stop_times.txt", "stop_sequence must be a non-negative integer");
+                }
+                if (rowCount == rowTrip.length) {
+                    rowTrip = grow(rowTrip, rowCount + 1);
+                    rowStation = grow(rowStation, rowCount + 1);
+                    rowSequence = grow(rowSequence, rowCount + 1);
+                    rowTime = grow(rowTime, rowCount + 1);
+                }
+                rowTrip[rowCount] = currentTrip;
+                rowStation[rowCount] = station;
+                rowSequence[rowCount] = sequence;
+                rowTime[rowCount] = time;
+                progress(csv, ++rowCount);
+            }
+            progress.read(csv.bytesRead(), rowCount);
+        }
+        progress.phase("building routes", 0);
+
+        // Rows grouped by trip (counting sort), as (stop_sequence << 32 | row); each trip's
+        // slice firstRow[trip] .. firstRow[trip + 1] is then sorted into travel order
+        int tripCount = tripById.size();
+        int[] firstRow = new int[tripCount + 1];
+        for (int i = 0; i < rowCount; i++) {
+            firstRow[rowTrip[i] + 1]++;
+        }
+        for (int trip = 0; trip < tripCount; trip++) {
+            firstRow[trip + 1] += firstRow[trip];
+        }
+        long[] stops = new long[rowCount];
+        int[] filled = Arrays.copyOf(firstRow, tripCount);
+        for (int i = 0; i < rowCount; i++) {
+            stops[filled[rowTrip[i]]++] = (long) rowSequence[i] << 32 | i;
+        }
+        for (int trip = 0; trip < tripCount; trip++) {
+            Arrays.sort(stops, firstRow[trip], firstRow[trip + 1]);
+        }
+
+        // The trip with the most stops represents its route
+        int[] tripOfRoute = new int[routeIds.size()];
+        Arrays.fill(tripOfRoute, -1);
+        List<List<Integer>> tripsOfRoute = new ArrayList<>();
+        for (int route = 0; route < routeIds.size(); route++) {
+            tripsOfRoute.add(new ArrayList<>());
+        }
+        for (int trip = 0; trip < tripCount; trip++) {
+            int route = routeOfTrip[trip];
+            int size = firstRow[trip + 1] - firstRow[trip];
+            if (size > 0) {
+                tripsOfRoute.get(route).add(trip);
+                if (tripOfRoute[route] < 0 || size > firstRow[tripOfRoute[route] + 1] - firstRow[tripOfRoute[route]]) {
+                    tripOfRoute[route] = trip;
+                }
+            }
+        }
+
+        // Only the stations of the routes and trips are kept, renumbered in order of first use
+        int[] newIndex = new int[keys.size()];
+        Arrays.fill(newIndex, -1);
+        List<String> usedNames = new ArrayList<>();
+        List<String> usedKeys = new ArrayList<>();
+        List<Route> routes = new ArrayList<>();
+        for (int route = 0; route < routeIds.size(); route++) {
+            if (tripOfRoute[route] < 0) {
+                continue;
+            }
+            int representative = tripOfRoute[route];
+            int[] stations = new int[firstRow[representative + 1] - firstRow[representative]];
+            int count = 0;
+            for (int i = firstRow[representative]; i < firstRow[representative + 1]; i++) {
+                int station = renumber(rowStation[(int) stops[i]], newIndex, keys, names, usedKeys, usedNames);
+                if (count == 0 || stations[count - 1] != station) {
+                    stations[count++] = station;
+                }
+            }
+
+            List<Trip> trips = new ArrayList<>();
+            for (int trip : tripsOfRoute.get(route)) {
+                int[] tripStations = new int[firstRow[trip + 1] - firstRow[trip]];
+                int[] departures = new int[tripStations.length];
+                int timed = 0;
+                for (int i = firstRow[trip]; i < firstRow[trip + 1]; i++) {
+                    int row = (int) stops[i];
+                    if (rowTime[row] < 0) {
+                        continue;
+                    }
+                    int station = renumber(rowStation[row], newIndex, keys, names, usedKeys, usedNames);
+                    if (timed > 0 && tripStations[timed - 1] == station) {
+                        departures[timed - 1] = rowTime[row];
+                    } else {
+                        tripStations[timed] = station;
+                        departures[timed++] = rowTime[row];
+                    }
+                }
+                if (timed > 0) {
+                    String headsign = headsigns.get(trip) != null ? headsigns.get(trip) : usedNames.get(tripStations[timed - 1]);
+                    trips.add(new Trip(headsign, Arrays.copyOf(tripStations, timed), Arrays.copyOf(departures, timed)));
+                }
+            }
+            routes.add(new Route(routeIds.get(route), titles.get(route), Arrays.copyOf(stations, count), trips));
+        }
+        double[] usedLatitudes = new double[usedKeys.size()];
+        double[] usedLongitudes = new double[usedKeys.size()];
+        for (int station = 0; station < newIndex.length; station++) {
+            if (newIndex[station] >= 0) {
+                usedLatitudes[newIndex[station]] = latitudes[station];
+                usedLongitudes[newIndex[station]] = longitudes[station];
+            }
+        }
+        return new Network(usedNames, usedKeys, usedLatitudes, usedLongitudes, routes, routeIds.size() - routes.size());
+    }
+
+    /**
+     * @return int - The station's index among the used stations (added on first use)
+     */
+    private static int renumber(int station, int[] newIndex, List<String> keys, List<String> names,
+                                List<String> usedKeys, List<String> usedNames) {
+        if (newIndex[station] < 0) {
+            newIndex[station] = usedKeys.size();
+            usedKeys.add(keys.get(station));
+            usedNames.add(names.get(station));
+        }
+        return newIndex[station];
+    }
+
+    private GtfsCsvReader open(String name) throws IOException {
+        ZipEntry entry = entry(zip, name);
+        if (entry == null) {
+            throw new IOException(name + " is missing from the feed");
+        }
+        progress.phase(name, entry.getSize());
+        InputStream in = zip.getInputStream(entry);
+        try {
+            return new GtfsCsvReader(in);
+        } catch (IOException e) {
+            in.close();
+            throw new IOException(name + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void progress(GtfsCsvReader csv, long rows) {
+        if (rows % PROGRESS_ROWS == 0) {
+            progress.read(csv.bytesRead(), rows);
+        }
+    }
+
+    private static int required(GtfsCsvReader csv, String file, String column) throws IOException {
+        int index = csv.column(column);
+        if (index < 0) {
+            throw new IOException(file + " has no " + column + " column");
+        }
+        return index;
+    }
+
+    private static IOException invalid(GtfsCsvReader csv, String file, String message) {
+        return new IOException(file + " line " + csv.line() + ": " + message);
+    }
+
+    /**
+     * @return double - The coordinate, or NaN if the field is empty or missing
+     */
+    private static double coordinate(GtfsCsvReader csv, int column, String name, double max) throws IOException {
+        double value;
+        try {
+            value = csv.getDouble(column);
+        } catch (NumberFormatException e) {
+            throw invalid(csv, "stops.txt", name + " is not a number");
+        }
+        if (value < -max || value > max) {
+            throw invalid(csv, "stops.txt", name + " must be between " + (int) -max + " and " + (int) max);
+        }
+        return value;
+    }
+
+    private static double[] grow(double[] array, int size) {
+        return size <= array.length ? array : Arrays.copyOf(array, Math.max(size, array.length * 2));
+    }
+
+    private static int[] grow(int[] array, int size) {
+        return size <= array.length ? array : Arrays.copyOf(array, Math.max(size, array.length * 2));
+    }
+}
@@ -0,0 +1,115 @@
+package com.busapp.gtfs;
+
+import java.time.Instant;
+
+/**
+ * Progress of one GTFS feed import, updated by the import thread and read by status requests
+ *
+ * Fields are volatile and written by one thread only, so a status request sees each value
+ * as of its last update (the values are not a consistent snapshot of each other).
+ */
+public final class GtfsImport {
+
+    public enum State {
+        QUEUED, RUNNING, COMPLETED, FAILED,
+        /** Started before the last restart and not finished; can be resumed from its checkpoint */
+        INTERRUPTED
+    }
+
+    private final String id;
+    private volatile State state = State.QUEUED;
+    private volatile String phase = "queued";
+    private volatile long bytesRead;
+    private volatile long bytesTotal;
+    private volatile long rowsRead;
+    private volatile int routesTotal;
+    private volatile int routesImported;
+    private volatile int routesSkipped;
+    private volatile int stationsCreated;
+    private volatile int stationsReused;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    public GtfsImport(String id) {
+        this.id = id;
+    }
+
+    void start() {
+        state = State.RUNNING;
+        startedAt = Instant.now();
+        finishedAt = null;
+        error = null;
+        bytesRead = 0;
+        rowsRead = 0;
+    }
+
+    void complete() {
+        phase = "done";
+        finishedAt = Instant.now();
+        state = State.COMPLETED;
+    }
+
+    void fail(String message) {
+        error = message;
+        finishedAt = Instant.now();
+        state = State.FAILED;
+    }
+
+    void phase(String phase, long bytesTotal) {
+        this.phase = phase;
+        this.bytesTotal = bytesTotal;
+    }
+
+    void read(long bytesRead, long rowsRead) {
+        this.bytesRead = bytesRead;
+        this.rowsRead = rowsRead;
+    }
+
+    void routes(int total, int skipped) {
+        this.routesTotal = total;
+        this.routesSkipped = skipped;
+    }
+
+    void routesImported(int routesImported) {
+        this.routesImported = routesImported;
+    }
+
+    void stations(int created, int reused) {
+        this.stationsCreated = created;
+        this.stationsReused = reused;
+    }
+
+    void state(State state) {
+        this.state = state;
+    }
+
+    /**
+     * Queues a failed or interrupted import again
+     *
+     * @return boolean - false if it is queued, running or completed already
+     */
+    synchronized boolean requeue() {
+        if (state != State.FAILED && state != State.INTERRUPTED) {
+            return false;
+        }
+        state = State.QUEUED;
+        phase = "queued";
+        return true;
+    }
+
+    public String getId() { return id; }
+    public State getState() { return state; }
+    public String getPhase() { return phase; }
+    public long getBytesRead() { return bytesRead; }
+    public long getBytesTotal() { return bytesTotal; }
+    public long getRowsRead() { return rowsRead; }
+    public int getRoutesTotal() { return routesTotal; }
+    public int getRoutesImported() { return routesImported; }
+    public int getRoutesSkipped() { return routesSkipped; }
+    public int getStationsCreated() { return stationsCreated; }
+    public int getStationsReused() { return stationsReused; }
+    public Instant getStartedAt() { return startedAt; }
+    public Instant getFinishedAt() { return finishedAt; }
+    public String getError() { return error; }
+}
@@ -0,0 +1,444 @@
+package com.busapp.gtfs;
+
+import com.busapp.event.RouteCreatedEvent;
+import com.busapp.event.StationLocatedEvent;
+import com.busapp.event.TripCreatedEvent;
+import com.busapp.exception.GtfsImportNotFoundException;
+import com.busapp.exception.InvalidGtfsFeedException;
+import com.busapp.shard.ShardRouter;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+/**
+ * Imports GTFS feeds (zip files) as routes, stations and route stops, and the routes' trips
+ * with their stop times
+ *
+ * An uploaded feed is stored in "transport.gtfs.work-dir" and imported in the background,
+ * one feed at a time:
+ * 1. GtfsFeedReader streams the CSV files and builds the routes with their stations
+ * 2. Stations are looked up by name key in chunks; missing ones are inserted with batched
+ *    JDBC INSERTs (one transaction); existing stations without a location are given the feed's
+ * 3. Routes with their stops, trips and stop times are inserted "transport.gtfs.routes-per-transaction"
+ *    routes per transaction, again as JDBC batches; a RouteCreatedEvent per route and a
+ *    TripCreatedEvent per trip keep the in-memory indexes current after each commit, exactly
+ *    as for routes and trips created through the API
+ *
+ * The GtfsCheckpoint written around every commit lets a failed or interrupted import resume
+ * with the next uncommitted chunk (parsing starts over, which takes a fraction of the time).
+ * All rows of one import go to the same shard. IDs come from the entity sequences: each
+ * sequence value stands for the block of allocationSize IDs below it, as for Hibernate's
+ * pooled optimizer, so imported and API-created rows never share an ID.
+ */
+@Service
+public class GtfsImportService {
+    private static final Logger log = LoggerFactory.getLogger(GtfsImportService.class);
+    private static final int BATCH_SIZE = 1000;
+    // Station name keys per lookup query
+    private static final int LOOKUP_SIZE = 500;
+    private static final int ALLOCATION_SIZE = 50;
+    private static final int NAME_LENGTH = 255;
+    private static final int STATIONS_LENGTH = 1000;
+
+    private static final String INSERT_STATION = "INSERT INTO stations (id, name, name_key, latitude, longitude) VALUES (?, ?, ?, ?, ?)";
+    private static final String LOCATE_STATION = "UPDATE stations SET latitude = ?, longitude = ? WHERE id = ? AND latitude IS NULL";
+    private static final String INSERT_ROUTE =
+            "INSERT INTO bus_routes (id, version, title, source, destination, stations) VALUES (?, 0, ?, ?, ?, ?)";
+    private static final String INSERT_ROUTE_STOP = "INSERT INTO route_stops (id, route_id, station_id, stop_sequence) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_TRIP = "INSERT INTO trips (id, route_id, headsign) VALUES (?, ?, ?)";
+    private static final String INSERT_STOP_TIME =
+            "INSERT INTO stop_times (id, trip_id, station_id, stop_sequence, departure_time) VALUES (?, ?, ?, ?, ?)";
+
+    private final Map<String, GtfsImport> imports = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("gtfs-import").daemon().factory());
+
+    @Value("${transport.gtfs.work-dir:data/gtfs}")
+    private Path workDir;
+
+    @Value("${transport.gtfs.routes-per-transaction:500}")
+    private int routesPerTransaction;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Stores the feed and queues its import
+     *
+     * @throws InvalidGtfsFeedException if the upload is not a zip file with the four required files
+     */
+    public GtfsImport start(InputStream feed) {
+        String id = UUID.randomUUID().toString();
+        Path file = feedFile(id);
+        try {
+            Files.createDirectories(workDir);
+            Files.copy(feed, file);
+            validate(file);
+        } catch (IOException e) {
+            deleteQuietly(file);
+            throw new UncheckedIOException("Cannot store the GTFS feed", e);
+        } catch (InvalidGtfsFeedException e) {
+            deleteQuietly(file);
+            throw e;
+        }
+        GtfsImport gtfsImport = new GtfsImport(id);
+        imports.put(id, gtfsImport);
+        executor.execute(() -> run(gtfsImport));
+        return gtfsImport;
+    }
+
+    /**
+     * Imports started before a restart are only known by their checkpoint file; they are
+     * reported as INTERRUPTED (or COMPLETED) with the routes committed so far
+     */
+    public GtfsImport getImport(String id) {
+        GtfsImport gtfsImport = imports.get(id);
+        if (gtfsImport != null) {
+            return gtfsImport;
+        }
+        GtfsCheckpoint checkpoint = isImportId(id) ? GtfsCheckpoint.load(checkpointFile(id)) : null;
+        if (checkpoint == null) {
+            throw new GtfsImportNotFoundException(id);
+        }
+        GtfsImport restored = new GtfsImport(id);
+        restored.routesImported(checkpoint.routesDone());
+        restored.state(checkpoint.completed() ? GtfsImport.State.COMPLETED : GtfsImport.State.INTERRUPTED);
+        return imports.computeIfAbsent(id, key -> restored);
+    }
+
+    /**
+     * Queues a failed or interrupted import again; it continues after its last committed chunk.
+     * Imports that are queued, running or completed (or whose feed file is gone) are returned unchanged.
+     */
+    public GtfsImport resume(String id) {
+        GtfsImport gtfsImport = getImport(id);
+        if (Files.exists(feedFile(id)) && gtfsImport.requeue()) {
+            executor.execute(() -> run(gtfsImport));
+        }
+        return gtfsImport;
+    }
+
+    private void run(GtfsImport gtfsImport) {
+        String id = gtfsImport.getId();
+        gtfsImport.start();
+        long start = System.nanoTime();
+        try (ZipFile zip = new ZipFile(feedFile(id).toFile())) {
+            GtfsCheckpoint checkpoint = GtfsCheckpoint.load(checkpointFile(id));
+            if (checkpoint == null) {
+                checkpoint = GtfsCheckpoint.start(shardRouter.nextShard());
+                checkpoint.save(checkpointFile(id));
+            }
+            GtfsFeedReader.Network network = GtfsFeedReader.read(zip, gtfsImport);
+            gtfsImport.routes(network.routes().size(), network.routesSkipped());
+            long parsed = System.nanoTime();
+            GtfsCheckpoint resumeFrom = checkpoint;
+            GtfsCheckpoint done = shardRouter.onShard(checkpoint.shard(), () -> write(network, resumeFrom, gtfsImport));
+            done.complete().save(checkpointFile(id));
+            deleteQuietly(feedFile(id));
+            gtfsImport.complete();
+            log.info("GTFS import {}: {} routes ({} skipped) with {} trips, {} new and {} existing stations; parsed in {} ms, written in {} ms",
+                    id, network.routes().size(), network.routesSkipped(), network.routes().stream().mapToInt(route -> route.trips().size()).sum(),
+                    gtfsImport.getStationsCreated(), gtfsImport.getStationsReused(), (parsed - start) / 1_000_000,
+                    (System.nanoTime() - parsed) / 1_000_000);
+        } catch (IOException e) {
+            log.warn("GTFS import {} failed: {}", id, e.getMessage());
+            gtfsImport.fail(e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("GTFS import {} failed", id, e);
+            gtfsImport.fail(e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the stations, then the routes from the checkpoint on, on the current shard
+     *
+     * @return GtfsCheckpoint - The checkpoint after the last chunk
+     */
+    private GtfsCheckpoint write(GtfsFeedReader.Network network, GtfsCheckpoint checkpoint, GtfsImport progress) {
+        String id = progress.getId();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        IdBlocks stationIds = new IdBlocks("station_seq", checkpoint.shard());
+        IdBlocks routeIds = new IdBlocks("bus_route_seq", checkpoint.shard());
+        IdBlocks routeStopIds = new IdBlocks("route_stop_seq", checkpoint.shard());
+        IdBlocks tripIds = new IdBlocks("trip_seq", checkpoint.shard());
+        IdBlocks stopTimeIds = new IdBlocks("stop_time_seq", checkpoint.shard());
+
+        progress.phase("stations", 0);
+        long[] stations = transaction.execute(status -> saveStations(network, stationIds, progress));
+
+        if (checkpoint.pendingRoutes() > 0) {
+            Integer found = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bus_routes WHERE id = ?", Integer.class,
+                    checkpoint.pendingFirstRouteId());
+            checkpoint = found != null && found > 0 ? checkpoint.committed() : checkpoint.rolledBack();
+            checkpoint.save(checkpointFile(id));
+        }
+
+        progress.phase("routes", 0);
+        progress.routesImported(checkpoint.routesDone());
+        List<GtfsFeedReader.Route> routes = network.routes();
+        for (int from = checkpoint.routesDone(); from < routes.size(); from += routesPerTransaction) {
+            List<GtfsFeedReader.Route> chunk = routes.subList(from, Math.min(from + routesPerTransaction, routes.size()));
+            GtfsCheckpoint before = checkpoint;
+            GtfsCheckpoint pending = transaction.execute(status -> {
+                long[] chunkRouteIds = saveRoutes(chunk, network, stations, routeIds, routeStopIds);
+                saveTrips(chunk, network, stations, chunkRouteIds, tripIds, stopTimeIds);
+                // Recorded before the commit: after a crash, the resumed import looks for this route
+                GtfsCheckpoint written = before.pending(chunkRouteIds[0], chunk.size());
+                written.save(checkpointFile(id));
+                return written;
+            });
+            checkpoint = pending.committed();
+            checkpoint.save(checkpointFile(id));
+            progress.routesImported(checkpoint.routesDone());
+        }
+        return checkpoint;
+    }
+
+    /**
+     * Also publishes a StationLocatedEvent for every station that got its location from the feed
+     *
+     * @return long[] - Station ID per index of network.stationKeys()
+     */
+    private long[] saveStations(GtfsFeedReader.Network network, IdBlocks ids, GtfsImport progress) {
+        List<String> keys = network.stationKeys();
+        Map<String, Long> existing = new HashMap<>();
+        Map<Long, String> existingNames = new HashMap<>();
+        for (int from = 0; from < keys.size(); from += LOOKUP_SIZE) {
+            List<String> lookup = keys.subList(from, Math.min(from + LOOKUP_SIZE, keys.size()));
+            String placeholders = String.join(",", Collections.nCopies(lookup.size(), "?"));
+            jdbcTemplate.query("SELECT id, name_key, name, latitude FROM stations WHERE name_key IN (" + placeholders + ")",
+                    (RowCallbackHandler) rs -> {
+                        existing.put(rs.getString(2), rs.getLong(1));
+                        if (rs.getObject(4) == null) {
+                            existingNames.put(rs.getLong(1), rs.getString(3));
+                        }
+                    }, lookup.toArray());
+        }
+        long[] stationIds = new long[keys.size()];
+        List<Object[]> rows = new ArrayList<>();
+        List<Object[]> locations = new ArrayList<>();
+        List<StationLocatedEvent> events = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            double latitude = network.stationLatitudes()[i];
+            double longitude = network.stationLongitudes()[i];
+            boolean located = !Double.isNaN(latitude);
+            Long id = existing.get(keys.get(i));
+            if (id == null) {
+                id = ids.next();
+                String name = limit(network.stationNames().get(i), NAME_LENGTH);
+                rows.add(new Object[]{id, name, keys.get(i), located ? latitude : null, located ? longitude : null});
+                if (located) {
+                    events.add(new StationLocatedEvent(id, name, keys.get(i), latitude, longitude));
+                }
+            } else if (located && existingNames.containsKey(id)) {
+                locations.add(new Object[]{latitude, longitude, id});
+                events.add(new StationLocatedEvent(id, existingNames.get(id), keys.get(i), latitude, longitude));
+            }
+            stationIds[i] = id;
+        }
+        batchInsert(INSERT_STATION, rows);
+        batchInsert(LOCATE_STATION, locations);
+        events.forEach(eventPublisher::publishEvent);
+        progress.stations(rows.size(), existing.size());
+        return stationIds;
+    }
+
+    /**
+     * Inserts the routes with their stops and publishes a RouteCreatedEvent for each
+     *
+     * @return long[] - IDs of the routes, in chunk order
+     */
+    private long[] saveRoutes(List<GtfsFeedReader.Route> chunk, GtfsFeedReader.Network network, long[] stationIds,
+                            IdBlocks routeIds, IdBlocks routeStopIds) {
+        List<Object[]> routeRows = new ArrayList<>(chunk.size());
+        List<Object[]> stopRows = new ArrayList<>();
+        List<RouteCreatedEvent> events = new ArrayList<>(chunk.size());
+        for (GtfsFeedReader.Route route : chunk) {
+            long routeId = routeIds.next();
+            int[] stations = route.stations();
+            List<String> keys = new ArrayList<>(stations.length);
+            List<String> names = new ArrayList<>(stations.length);
+            for (int i = 0; i < stations.length; i++) {
+                keys.add(network.stationKeys().get(stations[i]));
+                names.add(network.stationNames().get(stations[i]));
+                stopRows.add(new Object[]{routeStopIds.next(), routeId, stationIds[stations[i]], i});
+            }
+            // "stations" holds the stops between source and destination, as entered through the API;
+            // a list too long for the column is left out (the route_stops rows are complete)
+            String between = names.size() > 2 ? String.join(", ", names.subList(1, names.size() - 1)) : null;
+            routeRows.add(new Object[]{routeId, limit(route.title(), NAME_LENGTH), limit(names.get(0), NAME_LENGTH),
+                    limit(names.get(names.size() - 1), NAME_LENGTH), between != null && between.length() <= STATIONS_LENGTH ? between : null});
+            events.add(new RouteCreatedEvent(routeId, keys, names));
+        }
+        batchInsert(INSERT_ROUTE, routeRows);
+        batchInsert(INSERT_ROUTE_STOP, stopRows);
+        events.forEach(eventPublisher::publishEvent);
+        return events.stream().mapToLong(RouteCreatedEvent::routeId).toArray();
+    }
+
+    /**
+     * Inserts the trips of the routes just saved by saveRoutes with their stop times, and
+     * publishes a TripCreatedEvent for each trip
+     *
+     * @param routeIds - IDs of the chunk's routes, in chunk order
+     */
+    private void saveTrips(List<GtfsFeedReader.Route> chunk, GtfsFeedReader.Network network, long[] stationIds, long[] routeIds,
+                           IdBlocks tripIds, IdBlocks stopTimeIds) {
+        List<Object[]> tripRows = new ArrayList<>();
+        List<TripCreatedEvent> events = new ArrayList<>();
+        for (int route = 0; route < chunk.size(); route++) {
+            long routeId = routeIds[route];
+            for (GtfsFeedReader.Trip trip : chunk.get(route).trips()) {
+                long tripId = tripIds.next();
+                String headsign = limit(trip.headsign(), NAME_LENGTH);
+                tripRows.add(new Object[]{tripId, routeId, headsign});
+                int[] stations = trip.stations();
+                long[] tripStationIds = new long[stations.length];
+                List<String> names = new ArrayList<>(stations.length);
+                for (int i = 0; i < stations.length; i++) {
+                    tripStationIds[i] = stationIds[stations[i]];
+                    names.add(network.stationNames().get(stations[i]));
+                }
+                events.add(new TripCreatedEvent(tripId, routeId, headsign, tripStationIds, names, trip.departures()));
+            }
+        }
+        batchInsert(INSERT_TRIP, tripRows);
+
+        // Stop times are by far the most rows: they are built one JDBC batch at a time
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (TripCreatedEvent trip : events) {
+            for (int i = 0; i < trip.stationIds().length; i++) {
+                batch.add(new Object[]{stopTimeIds.next(), trip.tripId(), trip.stationIds()[i], i, trip.departureTimes()[i]});
+                if (batch.size() == BATCH_SIZE) {
+                    jdbcTemplate.batchUpdate(INSERT_STOP_TIME, batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_STOP_TIME, batch);
+        }
+        events.forEach(eventPublisher::publishEvent);
+    }
+
+    private void batchInsert(String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())));
+        }
+    }
+
+    private static void validate(Path file) {
+        try (ZipFile zip = new ZipFile(file.toFile())) {
+            for (String name : GtfsFeedReader.REQUIRED_FILES) {
+                if (GtfsFeedReader.entry(zip, name) == null) {
+                    throw new InvalidGtfsFeedException(name + " is missing");
+                }
+            }
+        } catch (ZipException e) {
+            throw new InvalidGtfsFeedException("not a zip file");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean isImportId(String id) {
+        try {
+            return UUID.fromString(id).toString().equals(id);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private Path feedFile(String id) {
+        return workDir.resolve(id + ".zip");
+    }
+
+    private Path checkpointFile(String id) {
+        return workDir.resolve(id + ".checkpoint");
+    }
+
+    private static String limit(String value, int length) {
+        return value.length() <= length ? value : value.substring(0, length);
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Cannot delete {}", file, e);
+        }
+    }
+
+    /**
+     * Hands out IDs of one sequence on the current shard
+     *
+     * A sequence value v stands for the IDs v - 49 .. v (never below the shard's first ID),
+     * which is the block Hibernate's pooled optimizer would use for it. BLOCKS_PER_QUERY values
+     * are fetched per round trip, since an import can use over a million stop time IDs.
+     */
+    private final class IdBlocks {
+        private static final int BLOCKS_PER_QUERY = 20;
+
+        private final String sequence;
+        private final long firstId;
+        private final Deque<Long> values = new ArrayDeque<>();
+        private long next;
+        private long last = -1;
+
+        IdBlocks(String sequence, int shard) {
+            this.sequence = sequence;
+            this.firstId = ShardRouter.firstId(shard);
+        }
+
+        long next() {
+            if (next > last) {
+                if (values.isEmpty()) {
+                    values.addAll(jdbcTemplate.queryForList(
+                            "SELECT NEXT VALUE FOR " + sequence + " FROM SYSTEM_RANGE(1, " + BLOCKS_PER_QUERY + ")", Long.class));
+                }
+                last = values.poll();
+                next = Math.max(last - (ALLOCATION_SIZE - 1), firstId);
+            }
+            return next++;
+        }
+    }
+}
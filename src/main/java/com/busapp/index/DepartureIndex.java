@@ -0,0 +1,239 @@
+package com.busapp.index;
+
+import com.busapp.event.CatalogueLoadedEvent;
+import com.busapp.event.TripCreatedEvent;
+import com.busapp.event.TripDeletedEvent;
+import com.busapp.repository.StopTimeRepository;
+import com.busapp.shard.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory departure boards: station ID -> its departures in time order
+ * 
+ * Each station has a Board of two parallel primitive arrays: departure times (seconds after
+ * midnight, ascending) and the trip of each departure. "Next departures after t" is a binary
+ * search for the first time >= t followed by a scan of "limit" entries, so a query costs
+ * O(log n + limit) whatever the size of the network. Route and headsign are stored once per
+ * trip, not per departure.
+ * 
+ * Every trip runs daily, and times past midnight go up to 47:59:59 (GTFS style), so a board
+ * covers the 24 hours from "after" as three runs of the same arrays merged in time order: the
+ * previous day's trips still running past midnight (times >= after + 24h), the day's trips from
+ * "after" on, and the next day's trips before "after" (from 00:00).
+ * 
+ * Boards are never modified in place: a new or deleted trip replaces the boards of its own
+ * stations with copies, so readers use a board without locking and other stations are untouched.
+ * 
+ * The boards are built from stop_times at startup and then updated for each committed
+ * TripCreatedEvent and TripDeletedEvent.
+ */
+@Component
+public class DepartureIndex {
+    private static final int[] NO_TIMES = new int[0];
+    private static final long[] NO_TRIPS = new long[0];
+    private static final int DAY = 24 * 3600;
+    // Shift of each run of a board query: previous day, same day, next day
+    private static final int[] RUN_SHIFTS = {-DAY, 0, DAY};
+    
+    /**
+     * One departure of a station
+     * @param time - Departure time in seconds after midnight (of the day of the query's "after"
+     *               when returned by getDepartures, so 24:00:00 and later are the next day)
+     */
+    public record Departure(int time, long tripId, long routeId, String headsign) {
+    }
+    
+    private record TripInfo(long routeId, String headsign) {
+    }
+    
+    private record Board(String stationName, int[] times, long[] tripIds) {
+    }
+    
+    private final Map<Long, Board> boards = new ConcurrentHashMap<>();
+    private final Map<Long, TripInfo> trips = new ConcurrentHashMap<>();
+    
+    @Autowired
+    private StopTimeRepository stopTimeRepository;
+    
+    @Autowired
+    private ShardRouter shardRouter;
+    
+    @PostConstruct
+    public void rebuild() {
+        Map<Long, List<Object[]>> rowsByStation = new HashMap<>();
+        Map<Long, TripInfo> tripInfos = new HashMap<>();
+        for (Object[] row : shardRouter.gatherAll(shard -> stopTimeRepository.findAllDepartures())) {
+            rowsByStation.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add(row);
+            tripInfos.computeIfAbsent((Long) row[3], id -> new TripInfo((Long) row[4], (String) row[5]));
+        }
+        boards.clear();
+        trips.clear();
+        trips.putAll(tripInfos);
+        rowsByStation.forEach((stationId, rows) -> {
+            rows.sort(Comparator.comparing((Object[] row) -> (Integer) row[2]).thenComparing(row -> (Long) row[3]));
+            int[] times = new int[rows.size()];
+            long[] tripIds = new long[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                times[i] = (Integer) rows.get(i)[2];
+                tripIds[i] = (Long) rows.get(i)[3];
+            }
+            boards.put(stationId, new Board((String) rows.get(0)[1], times, tripIds));
+        });
+    }
+    
+    @EventListener
+    public void onCatalogueLoaded(CatalogueLoadedEvent event) {
+        rebuild();
+    }
+    
+    @TransactionalEventListener
+    public void onTripCreated(TripCreatedEvent event) {
+        addTrip(event.tripId(), event.routeId(), event.headsign(), event.stationIds(), event.stationNames(), event.departureTimes());
+    }
+    
+    @TransactionalEventListener
+    public void onTripDeleted(TripDeletedEvent event) {
+        removeTrip(event.tripId(), event.stationIds());
+    }
+    
+    /**
+     * @param stationIds - Stations of the trip, in travel order
+     * @param stationNames - Display names of the same stations
+     * @param times - Departure time at each station (seconds after midnight)
+     */
+    public void addTrip(long tripId, long routeId, String headsign, long[] stationIds, List<String> stationNames, int[] times) {
+        // Registered first: a reader that finds the trip on a board also finds its details
+        trips.put(tripId, new TripInfo(routeId, headsign));
+        for (int i = 0; i < stationIds.length; i++) {
+            String stationName = stationNames.get(i);
+            int time = times[i];
+            boards.compute(stationIds[i], (id, board) ->
+                    insert(board == null ? new Board(stationName, NO_TIMES, NO_TRIPS) : board, time, tripId));
+        }
+    }
+    
+    public void removeTrip(long tripId, long[] stationIds) {
+        for (long stationId : Arrays.stream(stationIds).distinct().toArray()) {
+            boards.computeIfPresent(stationId, (id, board) -> remove(board, tripId));
+        }
+        trips.remove(tripId);
+    }
+    
+    /**
+     * @return Optional<String> - Name of the station, if it has (or had) departures
+     */
+    public Optional<String> getStationName(long stationId) {
+        Board board = boards.get(stationId);
+        return board == null ? Optional.empty() : Optional.of(board.stationName());
+    }
+    
+    /**
+     * @param after - Seconds after midnight (up to 47:59:59); departures at exactly this time are included
+     * @param limit - Maximum number of departures
+     * @return List<Departure> - The next departures from the station within 24 hours, in time order
+     */
+    public List<Departure> getDepartures(long stationId, int after, int limit) {
+        Board board = boards.get(stationId);
+        if (board == null) {
+            return List.of();
+        }
+        int[] times = board.times();
+        long[] tripIds = board.tripIds();
+        int clock = after % DAY;
+        int day = after - clock;
+        // Per run (see RUN_SHIFTS): next index and end; the runs together hold each departure once
+        int[] next = {firstAtOrAfter(times, clock + DAY), firstAtOrAfter(times, clock), 0};
+        int[] end = {times.length, next[0], next[1]};
+        List<Departure> departures = new ArrayList<>(Math.min(limit, times.length));
+        while (departures.size() < limit) {
+            int run = -1;
+            for (int candidate = 0; candidate < RUN_SHIFTS.length; candidate++) {
+                if (next[candidate] < end[candidate] && (run < 0
+                        || times[next[candidate]] + RUN_SHIFTS[candidate] < times[next[run]] + RUN_SHIFTS[run])) {
+                    run = candidate;
+                }
+            }
+            if (run < 0) {
+                break;
+            }
+            int i = next[run]++;
+            TripInfo trip = trips.get(tripIds[i]);
+            // null: the trip was deleted after this board was read
+            if (trip != null) {
+                departures.add(new Departure(day + times[i] + RUN_SHIFTS[run], tripIds[i], trip.routeId(), trip.headsign()));
+            }
+        }
+        return departures;
+    }
+    
+    /**
+     * Lower bound: index of the first time >= the given time (times.length if there is none)
+     */
+    private static int firstAtOrAfter(int[] times, int time) {
+        int low = 0;
+        int high = times.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (times[middle] < time) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+    
+    /**
+     * Copy of the board with the departure inserted after all departures at the same time
+     * with a lower trip ID (the order rebuild() produces)
+     */
+    private static Board insert(Board board, int time, long tripId) {
+        int[] times = board.times();
+        long[] tripIds = board.tripIds();
+        int position = firstAtOrAfter(times, time);
+        while (position < times.length && times[position] == time && tripIds[position] < tripId) {
+            position++;
+        }
+        int[] newTimes = new int[times.length + 1];
+        long[] newTripIds = new long[times.length + 1];
+        System.arraycopy(times, 0, newTimes, 0, position);
+        System.arraycopy(tripIds, 0, newTripIds, 0, position);
+        newTimes[position] = time;
+        newTripIds[position] = tripId;
+        System.arraycopy(times, position, newTimes, position + 1, times.length - position);
+        System.arraycopy(tripIds, position, newTripIds, position + 1, times.length - position);
+        return new Board(board.stationName(), newTimes, newTripIds);
+    }
+    
+    /**
+     * Copy of the board without the departures of the trip (a trip may serve a station twice)
+     */
+    private static Board remove(Board board, long tripId) {
+        int[] times = board.times();
+        long[] tripIds = board.tripIds();
+        int[] newTimes = new int[times.length];
+        long[] newTripIds = new long[times.length];
+        int count = 0;
+        for (int i = 0; i < times.length; i++) {
+            if (tripIds[i] != tripId) {
+                newTimes[count] = times[i];
+                newTripIds[count] = tripIds[i];
+                count++;
+            }
+        }
+        return count == times.length ? board
+                : new Board(board.stationName(), Arrays.copyOf(newTimes, count), Arrays.copyOf(newTripIds, count));
+    }
+}
@@ -0,0 +1,235 @@
+package com.busapp.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Round-based journey search over a TransitGraph.Snapshot (in the style of RAPTOR)
+ *
+ * Round k finds the stations reachable with k rides (k - 1 transfers). Each round scans
+ * every route that serves a station improved in the previous round, once forward and once
+ * backward (buses run both ways along a route), carrying the best "boarded" value along the
+ * route. Cost is the number of stops travelled. A station label is only kept when it beats
+ * the best label of every earlier round, so the itineraries returned are the Pareto-optimal
+ * ones: each extra transfer is only shown if it saves stops.
+ *
+ * Two prunings keep queries well under a millisecond on networks of ~10k stations:
+ * - the last round only rides routes that serve the target, and only labels the target
+ * - the round before it only labels stations on those routes (nothing else can still reach the target)
+ *
+ * All working state is primitive int arrays indexed by dense station/route numbers.
+ */
+public final class JourneyPlanner {
+    private static final int UNREACHED = Integer.MAX_VALUE;
+
+    /**
+     * One ride: board route at boardPosition, alight at alightPosition (positions along the route)
+     */
+    public record Leg(int route, int boardPosition, int alightPosition) {
+        public int stops() {
+            return Math.abs(alightPosition - boardPosition);
+        }
+    }
+
+    /**
+     * A complete itinerary, legs in travel order
+     */
+    public record Itinerary(int stops, List<Leg> legs) {
+        public int transfers() {
+            return Math.max(0, legs.size() - 1);
+        }
+    }
+
+    private JourneyPlanner() {
+    }
+
+    /**
+     * @param graph - The network to search
+     * @param origin - Dense index of the start station
+     * @param target - Dense index of the destination station
+     * @param maxTransfers - Maximum number of changes between routes
+     * @return List<Itinerary> - Best itinerary per number of transfers, fewest transfers first (empty if unreachable)
+     */
+    public static List<Itinerary> plan(TransitGraph.Snapshot graph, int origin, int target, int maxTransfers) {
+        List<Itinerary> itineraries = new ArrayList<>();
+        if (origin == target) {
+            itineraries.add(new Itinerary(0, List.of()));
+            return itineraries;
+        }
+        int stationCount = graph.stationCount();
+        int maxRides = maxTransfers + 1;
+
+        int[][] labels = new int[maxRides + 1][];
+        int[][] parentRoute = new int[maxRides + 1][];
+        int[][] parentBoard = new int[maxRides + 1][];
+        int[][] parentAlight = new int[maxRides + 1][];
+        labels[0] = unreachedLabels(stationCount);
+        labels[0][origin] = 0;
+
+        int[] best = unreachedLabels(stationCount);
+        best[origin] = 0;
+        int[] routeStamp = new int[graph.routeCount()];
+        int[] improved = new int[stationCount];
+        int[] improvedNext = new int[stationCount];
+        int improvedCount = 1;
+        improved[0] = origin;
+        int[] routesToScan = new int[graph.routeCount()];
+        int[] stationStamp = new int[stationCount];
+
+        // Stations sharing a route with the target: the only useful labels one ride before the end
+        boolean[] onTargetRoute = new boolean[stationCount];
+        for (int j = graph.stationRouteOffsets[target]; j < graph.stationRouteOffsets[target + 1]; j++) {
+            int route = graph.stationRoutes[j];
+            for (int i = graph.routeStopOffsets[route]; i < graph.routeStopOffsets[route + 1]; i++) {
+                onTargetRoute[graph.routeStops[i]] = true;
+            }
+        }
+
+        for (int round = 1; round <= maxRides && improvedCount > 0; round++) {
+            int[] previous = labels[round - 1];
+            int[] current = unreachedLabels(stationCount);
+            int[] routeOf = new int[stationCount];
+            int[] boardOf = new int[stationCount];
+            int[] alightOf = new int[stationCount];
+            labels[round] = current;
+            parentRoute[round] = routeOf;
+            parentBoard[round] = boardOf;
+            parentAlight[round] = alightOf;
+
+            if (round == maxRides) {
+                rideToTarget(graph, previous, current, best, routeOf, boardOf, alightOf, target);
+                if (current[target] != UNREACHED) {
+                    itineraries.add(reconstruct(graph, parentRoute, parentBoard, parentAlight, current[target], target, round));
+                }
+                break;
+            }
+            boolean targetRoutesOnly = round == maxRides - 1;
+
+            int routeCount = 0;
+            for (int i = 0; i < improvedCount; i++) {
+                int station = improved[i];
+                for (int j = graph.stationRouteOffsets[station]; j < graph.stationRouteOffsets[station + 1]; j++) {
+                    int route = graph.stationRoutes[j];
+                    if (routeStamp[route] != round) {
+                        routeStamp[route] = round;
+                        routesToScan[routeCount++] = route;
+                    }
+                }
+            }
+
+            int nextCount = 0;
+            for (int i = 0; i < routeCount; i++) {
+                int route = routesToScan[i];
+                int base = graph.routeStopOffsets[route];
+                int length = graph.routeStopOffsets[route + 1] - base;
+
+                // Forward: value at q = min over boarded p < q of (previous[p] - p) + q
+                int boarded = UNREACHED;
+                int boardPosition = -1;
+                for (int q = 0; q < length; q++) {
+                    int station = graph.routeStops[base + q];
+                    if (boarded != UNREACHED) {
+                        int candidate = boarded + q;
+                        if (candidate < best[station] && candidate < best[target] && (onTargetRoute[station] || !targetRoutesOnly)) {
+                            if (stationStamp[station] != round) {
+                                stationStamp[station] = round;
+                                improvedNext[nextCount++] = station;
+                            }
+                            current[station] = candidate;
+                            best[station] = candidate;
+                            routeOf[station] = route;
+                            boardOf[station] = boardPosition;
+                            alightOf[station] = q;
+                        }
+                    }
+                    if (previous[station] != UNREACHED && previous[station] - q < boarded) {
+                        boarded = previous[station] - q;
+                        boardPosition = q;
+                    }
+                }
+
+                // Backward: value at q = min over boarded p > q of (previous[p] + p) - q
+                boarded = UNREACHED;
+                boardPosition = -1;
+                for (int q = length - 1; q >= 0; q--) {
+                    int station = graph.routeStops[base + q];
+                    if (boarded != UNREACHED) {
+                        int candidate = boarded - q;
+                        if (candidate < best[station] && candidate < best[target] && (onTargetRoute[station] || !targetRoutesOnly)) {
+                            if (stationStamp[station] != round) {
+                                stationStamp[station] = round;
+                                improvedNext[nextCount++] = station;
+                            }
+                            current[station] = candidate;
+                            best[station] = candidate;
+                            routeOf[station] = route;
+                            boardOf[station] = boardPosition;
+                            alightOf[station] = q;
+                        }
+                    }
+                    if (previous[station] != UNREACHED && previous[station] + q < boarded) {
+                        boarded = previous[station] + q;
+                        boardPosition = q;
+                    }
+                }
+            }
+
+            if (current[target] != UNREACHED) {
+                itineraries.add(reconstruct(graph, parentRoute, parentBoard, parentAlight, current[target], target, round));
+            }
+            int[] swap = improved;
+            improved = improvedNext;
+            improvedNext = swap;
+            improvedCount = nextCount;
+        }
+        return itineraries;
+    }
+
+    /**
+     * Last round: only the target matters, so only the routes serving it are ridden,
+     * each once towards the target from either side.
+     */
+    private static void rideToTarget(TransitGraph.Snapshot graph, int[] previous, int[] current, int[] best,
+                                     int[] routeOf, int[] boardOf, int[] alightOf, int target) {
+        for (int j = graph.stationRouteOffsets[target]; j < graph.stationRouteOffsets[target + 1]; j++) {
+            int route = graph.stationRoutes[j];
+            int targetPosition = graph.stationRoutePositions[j];
+            int base = graph.routeStopOffsets[route];
+            int length = graph.routeStopOffsets[route + 1] - base;
+            for (int p = 0; p < length; p++) {
+                int station = graph.routeStops[base + p];
+                if (p == targetPosition || previous[station] == UNREACHED) {
+                    continue;
+                }
+                int candidate = previous[station] + Math.abs(targetPosition - p);
+                if (candidate < best[target]) {
+                    current[target] = candidate;
+                    best[target] = candidate;
+                    routeOf[target] = route;
+                    boardOf[target] = p;
+                    alightOf[target] = targetPosition;
+                }
+            }
+        }
+    }
+
+    private static Itinerary reconstruct(TransitGraph.Snapshot graph, int[][] parentRoute, int[][] parentBoard,
+                                         int[][] parentAlight, int stops, int target, int round) {
+        Leg[] legs = new Leg[round];
+        int station = target;
+        for (int k = round; k >= 1; k--) {
+            int route = parentRoute[k][station];
+            Leg leg = new Leg(route, parentBoard[k][station], parentAlight[k][station]);
+            legs[k - 1] = leg;
+            station = graph.stop(route, leg.boardPosition());
+        }
+        return new Itinerary(stops, Arrays.asList(legs));
+    }
+
+    private static int[] unreachedLabels(int stationCount) {
+        int[] labels = new int[stationCount];
+        Arrays.fill(labels, UNREACHED);
+        return labels;
+    }
+}
@@ -0,0 +1,133 @@
+package com.busapp.index;
+
+import com.busapp.event.CatalogueLoadedEvent;
+import com.busapp.event.RouteCreatedEvent;
+import com.busapp.repository.BusRouteRepository;
+import com.busapp.shard.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.List;
+
+/**
+ * In-memory set of all existing route IDs
+ *
+ * Lets lookups for unknown route IDs (typos, scrapers probing random IDs) fail with
+ * 404 without touching the database. It is an exact set, not a probabilistic filter:
+ * a primitive long[] hash table with open addressing (linear probing), where 0 marks
+ * an empty slot (sequence-generated IDs start at 1).
+ *
+ * Reads are lock-free. Writers are serialized; slots are published with release
+ * semantics and the table is replaced (never shrunk) when it is more than half full.
+ */
+@Component
+public class RouteIdSet {
+    private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private volatile long[] table = new long[INITIAL_CAPACITY];
+    private int size;
+
+    @Autowired
+    private BusRouteRepository busRouteRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @PostConstruct
+    public void rebuild() {
+        List<Long> ids = shardRouter.gatherAll(shard -> busRouteRepository.findAllIds());
+        synchronized (this) {
+            long[] rebuilt = new long[capacityFor(ids.size())];
+            for (Long id : ids) {
+                insert(rebuilt, id);
+            }
+            size = ids.size();
+            table = rebuilt;
+        }
+    }
+
+    @EventListener
+    public void onCatalogueLoaded(CatalogueLoadedEvent event) {
+        rebuild();
+    }
+
+    @TransactionalEventListener
+    public void onRouteCreated(RouteCreatedEvent event) {
+        add(event.routeId());
+    }
+
+    public synchronized void add(long routeId) {
+        if (routeId <= 0 || contains(routeId)) {
+            return;
+        }
+        long[] current = table;
+        if ((size + 1) * 2 > current.length) {
+            long[] grown = new long[current.length * 2];
+            for (long id : current) {
+                if (id != 0) {
+                    insert(grown, id);
+                }
+            }
+            insert(grown, routeId);
+            table = grown;
+        } else {
+            insert(current, routeId);
+        }
+        size++;
+    }
+
+    public boolean contains(Long routeId) {
+        if (routeId == null || routeId <= 0) {
+            return false;
+        }
+        long[] current = table;
+        int mask = current.length - 1;
+        for (int slot = hash(routeId) & mask; ; slot = (slot + 1) & mask) {
+            long id = (long) SLOT.getAcquire(current, slot);
+            if (id == routeId) {
+                return true;
+            }
+            if (id == 0) {
+                return false;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static void insert(long[] target, long routeId) {
+        int mask = target.length - 1;
+        int slot = hash(routeId) & mask;
+        while (target[slot] != 0 && target[slot] != routeId) {
+            slot = (slot + 1) & mask;
+        }
+        SLOT.setRelease(target, slot, routeId);
+    }
+
+    private static int capacityFor(int entries) {
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < entries * 2L + 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Spreads sequential IDs over the table (MurmurHash3 64-bit finalizer)
+     */
+    private static int hash(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb53fed1a1a85L;
+        value ^= value >>> 33;
+        return (int) value;
+    }
+}
@@ -0,0 +1,56 @@
+package com.busapp.index;
+
+import com.busapp.event.BusCreatedEvent;
+import com.busapp.repository.BusRouteRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory cache of route versions (the @Version column of BusRoute)
+ * 
+ * Lets conditional GETs be answered with 304 without loading the route or its buses.
+ * A route's version is read from the database once (a single-column SELECT) and then
+ * kept current by the committed BusCreatedEvents of that route.
+ * 
+ * Versions only ever move forward (Math::max), so a lookup that read the database
+ * just before a commit cannot overwrite the newer version published by the commit.
+ */
+@Component
+public class RouteVersionMap {
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+    
+    @Autowired
+    private BusRouteRepository busRouteRepository;
+    
+    @TransactionalEventListener
+    public void onBusCreated(BusCreatedEvent event) {
+        versions.merge(event.routeId(), event.routeVersion(), Math::max);
+    }
+    
+    /**
+     * @param routeId - ID of the route
+     * @return Optional<Long> - The route's current version, or empty if the route does not exist
+     */
+    public Optional<Long> getVersion(Long routeId) {
+        Long version = versions.get(routeId);
+        if (version != null) {
+            return Optional.of(version);
+        }
+        return busRouteRepository.findVersionById(routeId)
+                .map(loaded -> versions.merge(routeId, loaded, Math::max));
+    }
+    
+    /**
+     * Version known in memory, without loading it. Enough to tell whether a route changed:
+     * the first committed change of a route always puts its version here.
+     * 
+     * @return Long - The route's version, or null if it was never loaded or changed
+     */
+    public Long peekVersion(Long routeId) {
+        return versions.get(routeId);
+    }
+}
@@ -0,0 +1,324 @@
+package com.busapp.index;
+
+import com.busapp.event.CatalogueLoadedEvent;
+import com.busapp.event.StationLocatedEvent;
+import com.busapp.repository.StationRepository;
+import com.busapp.shard.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory spatial index of the stations that have a location: "which stations are near me"
+ * 
+ * The earth is cut into a grid of CELL_DEGREES x CELL_DEGREES cells (about 1.1 km north-south).
+ * Each non-empty cell holds three parallel primitive arrays: station IDs, latitudes and longitudes.
+ * A query only visits the cells overlapping the bounding box of its circle, so its cost depends
+ * on how many stations are near the point, not on the size of the network. Stations in those
+ * cells are first compared with a flat-earth approximation (a few multiplications); only the
+ * ones it cannot rule out get the exact, trigonometric distance.
+ * 
+ * Each grid row also lists its non-empty columns. Near the poles the bounding box spans up to
+ * all 36,000 columns of a row, so a row is scanned through that list whenever it is shorter
+ * than the span; rows without any station are skipped either way.
+ * 
+ * Cells are never modified in place: a new or moved station replaces the arrays of its cell(s)
+ * with copies (and the column list of its row likewise), so readers use a cell without locking.
+ * Writers (rare) are serialized.
+ * 
+ * The index is built from the stations table at startup and then updated for each
+ * committed StationLocatedEvent.
+ */
+@Component
+public class StationLocationIndex {
+    public static final double CELL_DEGREES = 0.01;
+    private static final int LATITUDE_CELLS = (int) Math.ceil(180 / CELL_DEGREES);
+    private static final int LONGITUDE_CELLS = (int) Math.ceil(360 / CELL_DEGREES);
+    private static final double EARTH_RADIUS_METERS = 6_371_000;
+    private static final double METERS_PER_DEGREE = Math.PI * EARTH_RADIUS_METERS / 180;
+    // Slack for the flat-earth filter, far above its error for circles of a few kilometers
+    private static final double FILTER_MARGIN = 1.01;
+    
+    /**
+     * A station found near a point
+     * @param distance - Great-circle distance from the point, in meters
+     */
+    public record Nearby(long stationId, String name, String nameKey, double latitude, double longitude, double distance) {
+    }
+    
+    private record Location(String name, String nameKey, double latitude, double longitude) {
+    }
+    
+    private record Cell(long[] stationIds, double[] latitudes, double[] longitudes) {
+    }
+    
+    private final Map<Long, Cell> cells = new ConcurrentHashMap<>();
+    private final Map<Long, Location> locations = new ConcurrentHashMap<>();
+    // Row -> its non-empty columns, ascending
+    private final Map<Integer, int[]> occupiedColumns = new ConcurrentHashMap<>();
+    
+    @Autowired
+    private StationRepository stationRepository;
+    
+    @Autowired
+    private ShardRouter shardRouter;
+    
+    @PostConstruct
+    public synchronized void rebuild() {
+        Map<Long, Location> located = new HashMap<>();
+        for (Object[] row : shardRouter.gatherAll(shard -> stationRepository.findAllLocations())) {
+            located.put((Long) row[0], new Location((String) row[1], (String) row[2], (Double) row[3], (Double) row[4]));
+        }
+        Map<Long, List<Long>> stationsByCell = new HashMap<>();
+        located.forEach((stationId, location) ->
+                stationsByCell.computeIfAbsent(cellOf(location.latitude(), location.longitude()), cell -> new ArrayList<>()).add(stationId));
+        Map<Integer, List<Integer>> columnsByRow = new HashMap<>();
+        stationsByCell.keySet().forEach(cell -> columnsByRow.computeIfAbsent(rowOf(cell), row -> new ArrayList<>()).add(columnOf(cell)));
+        cells.clear();
+        locations.clear();
+        occupiedColumns.clear();
+        locations.putAll(located);
+        columnsByRow.forEach((row, columns) -> occupiedColumns.put(row, columns.stream().mapToInt(Integer::intValue).sorted().toArray()));
+        stationsByCell.forEach((cell, stationIds) -> {
+            long[] ids = stationIds.stream().mapToLong(Long::longValue).sorted().toArray();
+            double[] latitudes = new double[ids.length];
+            double[] longitudes = new double[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                latitudes[i] = located.get(ids[i]).latitude();
+                longitudes[i] = located.get(ids[i]).longitude();
+            }
+            cells.put(cell, new Cell(ids, latitudes, longitudes));
+        });
+    }
+    
+    @EventListener
+    public void onCatalogueLoaded(CatalogueLoadedEvent event) {
+        rebuild();
+    }
+    
+    @TransactionalEventListener
+    public void onStationLocated(StationLocatedEvent event) {
+        locate(event.stationId(), event.name(), event.nameKey(), event.latitude(), event.longitude());
+    }
+    
+    /**
+     * Adds the station, or moves it if it already has a location
+     * @param latitude - WGS 84 degrees, -90 to 90
+     * @param longitude - WGS 84 degrees, -180 to 180
+     */
+    public synchronized void locate(long stationId, String name, String nameKey, double latitude, double longitude) {
+        Location previous = locations.put(stationId, new Location(name, nameKey, latitude, longitude));
+        if (previous != null) {
+            long from = cellOf(previous.latitude(), previous.longitude());
+            if (cells.computeIfPresent(from, (key, cell) -> remove(cell, stationId)) == null) {
+                occupiedColumns.computeIfPresent(rowOf(from), (row, columns) -> withoutColumn(columns, columnOf(from)));
+            }
+        }
+        long to = cellOf(latitude, longitude);
+        cells.compute(to, (key, cell) -> insert(cell, stationId, latitude, longitude));
+        occupiedColumns.compute(rowOf(to), (row, columns) -> withColumn(columns, columnOf(to)));
+    }
+    
+    public int size() {
+        return locations.size();
+    }
+    
+    /**
+     * @param radius - Search radius in meters
+     * @param limit - Maximum number of stations
+     * @return List<Nearby> - Stations within the radius, nearest first
+     */
+    public List<Nearby> findNearby(double latitude, double longitude, double radius, int limit) {
+        // Keeps the "limit" nearest stations seen so far; the farthest of them is on top
+        PriorityQueue<Nearby> nearest = new PriorityQueue<>(limit + 1, Comparator.comparingDouble(Nearby::distance).reversed());
+        double latitudeDelta = radius / METERS_PER_DEGREE;
+        int fromRow = latitudeCell(Math.max(-90, latitude - latitudeDelta));
+        int toRow = latitudeCell(Math.min(90, latitude + latitudeDelta));
+        // The longitude span widens towards the poles; near them every column is in the span.
+        // The cosine of the latitude nearest the pole underestimates east-west distances, so the
+        // flat-earth filter below never drops a station within the radius
+        double cosine = Math.cos(Math.toRadians(Math.min(90, Math.abs(latitude) + latitudeDelta)));
+        double metersPerLongitude = METERS_PER_DEGREE * Math.max(0, cosine);
+        double reach = radius * FILTER_MARGIN;
+        double longitudeDelta = cosine <= 0 ? 180 : Math.min(180, latitudeDelta / cosine);
+        int fromColumn = longitudeCell(longitude - longitudeDelta);
+        int columns = Math.min(LONGITUDE_CELLS, longitudeCell(longitude + longitudeDelta) - fromColumn + 1);
+        for (int row = fromRow; row <= toRow; row++) {
+            int[] occupied = occupiedColumns.get(row);
+            if (occupied == null) {
+                continue;
+            }
+            // Wide span (towards the poles): the row's non-empty columns that fall in the span
+            boolean sparse = occupied.length < columns;
+            int visits = sparse ? occupied.length : columns;
+            for (int visit = 0; visit < visits; visit++) {
+                int column = sparse ? occupied[visit] : fromColumn + visit;
+                if (sparse && Math.floorMod(column - fromColumn, LONGITUDE_CELLS) >= columns) {
+                    continue;
+                }
+                Cell cell = cells.get(cellKey(row, column));
+                if (cell == null) {
+                    continue;
+                }
+                for (int i = 0; i < cell.stationIds().length; i++) {
+                    double north = (cell.latitudes()[i] - latitude) * METERS_PER_DEGREE;
+                    double east = Math.abs(cell.longitudes()[i] - longitude);
+                    east = Math.min(east, 360 - east) * metersPerLongitude;
+                    double flat = north * north + east * east;
+                    if (flat > reach * reach) {
+                        continue;
+                    }
+                    if (nearest.size() == limit) {
+                        double farthest = nearest.peek().distance() * FILTER_MARGIN;
+                        if (flat > farthest * farthest) {
+                            continue;
+                        }
+                    }
+                    double distance = distance(latitude, longitude, cell.latitudes()[i], cell.longitudes()[i]);
+                    if (distance > radius || nearest.size() == limit && distance >= nearest.peek().distance()) {
+                        continue;
+                    }
+                    Location location = locations.get(cell.stationIds()[i]);
+                    // A station moved after this cell was read is skipped here and found in its new cell
+                    if (location != null && location.latitude() == cell.latitudes()[i] && location.longitude() == cell.longitudes()[i]) {
+                        nearest.add(new Nearby(cell.stationIds()[i], location.name(), location.nameKey(),
+                                cell.latitudes()[i], cell.longitudes()[i], distance));
+                        if (nearest.size() > limit) {
+                            nearest.poll();
+                        }
+                    }
+                }
+            }
+        }
+        List<Nearby> result = new ArrayList<>(nearest);
+        result.sort(Comparator.comparingDouble(Nearby::distance).thenComparingLong(Nearby::stationId));
+        return result;
+    }
+    
+    /**
+     * Great-circle distance in meters (haversine formula)
+     */
+    public static double distance(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double sinLatitude = Math.sin(Math.toRadians(latitude2 - latitude1) / 2);
+        double sinLongitude = Math.sin(Math.toRadians(longitude2 - longitude1) / 2);
+        double a = sinLatitude * sinLatitude
+                + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2)) * sinLongitude * sinLongitude;
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+    
+    private static long cellOf(double latitude, double longitude) {
+        return cellKey(latitudeCell(latitude), longitudeCell(longitude));
+    }
+    
+    private static int latitudeCell(double latitude) {
+        return Math.min(LATITUDE_CELLS - 1, (int) Math.floor((latitude + 90) / CELL_DEGREES));
+    }
+    
+    /**
+     * Not wrapped: columns left of -180 or right of 180 are mapped back in cellKey()
+     */
+    private static int longitudeCell(double longitude) {
+        return (int) Math.floor((longitude + 180) / CELL_DEGREES);
+    }
+    
+    private static long cellKey(int row, int column) {
+        return (long) row * LONGITUDE_CELLS + Math.floorMod(column, LONGITUDE_CELLS);
+    }
+    
+    private static int rowOf(long cellKey) {
+        return (int) (cellKey / LONGITUDE_CELLS);
+    }
+    
+    private static int columnOf(long cellKey) {
+        return (int) (cellKey % LONGITUDE_CELLS);
+    }
+    
+    /**
+     * @return int[] - Copy of the ascending columns with the column added (the same array if it is there already)
+     */
+    private static int[] withColumn(int[] columns, int column) {
+        if (columns == null) {
+            return new int[]{column};
+        }
+        int position = Arrays.binarySearch(columns, column);
+        if (position >= 0) {
+            return columns;
+        }
+        position = -position - 1;
+        int[] copy = new int[columns.length + 1];
+        System.arraycopy(columns, 0, copy, 0, position);
+        copy[position] = column;
+        System.arraycopy(columns, position, copy, position + 1, columns.length - position);
+        return copy;
+    }
+    
+    /**
+     * @return int[] - Copy of the ascending columns without the column; null (which removes the row) if none is left
+     */
+    private static int[] withoutColumn(int[] columns, int column) {
+        int position = Arrays.binarySearch(columns, column);
+        if (position < 0) {
+            return columns;
+        }
+        if (columns.length == 1) {
+            return null;
+        }
+        int[] copy = new int[columns.length - 1];
+        System.arraycopy(columns, 0, copy, 0, position);
+        System.arraycopy(columns, position + 1, copy, position, columns.length - position - 1);
+        return copy;
+    }
+    
+    private static Cell insert(Cell cell, long stationId, double latitude, double longitude) {
+        if (cell == null) {
+            return new Cell(new long[]{stationId}, new double[]{latitude}, new double[]{longitude});
+        }
+        int length = cell.stationIds().length;
+        Cell copy = new Cell(Arrays.copyOf(cell.stationIds(), length + 1), Arrays.copyOf(cell.latitudes(), length + 1),
+                Arrays.copyOf(cell.longitudes(), length + 1));
+        copy.stationIds()[length] = stationId;
+        copy.latitudes()[length] = latitude;
+        copy.longitudes()[length] = longitude;
+        return copy;
+    }
+    
+    /**
+     * @return Cell - Copy of the cell without the station; null (which removes the cell) if it becomes empty
+     */
+    private static Cell remove(Cell cell, long stationId) {
+        long[] stationIds = cell.stationIds();
+        int position = -1;
+        for (int i = 0; i < stationIds.length; i++) {
+            if (stationIds[i] == stationId) {
+                position = i;
+                break;
+            }
+        }
+        if (position < 0) {
+            return cell;
+        }
+        if (stationIds.length == 1) {
+            return null;
+        }
+        long[] newStationIds = new long[stationIds.length - 1];
+        double[] newLatitudes = new double[stationIds.length - 1];
+        double[] newLongitudes = new double[stationIds.length - 1];
+        System.arraycopy(stationIds, 0, newStationIds, 0, position);
+        System.arraycopy(cell.latitudes(), 0, newLatitudes, 0, position);
+        System.arraycopy(cell.longitudes(), 0, newLongitudes, 0, position);
+        System.arraycopy(stationIds, position + 1, newStationIds, position, stationIds.length - position - 1);
+        System.arraycopy(cell.latitudes(), position + 1, newLatitudes, position, stationIds.length - position - 1);
+        System.arraycopy(cell.longitudes(), position + 1, newLongitudes, position, stationIds.length - position - 1);
+        return new Cell(newStationIds, newLatitudes, newLongitudes);
+    }
+}
@@ -0,0 +1,94 @@
+package com.busapp.index;
+
+import com.busapp.event.CatalogueLoadedEvent;
+import com.busapp.event.RouteCreatedEvent;
+import com.busapp.repository.RouteStopRepository;
+import com.busapp.shard.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory inverted index: station name key -> IDs of the routes serving it
+ * 
+ * Each station maps to a sorted primitive long[] of route IDs. Arrays are never
+ * modified in place: adding a route replaces the array of each of its stations
+ * with a copy, so readers can use an array without locking.
+ * 
+ * The index is built from route_stops at startup and then updated for each
+ * committed RouteCreatedEvent.
+ */
+@Component
+public class StationRouteIndex {
+    private static final long[] NO_ROUTES = new long[0];
+    
+    private final Map<String, long[]> routeIdsByStation = new ConcurrentHashMap<>();
+    
+    @Autowired
+    private RouteStopRepository routeStopRepository;
+    
+    @Autowired
+    private ShardRouter shardRouter;
+    
+    @PostConstruct
+    public void rebuild() {
+        Map<String, LinkedHashSet<Long>> routeIds = new HashMap<>();
+        for (Object[] row : shardRouter.gatherAll(shard -> routeStopRepository.findAllRouteStations())) {
+            routeIds.computeIfAbsent((String) row[1], key -> new LinkedHashSet<>()).add((Long) row[0]);
+        }
+        routeIdsByStation.clear();
+        routeIds.forEach((stationKey, ids) -> {
+            long[] sorted = ids.stream().mapToLong(Long::longValue).sorted().toArray();
+            routeIdsByStation.put(stationKey, sorted);
+        });
+    }
+    
+    @EventListener
+    public void onCatalogueLoaded(CatalogueLoadedEvent event) {
+        rebuild();
+    }
+    
+    @TransactionalEventListener
+    public void onRouteCreated(RouteCreatedEvent event) {
+        addRoute(event.routeId(), event.stationKeys());
+    }
+    
+    public void addRoute(long routeId, Collection<String> stationKeys) {
+        for (String stationKey : new LinkedHashSet<>(stationKeys)) {
+            routeIdsByStation.compute(stationKey, (key, routeIds) -> insertSorted(routeIds == null ? NO_ROUTES : routeIds, routeId));
+        }
+    }
+    
+    /**
+     * @param stationKey - Normalized station name (see Station.normalize())
+     * @return long[] - Sorted IDs of the routes serving the station (empty if none); must not be modified
+     */
+    public long[] getRouteIds(String stationKey) {
+        return routeIdsByStation.getOrDefault(stationKey, NO_ROUTES);
+    }
+    
+    public boolean containsStation(String stationKey) {
+        return routeIdsByStation.containsKey(stationKey);
+    }
+    
+    private static long[] insertSorted(long[] routeIds, long routeId) {
+        int position = Arrays.binarySearch(routeIds, routeId);
+        if (position >= 0) {
+            return routeIds;
+        }
+        int insertAt = -position - 1;
+        long[] copy = new long[routeIds.length + 1];
+        System.arraycopy(routeIds, 0, copy, 0, insertAt);
+        copy[insertAt] = routeId;
+        System.arraycopy(routeIds, insertAt, copy, insertAt + 1, routeIds.length - insertAt);
+        return copy;
+    }
+}
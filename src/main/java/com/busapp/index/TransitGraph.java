@@ -0,0 +1,205 @@
+package com.busapp.index;
+
+import com.busapp.event.CatalogueLoadedEvent;
+import com.busapp.event.RouteCreatedEvent;
+import com.busapp.repository.RouteStopRepository;
+import com.busapp.shard.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory route/station graph used by the journey planner
+ *
+ * Stations and routes are numbered densely (0..n-1) and stored in CSR
+ * (compressed sparse row) form, i.e. flat primitive int arrays plus offset arrays:
+ * - route r visits routeStops[routeStopOffsets[r] .. routeStopOffsets[r + 1])
+ * - station s is served by stationRoutes[stationRouteOffsets[s] .. stationRouteOffsets[s + 1]),
+ *   at position stationRoutePositions[...] of that route
+ *
+ * New routes are appended to a small builder; the immutable Snapshot is rebuilt
+ * lazily by the first query after a change, so a batch of new routes costs one rebuild.
+ */
+@Component
+public class TransitGraph {
+
+    /**
+     * Immutable CSR view of the network. Safe to share between threads.
+     */
+    public static final class Snapshot {
+        final String[] stationKeys;
+        final String[] stationNames;
+        final Map<String, Integer> stationIndex;
+        final long[] routeIds;
+        final int[] routeStopOffsets;
+        final int[] routeStops;
+        final int[] stationRouteOffsets;
+        final int[] stationRoutes;
+        final int[] stationRoutePositions;
+
+        Snapshot(List<String> stationKeys, List<String> stationNames, Map<String, Integer> stationIndex,
+                 List<Long> routeIds, List<int[]> routes) {
+            int stationCount = stationKeys.size();
+            this.stationKeys = stationKeys.toArray(new String[0]);
+            this.stationNames = stationNames.toArray(new String[0]);
+            this.stationIndex = Map.copyOf(stationIndex);
+            this.routeIds = routeIds.stream().mapToLong(Long::longValue).toArray();
+
+            this.routeStopOffsets = new int[routes.size() + 1];
+            for (int r = 0; r < routes.size(); r++) {
+                routeStopOffsets[r + 1] = routeStopOffsets[r] + routes.get(r).length;
+            }
+            this.routeStops = new int[routeStopOffsets[routes.size()]];
+            int[] servedCount = new int[stationCount];
+            for (int r = 0; r < routes.size(); r++) {
+                int[] stops = routes.get(r);
+                System.arraycopy(stops, 0, routeStops, routeStopOffsets[r], stops.length);
+                for (int station : stops) {
+                    servedCount[station]++;
+                }
+            }
+
+            this.stationRouteOffsets = new int[stationCount + 1];
+            for (int s = 0; s < stationCount; s++) {
+                stationRouteOffsets[s + 1] = stationRouteOffsets[s] + servedCount[s];
+            }
+            this.stationRoutes = new int[routeStops.length];
+            this.stationRoutePositions = new int[routeStops.length];
+            int[] next = Arrays.copyOf(stationRouteOffsets, stationCount);
+            for (int r = 0; r < routes.size(); r++) {
+                int[] stops = routes.get(r);
+                for (int position = 0; position < stops.length; position++) {
+                    int slot = next[stops[position]]++;
+                    stationRoutes[slot] = r;
+                    stationRoutePositions[slot] = position;
+                }
+            }
+        }
+
+        public int stationCount() {
+            return stationKeys.length;
+        }
+
+        public int routeCount() {
+            return routeIds.length;
+        }
+
+        /**
+         * @return int - Dense index of the station, or -1 if no route serves it
+         */
+        public int stationIndex(String stationKey) {
+            return stationIndex.getOrDefault(stationKey, -1);
+        }
+
+        public String stationName(int station) {
+            return stationNames[station];
+        }
+
+        public long routeId(int route) {
+            return routeIds[route];
+        }
+
+        public int stopCount(int route) {
+            return routeStopOffsets[route + 1] - routeStopOffsets[route];
+        }
+
+        public int stop(int route, int position) {
+            return routeStops[routeStopOffsets[route] + position];
+        }
+    }
+
+    private final List<String> stationKeys = new ArrayList<>();
+    private final List<String> stationNames = new ArrayList<>();
+    private final Map<String, Integer> stationIndex = new HashMap<>();
+    private final List<Long> routeIds = new ArrayList<>();
+    private final List<int[]> routes = new ArrayList<>();
+
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    private RouteStopRepository routeStopRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @PostConstruct
+    public void rebuild() {
+        List<Object[]> rows = shardRouter.gatherAll(shard -> routeStopRepository.findAllRouteStations());
+        synchronized (this) {
+            stationKeys.clear();
+            stationNames.clear();
+            stationIndex.clear();
+            routeIds.clear();
+            routes.clear();
+            int start = 0;
+            for (int i = 1; i <= rows.size(); i++) {
+                if (i == rows.size() || !rows.get(i)[0].equals(rows.get(start)[0])) {
+                    List<String> keys = new ArrayList<>();
+                    List<String> names = new ArrayList<>();
+                    for (Object[] row : rows.subList(start, i)) {
+                        keys.add((String) row[1]);
+                        names.add((String) row[2]);
+                    }
+                    appendRoute((Long) rows.get(start)[0], keys, names);
+                    start = i;
+                }
+            }
+            snapshot = null;
+        }
+    }
+
+    @EventListener
+    public void onCatalogueLoaded(CatalogueLoadedEvent event) {
+        rebuild();
+    }
+
+    @TransactionalEventListener
+    public void onRouteCreated(RouteCreatedEvent event) {
+        addRoute(event.routeId(), event.stationKeys(), event.stationNames());
+    }
+
+    public synchronized void addRoute(long routeId, List<String> keys, List<String> names) {
+        appendRoute(routeId, keys, names);
+        snapshot = null;
+    }
+
+    /**
+     * @return Snapshot - The current graph, rebuilt first if routes were added since the last call
+     */
+    public Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                snapshot = new Snapshot(stationKeys, stationNames, stationIndex, routeIds, routes);
+            }
+            return snapshot;
+        }
+    }
+
+    private void appendRoute(long routeId, List<String> keys, List<String> names) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        int[] stops = new int[keys.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            String name = names.get(i);
+            stops[i] = stationIndex.computeIfAbsent(keys.get(i), key -> {
+                stationKeys.add(key);
+                stationNames.add(name);
+                return stationKeys.size() - 1;
+            });
+        }
+        routeIds.add(routeId);
+        routes.add(stops);
+    }
+}
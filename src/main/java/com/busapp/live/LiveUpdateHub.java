@@ -0,0 +1,418 @@
+package com.busapp.live;
+
+import com.busapp.dto.BusPositionResponse;
+import com.busapp.event.BusCreatedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans out live route updates to Server-Sent Events subscribers (GET /transport/route/{id}/live)
+ *
+ * Publishing never waits for a subscriber:
+ * - position pings only mark their bus as changed (and only on routes that have subscribers);
+ *   every "transport.live.flush-interval-ms" the latest position of each changed bus is offered
+ *   to the route's subscribers, so a bus pinging many times per interval costs one update
+ * - every subscriber has a bounded buffer ("transport.live.buffer-size" updates) with an
+ *   overflow policy: COALESCE keeps only the newest update per bus, DROP_OLDEST keeps the
+ *   newest updates in arrival order; either way the excess is dropped and counted
+ * - buffers are drained on a bounded pool of "transport.live.drain-threads" platform threads.
+ *   Not on virtual threads: SseEmitter.send writes to the socket while holding the emitter's
+ *   monitor, which pins a virtual thread's carrier for as long as the write blocks. A drain
+ *   sends one batch and queues itself again if more arrived, so a slow client holds at most one
+ *   drain thread and the others share the rest
+ * - a write still blocked after "transport.live.write-timeout-ms" is a stalled client: it is
+ *   unsubscribed and the pool gets one more thread for as long as the write holds its own.
+ *   The blocked send cannot be cancelled (completing the emitter needs the monitor it holds),
+ *   so the drain completes the emitter once the write returns or the container's write
+ *   timeout fails it
+ *
+ * Metrics: transport.live.subscribers (gauge), transport.live.dropped and
+ * transport.live.sent (counters, tagged with the policy), transport.live.stalled (counter).
+ */
+@Component
+public class LiveUpdateHub {
+
+    public enum OverflowPolicy {
+        COALESCE, DROP_OLDEST
+    }
+
+    /**
+     * One SSE event; updates with the same key supersede each other under COALESCE
+     */
+    record Update(String key, String name, Object data) {
+    }
+
+    private final Map<Long, List<Subscriber>> subscribersByRoute = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> changedBusesByRoute = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private ThreadPoolExecutor drainExecutor;
+    // Drain threads held by the writes of stalled subscribers (the pool is that much larger)
+    private int stalledDrains;
+
+    @Value("${transport.live.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${transport.live.drain-threads:8}")
+    private int drainThreads;
+
+    @Value("${transport.live.write-timeout-ms:5000}")
+    private long writeTimeoutMillis;
+
+    @Value("${transport.live.timeout-ms:1800000}")
+    private long timeoutMillis;
+
+    @Autowired
+    private PositionStore positionStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<OverflowPolicy, Counter> droppedCounters = new ConcurrentHashMap<>();
+    private final Map<OverflowPolicy, Counter> sentCounters = new ConcurrentHashMap<>();
+    private Counter stalledCounter;
+
+    @PostConstruct
+    public void start() {
+        drainExecutor = new ThreadPoolExecutor(drainThreads, drainThreads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                Thread.ofPlatform().name("sse-drain-", 0).daemon().factory());
+        Gauge.builder("transport.live.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open SSE subscriptions to live route updates")
+                .register(meterRegistry);
+        for (OverflowPolicy policy : OverflowPolicy.values()) {
+            droppedCounters.put(policy, Counter.builder("transport.live.dropped")
+                    .description("Live updates dropped because a subscriber's buffer was full")
+                    .tag("policy", policy.name()).register(meterRegistry));
+            sentCounters.put(policy, Counter.builder("transport.live.sent")
+                    .description("Live updates written to subscribers")
+                    .tag("policy", policy.name()).register(meterRegistry));
+        }
+        stalledCounter = Counter.builder("transport.live.stalled")
+                .description("Subscribers dropped because a write to them blocked past the write timeout")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        drainExecutor.shutdownNow();
+    }
+
+    /**
+     * Opens a subscription; the first event ("snapshot") holds the route's current positions
+     */
+    public SseEmitter subscribe(long routeId, OverflowPolicy policy, List<BusPositionResponse> currentPositions) {
+        return subscribe(routeId, policy, currentPositions, new SseEmitter(timeoutMillis));
+    }
+
+    SseEmitter subscribe(long routeId, OverflowPolicy policy, List<BusPositionResponse> currentPositions, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(routeId, policy, emitter);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(error -> unsubscribe(subscriber));
+        // compute/computeIfPresent: adding and removing the last subscriber of a route cannot interleave
+        subscribersByRoute.compute(routeId, (key, subscribers) -> {
+            List<Subscriber> list = subscribers == null ? new CopyOnWriteArrayList<>() : subscribers;
+            list.add(subscriber);
+            return list;
+        });
+        subscriberCount.incrementAndGet();
+        subscriber.offer(new Update("snapshot", "snapshot", currentPositions));
+        return emitter;
+    }
+
+    /**
+     * Called after pings of a bus were recorded: the bus's latest position goes out with the next flush
+     */
+    public void positionsChanged(long routeId, long busId) {
+        if (subscribersByRoute.containsKey(routeId)) {
+            changedBusesByRoute.computeIfAbsent(routeId, key -> ConcurrentHashMap.newKeySet()).add(busId);
+        }
+    }
+
+    @TransactionalEventListener
+    public void onBusCreated(BusCreatedEvent event) {
+        publish(event.routeId(), new Update("bus:" + event.busId(), "bus", event));
+    }
+
+    @Scheduled(fixedDelayString = "${transport.live.flush-interval-ms:250}")
+    public void flushPositions() {
+        for (Map.Entry<Long, Set<Long>> entry : changedBusesByRoute.entrySet()) {
+            if (!subscribersByRoute.containsKey(entry.getKey())) {
+                changedBusesByRoute.remove(entry.getKey());
+                continue;
+            }
+            for (Iterator<Long> iterator = entry.getValue().iterator(); iterator.hasNext(); ) {
+                Long busId = iterator.next();
+                // Removed before reading: a ping recorded after this read marks the bus again
+                iterator.remove();
+                PositionStore.Track track = positionStore.track(busId);
+                PositionStore.Position position = track == null ? null : track.latest();
+                if (position != null) {
+                    publish(entry.getKey(), new Update("position:" + busId, "position", new BusPositionResponse(position)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Keeps idle connections alive and detects clients that went away
+     */
+    @Scheduled(fixedDelayString = "${transport.live.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        for (List<Subscriber> subscribers : subscribersByRoute.values()) {
+            for (Subscriber subscriber : subscribers) {
+                subscriber.heartbeat();
+            }
+        }
+    }
+
+    /**
+     * Drops the subscribers whose current write has blocked for longer than the write timeout
+     */
+    @Scheduled(fixedDelayString = "${transport.live.stall-check-interval-ms:1000}")
+    public void dropStalledSubscribers() {
+        long now = System.nanoTime();
+        for (List<Subscriber> subscribers : subscribersByRoute.values()) {
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.stalled(now)) {
+                    unsubscribe(subscriber);
+                    resizeDrainPool(1);
+                    stalledCounter.increment();
+                }
+            }
+        }
+    }
+
+    /**
+     * Grows the drain pool by one thread per write held by a stalled subscriber, and shrinks it
+     * back once that write has returned
+     */
+    private synchronized void resizeDrainPool(int delta) {
+        stalledDrains += delta;
+        int size = drainThreads + stalledDrains;
+        if (delta > 0) {
+            drainExecutor.setMaximumPoolSize(size);
+            drainExecutor.setCorePoolSize(size);
+        } else {
+            drainExecutor.setCorePoolSize(size);
+            drainExecutor.setMaximumPoolSize(size);
+        }
+    }
+
+    private void publish(long routeId, Update update) {
+        List<Subscriber> subscribers = subscribersByRoute.get(routeId);
+        if (subscribers != null) {
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(update);
+            }
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (!subscriber.close()) {
+            return;
+        }
+        subscribersByRoute.computeIfPresent(subscriber.routeId, (key, list) -> {
+            list.remove(subscriber);
+            return list.isEmpty() ? null : list;
+        });
+        subscriberCount.decrementAndGet();
+    }
+
+    /**
+     * A subscriber's bounded buffer; all buffer state is guarded by the subscriber's monitor
+     */
+    private final class Subscriber {
+        private final long routeId;
+        private final OverflowPolicy policy;
+        private final SseEmitter emitter;
+        private final LinkedHashMap<String, Update> coalesced = new LinkedHashMap<>();
+        private final ArrayDeque<Update> queued = new ArrayDeque<>();
+        private boolean heartbeatPending;
+        private boolean draining;
+        private boolean closed;
+        // System.nanoTime() when the running drain started writing, 0 while not writing
+        private long writeStartedNanos;
+        private boolean stalled;
+
+        Subscriber(long routeId, OverflowPolicy policy, SseEmitter emitter) {
+            this.routeId = routeId;
+            this.policy = policy;
+            this.emitter = emitter;
+        }
+
+        void offer(Update update) {
+            boolean dropped = false;
+            boolean start;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (policy == OverflowPolicy.COALESCE) {
+                    coalesced.remove(update.key()); // re-inserted at the end: newest last
+                    coalesced.put(update.key(), update);
+                    if (coalesced.size() > bufferSize) {
+                        Iterator<Update> oldest = coalesced.values().iterator();
+                        oldest.next();
+                        oldest.remove();
+                        dropped = true;
+                    }
+                } else {
+                    if (queued.size() == bufferSize) {
+                        queued.pollFirst();
+                        dropped = true;
+                    }
+                    queued.addLast(update);
+                }
+                start = startDrain();
+            }
+            if (dropped) {
+                droppedCounters.get(policy).increment();
+            }
+            if (start) {
+                drainExecutor.execute(this::drain);
+            }
+        }
+
+        void heartbeat() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                heartbeatPending = true;
+                if (!startDrain()) {
+                    return;
+                }
+            }
+            drainExecutor.execute(this::drain);
+        }
+
+        /**
+         * @return boolean - false if the subscriber was already closed
+         */
+        synchronized boolean close() {
+            if (closed) {
+                return false;
+            }
+            closed = true;
+            coalesced.clear();
+            queued.clear();
+            return true;
+        }
+
+        private synchronized boolean isClosed() {
+            return closed;
+        }
+
+        /**
+         * Marks the subscriber stalled if its current write started more than the write timeout
+         * before now
+         *
+         * @return boolean - true if it was marked now (the caller drops it)
+         */
+        synchronized boolean stalled(long now) {
+            if (stalled || writeStartedNanos == 0 || now - writeStartedNanos < TimeUnit.MILLISECONDS.toNanos(writeTimeoutMillis)) {
+                return false;
+            }
+            stalled = true;
+            return true;
+        }
+
+        /**
+         * @return boolean - true if the caller must start a drain (none is running)
+         */
+        private boolean startDrain() {
+            if (draining) {
+                return false;
+            }
+            draining = true;
+            return true;
+        }
+
+        /**
+         * Sends what is buffered now; updates that arrive meanwhile get a new drain, queued
+         * behind the other subscribers' drains
+         */
+        private void drain() {
+            List<Update> batch;
+            boolean sendHeartbeat;
+            synchronized (this) {
+                batch = new ArrayList<>(policy == OverflowPolicy.COALESCE ? coalesced.values() : queued);
+                coalesced.clear();
+                queued.clear();
+                sendHeartbeat = heartbeatPending && batch.isEmpty();
+                heartbeatPending = false;
+                if (batch.isEmpty() && !sendHeartbeat) {
+                    draining = false;
+                    return;
+                }
+                writeStartedNanos = Math.max(System.nanoTime(), 1);
+            }
+            Exception failure = null;
+            try {
+                if (sendHeartbeat) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                }
+                int sent = 0;
+                // Stops early once the subscriber was dropped (stalled) during the batch
+                for (Iterator<Update> updates = batch.iterator(); updates.hasNext() && !isClosed(); sent++) {
+                    Update update = updates.next();
+                    emitter.send(SseEmitter.event().name(update.name()).data(update.data(), MediaType.APPLICATION_JSON));
+                }
+                sentCounters.get(policy).increment(sent);
+            } catch (IOException | IllegalStateException e) {
+                // Client went away (or the emitter already completed)
+                failure = e;
+            }
+            boolean wasStalled;
+            synchronized (this) {
+                writeStartedNanos = 0;
+                wasStalled = stalled;
+            }
+            if (wasStalled) {
+                // Already unsubscribed; this thread's replacement is no longer needed
+                resizeDrainPool(-1);
+            }
+            if (failure != null || wasStalled) {
+                unsubscribe(this);
+                if (failure != null) {
+                    emitter.completeWithError(failure);
+                } else {
+                    emitter.complete();
+                }
+                return;
+            }
+            boolean more;
+            synchronized (this) {
+                more = !closed && (heartbeatPending || !coalesced.isEmpty() || !queued.isEmpty());
+                draining = more;
+            }
+            if (more) {
+                drainExecutor.execute(this::drain);
+            }
+        }
+    }
+}
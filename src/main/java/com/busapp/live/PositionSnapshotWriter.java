@@ -0,0 +1,87 @@
+package com.busapp.live;
+
+import com.busapp.shard.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Periodically copies the latest position of each bus into the bus_positions table
+ *
+ * Enabled with transport.positions.snapshot.enabled=true. Only buses that reported since
+ * the previous run are written, with plain JDBC MERGE statements sent in batches, so the
+ * snapshot costs a few round trips however many pings arrived in between. A track counts as
+ * snapshotted once the batch holding its position has been written; a batch that fails is
+ * written again by the next run.
+ */
+@Component
+@ConditionalOnProperty(name = "transport.positions.snapshot.enabled", havingValue = "true")
+public class PositionSnapshotWriter {
+    private static final String MERGE_SQL =
+            "MERGE INTO bus_positions (bus_id, route_id, latitude, longitude, recorded_at) KEY (bus_id) VALUES (?, ?, ?, ?, ?)";
+    private static final Logger log = LoggerFactory.getLogger(PositionSnapshotWriter.class);
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * Position of a track to write, and the pings it covers
+     */
+    private record Pending(PositionStore.Track track, long recorded, Object[] row) {
+    }
+
+    @Autowired
+    private PositionStore positionStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Scheduled(fixedDelayString = "${transport.positions.snapshot.interval-ms:30000}")
+    public void snapshot() {
+        // One batch per shard: a position is stored on the shard of its bus
+        Map<Integer, List<Pending>> batches = new TreeMap<>();
+        for (PositionStore.Track track : positionStore.tracks()) {
+            long recorded = track.recorded();
+            if (recorded == track.snapshotted) {
+                continue;
+            }
+            PositionStore.Position position = track.latest();
+            if (position == null) {
+                continue;
+            }
+            int shard = shardRouter.shardOf(position.busId());
+            List<Pending> batch = batches.computeIfAbsent(shard, key -> new ArrayList<>(BATCH_SIZE));
+            batch.add(new Pending(track, recorded, new Object[]{position.busId(), position.routeId(), position.latitude(),
+                    position.longitude(), new Timestamp(position.recordedAtMillis())}));
+            if (batch.size() == BATCH_SIZE) {
+                write(shard, batch);
+                batch.clear();
+            }
+        }
+        batches.forEach(this::write);
+    }
+
+    private void write(int shard, List<Pending> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            shardRouter.onShard(shard, () -> jdbcTemplate.batchUpdate(MERGE_SQL, batch.stream().map(Pending::row).toList()));
+        } catch (DataAccessException e) {
+            log.warn("Writing {} bus positions on shard {} failed, retrying with the next snapshot", batch.size(), shard, e);
+            return;
+        }
+        batch.forEach(pending -> pending.track().snapshotted = pending.recorded());
+    }
+}
@@ -0,0 +1,270 @@
+package com.busapp.live;
+
+import com.busapp.event.BusCreatedEvent;
+import com.busapp.event.CatalogueLoadedEvent;
+import com.busapp.repository.BusRepository;
+import com.busapp.shard.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * In-memory store of live bus positions (GPS pings)
+ *
+ * Every known bus gets a Track: a ring buffer of its last "transport.positions.history-size"
+ * positions, preallocated as one primitive long[] when the bus is registered (at startup and
+ * on BusCreatedEvent). Recording a ping allocates nothing and never touches JPA.
+ *
+ * Each ring slot is [stamp, recordedAtMillis, latitudeBits, longitudeBits] and works as a
+ * seqlock: the stamp of the ping with sequence number s is 2s+1 while it is being written and
+ * 2s+2 once complete. Readers never lock; they re-read the stamp after the data and retry
+ * (or fall back to an older slot) when it changed. Writers claim a slot with a CAS on its
+ * stamp, so two writers only meet when the ring wraps around during a write.
+ */
+@Component
+public class PositionStore {
+    private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final int STRIDE = 4;
+    private static final long[] NO_BUSES = new long[0];
+
+    /**
+     * One position of a bus
+     */
+    public record Position(long busId, long routeId, double latitude, double longitude, long recordedAtMillis) {
+    }
+
+    /**
+     * Ring buffer of one bus
+     */
+    public static final class Track {
+        private static final VarHandle HEAD;
+
+        static {
+            try {
+                HEAD = MethodHandles.lookup().findVarHandle(Track.class, "head", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private final long busId;
+        private final long routeId;
+        private final long[] slots;
+        private final int mask;
+        @SuppressWarnings("unused")
+        private volatile long head;
+        // Pings covered by the last database snapshot (only used by the snapshot thread)
+        long snapshotted;
+
+        Track(long busId, long routeId, int capacity) {
+            this.busId = busId;
+            this.routeId = routeId;
+            this.slots = new long[capacity * STRIDE];
+            this.mask = capacity - 1;
+        }
+
+        public long busId() {
+            return busId;
+        }
+
+        public long routeId() {
+            return routeId;
+        }
+
+        /**
+         * @return long - Number of pings recorded so far (the next sequence number)
+         */
+        public long recorded() {
+            return (long) HEAD.getAcquire(this);
+        }
+
+        void record(double latitude, double longitude, long recordedAtMillis) {
+            long sequence = (long) HEAD.getAndAdd(this, 1L);
+            long writing = 2 * sequence + 1;
+            int base = (int) (sequence & mask) * STRIDE;
+            for (;;) {
+                long stamp = (long) SLOT.getAcquire(slots, base);
+                if (stamp >= writing) {
+                    return; // A newer ping already took this slot: this one is no longer among the last N
+                }
+                if ((stamp & 1) == 0 && SLOT.compareAndSet(slots, base, stamp, writing)) {
+                    break;
+                }
+                Thread.onSpinWait(); // An older ping is still being written into this slot
+            }
+            slots[base + 1] = recordedAtMillis;
+            slots[base + 2] = Double.doubleToRawLongBits(latitude);
+            slots[base + 3] = Double.doubleToRawLongBits(longitude);
+            SLOT.setRelease(slots, base, writing + 1);
+        }
+
+        /**
+         * @return Position - The ping with the given sequence number, or null if it was
+         *         overwritten or is still being written
+         */
+        Position read(long sequence) {
+            long complete = 2 * sequence + 2;
+            int base = (int) (sequence & mask) * STRIDE;
+            if ((long) SLOT.getAcquire(slots, base) != complete) {
+                return null;
+            }
+            long recordedAt = slots[base + 1];
+            long latitude = slots[base + 2];
+            long longitude = slots[base + 3];
+            VarHandle.acquireFence(); // The data reads above happen before the stamp is checked again
+            if ((long) SLOT.getOpaque(slots, base) != complete) {
+                return null;
+            }
+            return new Position(busId, routeId, Double.longBitsToDouble(latitude), Double.longBitsToDouble(longitude), recordedAt);
+        }
+
+        /**
+         * Pings may arrive out of order (a device uploading buffered positions late), so this
+         * is the retained position with the highest recordedAtMillis, not the last to arrive;
+         * of several with the same time, the last to arrive
+         *
+         * @return Position - The newest complete position, or null if none was recorded
+         */
+        public Position latest() {
+            Position latest = null;
+            long head = recorded();
+            for (long sequence = head - 1; sequence >= 0 && sequence >= head - slots.length / STRIDE; sequence--) {
+                Position position = read(sequence);
+                if (position != null && (latest == null || position.recordedAtMillis() > latest.recordedAtMillis())) {
+                    latest = position;
+                }
+            }
+            return latest;
+        }
+
+        /**
+         * Hands the retained positions to the consumer, newest first
+         */
+        public void history(Consumer<Position> consumer) {
+            long head = recorded();
+            for (long sequence = head - 1; sequence >= 0 && sequence >= head - slots.length / STRIDE; sequence--) {
+                Position position = read(sequence);
+                if (position != null) {
+                    consumer.accept(position);
+                }
+            }
+        }
+    }
+
+    private final Map<Long, Track> tracks = new ConcurrentHashMap<>();
+    private final Map<Long, long[]> busIdsByRoute = new ConcurrentHashMap<>();
+
+    @Value("${transport.positions.history-size:16}")
+    private int historySize;
+
+    @Autowired
+    private BusRepository busRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @PostConstruct
+    public void load() {
+        if (Integer.bitCount(historySize) != 1) {
+            throw new IllegalStateException("transport.positions.history-size must be a power of two, was " + historySize);
+        }
+        List<Object[]> rows = shardRouter.gatherAll(shard -> busRepository.findAllBusRoutePairs());
+        int start = 0;
+        for (int i = 1; i <= rows.size(); i++) {
+            if (i == rows.size() || !rows.get(i)[1].equals(rows.get(start)[1])) {
+                registerAll((Long) rows.get(start)[1], rows.subList(start, i));
+                start = i;
+            }
+        }
+    }
+
+    @EventListener
+    public void onCatalogueLoaded(CatalogueLoadedEvent event) {
+        load();
+    }
+
+    @TransactionalEventListener
+    public void onBusCreated(BusCreatedEvent event) {
+        register(event.busId(), event.routeId());
+    }
+
+    public void register(long busId, long routeId) {
+        if (tracks.putIfAbsent(busId, new Track(busId, routeId, historySize)) == null) {
+            appendBusIds(routeId, new long[]{busId}, 1);
+        }
+    }
+
+    /**
+     * Registers all buses of one route, growing the route's bus ID array once
+     */
+    private void registerAll(long routeId, List<Object[]> rows) {
+        long[] added = new long[rows.size()];
+        int count = 0;
+        for (Object[] row : rows) {
+            long busId = (Long) row[0];
+            if (tracks.putIfAbsent(busId, new Track(busId, routeId, historySize)) == null) {
+                added[count++] = busId;
+            }
+        }
+        if (count > 0) {
+            appendBusIds(routeId, added, count);
+        }
+    }
+
+    private void appendBusIds(long routeId, long[] added, int count) {
+        busIdsByRoute.compute(routeId, (key, busIds) -> {
+            long[] current = busIds == null ? NO_BUSES : busIds;
+            long[] grown = Arrays.copyOf(current, current.length + count);
+            System.arraycopy(added, 0, grown, current.length, count);
+            return grown;
+        });
+    }
+
+    /**
+     * @return Track - The track of the bus, or null for an unknown bus
+     */
+    public Track track(long busId) {
+        return tracks.get(busId);
+    }
+
+    /**
+     * @return boolean - false if the bus is unknown
+     */
+    public boolean record(long busId, double latitude, double longitude, long recordedAtMillis) {
+        Track track = tracks.get(busId);
+        if (track == null) {
+            return false;
+        }
+        track.record(latitude, longitude, recordedAtMillis);
+        return true;
+    }
+
+    /**
+     * Hands the latest position of every bus of the route that has reported one to the consumer
+     */
+    public void latestOfRoute(long routeId, Consumer<Position> consumer) {
+        for (long busId : busIdsByRoute.getOrDefault(routeId, NO_BUSES)) {
+            Position position = tracks.get(busId).latest();
+            if (position != null) {
+                consumer.accept(position);
+            }
+        }
+    }
+
+    /**
+     * Iterates over all tracks (used by the database snapshot)
+     */
+    public Iterable<Track> tracks() {
+        return tracks.values();
+    }
+}
@@ -0,0 +1,51 @@
+package com.busapp.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Records the number of SQL statements executed per request
+ * 
+ * Published as the "http.server.requests.sql" distribution summary, tagged with the
+ * same method/uri values as Spring's http.server.requests timer.
+ */
+@Component
+public class SqlCountInterceptor implements HandlerInterceptor {
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        sqlStatementCounter.reset();
+        return true;
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        DistributionSummary.builder("http.server.requests.sql")
+                .description("SQL statements executed per request")
+                .baseUnit("statements")
+                .tag("method", request.getMethod())
+                .tag("uri", uriTag(request))
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry)
+                .record(sqlStatementCounter.current());
+    }
+    
+    /**
+     * @return String - The matched URL pattern (e.g. /transport/route/{id}), or UNKNOWN
+     */
+    public static String uriTag(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+}
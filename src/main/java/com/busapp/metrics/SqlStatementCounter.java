@@ -0,0 +1,40 @@
+package com.busapp.metrics;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread
+ * 
+ * Registered with Hibernate as its StatementInspector (via HibernatePropertiesCustomizer),
+ * so it sees every statement without changing it. SqlCountInterceptor resets the count
+ * when a request starts and records it when the request completes.
+ * 
+ * Statements issued directly through JdbcTemplate are not counted.
+ */
+@Component
+public class SqlStatementCounter implements StatementInspector, HibernatePropertiesCustomizer {
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+    
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+    
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+    
+    public void reset() {
+        COUNT.get()[0] = 0;
+    }
+    
+    public int current() {
+        return COUNT.get()[0];
+    }
+}
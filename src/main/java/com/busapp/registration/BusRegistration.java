@@ -0,0 +1,97 @@
+package com.busapp.registration;
+
+import com.busapp.dto.BusRequest;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * One queued bus registration (the ticket handed back by POST /transport/bus/async)
+ *
+ * Created by the request thread, finished once by the flusher thread; the fields set on
+ * completion are volatile and written before "done" completes, so a caller that waits on
+ * done() sees all of them.
+ */
+public final class BusRegistration {
+
+    public enum State {
+        /** In the queue, or in a group being committed */
+        QUEUED,
+        /** The bus is committed; busId is set */
+        COMMITTED,
+        /** The group commit refused this bus (see errors); nothing was written for it */
+        REJECTED,
+        /** The group commit failed (see errors); nothing was written for it, the client may retry */
+        FAILED
+    }
+
+    private final String id;
+    private final BusRequest request;
+    private final Instant acceptedAt = Instant.now();
+    private final CompletableFuture<BusRegistration> done = new CompletableFuture<>();
+    private volatile State state = State.QUEUED;
+    private volatile Long busId;
+    private volatile Map<String, String> errors;
+    private volatile Instant finishedAt;
+
+    BusRegistration(String id, BusRequest request) {
+        this.id = id;
+        this.request = request;
+    }
+
+    void commit(long busId) {
+        this.busId = busId;
+        finish(State.COMMITTED);
+    }
+
+    void reject(Map<String, String> errors) {
+        this.errors = errors;
+        finish(State.REJECTED);
+    }
+
+    void fail(String message) {
+        this.errors = Map.of("error", message);
+        finish(State.FAILED);
+    }
+
+    private void finish(State state) {
+        finishedAt = Instant.now();
+        this.state = state;
+        done.complete(this);
+    }
+
+    /**
+     * @return CompletableFuture - Completes with this registration when it leaves the QUEUED state
+     */
+    public CompletableFuture<BusRegistration> done() {
+        return done;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public BusRequest getRequest() {
+        return request;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public Long getBusId() {
+        return busId;
+    }
+
+    public Map<String, String> getErrors() {
+        return errors;
+    }
+
+    public Instant getAcceptedAt() {
+        return acceptedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+}
@@ -0,0 +1,283 @@
+package com.busapp.registration;
+
+import com.busapp.dto.BatchItemResult;
+import com.busapp.dto.BatchResponse;
+import com.busapp.dto.BusRequest;
+import com.busapp.dto.BusResponse;
+import com.busapp.exception.BusRegistrationNotFoundException;
+import com.busapp.exception.BusRegistrationQueueFullException;
+import com.busapp.exception.InvalidRouteIdException;
+import com.busapp.index.RouteIdSet;
+import com.busapp.service.BusService;
+import com.busapp.shard.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Write-behind queue for bus registrations (POST /transport/bus/async)
+ *
+ * A registration is checked (known route) and put into a bounded in-memory queue; the
+ * request thread does not open a transaction. One flusher thread takes the queue in groups
+ * of up to "transport.bus.write-behind.batch-size" buses, waiting at most
+ * "transport.bus.write-behind.max-delay-ms" after the first one for the group to fill, and
+ * commits each group with BusService.createBuses: one transaction per shard, one query
+ * locking the group's routes and batched INSERTs. Under load a commit is shared by hundreds
+ * of buses; when idle a bus waits at most max-delay-ms before its commit starts.
+ *
+ * Durability ("transport.bus.write-behind.durability"):
+ * - ACCEPTED: the request returns as soon as the bus is queued (202 and a ticket); buses
+ *   still queued are lost if the process dies (a graceful shutdown drains the queue)
+ * - COMMITTED: the request waits for the group commit of its bus (201 and the bus), up to
+ *   "transport.bus.write-behind.commit-timeout-ms" (then 202 and a ticket). A request thread
+ *   interrupted while waiting withdraws its bus if it is still queued (FAILED, nothing written)
+ *
+ * A full queue is not waited on: the request fails at once with 429 Too Many Requests.
+ * Tickets stay readable (GET /transport/bus/registrations/{id}) for
+ * "transport.bus.write-behind.ticket-ttl-ms" after their registration finished.
+ *
+ * Metrics: transport.bus.registrations.queued (gauge), transport.bus.registrations.group.size
+ * (distribution) and transport.bus.registrations.rejected.full (counter).
+ */
+@Component
+@ConditionalOnProperty(name = "transport.bus.write-behind.enabled", havingValue = "true")
+public class BusRegistrationQueue {
+    private static final Logger log = LoggerFactory.getLogger(BusRegistrationQueue.class);
+    // How long the idle flusher sleeps before checking for shutdown
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    public enum Durability {
+        ACCEPTED, COMMITTED
+    }
+
+    private final Map<String, BusRegistration> registrations = new ConcurrentHashMap<>();
+    private BlockingQueue<BusRegistration> queue;
+    private Thread flusher;
+    private volatile boolean closed;
+
+    @Value("${transport.bus.write-behind.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${transport.bus.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${transport.bus.write-behind.max-delay-ms:10}")
+    private long maxDelayMillis;
+
+    @Value("${transport.bus.write-behind.durability:ACCEPTED}")
+    private Durability durability;
+
+    @Value("${transport.bus.write-behind.commit-timeout-ms:5000}")
+    private long commitTimeoutMillis;
+
+    @Value("${transport.bus.write-behind.ticket-ttl-ms:600000}")
+    private long ticketTtlMillis;
+
+    @Autowired
+    private BusService busService;
+
+    @Autowired
+    private RouteIdSet routeIdSet;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private DistributionSummary groupSizes;
+    private Counter queueFull;
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("transport.bus.registrations.queued", queue, BlockingQueue::size)
+                .description("Bus registrations waiting for their group commit")
+                .register(meterRegistry);
+        groupSizes = DistributionSummary.builder("transport.bus.registrations.group.size")
+                .description("Bus registrations committed together")
+                .register(meterRegistry);
+        queueFull = Counter.builder("transport.bus.registrations.rejected.full")
+                .description("Bus registrations refused with 429 because the queue was full")
+                .register(meterRegistry);
+        flusher = Thread.ofPlatform().name("bus-registration-flusher").daemon().start(this::run);
+    }
+
+    /**
+     * Stops accepting registrations and commits the ones still queued; any the flusher did
+     * not take within 30 seconds are failed rather than left QUEUED
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        closed = true;
+        flusher.join(TimeUnit.SECONDS.toMillis(30));
+        List<BusRegistration> left = new ArrayList<>();
+        queue.drainTo(left);
+        if (!left.isEmpty()) {
+            log.warn("{} bus registrations were not committed before shutdown", left.size());
+            left.forEach(registration -> registration.fail("Not committed before shutdown"));
+        }
+    }
+
+    /**
+     * Queues the bus; with COMMITTED durability, also waits for its group commit
+     * (up to the commit timeout)
+     *
+     * @return BusRegistration - QUEUED, or already finished
+     * @throws InvalidRouteIdException if the route does not exist
+     * @throws BusRegistrationQueueFullException if the queue is full (or shutting down)
+     */
+    public BusRegistration register(BusRequest request) {
+        if (!routeIdSet.contains(request.getRouteId())) {
+            throw new InvalidRouteIdException(request.getRouteId());
+        }
+        BusRegistration registration = new BusRegistration(UUID.randomUUID().toString(), request);
+        registrations.put(registration.getId(), registration);
+        boolean queued = !closed && queue.offer(registration);
+        // Closed since the check: the flusher may have exited before the offer. Unless the
+        // flusher or shutdown() has taken the registration already, it is withdrawn here
+        if (queued && closed && queue.remove(registration)) {
+            queued = false;
+        }
+        if (!queued) {
+            registrations.remove(registration.getId());
+            queueFull.increment();
+            throw new BusRegistrationQueueFullException(queueCapacity);
+        }
+        if (durability == Durability.COMMITTED) {
+            try {
+                registration.done().get(commitTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // Still queued: the client follows the ticket
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                // Still queued: withdrawn, so the caller is not told "accepted" for a bus it
+                // stopped waiting for. Already taken by the flusher: its ticket follows the commit
+                if (queue.remove(registration)) {
+                    registration.fail("Interrupted while waiting for the commit");
+                }
+            } catch (ExecutionException e) {
+                // Never completed exceptionally (see BusRegistration)
+            }
+        }
+        return registration;
+    }
+
+    /**
+     * @throws BusRegistrationNotFoundException if the ticket is unknown or has expired
+     */
+    public BusRegistration getRegistration(String id) {
+        BusRegistration registration = registrations.get(id);
+        if (registration == null) {
+            throw new BusRegistrationNotFoundException(id);
+        }
+        return registration;
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    @Scheduled(fixedDelayString = "${transport.bus.write-behind.ticket-sweep-ms:60000}")
+    public void expireTickets() {
+        Instant expiry = Instant.now().minusMillis(ticketTtlMillis);
+        registrations.values().removeIf(registration ->
+                registration.getFinishedAt() != null && registration.getFinishedAt().isBefore(expiry));
+    }
+
+    private void run() {
+        List<BusRegistration> group = new ArrayList<>(batchSize);
+        while (true) {
+            try {
+                BusRegistration first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (closed && queue.isEmpty()) {
+                        return;
+                    }
+                    continue;
+                }
+                group.add(first);
+                fill(group);
+            } catch (InterruptedException e) {
+                // Not interrupted by shutdown(); commit what was taken and drain the rest
+                closed = true;
+                queue.drainTo(group);
+            }
+            commit(group);
+            group.clear();
+        }
+    }
+
+    /**
+     * Adds queued registrations to the group until it has batchSize of them or max-delay-ms
+     * have passed since the first one (no waiting on shutdown)
+     */
+    private void fill(List<BusRegistration> group) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        while (group.size() < batchSize) {
+            if (queue.drainTo(group, batchSize - group.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || closed) {
+                return;
+            }
+            BusRegistration next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            group.add(next);
+        }
+    }
+
+    /**
+     * One createBuses call per shard, so each call is a single transaction: it either
+     * commits all its valid buses or none of them
+     */
+    private void commit(List<BusRegistration> group) {
+        groupSizes.record(group.size());
+        Map<Integer, List<BusRegistration>> byShard = new TreeMap<>();
+        for (BusRegistration registration : group) {
+            byShard.computeIfAbsent(shardRouter.shardOf(registration.getRequest().getRouteId()), shard -> new ArrayList<>())
+                    .add(registration);
+        }
+        byShard.forEach((shard, shardGroup) -> {
+            try {
+                BatchResponse<BusResponse> response = busService.createBuses(shardGroup.stream().map(BusRegistration::getRequest).toList());
+                for (BatchItemResult<BusResponse> item : response.getItems()) {
+                    BusRegistration registration = shardGroup.get(item.getIndex());
+                    if (BatchItemResult.CREATED.equals(item.getStatus())) {
+                        registration.commit(item.getResult().getId());
+                    } else {
+                        registration.reject(item.getErrors());
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.error("Committing {} bus registrations on shard {} failed", shardGroup.size(), shard, e);
+                shardGroup.forEach(registration -> registration.fail("Commit failed: " + e.getMessage()));
+            }
+        });
+    }
+}
@@ -0,0 +1,88 @@
+package com.busapp.replica;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletResponse;
+import java.util.function.Supplier;
+
+/**
+ * Read-your-writes for replica reads, per request thread
+ *
+ * Every committed write has a write sequence number (see ReplicationLog). A request that
+ * writes gets the number back in the "transport-write-seq" cookie; a later request carrying
+ * the cookie only reads from replicas that have applied that write, and from the primary
+ * otherwise. Requests without the cookie accept any replica within the allowed lag.
+ *
+ * The state is set by ReadYourWritesInterceptor around each /transport request and handed
+ * to the scatter-gather threads by ShardRouter.
+ */
+public final class ReadYourWrites {
+    public static final String COOKIE = "transport-write-seq";
+
+    private static final ThreadLocal<State> STATE = new ThreadLocal<>();
+
+    /**
+     * @param requiredSequence - Highest write sequence the client has seen
+     * @param response - Receives the cookie after a write; null outside a request
+     */
+    private record State(long requiredSequence, HttpServletResponse response) {
+    }
+
+    private ReadYourWrites() {
+    }
+
+    /**
+     * @return long - The write sequence reads on this thread must see (0 if none)
+     */
+    public static long requiredSequence() {
+        State state = STATE.get();
+        return state == null ? 0 : state.requiredSequence();
+    }
+
+    /**
+     * Runs the work on another thread with the required sequence of the calling thread (without its response)
+     */
+    public static <T> T callWith(long requiredSequence, Supplier<T> work) {
+        State previous = STATE.get();
+        STATE.set(new State(requiredSequence, null));
+        try {
+            return work.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    static void begin(long requiredSequence, HttpServletResponse response) {
+        STATE.set(new State(requiredSequence, response));
+    }
+
+    static void end() {
+        STATE.remove();
+    }
+
+    /**
+     * Called after a transaction committed on a primary: later reads of this request (and of
+     * the client, through the cookie) must see it
+     */
+    static void wrote(long writeSequence) {
+        State state = STATE.get();
+        if (state == null || writeSequence <= state.requiredSequence()) {
+            return;
+        }
+        STATE.set(new State(writeSequence, state.response()));
+        HttpServletResponse response = state.response();
+        if (response != null && !response.isCommitted()) {
+            Cookie cookie = new Cookie(COOKIE, Long.toString(writeSequence));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            response.addCookie(cookie);
+        }
+    }
+
+    private static void restore(State previous) {
+        if (previous == null) {
+            STATE.remove();
+        } else {
+            STATE.set(previous);
+        }
+    }
+}
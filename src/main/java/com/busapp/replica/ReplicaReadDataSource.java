@@ -0,0 +1,37 @@
+package com.busapp.replica;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Connections for read-only transactions: the replica while it is fresh enough, the primary otherwise
+ *
+ * Used as the read-only DataSource of a LazyConnectionDataSourceProxy, which asks for the
+ * connection only when the transaction runs its first statement, after it was marked read-only.
+ */
+public class ReplicaReadDataSource extends DelegatingDataSource {
+    private final DataSource primary;
+    private final ReplicationLog replicationLog;
+
+    public ReplicaReadDataSource(DataSource replica, DataSource primary, ReplicationLog replicationLog) {
+        super(replica);
+        this.primary = primary;
+        this.replicationLog = replicationLog;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        boolean fresh = replicationLog.isFresh(ReadYourWrites.requiredSequence());
+        replicationLog.recordRead(fresh);
+        return fresh ? super.getConnection() : primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        boolean fresh = replicationLog.isFresh(ReadYourWrites.requiredSequence());
+        replicationLog.recordRead(fresh);
+        return fresh ? super.getConnection(username, password) : primary.getConnection(username, password);
+    }
+}
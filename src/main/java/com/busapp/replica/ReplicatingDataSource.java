@@ -0,0 +1,301 @@
+package com.busapp.replica;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The primary database, recording its writes for the replica
+ *
+ * Connections and statements are wrapped in JDK proxies that pass every call through and
+ * remember the executed writes: SQL text plus the PreparedStatement setter calls (one set
+ * per batch entry). On commit the transaction's writes go to the ReplicationLog; a rollback
+ * forgets them, and a rollback to a savepoint forgets those recorded after the savepoint
+ * was set. In auto-commit mode each write runs as a one-statement transaction
+ * (auto-commit is switched off around it), so it is numbered between its execution and
+ * its commit like any other transaction.
+ *
+ * Queries (executeQuery, and SELECT-like SQL passed to execute) are never recorded.
+ */
+public class ReplicatingDataSource extends DelegatingDataSource {
+    private static final Set<String> READ_KEYWORDS = Set.of("select", "with", "values", "table", "script", "explain", "show", "call", "help");
+    private static final Set<String> DDL_KEYWORDS = Set.of("create", "alter", "drop", "truncate", "comment", "grant", "revoke");
+
+    private final ReplicationLog replicationLog;
+
+    public ReplicatingDataSource(DataSource primary, ReplicationLog replicationLog) {
+        super(primary);
+        this.replicationLog = replicationLog;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                new RecordingConnection(connection));
+    }
+
+    private static String firstKeyword(String sql) {
+        String trimmed = sql.stripLeading();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        return trimmed.substring(0, end).toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isWrite(String sql) {
+        return !READ_KEYWORDS.contains(firstKeyword(sql));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Work that executes a statement on the primary
+     */
+    @FunctionalInterface
+    private interface Execution {
+        Object run() throws Throwable;
+    }
+
+    private record Mark(Savepoint savepoint, int writes) {
+    }
+
+    private final class RecordingConnection implements InvocationHandler {
+        private final Connection target;
+        private final List<ReplicationLog.Recorded> uncommitted = new ArrayList<>();
+        // Savepoints of the open transaction in the order they were set, each with the number of writes recorded before it
+        private final List<Mark> savepoints = new ArrayList<>();
+
+        RecordingConnection(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "createStatement" -> {
+                    return wrapStatement(Statement.class, (Statement) ReplicatingDataSource.invoke(target, method, args), null);
+                }
+                case "prepareStatement" -> {
+                    return wrapStatement(PreparedStatement.class, (Statement) ReplicatingDataSource.invoke(target, method, args), (String) args[0]);
+                }
+                case "commit" -> {
+                    if (uncommitted.isEmpty()) {
+                        target.commit();
+                    } else {
+                        published(replicationLog.commit(uncommitted, target::commit));
+                    }
+                    return null;
+                }
+                case "rollback" -> {
+                    Object result = ReplicatingDataSource.invoke(target, method, args);
+                    if (args == null) {
+                        forget();
+                    } else {
+                        rolledBackTo((Savepoint) args[0]);
+                    }
+                    return result;
+                }
+                case "setSavepoint" -> {
+                    Savepoint savepoint = (Savepoint) ReplicatingDataSource.invoke(target, method, args);
+                    savepoints.add(new Mark(savepoint, uncommitted.size()));
+                    return savepoint;
+                }
+                case "releaseSavepoint" -> {
+                    Object result = ReplicatingDataSource.invoke(target, method, args);
+                    savepoints.removeIf(mark -> mark.savepoint() == args[0]);
+                    return result;
+                }
+                case "setAutoCommit" -> {
+                    // Switching auto-commit on commits the open transaction
+                    if ((Boolean) args[0] && !uncommitted.isEmpty() && !target.getAutoCommit()) {
+                        published(replicationLog.commit(uncommitted, () -> target.setAutoCommit(true)));
+                        return null;
+                    }
+                    return ReplicatingDataSource.invoke(target, method, args);
+                }
+                case "close" -> {
+                    // The pool rolls back whatever was not committed
+                    forget();
+                    return ReplicatingDataSource.invoke(target, method, args);
+                }
+                default -> {
+                    return ReplicatingDataSource.invoke(target, method, args);
+                }
+            }
+        }
+
+        /**
+         * Executes a write: part of the open transaction, or committed (and logged) right away in auto-commit mode
+         */
+        Object executed(List<ReplicationLog.Recorded> writes, Execution execution) throws Throwable {
+            if (writes.isEmpty()) {
+                return execution.run();
+            }
+            if (!target.getAutoCommit()) {
+                Object result = execution.run();
+                uncommitted.addAll(writes);
+                return result;
+            }
+            target.setAutoCommit(false);
+            try {
+                Object result = execution.run();
+                published(replicationLog.commit(writes, target::commit));
+                return result;
+            } catch (Throwable e) {
+                target.rollback();
+                throw e;
+            } finally {
+                target.setAutoCommit(true);
+            }
+        }
+
+        private void published(long writeSequence) {
+            forget();
+            ReadYourWrites.wrote(writeSequence);
+        }
+
+        private void forget() {
+            uncommitted.clear();
+            savepoints.clear();
+        }
+
+        /**
+         * Drops the writes recorded after the savepoint; savepoints set after it are gone
+         * (the savepoint itself stays valid)
+         */
+        private void rolledBackTo(Savepoint savepoint) {
+            for (int i = savepoints.size() - 1; i >= 0; i--) {
+                Mark mark = savepoints.get(i);
+                if (mark.savepoint() == savepoint) {
+                    uncommitted.subList(mark.writes(), uncommitted.size()).clear();
+                    return;
+                }
+                savepoints.remove(i);
+            }
+            throw new IllegalStateException("Rolled back to a savepoint that was not set on this connection");
+        }
+
+        private Object wrapStatement(Class<? extends Statement> type, Statement statement, String sql) {
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new RecordingStatement(this, statement, sql));
+        }
+    }
+
+    private static final class RecordingStatement implements InvocationHandler {
+        private final RecordingConnection connection;
+        private final Statement target;
+        private final String preparedSql;
+        private final List<ReplicationLog.Parameter> parameters = new ArrayList<>();
+        private final List<List<ReplicationLog.Parameter>> batch = new ArrayList<>();
+        private final List<String> sqlBatch = new ArrayList<>();
+
+        RecordingStatement(RecordingConnection connection, Statement target, String preparedSql) {
+            this.connection = connection;
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && method.getParameterTypes()[0] == int.class) {
+                // A parameter setter: setLong(index, value), setNull(index, type), setObject(index, value, type), ...
+                parameters.add(new ReplicationLog.Parameter(method, args.clone()));
+                return ReplicatingDataSource.invoke(target, method, args);
+            }
+            switch (name) {
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "clearParameters" -> parameters.clear();
+                case "addBatch" -> {
+                    if (args == null) {
+                        batch.add(List.copyOf(parameters));
+                    } else {
+                        sqlBatch.add((String) args[0]);
+                    }
+                }
+                case "clearBatch" -> {
+                    batch.clear();
+                    sqlBatch.clear();
+                }
+                case "execute", "executeUpdate", "executeLargeUpdate" -> {
+                    return connection.executed(writes(args), () -> ReplicatingDataSource.invoke(target, method, args));
+                }
+                case "executeBatch", "executeLargeBatch" -> {
+                    List<ReplicationLog.Recorded> writes = batchWrites();
+                    batch.clear();
+                    sqlBatch.clear();
+                    return connection.executed(writes, () -> ReplicatingDataSource.invoke(target, method, args));
+                }
+                default -> {
+                }
+            }
+            return ReplicatingDataSource.invoke(target, method, args);
+        }
+
+        private List<ReplicationLog.Recorded> writes(Object[] args) {
+            if (args != null && args.length > 0) {
+                String sql = (String) args[0];
+                return isWrite(sql) ? List.of(new ReplicationLog.Recorded(sql, null, isDdl(sql))) : List.of();
+            }
+            if (preparedSql == null || !isWrite(preparedSql)) {
+                return List.of();
+            }
+            return List.of(new ReplicationLog.Recorded(preparedSql, List.of(List.copyOf(parameters)), isDdl(preparedSql)));
+        }
+
+        private List<ReplicationLog.Recorded> batchWrites() {
+            List<ReplicationLog.Recorded> writes = new ArrayList<>();
+            if (preparedSql != null && !batch.isEmpty() && isWrite(preparedSql)) {
+                writes.add(new ReplicationLog.Recorded(preparedSql, List.copyOf(batch), isDdl(preparedSql)));
+            }
+            for (String sql : sqlBatch) {
+                if (isWrite(sql)) {
+                    writes.add(new ReplicationLog.Recorded(sql, null, isDdl(sql)));
+                }
+            }
+            return writes;
+        }
+
+        private static boolean isDdl(String sql) {
+            return DDL_KEYWORDS.contains(firstKeyword(sql));
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.busapp.replica;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statement-based replication of one primary database into its replica
+ *
+ * Every committed transaction of the primary (its INSERT/UPDATE/MERGE/DDL statements with
+ * their parameters, see ReplicatingDataSource) becomes one entry with the next write
+ * sequence number. A single thread applies the entries to the replica in that order, one
+ * replica transaction per entry.
+ *
+ * A transaction takes its number after its last statement and before its commit, while it
+ * still holds its row locks; only the numbering is serialized, the commits run concurrently.
+ * Two transactions writing the same rows therefore get numbers in the order in which they
+ * changed them (the second one waits for the first one's commit, which comes after the first
+ * one's number), and a transaction can only read another one's writes after that one has
+ * been numbered. The apply thread waits for the outcome of an entry's commit before applying
+ * it, and skips it if the commit failed.
+ *
+ * Replaying the statements only reproduces the primary if they are deterministic: given
+ * the same rows, a statement must write the same values on the replica. Values have to come
+ * in as parameters or literals (IDs are taken from the sequences by separate queries, which
+ * are not replayed). Not replicated correctly: functions such as CURRENT_TIMESTAMP, RAND()
+ * or NEXT VALUE FOR inside a write, writes whose effect depends on rows the transaction
+ * neither wrote nor locked (INSERT ... SELECT from other tables, UPDATE ... WHERE on data
+ * changed concurrently), and writes depending on row order without an ORDER BY.
+ *
+ * Lag is the number of entries not applied yet and the age of the oldest of them.
+ */
+public class ReplicationLog {
+    private static final Logger log = LoggerFactory.getLogger(ReplicationLog.class);
+
+    /**
+     * One statement of a transaction: plain SQL (parameterSets null) or a prepared statement
+     * executed once per parameter set (a batch has several)
+     */
+    record Recorded(String sql, List<List<Parameter>> parameterSets, boolean ddl) {
+    }
+
+    /**
+     * One PreparedStatement setter call (setLong, setString, setNull, ...) to be replayed on the replica
+     */
+    record Parameter(Method setter, Object[] args) {
+    }
+
+    /**
+     * A transaction of the primary; committed completes with the outcome of its commit
+     */
+    private record Entry(long sequence, long committedAtMillis, List<Recorded> statements, boolean ddl,
+                         CompletableFuture<Boolean> committed) {
+    }
+
+    /**
+     * Work committing a transaction on the primary
+     */
+    @FunctionalInterface
+    interface Commit {
+        void run() throws SQLException;
+    }
+
+    private final int shard;
+    private final DataSource replica;
+    private final AtomicLong writeSequence;
+    private final long maxLagMillis;
+    private final long applyDelayMillis;
+    private final Object commitLock = new Object();
+    private final Queue<Entry> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final Semaphore available = new Semaphore(0);
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder primaryReads = new LongAdder();
+    private volatile long ddlSequence;
+    private volatile long appliedSequence;
+    private volatile boolean broken;
+
+    /**
+     * @param writeSequence - Shared by the logs of all shards, so one number orders the writes of a client
+     * @param maxLagMillis - Reads go to the primary while the oldest unapplied entry is older than this
+     * @param applyDelayMillis - Holds every entry back this long (simulates a remote replica); 0 for none
+     */
+    public ReplicationLog(int shard, DataSource replica, AtomicLong writeSequence, long maxLagMillis, long applyDelayMillis) {
+        this.shard = shard;
+        this.replica = replica;
+        this.writeSequence = writeSequence;
+        this.maxLagMillis = maxLagMillis;
+        this.applyDelayMillis = applyDelayMillis;
+        Thread.ofPlatform().daemon().name("replica-apply-" + shard).start(this::applyLoop);
+    }
+
+    /**
+     * Numbers the transaction, queues its statements for the replica and runs its commit on
+     * the primary. Must be called after the transaction's last statement (see the class comment).
+     *
+     * @return long - The write sequence number of the transaction
+     */
+    long commit(List<Recorded> statements, Commit commit) throws SQLException {
+        boolean ddl = statements.stream().anyMatch(Recorded::ddl);
+        Entry entry;
+        // Numbered and queued atomically, so the queue is in sequence order
+        synchronized (commitLock) {
+            entry = new Entry(writeSequence.incrementAndGet(), System.currentTimeMillis(), List.copyOf(statements), ddl,
+                    new CompletableFuture<>());
+            if (!broken) {
+                if (ddl) {
+                    ddlSequence = entry.sequence();
+                }
+                pending.add(entry);
+                pendingCount.incrementAndGet();
+                available.release();
+            }
+        }
+        try {
+            commit.run();
+        } catch (SQLException | RuntimeException | Error e) {
+            entry.committed().complete(false);
+            throw e;
+        }
+        entry.committed().complete(true);
+        return entry.sequence();
+    }
+
+    /**
+     * Whether a read may use the replica
+     *
+     * The replica must have applied every schema change and every write of the client
+     * (requiredSequence, see ReadYourWrites), and its oldest unapplied transaction must be
+     * younger than the allowed lag.
+     */
+    public boolean isFresh(long requiredSequence) {
+        if (broken || appliedSequence < ddlSequence) {
+            return false;
+        }
+        Entry oldest = pending.peek();
+        if (oldest == null) {
+            return true;
+        }
+        return oldest.sequence() > requiredSequence && System.currentTimeMillis() - oldest.committedAtMillis() <= maxLagMillis;
+    }
+
+    void recordRead(boolean fromReplica) {
+        (fromReplica ? replicaReads : primaryReads).increment();
+    }
+
+    public int pendingTransactions() {
+        return pendingCount.get();
+    }
+
+    public double lagSeconds() {
+        Entry oldest = pending.peek();
+        return oldest == null ? 0 : (System.currentTimeMillis() - oldest.committedAtMillis()) / 1000.0;
+    }
+
+    /**
+     * Publishes replica.lag.transactions, replica.lag.seconds and replica.reads (target=replica|primary)
+     */
+    public void bindTo(MeterRegistry registry) {
+        String shardTag = String.valueOf(shard);
+        Gauge.builder("replica.lag.transactions", this, ReplicationLog::pendingTransactions)
+                .description("Committed transactions not yet applied to the replica")
+                .tag("shard", shardTag)
+                .register(registry);
+        Gauge.builder("replica.lag.seconds", this, ReplicationLog::lagSeconds)
+                .description("Age of the oldest transaction not yet applied to the replica")
+                .tag("shard", shardTag)
+                .register(registry);
+        FunctionCounter.builder("replica.reads", replicaReads, LongAdder::sum)
+                .description("Read-only transactions by the database that served them")
+                .tags("shard", shardTag, "target", "replica")
+                .register(registry);
+        FunctionCounter.builder("replica.reads", primaryReads, LongAdder::sum)
+                .description("Read-only transactions by the database that served them")
+                .tags("shard", shardTag, "target", "primary")
+                .register(registry);
+    }
+
+    private void applyLoop() {
+        while (!broken) {
+            try {
+                available.acquire();
+                Entry entry = pending.peek();
+                // Queued before its commit on the primary: nothing to apply if that failed
+                if (entry.committed().join()) {
+                    long due = entry.committedAtMillis() + applyDelayMillis;
+                    if (due > System.currentTimeMillis()) {
+                        Thread.sleep(due - System.currentTimeMillis());
+                    }
+                    apply(entry);
+                }
+                appliedSequence = entry.sequence();
+                // Removed only once applied: isFresh() sees it as pending until then
+                pending.poll();
+                pendingCount.decrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (SQLException | ReflectiveOperationException | RuntimeException e) {
+                // The replica no longer matches the primary: all reads stay on the primary from now on
+                broken = true;
+                pending.clear();
+                pendingCount.set(0);
+                log.error("Replica of shard {} stopped: applying write {} failed, reads use the primary", shard, appliedSequence + 1, e);
+            }
+        }
+    }
+
+    private void apply(Entry entry) throws SQLException, ReflectiveOperationException {
+        try (Connection connection = replica.getConnection()) {
+            connection.setAutoCommit(false);
+            for (Recorded recorded : entry.statements()) {
+                if (recorded.parameterSets() == null) {
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute(recorded.sql());
+                    }
+                    continue;
+                }
+                try (PreparedStatement statement = connection.prepareStatement(recorded.sql())) {
+                    for (List<Parameter> parameters : recorded.parameterSets()) {
+                        for (Parameter parameter : parameters) {
+                            invoke(parameter, statement);
+                        }
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                }
+            }
+            connection.commit();
+        }
+    }
+
+    private static void invoke(Parameter parameter, PreparedStatement statement) throws SQLException, IllegalAccessException {
+        try {
+            parameter.setter().invoke(statement, parameter.args());
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof SQLException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
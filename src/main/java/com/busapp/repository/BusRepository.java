@@ -1,8 +1,11 @@
 package com.busapp.repository;
 
 import com.busapp.entity.Bus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 
 /**
@@ -29,6 +32,9 @@ public interface BusRepository extends JpaRepository<Bus, Long> {
      * @param routeId - The ID of the route to search for
      * @return List<Bus> - List of all buses on that route (empty list if none found)
      * 
+     * @Transactional(readOnly = true) lets the query run on a read replica when one is
+     * configured (declared query methods are not read-only by default, unlike findById()).
+     * 
      * Method naming conventions:
      * - findByFieldName - equals
      * - findByFieldNameContaining - LIKE %value%
@@ -37,8 +43,37 @@ public interface BusRepository extends JpaRepository<Bus, Long> {
      * - findByField1AndField2 - Multiple conditions with AND
      * - findByField1OrField2 - Multiple conditions with OR
      */
+    @Transactional(readOnly = true)
     List<Bus> findByRouteId(Long routeId);
     
+    /**
+     * Keyset (seek) pagination over the buses of a route
+     * 
+     * Spring generates:
+     *   SELECT * FROM buses WHERE route_id = ? AND id > ? ORDER BY id ASC FETCH FIRST ? ROWS ONLY
+     * 
+     * Unlike OFFSET paging, the database jumps straight to "id > afterId" using the
+     * (route_id, id) index, so page 1000 is as cheap as page 1.
+     * 
+     * @param routeId - The ID of the route to search for
+     * @param afterId - Only buses with a greater ID are returned (use 0 for the first page)
+     * @param limit - Maximum number of buses to return
+     * @return List<Bus> - Buses ordered by ID
+     */
+    @Transactional(readOnly = true)
+    List<Bus> findByRouteIdAndIdGreaterThanOrderByIdAsc(Long routeId, Long afterId, Limit limit);
+    
+    /**
+     * Returns the ID and route ID of every bus, without loading the entities
+     * 
+     * Used at startup to register the buses with the in-memory PositionStore; ordered by
+     * route (the order of the route_id, id index) so each route's buses arrive together.
+     * 
+     * @return List<Object[]> - One {busId, routeId} pair per bus
+     */
+    @Query("select b.id, b.routeId from Bus b order by b.routeId, b.id")
+    List<Object[]> findAllBusRoutePairs();
+    
     /**
      * Inherited methods from JpaRepository:
      * - save(Bus entity) - Saves or updates a bus
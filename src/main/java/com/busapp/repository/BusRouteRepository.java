@@ -1,8 +1,16 @@
 package com.busapp.repository;
 
 import com.busapp.entity.BusRoute;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 /**
  * BusRouteRepository - Data Access Layer for BusRoute entity
@@ -22,6 +30,66 @@ import org.springframework.stereotype.Repository;
 @Repository  // Marks this as a Spring Data repository component
 public interface BusRouteRepository extends JpaRepository<BusRoute, Long> {
     
+    /**
+     * Finds a route together with all of its buses in a single SQL statement
+     * 
+     * "left join fetch" tells Hibernate to load the lazy buses collection in the
+     * same query as the route, instead of issuing a second SELECT later (the
+     * "N+1 problem"). "left" keeps routes that have no buses yet. Read-only, so it
+     * may be served by a read replica.
+     * 
+     * @param id - The ID of the route to load
+     * @return Optional<BusRoute> - The route with its buses already initialized
+     */
+    @Transactional(readOnly = true)
+    @Query("select r from BusRoute r left join fetch r.buses where r.id = :id")
+    Optional<BusRoute> findWithBusesById(@Param("id") Long id);
+    
+    /**
+     * Loads one route, locks it and bumps its version (see findAllForUpdateById)
+     * 
+     * @param id - The ID of the route to lock
+     * @return Optional<BusRoute> - The route, or empty if it does not exist
+     */
+    @Lock(LockModeType.PESSIMISTIC_FORCE_INCREMENT)
+    @Query("select r from BusRoute r where r.id = :id")
+    Optional<BusRoute> findForUpdateById(@Param("id") Long id);
+    
+    /**
+     * Loads the given routes (single IN (...) query), locks them and bumps their version
+     * 
+     * PESSIMISTIC_FORCE_INCREMENT issues SELECT ... FOR UPDATE and increments the
+     * version column right away, even though the route itself is not modified.
+     * Used when buses are added, so the route's ETag changes with its bus list.
+     * Rows are locked in ID order, so concurrent callers cannot deadlock.
+     * 
+     * @param ids - The route IDs to lock
+     * @return List<BusRoute> - The routes that exist, ordered by ID
+     */
+    @Lock(LockModeType.PESSIMISTIC_FORCE_INCREMENT)
+    @Query("select r from BusRoute r where r.id in :ids order by r.id")
+    List<BusRoute> findAllForUpdateById(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Reads only the version column of a route
+     * 
+     * @param id - The ID of the route
+     * @return Optional<Long> - The current version, or empty if the route does not exist
+     */
+    @Transactional(readOnly = true)
+    @Query("select r.version from BusRoute r where r.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+    
+    /**
+     * Returns the IDs of all routes (no other columns)
+     * 
+     * Used at startup to load the in-memory RouteIdSet.
+     * 
+     * @return List<Long> - Every route ID
+     */
+    @Query("select r.id from BusRoute r")
+    List<Long> findAllIds();
+    
     /**
      * Inherited methods from JpaRepository that we can use:
      * 
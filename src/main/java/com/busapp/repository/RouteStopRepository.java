@@ -0,0 +1,33 @@
+package com.busapp.repository;
+
+import com.busapp.entity.RouteStop;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+/**
+ * RouteStopRepository - Data Access Layer for RouteStop entity
+ */
+@Repository
+public interface RouteStopRepository extends JpaRepository<RouteStop, Long> {
+    
+    /**
+     * Loads every stop of every route in travel order
+     * 
+     * Used once at startup to build the in-memory station indexes.
+     * Each element is an Object[] of { Long routeId, String stationNameKey, String stationName }.
+     */
+    @Query("select rs.route.id, s.nameKey, s.name from RouteStop rs join rs.station s order by rs.route.id, rs.stopSequence")
+    List<Object[]> findAllRouteStations();
+    
+    /**
+     * Loads the stops of one route with their stations, in travel order (one query)
+     * 
+     * @param routeId - The ID of the route
+     * @return List<RouteStop> - The route's stops (empty if the route does not exist)
+     */
+    @Query("select rs from RouteStop rs join fetch rs.station where rs.route.id = :routeId order by rs.stopSequence")
+    List<RouteStop> findWithStationsByRouteId(@Param("routeId") Long routeId);
+}
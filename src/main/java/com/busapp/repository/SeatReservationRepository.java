@@ -0,0 +1,23 @@
+package com.busapp.repository;
+
+import com.busapp.entity.SeatReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * SeatReservationRepository - Data Access Layer for SeatReservation entity
+ * 
+ * Rows are inserted by ReservationJournal with JDBC batches, not through this repository.
+ */
+@Repository
+public interface SeatReservationRepository extends JpaRepository<SeatReservation, String> {
+    
+    /**
+     * @param busId - The ID of the bus
+     * @return int - Total seats of the bus's confirmed reservations (0 if none)
+     */
+    @Query("select coalesce(sum(r.seats), 0) from SeatReservation r where r.busId = :busId")
+    int sumSeatsByBusId(@Param("busId") Long busId);
+}
@@ -0,0 +1,38 @@
+package com.busapp.repository;
+
+import com.busapp.entity.Station;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * StationRepository - Data Access Layer for Station entity
+ * 
+ * Stations are looked up by their normalized name (see Station.normalize())
+ */
+@Repository
+public interface StationRepository extends JpaRepository<Station, Long> {
+    
+    /**
+     * Spring generates: SELECT * FROM stations WHERE name_key = ?
+     */
+    Optional<Station> findByNameKey(String nameKey);
+    
+    /**
+     * Spring generates: SELECT * FROM stations WHERE name_key IN (...)
+     * Used to resolve all stops of a new route with one query
+     */
+    List<Station> findByNameKeyIn(Collection<String> nameKeys);
+    
+    /**
+     * Loads the stations that have a location, without loading the entities
+     * 
+     * Used once at startup to build the in-memory StationLocationIndex.
+     * Each element is an Object[] of { Long id, String name, String nameKey, Double latitude, Double longitude }.
+     */
+    @Query("select s.id, s.name, s.nameKey, s.latitude, s.longitude from Station s where s.latitude is not null and s.longitude is not null")
+    List<Object[]> findAllLocations();
+}
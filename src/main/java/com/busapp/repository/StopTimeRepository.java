@@ -0,0 +1,25 @@
+package com.busapp.repository;
+
+import com.busapp.entity.StopTime;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+/**
+ * StopTimeRepository - Data Access Layer for StopTime entity
+ */
+@Repository
+public interface StopTimeRepository extends JpaRepository<StopTime, Long> {
+    
+    /**
+     * Loads every departure of every station, without loading the entities
+     * 
+     * Used once at startup to build the in-memory DepartureIndex.
+     * Each element is an Object[] of
+     * { Long stationId, String stationName, Integer departureTime, Long tripId, Long routeId, String headsign }.
+     */
+    @Query("select s.id, s.name, st.departureTime, t.id, t.route.id, t.headsign " +
+           "from StopTime st join st.station s join st.trip t order by t.id, st.stopSequence")
+    List<Object[]> findAllDepartures();
+}
@@ -0,0 +1,38 @@
+package com.busapp.repository;
+
+import com.busapp.entity.Trip;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * TripRepository - Data Access Layer for Trip entity
+ */
+@Repository
+public interface TripRepository extends JpaRepository<Trip, Long> {
+    
+    /**
+     * Loads the trips of a route with their stop times and stations in one query
+     * (read-only, so it may be served by a read replica)
+     * 
+     * @param routeId - The ID of the route
+     * @return List<Trip> - The route's trips ordered by ID, stop times in travel order
+     */
+    @Transactional(readOnly = true)
+    @Query("select distinct t from Trip t left join fetch t.stopTimes st left join fetch st.station " +
+           "where t.route.id = :routeId order by t.id")
+    List<Trip> findWithStopTimesByRouteId(@Param("routeId") Long routeId);
+    
+    /**
+     * Loads one trip with its stop times and stations (used when the trip is deleted)
+     * 
+     * @param id - The ID of the trip
+     * @return Optional<Trip> - The trip, or empty if it does not exist
+     */
+    @Query("select t from Trip t left join fetch t.stopTimes st left join fetch st.station where t.id = :id")
+    Optional<Trip> findWithStopTimesById(@Param("id") Long id);
+}
@@ -0,0 +1,67 @@
+package com.busapp.reservation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel of seat hold deadlines
+ *
+ * A hold goes into the bucket of its deadline tick (deadline / tickMillis modulo the wheel
+ * size), which is O(1) and lock-free. advance() visits only the buckets of the ticks that
+ * elapsed since the previous call; holds whose deadline lies one or more turns of the wheel
+ * further stay in their bucket. Holds that were confirmed or released in the meantime are
+ * simply dropped when their bucket comes up, so they are never searched for and removed.
+ *
+ * advance() must be called from a single thread (the scheduler).
+ */
+public final class HoldExpiryWheel {
+    private final List<Queue<SeatHold>> buckets;
+    private final long tickMillis;
+    private long lastTick;
+
+    public HoldExpiryWheel(int size, long tickMillis, long nowMillis) {
+        this.buckets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            buckets.add(new ConcurrentLinkedQueue<>());
+        }
+        this.tickMillis = tickMillis;
+        this.lastTick = nowMillis / tickMillis;
+    }
+
+    public void schedule(SeatHold hold) {
+        buckets.get(bucket(hold.expiresAtMillis() / tickMillis)).add(hold);
+    }
+
+    /**
+     * Hands every hold that is still HELD and whose deadline has passed to the consumer
+     */
+    public void advance(long nowMillis, Consumer<SeatHold> expired) {
+        long nowTick = nowMillis / tickMillis;
+        // At most one full turn: every bucket is visited once
+        for (long tick = Math.max(lastTick, nowTick - buckets.size() + 1); tick <= nowTick; tick++) {
+            Queue<SeatHold> bucket = buckets.get(bucket(tick));
+            for (int remaining = bucket.size(); remaining > 0; remaining--) {
+                SeatHold hold = bucket.poll();
+                if (hold == null) {
+                    break;
+                }
+                if (hold.status() != SeatHold.Status.HELD) {
+                    continue;
+                }
+                if (hold.expiresAtMillis() <= nowMillis) {
+                    expired.accept(hold);
+                } else {
+                    bucket.add(hold); // Due in a later turn of the wheel (or later in this tick)
+                }
+            }
+        }
+        lastTick = nowTick;
+    }
+
+    private int bucket(long tick) {
+        return (int) Math.floorMod(tick, (long) buckets.size());
+    }
+}
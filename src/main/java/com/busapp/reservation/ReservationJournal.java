@@ -0,0 +1,83 @@
+package com.busapp.reservation;
+
+import com.busapp.shard.ShardRouter;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Write-behind journal of confirmed reservations
+ *
+ * Confirming a hold only appends it to an in-memory queue; every
+ * "transport.reservations.journal.flush-interval-ms" the queue is written to the
+ * seat_reservations table with batched JDBC INSERTs (and once more on shutdown).
+ * A flash crowd therefore costs a few batched statements instead of one transaction
+ * (and row lock) per reservation. A failed batch is queued again for the next flush.
+ */
+@Component
+public class ReservationJournal {
+    private static final Logger log = LoggerFactory.getLogger(ReservationJournal.class);
+    private static final String INSERT_SQL = "INSERT INTO seat_reservations (id, bus_id, seats, confirmed_at) VALUES (?, ?, ?, ?)";
+    private static final int BATCH_SIZE = 500;
+
+    private final Queue<Object[]> pending = new ConcurrentLinkedQueue<>();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    public void append(SeatHold hold, long confirmedAtMillis) {
+        pending.add(new Object[]{hold.id(), hold.busId(), hold.seats(), new Timestamp(confirmedAtMillis)});
+    }
+
+    /**
+     * @return int - Confirmed reservations not written yet
+     */
+    public int backlog() {
+        return pending.size();
+    }
+
+    @Scheduled(fixedDelayString = "${transport.reservations.journal.flush-interval-ms:500}")
+    @PreDestroy
+    public synchronized void flush() {
+        // One batch per shard: a reservation is stored on the shard of its bus
+        Map<Integer, List<Object[]>> batches = new TreeMap<>();
+        // Bounded by the size at the start: rows of a failed batch wait for the next flush
+        for (int remaining = pending.size(); remaining > 0; remaining--) {
+            Object[] row = pending.poll();
+            if (row == null) {
+                break;
+            }
+            int shard = shardRouter.shardOf((Long) row[1]);
+            List<Object[]> batch = batches.computeIfAbsent(shard, key -> new ArrayList<>(BATCH_SIZE));
+            batch.add(row);
+            if (batch.size() == BATCH_SIZE) {
+                write(shard, batch);
+                batches.remove(shard);
+            }
+        }
+        batches.forEach(this::write);
+    }
+
+    private void write(int shard, List<Object[]> batch) {
+        try {
+            shardRouter.onShard(shard, () -> jdbcTemplate.batchUpdate(INSERT_SQL, batch));
+        } catch (RuntimeException e) {
+            log.error("Writing {} confirmed reservations failed, retrying with the next flush", batch.size(), e);
+            pending.addAll(batch);
+        }
+    }
+}
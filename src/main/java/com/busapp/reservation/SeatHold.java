@@ -0,0 +1,56 @@
+package com.busapp.reservation;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Seats held on a bus until confirmed, released or expired
+ *
+ * The status changes at most once away from HELD (compare-and-set), so exactly one of
+ * confirm / release / expiry wins and the seats are returned or journaled exactly once.
+ */
+public final class SeatHold {
+
+    public enum Status {
+        HELD, CONFIRMED, RELEASED, EXPIRED
+    }
+
+    private final String id;
+    private final long busId;
+    private final int seats;
+    private final long expiresAtMillis;
+    private final AtomicReference<Status> status = new AtomicReference<>(Status.HELD);
+
+    public SeatHold(String id, long busId, int seats, long expiresAtMillis) {
+        this.id = id;
+        this.busId = busId;
+        this.seats = seats;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public long busId() {
+        return busId;
+    }
+
+    public int seats() {
+        return seats;
+    }
+
+    public long expiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    public Status status() {
+        return status.get();
+    }
+
+    /**
+     * @return boolean - true if the hold was still HELD and now has the given status
+     */
+    public boolean complete(Status outcome) {
+        return status.compareAndSet(Status.HELD, outcome);
+    }
+}
@@ -0,0 +1,89 @@
+package com.busapp.reservation;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Free seats of one bus, split over striped counters
+ *
+ * A single AtomicInteger per bus makes every request of a flash crowd CAS the same cache line.
+ * Here the free seats are spread over a few stripes (each on its own 64-byte cache line) and a
+ * request takes its seats from one stripe picked at random, so concurrent holds rarely collide.
+ *
+ * Stripes never go below zero and seats only move between stripes under the monitor, so the
+ * total handed out can never exceed the seats put in: no overbooking. When no single stripe
+ * has enough seats left, the slow path drains all stripes under the monitor, takes the seats
+ * from the real total and spreads the rest again; "sold out" is only ever answered there.
+ * Releases do not take the monitor, so one may land in a stripe the slow path has already
+ * drained: before answering "sold out" it drains again until a pass finds no more seats.
+ */
+public final class SeatInventory {
+    private static final int PADDING = 16; // ints per stripe: one cache line
+
+    private final AtomicIntegerArray stripes;
+    private final int stripeCount;
+
+    public SeatInventory(int freeSeats, int stripeCount) {
+        this.stripeCount = Math.max(1, stripeCount);
+        this.stripes = new AtomicIntegerArray(this.stripeCount * PADDING);
+        spread(freeSeats);
+    }
+
+    /**
+     * @return boolean - true if the seats were taken, false if fewer seats are free
+     */
+    public boolean tryAcquire(int seats) {
+        int start = ThreadLocalRandom.current().nextInt(stripeCount);
+        for (int i = 0; i < stripeCount; i++) {
+            int index = ((start + i) % stripeCount) * PADDING;
+            int free = stripes.get(index);
+            while (free >= seats) {
+                int witness = stripes.compareAndExchange(index, free, free - seats);
+                if (witness == free) {
+                    return true;
+                }
+                free = witness;
+            }
+        }
+        return acquireAcrossStripes(seats);
+    }
+
+    public void release(int seats) {
+        stripes.getAndAdd(ThreadLocalRandom.current().nextInt(stripeCount) * PADDING, seats);
+    }
+
+    /**
+     * @return int - Free seats right now (a moving target under concurrent holds)
+     */
+    public int available() {
+        int total = 0;
+        for (int i = 0; i < stripeCount; i++) {
+            total += stripes.get(i * PADDING);
+        }
+        return total;
+    }
+
+    private synchronized boolean acquireAcrossStripes(int seats) {
+        int total = 0;
+        int drained;
+        do {
+            drained = 0;
+            for (int i = 0; i < stripeCount; i++) {
+                drained += stripes.getAndSet(i * PADDING, 0);
+            }
+            total += drained;
+        } while (total < seats && drained > 0);
+        boolean acquired = total >= seats;
+        spread(acquired ? total - seats : total);
+        return acquired;
+    }
+
+    private void spread(int seats) {
+        for (int i = 0; i < stripeCount; i++) {
+            int share = seats / stripeCount + (i < seats % stripeCount ? 1 : 0);
+            if (share > 0) {
+                stripes.getAndAdd(i * PADDING, share);
+            }
+        }
+    }
+}
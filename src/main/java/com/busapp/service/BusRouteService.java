@@ -1,28 +1,135 @@
 package com.busapp.service;
 
+import com.busapp.config.CacheConfig;
+import com.busapp.dto.BatchItemResult;
+import com.busapp.dto.BatchResponse;
 import com.busapp.dto.BusRouteRequest;
 import com.busapp.dto.BusRouteResponse;
 import com.busapp.entity.BusRoute;
+import com.busapp.event.RouteCreatedEvent;
 import com.busapp.exception.InvalidRouteIdException;
+import com.busapp.index.RouteIdSet;
+import com.busapp.index.RouteVersionMap;
 import com.busapp.repository.BusRouteRepository;
+import com.busapp.shard.Shard;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 @Service
 public class BusRouteService {
     @Autowired
     private BusRouteRepository busRouteRepository;
     
-    @Transactional
+    @Autowired
+    private RequestValidator requestValidator;
+    
+    @Autowired
+    private StationService stationService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private RouteIdSet routeIdSet;
+    
+    @Autowired
+    private RouteVersionMap routeVersionMap;
+    
+    /**
+     * Saved in a transaction started by StationService.inRouteTransaction, which is run again
+     * if a concurrent request creates one of the route's new stations first
+     */
+    @Shard
+    @CacheEvict(cacheNames = CacheConfig.ROUTE_BODIES_CACHE, key = "#result.id")
     public BusRouteResponse createRoute(BusRouteRequest request) {
-        BusRoute busRoute = new BusRoute(request.getTitle(), request.getSource(), request.getDestination(), request.getStations());
-        BusRoute savedRoute = busRouteRepository.save(busRoute);
-        return new BusRouteResponse(savedRoute.getId(), savedRoute.getTitle(), savedRoute.getSource(), savedRoute.getDestination(), savedRoute.getStations());
+        return stationService.inRouteTransaction(status -> {
+            BusRoute busRoute = new BusRoute(request.getTitle(), request.getSource(), request.getDestination(), request.getStations());
+            stationService.attachStops(List.of(busRoute));
+            BusRoute savedRoute = busRouteRepository.save(busRoute);
+            eventPublisher.publishEvent(StationService.routeCreatedEvent(savedRoute));
+            return new BusRouteResponse(savedRoute.getId(), savedRoute.getTitle(), savedRoute.getSource(), savedRoute.getDestination(), savedRoute.getStations());
+        });
     }
     
+    /**
+     * The whole batch is saved in one transaction, so all of its routes go to the same shard
+     * (run again like createRoute if it loses a station race)
+     */
+    @Shard
+    public BatchResponse<BusRouteResponse> createRoutes(List<BusRouteRequest> requests) {
+        return stationService.inRouteTransaction(status -> saveRoutes(requests));
+    }
+    
+    private BatchResponse<BusRouteResponse> saveRoutes(List<BusRouteRequest> requests) {
+        List<BatchItemResult<BusRouteResponse>> results = new ArrayList<>(Collections.nCopies(requests.size(), null));
+        List<BusRoute> routes = new ArrayList<>();
+        List<Integer> routeIndexes = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            BusRouteRequest request = requests.get(i);
+            Map<String, String> errors = requestValidator.validate(request);
+            if (!errors.isEmpty()) {
+                results.set(i, BatchItemResult.rejected(i, errors));
+                continue;
+            }
+            routes.add(new BusRoute(request.getTitle(), request.getSource(), request.getDestination(), request.getStations()));
+            routeIndexes.add(i);
+        }
+        
+        stationService.attachStops(routes);
+        List<BusRoute> savedRoutes = busRouteRepository.saveAll(routes);
+        for (int i = 0; i < savedRoutes.size(); i++) {
+            BusRoute savedRoute = savedRoutes.get(i);
+            eventPublisher.publishEvent(StationService.routeCreatedEvent(savedRoute));
+            results.set(routeIndexes.get(i), BatchItemResult.created(routeIndexes.get(i), new BusRouteResponse(savedRoute.getId(), savedRoute.getTitle(), savedRoute.getSource(), savedRoute.getDestination(), savedRoute.getStations())));
+        }
+        return new BatchResponse<>(results);
+    }
+    
+    /**
+     * The route with its buses, read from the database on every call (GET /transport/route/{id}
+     * is served from the cached, pre-encoded bodies of RouteBodyService instead)
+     */
+    @Shard("#id")
+    @Transactional(readOnly = true)
     public BusRouteResponse getRouteById(Long id) {
-        BusRoute busRoute = busRouteRepository.findById(id).orElseThrow(() -> new InvalidRouteIdException(id));
+        if (!routeIdSet.contains(id)) {
+            throw new InvalidRouteIdException(id);
+        }
+        BusRoute busRoute = busRouteRepository.findWithBusesById(id).orElseThrow(() -> new InvalidRouteIdException(id));
         return new BusRouteResponse(busRoute);
     }
-}
\ No newline at end of file
+    
+    /**
+     * Strong ETag for a route and for the bus search results of that route
+     * 
+     * Built from the route's @Version, which changes whenever a bus is added to the
+     * route. Comes from the in-memory RouteVersionMap, so it never loads the route.
+     */
+    @Shard("#id")
+    public String getRouteETag(Long id) {
+        return getRouteETag(id, false);
+    }
+    
+    /**
+     * @param gzipped - true for the ETag of the gzip-encoded body (a different representation)
+     */
+    @Shard("#id")
+    public String getRouteETag(Long id, boolean gzipped) {
+        if (!routeIdSet.contains(id)) {
+            throw new InvalidRouteIdException(id);
+        }
+        Long version = routeVersionMap.getVersion(id).orElseThrow(() -> new InvalidRouteIdException(id));
+        return routeETag(id, version, gzipped);
+    }
+    
+    public static String routeETag(Long id, Long version, boolean gzipped) {
+        return "\"" + id + "-" + version + (gzipped ? "-gzip" : "") + "\"";
+    }
+}
@@ -1,16 +1,43 @@
 package com.busapp.service;
 
+import com.busapp.coalescing.Coalesce;
+import com.busapp.config.CacheConfig;
+import com.busapp.dto.BatchItemResult;
+import com.busapp.dto.BatchResponse;
 import com.busapp.dto.BusRequest;
 import com.busapp.dto.BusResponse;
 import com.busapp.entity.Bus;
 import com.busapp.entity.BusRoute;
+import com.busapp.event.BusCreatedEvent;
 import com.busapp.exception.InvalidRouteIdException;
+import com.busapp.index.RouteIdSet;
 import com.busapp.repository.BusRepository;
 import com.busapp.repository.BusRouteRepository;
+import com.busapp.shard.Shard;
+import com.busapp.shard.ShardRouter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,19 +49,154 @@ public class BusService {
     @Autowired
     private BusRouteRepository busRouteRepository;
 
+    @Autowired
+    private RequestValidator requestValidator;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RouteIdSet routeIdSet;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${transport.bus.search.fetch-size:500}")
+    private int searchFetchSize;
+
+    @Shard("#request.routeId")
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.ROUTE_BODIES_CACHE, key = "#request.routeId")
     public BusResponse createBus(BusRequest request) {
-        BusRoute busRoute = busRouteRepository.findById(request.getRouteId()).orElseThrow(() -> new InvalidRouteIdException(request.getRouteId()));
-        Bus bus = new Bus(request.getBusNo(), request.getColor(), request.getCapacity(), request.getRouteId());
+        // Locks the route and bumps its version: the route's bus list (and so its ETag) changes
+        BusRoute busRoute = busRouteRepository.findForUpdateById(request.getRouteId()).orElseThrow(() -> new InvalidRouteIdException(request.getRouteId()));
+        Bus bus = new Bus(request.getBusNo(), request.getColor(), request.getCapacity(), busRoute);
         Bus savedBus = busRepository.save(bus);
+        eventPublisher.publishEvent(new BusCreatedEvent(savedBus.getId(), busRoute.getId(), busRoute.getVersion()));
         return new BusResponse(savedBus.getId(), savedBus.getBusNo(), savedBus.getColor(), savedBus.getCapacity(), savedBus.getRouteId());
     }
 
+    /**
+     * Requests are grouped by the shard of their route; each shard's buses are saved
+     * (and its routes locked) in a transaction of its own, so with several shards a
+     * failing shard does not roll back the buses already committed on the others.
+     */
+    public BatchResponse<BusResponse> createBuses(List<BusRequest> requests) {
+        List<BatchItemResult<BusResponse>> results = new ArrayList<>(Collections.nCopies(requests.size(), null));
+        Map<Integer, List<Integer>> indexesByShard = new TreeMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            indexesByShard.computeIfAbsent(shardRouter.shardOf(requests.get(i).getRouteId()), shard -> new ArrayList<>()).add(i);
+        }
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        indexesByShard.forEach((shard, indexes) ->
+                shardRouter.onShard(shard, () -> transaction.execute(status -> createBusesOnShard(requests, indexes, results))));
+        return new BatchResponse<>(results);
+    }
+
+    private List<Bus> createBusesOnShard(List<BusRequest> requests, List<Integer> indexes, List<BatchItemResult<BusResponse>> results) {
+        Set<Long> routeIds = indexes.stream().map(i -> requests.get(i).getRouteId()).filter(Objects::nonNull).collect(Collectors.toSet());
+        // One query locks every referenced route and bumps its version (see createBus)
+        Map<Long, BusRoute> routes = routeIds.isEmpty() ? Map.of() : busRouteRepository.findAllForUpdateById(routeIds).stream()
+                .collect(Collectors.toMap(BusRoute::getId, route -> route));
+
+        List<Bus> buses = new ArrayList<>();
+        List<Integer> busIndexes = new ArrayList<>();
+        for (int i : indexes) {
+            BusRequest request = requests.get(i);
+            Map<String, String> errors = requestValidator.validate(request);
+            if (errors.isEmpty() && !routes.containsKey(request.getRouteId())) {
+                errors.put("routeId", new InvalidRouteIdException(request.getRouteId()).getMessage());
+            }
+            if (!errors.isEmpty()) {
+                results.set(i, BatchItemResult.rejected(i, errors));
+                continue;
+            }
+            buses.add(new Bus(request.getBusNo(), request.getColor(), request.getCapacity(), routes.get(request.getRouteId())));
+            busIndexes.add(i);
+        }
+
+        List<Bus> savedBuses = busRepository.saveAll(buses);
+        for (int i = 0; i < savedBuses.size(); i++) {
+            Bus savedBus = savedBuses.get(i);
+            results.set(busIndexes.get(i), BatchItemResult.created(busIndexes.get(i), new BusResponse(savedBus)));
+            eventPublisher.publishEvent(new BusCreatedEvent(savedBus.getId(), savedBus.getRouteId(), routes.get(savedBus.getRouteId()).getVersion()));
+        }
+
+        Cache routeBodiesCache = cacheManager.getCache(CacheConfig.ROUTE_BODIES_CACHE);
+        savedBuses.stream().map(Bus::getRouteId).distinct().forEach(routeBodiesCache::evict);
+        return savedBuses;
+    }
+
+    /**
+     * Known routes with buses cost one query; unknown IDs are rejected by the
+     * in-memory RouteIdSet without a query. Only an empty result needs the
+     * existence check, to tell "route without buses" from "no such route".
+     *
+     * Concurrent calls for the same route (and route version, see RouteBodyService.getRouteBody) share one load.
+     */
+    @Coalesce(value = "busesByRoute", key = "{#routeId, @routeVersionMap.peekVersion(#routeId)}")
+    @Shard("#routeId")
+    @Transactional(readOnly = true)
     public List<BusResponse> getBusesByRouteId(Long routeId) {
+        rejectUnknownRoute(routeId);
+        List<Bus> buses = busRepository.findByRouteId(routeId);
+        if (buses.isEmpty()) {
+            checkRouteExists(routeId);
+        }
+        return buses.stream().map(bus -> new BusResponse(bus)).collect(Collectors.toList());
+    }
+
+    @Coalesce(value = "busesByRoute", key = "{#routeId, @routeVersionMap.peekVersion(#routeId), #afterId, #limit}")
+    @Shard("#routeId")
+    @Transactional(readOnly = true)
+    public List<BusResponse> getBusesByRouteId(Long routeId, long afterId, int limit) {
+        rejectUnknownRoute(routeId);
+        List<Bus> buses = busRepository.findByRouteIdAndIdGreaterThanOrderByIdAsc(routeId, afterId, Limit.of(limit));
+        if (buses.isEmpty()) {
+            checkRouteExists(routeId);
+        }
+        return buses.stream().map(bus -> new BusResponse(bus)).collect(Collectors.toList());
+    }
+
+    /**
+     * Reads the buses of a route from a forward-only JDBC cursor and hands each row to the
+     * consumer as soon as it is read, so the full result is never held in memory.
+     * The driver fetches "transport.bus.search.fetch-size" rows per round trip.
+     */
+    @Shard("#routeId")
+    public void streamBusesByRouteId(Long routeId, Consumer<BusResponse> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT id, bus_no, color, capacity, route_id FROM buses WHERE route_id = ? ORDER BY id",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(searchFetchSize);
+            statement.setLong(1, routeId);
+            return statement;
+        }, (RowCallbackHandler) rs -> consumer.accept(new BusResponse(rs.getLong("id"), rs.getString("bus_no"),
+                rs.getString("color"), rs.getObject("capacity", Integer.class), rs.getLong("route_id"))));
+    }
+
+    @Shard("#routeId")
+    @Transactional(readOnly = true)
+    public void checkRouteExists(Long routeId) {
+        rejectUnknownRoute(routeId);
         if (!busRouteRepository.existsById(routeId)) {
             throw new InvalidRouteIdException(routeId);
         }
-        List<Bus> buses = busRepository.findByRouteId(routeId);
-        return buses.stream().map(bus -> new BusResponse(bus)).collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    private void rejectUnknownRoute(Long routeId) {
+        if (!routeIdSet.contains(routeId)) {
+            throw new InvalidRouteIdException(routeId);
+        }
+    }
+}
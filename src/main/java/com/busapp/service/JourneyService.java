@@ -0,0 +1,46 @@
+package com.busapp.service;
+
+import com.busapp.dto.ItineraryResponse;
+import com.busapp.dto.JourneyLegResponse;
+import com.busapp.dto.JourneyResponse;
+import com.busapp.entity.Station;
+import com.busapp.exception.InvalidStationException;
+import com.busapp.index.JourneyPlanner;
+import com.busapp.index.TransitGraph;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+public class JourneyService {
+    public static final int MAX_TRANSFERS_LIMIT = 5;
+    
+    @Autowired
+    private TransitGraph transitGraph;
+    
+    public JourneyResponse planJourney(String from, String to, int maxTransfers) {
+        TransitGraph.Snapshot graph = transitGraph.snapshot();
+        int origin = graph.stationIndex(Station.normalize(from));
+        if (origin < 0) {
+            throw new InvalidStationException(from);
+        }
+        int target = graph.stationIndex(Station.normalize(to));
+        if (target < 0) {
+            throw new InvalidStationException(to);
+        }
+        int transfers = Math.max(0, Math.min(maxTransfers, MAX_TRANSFERS_LIMIT));
+        List<ItineraryResponse> itineraries = JourneyPlanner.plan(graph, origin, target, transfers).stream()
+                .map(itinerary -> new ItineraryResponse(itinerary.transfers(), itinerary.stops(),
+                        itinerary.legs().stream().map(leg -> toLegResponse(graph, leg)).collect(Collectors.toList())))
+                .collect(Collectors.toList());
+        return new JourneyResponse(graph.stationName(origin), graph.stationName(target), itineraries);
+    }
+    
+    private static JourneyLegResponse toLegResponse(TransitGraph.Snapshot graph, JourneyPlanner.Leg leg) {
+        return new JourneyLegResponse(graph.routeId(leg.route()),
+                graph.stationName(graph.stop(leg.route(), leg.boardPosition())),
+                graph.stationName(graph.stop(leg.route(), leg.alightPosition())),
+                leg.stops());
+    }
+}
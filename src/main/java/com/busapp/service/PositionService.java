@@ -0,0 +1,91 @@
+package com.busapp.service;
+
+import com.busapp.dto.BusPositionResponse;
+import com.busapp.dto.PositionIngestResponse;
+import com.busapp.dto.PositionPing;
+import com.busapp.exception.InvalidBusIdException;
+import com.busapp.exception.InvalidRouteIdException;
+import com.busapp.index.RouteIdSet;
+import com.busapp.live.LiveUpdateHub;
+import com.busapp.live.PositionStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Live bus positions, entirely in memory (see PositionStore); no JPA on these paths
+ */
+@Service
+public class PositionService {
+    
+    @Autowired
+    private PositionStore positionStore;
+    
+    @Autowired
+    private RouteIdSet routeIdSet;
+    
+    @Autowired
+    private LiveUpdateHub liveUpdateHub;
+    
+    public PositionIngestResponse recordPositions(Long busId, List<PositionPing> pings) {
+        PositionStore.Track track = track(busId);
+        long now = System.currentTimeMillis();
+        int accepted = 0;
+        for (PositionPing ping : pings) {
+            if (!isValid(ping)) {
+                continue;
+            }
+            long recordedAt = ping.getRecordedAt() == null ? now : ping.getRecordedAt().toEpochMilli();
+            positionStore.record(track.busId(), ping.getLatitude(), ping.getLongitude(), recordedAt);
+            accepted++;
+        }
+        if (accepted > 0) {
+            liveUpdateHub.positionsChanged(track.routeId(), track.busId());
+        }
+        return new PositionIngestResponse(accepted, pings.size() - accepted);
+    }
+    
+    /**
+     * @return Optional<BusPositionResponse> - Latest position, empty if the bus has not reported yet
+     */
+    public Optional<BusPositionResponse> getPosition(Long busId) {
+        return Optional.ofNullable(track(busId).latest()).map(BusPositionResponse::new);
+    }
+    
+    /**
+     * @return List<BusPositionResponse> - Retained positions of the bus, newest first
+     */
+    public List<BusPositionResponse> getPositionHistory(Long busId) {
+        List<BusPositionResponse> positions = new ArrayList<>();
+        track(busId).history(position -> positions.add(new BusPositionResponse(position)));
+        return positions;
+    }
+    
+    /**
+     * @return List<BusPositionResponse> - Latest position of each bus of the route that has reported one
+     */
+    public List<BusPositionResponse> getRoutePositions(Long routeId) {
+        if (!routeIdSet.contains(routeId)) {
+            throw new InvalidRouteIdException(routeId);
+        }
+        List<BusPositionResponse> positions = new ArrayList<>();
+        positionStore.latestOfRoute(routeId, position -> positions.add(new BusPositionResponse(position)));
+        return positions;
+    }
+    
+    private PositionStore.Track track(Long busId) {
+        PositionStore.Track track = positionStore.track(busId);
+        if (track == null) {
+            throw new InvalidBusIdException(busId);
+        }
+        return track;
+    }
+    
+    private static boolean isValid(PositionPing ping) {
+        return ping != null && ping.getLatitude() != null && ping.getLongitude() != null
+                && ping.getLatitude() >= -90 && ping.getLatitude() <= 90
+                && ping.getLongitude() >= -180 && ping.getLongitude() <= 180;
+    }
+}
@@ -0,0 +1,28 @@
+package com.busapp.service;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Runs Bean Validation on a single request DTO and returns the failures as a
+ * field -> message map (the same shape GlobalExceptionHandler uses for 400 responses).
+ * 
+ * Batch endpoints validate item by item so one bad item does not reject the whole batch.
+ */
+@Component
+public class RequestValidator {
+    @Autowired
+    private Validator validator;
+    
+    public Map<String, String> validate(Object request) {
+        Map<String, String> errors = new LinkedHashMap<>();
+        for (ConstraintViolation<Object> violation : validator.validate(request)) {
+            errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        return errors;
+    }
+}
@@ -0,0 +1,132 @@
+package com.busapp.service;
+
+import com.busapp.dto.ReservationResponse;
+import com.busapp.entity.Bus;
+import com.busapp.exception.InvalidBusIdException;
+import com.busapp.exception.ReservationNotFoundException;
+import com.busapp.exception.SeatsUnavailableException;
+import com.busapp.repository.BusRepository;
+import com.busapp.repository.SeatReservationRepository;
+import com.busapp.reservation.HoldExpiryWheel;
+import com.busapp.reservation.ReservationJournal;
+import com.busapp.reservation.SeatHold;
+import com.busapp.reservation.SeatInventory;
+import com.busapp.shard.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Seat reservations against Bus.capacity, without database row locks
+ * 
+ * Free seats are counted in memory per bus (SeatInventory, loaded on the first hold as
+ * capacity minus confirmed seats). A hold takes seats immediately and expires after
+ * "transport.reservations.hold-ttl-ms" unless confirmed (HoldExpiryWheel). Confirmed
+ * reservations are persisted by the write-behind ReservationJournal.
+ */
+@Service
+public class ReservationService {
+    private static final int WHEEL_SIZE = 512;
+    
+    private final Map<Long, SeatInventory> inventories = new ConcurrentHashMap<>();
+    private final Map<String, SeatHold> holds = new ConcurrentHashMap<>();
+    private HoldExpiryWheel expiryWheel;
+    
+    @Value("${transport.reservations.hold-ttl-ms:120000}")
+    private long holdTtlMillis;
+    
+    @Value("${transport.reservations.expiry-tick-ms:1000}")
+    private long expiryTickMillis;
+    
+    @Value("${transport.reservations.stripes:4}")
+    private int stripes;
+    
+    @Autowired
+    private BusRepository busRepository;
+    
+    @Autowired
+    private SeatReservationRepository seatReservationRepository;
+    
+    @Autowired
+    private ReservationJournal reservationJournal;
+    
+    @Autowired
+    private ShardRouter shardRouter;
+    
+    @PostConstruct
+    public void init() {
+        expiryWheel = new HoldExpiryWheel(WHEEL_SIZE, expiryTickMillis, System.currentTimeMillis());
+    }
+    
+    public ReservationResponse hold(Long busId, int seats) {
+        SeatInventory inventory = inventory(busId);
+        if (!inventory.tryAcquire(seats)) {
+            throw new SeatsUnavailableException("Not enough free seats on bus " + busId + " (" + inventory.available() + " left)");
+        }
+        SeatHold hold = new SeatHold(UUID.randomUUID().toString(), busId, seats, System.currentTimeMillis() + holdTtlMillis);
+        holds.put(hold.id(), hold);
+        expiryWheel.schedule(hold);
+        return new ReservationResponse(hold);
+    }
+    
+    public ReservationResponse confirm(Long busId, String holdId) {
+        SeatHold hold = find(busId, holdId);
+        if (!hold.complete(SeatHold.Status.CONFIRMED)) {
+            throw new ReservationNotFoundException(holdId);
+        }
+        holds.remove(holdId);
+        reservationJournal.append(hold, System.currentTimeMillis());
+        return new ReservationResponse(hold);
+    }
+    
+    public ReservationResponse release(Long busId, String holdId) {
+        SeatHold hold = find(busId, holdId);
+        if (!hold.complete(SeatHold.Status.RELEASED)) {
+            throw new ReservationNotFoundException(holdId);
+        }
+        holds.remove(holdId);
+        inventories.get(busId).release(hold.seats());
+        return new ReservationResponse(hold);
+    }
+    
+    @Scheduled(fixedDelayString = "${transport.reservations.expiry-tick-ms:1000}")
+    public void expireHolds() {
+        expiryWheel.advance(System.currentTimeMillis(), hold -> {
+            if (hold.complete(SeatHold.Status.EXPIRED)) {
+                holds.remove(hold.id());
+                inventories.get(hold.busId()).release(hold.seats());
+            }
+        });
+    }
+    
+    private SeatHold find(Long busId, String holdId) {
+        SeatHold hold = holds.get(holdId);
+        if (hold == null || hold.busId() != busId) {
+            throw new ReservationNotFoundException(holdId);
+        }
+        return hold;
+    }
+    
+    private SeatInventory inventory(Long busId) {
+        SeatInventory inventory = inventories.get(busId);
+        if (inventory != null) {
+            return inventory;
+        }
+        // Loaded outside computeIfAbsent, so no query runs while a map bin is locked;
+        // if two requests load the same bus, putIfAbsent keeps the first inventory
+        int freeSeats = shardRouter.onShard(shardRouter.shardOf(busId), () -> {
+            Bus bus = busRepository.findById(busId).orElseThrow(() -> new InvalidBusIdException(busId));
+            if (bus.getCapacity() == null) {
+                throw new SeatsUnavailableException("Bus " + busId + " has no capacity set");
+            }
+            return Math.max(0, bus.getCapacity() - seatReservationRepository.sumSeatsByBusId(busId));
+        });
+        inventory = inventories.putIfAbsent(busId, new SeatInventory(freeSeats, stripes));
+        return inventory != null ? inventory : inventories.get(busId);
+    }
+}
@@ -0,0 +1,99 @@
+package com.busapp.service;
+
+import com.busapp.coalescing.Coalesce;
+import com.busapp.config.CacheConfig;
+import com.busapp.dto.BusRouteResponse;
+import com.busapp.entity.BusRoute;
+import com.busapp.exception.InvalidRouteIdException;
+import com.busapp.index.RouteVersionMap;
+import com.busapp.repository.BusRouteRepository;
+import com.busapp.shard.Shard;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Pre-encoded bodies of GET /transport/route/{id}
+ * 
+ * The JSON of a route (with its buses) is serialized once, gzip-compressed once, and
+ * the bytes are kept in the "routeBodies" cache, so a cache hit is written to the
+ * response as-is instead of going through Jackson (and a compressor) again.
+ * 
+ * Each entry records the route version it was built from. An entry older than the
+ * version in RouteVersionMap is rebuilt, so the body always matches its ETag even if
+ * a stale entry slipped in next to an eviction.
+ */
+@Service
+public class RouteBodyService {
+    
+    /**
+     * Encoded route body plus the route version it was built from
+     */
+    public record EncodedRoute(Long routeId, Long version, byte[] json, byte[] gzip) {
+        public String eTag(boolean gzipped) {
+            return BusRouteService.routeETag(routeId, version, gzipped);
+        }
+        
+        public int size() {
+            return json.length + gzip.length;
+        }
+    }
+    
+    @Autowired
+    private BusRouteRepository busRouteRepository;
+    
+    @Autowired
+    private RouteVersionMap routeVersionMap;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    /**
+     * Concurrent rebuilds of the same route body share one load (@Coalesce). The route's version
+     * is part of the key, so a caller that has just added a bus never gets a load started before
+     * its commit.
+     */
+    @Coalesce(value = "routeBody", key = "{#id, @routeVersionMap.peekVersion(#id)}")
+    @Shard("#id")
+    public EncodedRoute getRouteBody(Long id) {
+        Cache cache = cacheManager.getCache(CacheConfig.ROUTE_BODIES_CACHE);
+        EncodedRoute cached = cache.get(id, EncodedRoute.class);
+        Long currentVersion = routeVersionMap.getVersion(id).orElseThrow(() -> new InvalidRouteIdException(id));
+        if (cached != null && cached.version() >= currentVersion) {
+            return cached;
+        }
+        // Route, version and buses come from the same SELECT, so the body matches its version
+        BusRoute busRoute = busRouteRepository.findWithBusesById(id).orElseThrow(() -> new InvalidRouteIdException(id));
+        EncodedRoute encoded = encode(busRoute);
+        // A read replica may still be behind the version published by the last commit
+        if (encoded.version() >= currentVersion) {
+            cache.put(id, encoded);
+        }
+        return encoded;
+    }
+    
+    private EncodedRoute encode(BusRoute busRoute) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(new BusRouteResponse(busRoute));
+            ByteArrayOutputStream gzip = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+                out.write(json);
+            }
+            return new EncodedRoute(busRoute.getId(), busRoute.getVersion(), json, gzip.toByteArray());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize route " + busRoute.getId(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.busapp.service;
+
+import com.busapp.dto.BusRouteResponse;
+import com.busapp.dto.NearbyStationResponse;
+import com.busapp.dto.StationLocationRequest;
+import com.busapp.dto.StationResponse;
+import com.busapp.entity.BusRoute;
+import com.busapp.entity.RouteStop;
+import com.busapp.entity.Station;
+import com.busapp.event.RouteCreatedEvent;
+import com.busapp.event.StationLocatedEvent;
+import com.busapp.exception.InvalidLocationException;
+import com.busapp.exception.InvalidStationException;
+import com.busapp.index.StationLocationIndex;
+import com.busapp.index.StationRouteIndex;
+import com.busapp.repository.BusRouteRepository;
+import com.busapp.repository.StationRepository;
+import com.busapp.shard.Shard;
+import com.busapp.shard.ShardRouter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+public class StationService {
+    public static final int MAX_RADIUS = 5000;
+    public static final int MAX_NEARBY = 100;
+    // Transactions started by inRouteTransaction before a lost station race is given up
+    private static final int MAX_ATTEMPTS = 3;
+    
+    /**
+     * Thrown by attachStops when a station it inserts was committed first by a concurrent transaction
+     */
+    private static class StationRaceException extends RuntimeException {
+        StationRaceException(DataIntegrityViolationException cause) {
+            super(cause);
+        }
+    }
+    
+    @Autowired
+    private StationRepository stationRepository;
+    
+    @Autowired
+    private BusRouteRepository busRouteRepository;
+    
+    @Autowired
+    private StationRouteIndex stationRouteIndex;
+    
+    @Autowired
+    private StationLocationIndex stationLocationIndex;
+    
+    @Autowired
+    private ShardRouter shardRouter;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    /**
+     * Splits a route into its ordered stop names: source, each comma-separated station, destination.
+     * Blank entries and a stop repeated right after itself are skipped.
+     */
+    public static List<String> stopNames(String source, String stations, String destination) {
+        List<String> names = new ArrayList<>();
+        addStop(names, source);
+        if (stations != null) {
+            Arrays.stream(stations.split(",")).forEach(station -> addStop(names, station));
+        }
+        addStop(names, destination);
+        return names;
+    }
+    
+    /**
+     * Runs work, which saves new routes with attachStops, in a transaction of its own on the
+     * current shard. Two transactions creating the same new station both insert it; the unique
+     * name key fails the second one at its insert, and the whole work is run again in a new
+     * transaction, which finds the station committed by the first one. Must not be called inside
+     * a transaction (the work has to see the other transaction's commit).
+     */
+    public <T> T inRouteTransaction(TransactionCallback<T> work) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transaction.execute(work);
+            } catch (StationRaceException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    throw (DataIntegrityViolationException) e.getCause();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Resolves the stops of not-yet-saved routes to Station rows (creating missing ones)
+     * and attaches them as ordered RouteStops. All stations are looked up with one query.
+     * Must run inside the transaction that saves the routes, started by inRouteTransaction.
+     */
+    public void attachStops(List<BusRoute> routes) {
+        Map<BusRoute, List<String>> namesByRoute = new LinkedHashMap<>();
+        Map<String, String> nameByKey = new LinkedHashMap<>();
+        for (BusRoute route : routes) {
+            List<String> names = stopNames(route.getSource(), route.getStations(), route.getDestination());
+            namesByRoute.put(route, names);
+            names.forEach(name -> nameByKey.putIfAbsent(Station.normalize(name), name));
+        }
+        
+        Map<String, Station> stationsByKey = new HashMap<>();
+        stationRepository.findByNameKeyIn(nameByKey.keySet()).forEach(station -> stationsByKey.put(station.getNameKey(), station));
+        List<Station> newStations = nameByKey.entrySet().stream()
+                .filter(entry -> !stationsByKey.containsKey(entry.getKey()))
+                .map(entry -> new Station(entry.getValue()))
+                .collect(Collectors.toList());
+        try {
+            // Flushed at once, so a station race fails here rather than at the commit
+            stationRepository.saveAllAndFlush(newStations).forEach(station -> stationsByKey.put(station.getNameKey(), station));
+        } catch (DataIntegrityViolationException e) {
+            throw new StationRaceException(e);
+        }
+        
+        namesByRoute.forEach((route, names) -> {
+            for (int i = 0; i < names.size(); i++) {
+                route.getStops().add(new RouteStop(route, stationsByKey.get(Station.normalize(names.get(i))), i));
+            }
+        });
+    }
+    
+    /**
+     * Builds the event announcing a saved route, with its stations in travel order
+     */
+    public static RouteCreatedEvent routeCreatedEvent(BusRoute route) {
+        List<String> stationKeys = route.getStops().stream().map(stop -> stop.getStation().getNameKey()).collect(Collectors.toList());
+        List<String> stationNames = route.getStops().stream().map(stop -> stop.getStation().getName()).collect(Collectors.toList());
+        return new RouteCreatedEvent(route.getId(), stationKeys, stationNames);
+    }
+    
+    /**
+     * The route IDs come from the in-memory index; the routes themselves are loaded from
+     * the shards owning them (only the shards with a matching route are queried, in parallel)
+     */
+    public List<BusRouteResponse> getRoutesByStation(String stationName) {
+        String stationKey = Station.normalize(stationName);
+        if (!stationRouteIndex.containsStation(stationKey)) {
+            throw new InvalidStationException(stationName);
+        }
+        Map<Integer, List<Long>> routeIdsByShard = Arrays.stream(stationRouteIndex.getRouteIds(stationKey)).boxed()
+                .collect(Collectors.groupingBy(shardRouter::shardOf));
+        return shardRouter.gather(shard -> routeIdsByShard.containsKey(shard)
+                        ? busRouteRepository.findAllById(routeIdsByShard.get(shard)) : List.<BusRoute>of()).stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparing(BusRoute::getId))
+                .map(route -> new BusRouteResponse(route.getId(), route.getTitle(), route.getSource(), route.getDestination(), route.getStations()))
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Sets (or moves) the location of a station; station IDs select the shard like route IDs
+     */
+    @Shard("#stationId")
+    @Transactional
+    public StationResponse updateLocation(Long stationId, StationLocationRequest request) {
+        Station station = stationRepository.findById(stationId).orElseThrow(() -> new InvalidStationException(stationId));
+        station.setLatitude(request.getLatitude());
+        station.setLongitude(request.getLongitude());
+        Station savedStation = stationRepository.save(station);
+        eventPublisher.publishEvent(new StationLocatedEvent(savedStation.getId(), savedStation.getName(), savedStation.getNameKey(),
+                savedStation.getLatitude(), savedStation.getLongitude()));
+        return new StationResponse(savedStation);
+    }
+    
+    /**
+     * Answered entirely from memory: stations from the StationLocationIndex, their routes
+     * from the StationRouteIndex
+     * 
+     * @param radius - Meters, capped at MAX_RADIUS
+     * @param limit - Number of stations, capped at MAX_NEARBY
+     */
+    public List<NearbyStationResponse> getNearbyStations(double latitude, double longitude, int radius, int limit) {
+        if (!(latitude >= -90 && latitude <= 90) || !(longitude >= -180 && longitude <= 180)) {
+            throw new InvalidLocationException("Latitude must be between -90 and 90 and longitude between -180 and 180");
+        }
+        if (radius <= 0) {
+            throw new InvalidLocationException("Radius must be a positive number of meters");
+        }
+        return stationLocationIndex.findNearby(latitude, longitude, Math.min(radius, MAX_RADIUS), Math.max(1, Math.min(limit, MAX_NEARBY))).stream()
+                .map(station -> new NearbyStationResponse(station.stationId(), station.name(), station.latitude(), station.longitude(),
+                        Math.round(station.distance()), Arrays.stream(stationRouteIndex.getRouteIds(station.nameKey())).boxed().collect(Collectors.toList())))
+                .collect(Collectors.toList());
+    }
+    
+    private static void addStop(List<String> names, String name) {
+        if (name == null || name.isBlank()) {
+            return;
+        }
+        String trimmed = name.trim();
+        if (names.isEmpty() || !Station.normalize(names.get(names.size() - 1)).equals(Station.normalize(trimmed))) {
+            names.add(trimmed);
+        }
+    }
+}
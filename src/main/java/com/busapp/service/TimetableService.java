@@ -0,0 +1,169 @@
+package com.busapp.service;
+
+import com.busapp.dto.DepartureBoardResponse;
+import com.busapp.dto.DepartureResponse;
+import com.busapp.dto.TripRequest;
+import com.busapp.dto.TripResponse;
+import com.busapp.entity.RouteStop;
+import com.busapp.entity.Station;
+import com.busapp.entity.StopTime;
+import com.busapp.entity.Trip;
+import com.busapp.event.TripCreatedEvent;
+import com.busapp.event.TripDeletedEvent;
+import com.busapp.exception.InvalidRouteIdException;
+import com.busapp.exception.InvalidStationException;
+import com.busapp.exception.InvalidTimetableException;
+import com.busapp.exception.TripNotFoundException;
+import com.busapp.index.DepartureIndex;
+import com.busapp.index.RouteIdSet;
+import com.busapp.repository.BusRouteRepository;
+import com.busapp.repository.RouteStopRepository;
+import com.busapp.repository.StationRepository;
+import com.busapp.repository.TripRepository;
+import com.busapp.shard.Shard;
+import com.busapp.shard.ShardRouter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Trips, their departure times and departure boards
+ * 
+ * Trips are stored with the route (same shard); departure boards are answered from the
+ * in-memory DepartureIndex, which follows every committed change through TripCreatedEvent
+ * and TripDeletedEvent.
+ */
+@Service
+public class TimetableService {
+    public static final int MAX_DEPARTURES = 100;
+    
+    @Autowired
+    private TripRepository tripRepository;
+    
+    @Autowired
+    private RouteStopRepository routeStopRepository;
+    
+    @Autowired
+    private BusRouteRepository busRouteRepository;
+    
+    @Autowired
+    private StationRepository stationRepository;
+    
+    @Autowired
+    private RouteIdSet routeIdSet;
+    
+    @Autowired
+    private DepartureIndex departureIndex;
+    
+    @Autowired
+    private ShardRouter shardRouter;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    /**
+     * Adds a trip to a route: one departure time per stop of the route, in travel order,
+     * each no earlier than the one before
+     */
+    @Shard("#routeId")
+    @Transactional
+    public TripResponse createTrip(Long routeId, TripRequest request) {
+        if (!routeIdSet.contains(routeId)) {
+            throw new InvalidRouteIdException(routeId);
+        }
+        // Every route has at least one stop (its source), so no stops means no route
+        List<RouteStop> stops = routeStopRepository.findWithStationsByRouteId(routeId);
+        if (stops.isEmpty()) {
+            throw new InvalidRouteIdException(routeId);
+        }
+        List<String> departures = request.getDepartures();
+        if (departures.size() != stops.size()) {
+            throw new InvalidTimetableException("Route " + routeId + " has " + stops.size() + " stops, but "
+                    + departures.size() + " departure times were given");
+        }
+        int[] times = new int[departures.size()];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = StopTime.parseTime(departures.get(i));
+            if (times[i] < 0) {
+                throw new InvalidTimetableException("'" + departures.get(i) + "' is not a valid time (HH:mm or HH:mm:ss, hours up to 47)");
+            }
+            if (i > 0 && times[i] < times[i - 1]) {
+                throw new InvalidTimetableException("Departure " + departures.get(i) + " is earlier than the departure from the previous stop");
+            }
+        }
+        
+        String headsign = request.getHeadsign() == null || request.getHeadsign().isBlank()
+                ? stops.get(stops.size() - 1).getStation().getName() : request.getHeadsign().trim();
+        Trip trip = new Trip(stops.get(0).getRoute(), headsign);
+        for (int i = 0; i < times.length; i++) {
+            trip.getStopTimes().add(new StopTime(trip, stops.get(i).getStation(), i, times[i]));
+        }
+        Trip savedTrip = tripRepository.save(trip);
+        eventPublisher.publishEvent(tripCreatedEvent(savedTrip));
+        return new TripResponse(savedTrip);
+    }
+    
+    @Shard("#routeId")
+    @Transactional(readOnly = true)
+    public List<TripResponse> getTrips(Long routeId) {
+        if (!routeIdSet.contains(routeId)) {
+            throw new InvalidRouteIdException(routeId);
+        }
+        List<Trip> trips = tripRepository.findWithStopTimesByRouteId(routeId);
+        if (trips.isEmpty() && !busRouteRepository.existsById(routeId)) {
+            throw new InvalidRouteIdException(routeId);
+        }
+        return trips.stream().map(TripResponse::new).collect(Collectors.toList());
+    }
+    
+    /**
+     * Trip IDs come from the sequence of the route's shard, so they select the shard like route IDs
+     */
+    @Shard("#tripId")
+    @Transactional
+    public void deleteTrip(Long tripId) {
+        Trip trip = tripRepository.findWithStopTimesById(tripId).orElseThrow(() -> new TripNotFoundException(tripId));
+        long[] stationIds = trip.getStopTimes().stream().mapToLong(stopTime -> stopTime.getStation().getId()).toArray();
+        tripRepository.delete(trip);
+        eventPublisher.publishEvent(new TripDeletedEvent(tripId, stationIds));
+    }
+    
+    /**
+     * Answered from the DepartureIndex; only a station without any departures is looked up
+     * in the database (to tell "no departures" from "no such station"). The board covers the
+     * 24 hours from "after", wrapping past midnight (see DepartureIndex.getDepartures).
+     * 
+     * @param after - "HH:mm" or "HH:mm:ss"; null for the current time
+     * @param limit - Number of departures, capped at MAX_DEPARTURES
+     */
+    public DepartureBoardResponse getDepartures(Long stationId, String after, int limit) {
+        int from = after == null ? LocalTime.now().toSecondOfDay() : StopTime.parseTime(after);
+        if (from < 0) {
+            throw new InvalidTimetableException("'" + after + "' is not a valid time (HH:mm or HH:mm:ss, hours up to 47)");
+        }
+        String stationName = departureIndex.getStationName(stationId).orElseGet(() ->
+                shardRouter.onShard(shardRouter.shardOf(stationId), () -> stationRepository.findById(stationId))
+                        .map(Station::getName)
+                        .orElseThrow(() -> new InvalidStationException(stationId)));
+        List<DepartureResponse> departures = departureIndex.getDepartures(stationId, from, Math.max(1, Math.min(limit, MAX_DEPARTURES))).stream()
+                .map(departure -> new DepartureResponse(departure.tripId(), departure.routeId(), departure.headsign(),
+                        StopTime.formatTime(departure.time())))
+                .collect(Collectors.toList());
+        return new DepartureBoardResponse(stationId, stationName, StopTime.formatTime(from), departures);
+    }
+    
+    /**
+     * Builds the event announcing a saved trip (its stop times and stations must be loaded)
+     */
+    public static TripCreatedEvent tripCreatedEvent(Trip trip) {
+        List<StopTime> stopTimes = trip.getStopTimes();
+        long[] stationIds = stopTimes.stream().mapToLong(stopTime -> stopTime.getStation().getId()).toArray();
+        List<String> stationNames = stopTimes.stream().map(stopTime -> stopTime.getStation().getName()).collect(Collectors.toList());
+        int[] times = stopTimes.stream().mapToInt(StopTime::getDepartureTime).toArray();
+        return new TripCreatedEvent(trip.getId(), trip.getRoute().getId(), trip.getHeadsign(), stationIds, stationNames, times);
+    }
+}
@@ -0,0 +1,21 @@
+package com.busapp.shard;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs the annotated method against one shard (see ShardAspect)
+ *
+ * The value is a SpEL expression over the method parameters that yields a route or bus ID,
+ * e.g. "#routeId" or "#request.routeId"; the ID's range determines the shard. Without a
+ * value the method creates new data and the next shard in round-robin order is used.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Shard {
+    String value() default "";
+}
@@ -0,0 +1,55 @@
+package com.busapp.shard;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.Order;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.stereotype.Component;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sets the ShardContext for methods annotated with @Shard
+ *
+ * Ordered before @Transactional and @Cacheable (both at the lowest precedence): the transaction
+ * (and its connection) must be started after the shard has been chosen. Not at the highest
+ * precedence itself, which belongs to Spring's ExposeInvocationInterceptor.
+ */
+@Aspect
+@Component
+@Order(0)
+public class ShardAspect {
+    private final SpelExpressionParser parser = new SpelExpressionParser();
+    private final ParameterNameDiscoverer parameterNames = new DefaultParameterNameDiscoverer();
+    private final Map<Method, Expression> expressions = new ConcurrentHashMap<>();
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Around("@annotation(shard)")
+    public Object route(ProceedingJoinPoint joinPoint, Shard shard) throws Throwable {
+        int target;
+        if (shard.value().isEmpty()) {
+            target = shardRouter.nextShard();
+        } else {
+            Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+            Expression expression = expressions.computeIfAbsent(method, key -> parser.parseExpression(shard.value()));
+            Object id = expression.getValue(new MethodBasedEvaluationContext(null, method, joinPoint.getArgs(), parameterNames));
+            target = shardRouter.shardOf(id instanceof Number number ? number.longValue() : null);
+        }
+        Integer previous = ShardContext.set(target);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+}
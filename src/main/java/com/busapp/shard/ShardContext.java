@@ -0,0 +1,39 @@
+package com.busapp.shard;
+
+/**
+ * The shard the current thread's database work goes to
+ *
+ * Read by ShardRoutingDataSource whenever a connection is obtained; unset means shard 0.
+ * Set by the @Shard aspect and by ShardRouter.onShard(), always around a unit of work that
+ * starts its own transaction, because a transaction keeps the connection it started with.
+ */
+public final class ShardContext {
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * @return Integer - The current shard, or null if none was chosen (shard 0)
+     */
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @return Integer - The previous shard, to be handed to restore()
+     */
+    static Integer set(int shard) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        return previous;
+    }
+
+    static void restore(Integer previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
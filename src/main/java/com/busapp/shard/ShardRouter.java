@@ -0,0 +1,149 @@
+package com.busapp.shard;
+
+import com.busapp.replica.ReadYourWrites;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Maps IDs to shards and runs work on one shard or on all of them
+ *
+ * Shards own ID ranges: the ID sequences of shard k start at k * 2^40 (shard 0 at 1), so
+ * the shard of a route, bus, stop or station is its ID shifted right by 40 bits, without
+ * any lookup. A route's buses, stops and stations live on the route's shard, so every
+ * query by route ID goes to exactly one shard. New routes are spread round-robin.
+ */
+@Component
+public class ShardRouter {
+    public static final int ID_BITS = 40;
+
+    private final AtomicInteger nextShard = new AtomicInteger();
+    private final ExecutorService scatterExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("shard-scatter-", 0).factory());
+
+    @Autowired
+    private ShardRoutingDataSource dataSource;
+
+    @PreDestroy
+    public void shutdown() {
+        scatterExecutor.shutdownNow();
+    }
+
+    public int shardCount() {
+        return dataSource.shardCount();
+    }
+
+    /**
+     * @return int - The shard owning the ID; IDs outside every range go to the last shard
+     *         (where they are simply not found) and null to shard 0
+     */
+    public int shardOf(Long id) {
+        if (id == null || id < 0) {
+            return 0;
+        }
+        return (int) Math.min(id >>> ID_BITS, shardCount() - 1);
+    }
+
+    /**
+     * @return long - The first ID of the shard's range
+     */
+    public static long firstId(int shard) {
+        return shard == 0 ? 1 : (long) shard << ID_BITS;
+    }
+
+    /**
+     * @return int - The shard for new data (round-robin)
+     */
+    public int nextShard() {
+        return Math.floorMod(nextShard.getAndIncrement(), shardCount());
+    }
+
+    /**
+     * Runs the work with its database access routed to the shard
+     *
+     * @throws IllegalStateException if a transaction on another shard is active on this thread
+     */
+    public <T> T onShard(int shard, Supplier<T> work) {
+        Integer current = ShardContext.current();
+        if (TransactionSynchronizationManager.isActualTransactionActive() && (current == null ? 0 : current) != shard) {
+            throw new IllegalStateException("Cannot switch to shard " + shard + " inside a transaction on shard " + current);
+        }
+        Integer previous = ShardContext.set(shard);
+        try {
+            return work.get();
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+
+    /**
+     * Scatter-gather: runs the work on every shard (in parallel when there are several)
+     *
+     * @param work - Called with the shard number, with the ShardContext set to it
+     * @return List<T> - One result per shard, in shard order
+     */
+    public <T> List<T> gather(IntFunction<T> work) {
+        int shards = shardCount();
+        List<T> results = new ArrayList<>(shards);
+        if (shards == 1) {
+            results.add(onShard(0, () -> work.apply(0)));
+            return results;
+        }
+        List<Future<T>> futures = new ArrayList<>(shards);
+        long requiredSequence = ReadYourWrites.requiredSequence();
+        for (int shard = 0; shard < shards; shard++) {
+            int target = shard;
+            futures.add(scatterExecutor.submit(() ->
+                    ReadYourWrites.callWith(requiredSequence, () -> onShard(target, () -> work.apply(target)))));
+        }
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the shards", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+        return results;
+    }
+
+    /**
+     * Scatter-gather of a query: the rows of every shard, concatenated in shard order
+     *
+     * Since shard k only holds IDs below those of shard k + 1, rows ordered by ID on each
+     * shard stay ordered by ID in the combined list.
+     */
+    public <T> List<T> gatherAll(IntFunction<List<T>> query) {
+        List<List<T>> perShard = gather(query);
+        if (perShard.size() == 1) {
+            return perShard.get(0);
+        }
+        List<T> all = new ArrayList<>(perShard.stream().mapToInt(List::size).sum());
+        perShard.forEach(all::addAll);
+        return all;
+    }
+
+    /**
+     * @return DataSource - The primary of one shard (bypasses the routing and any replica)
+     */
+    public DataSource dataSource(int shard) {
+        return dataSource.shard(shard);
+    }
+}
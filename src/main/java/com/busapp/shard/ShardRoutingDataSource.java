@@ -0,0 +1,127 @@
+package com.busapp.shard;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * DataSource that hands out connections of the shard chosen in ShardContext (shard 0 if none)
+ *
+ * A shard with a read replica is reached through a LazyConnectionDataSourceProxy, which
+ * sends read-only transactions to the replica's DataSource and everything else to the primary.
+ *
+ * Hibernate creates the schema on shard 0 only (it only ever sees this DataSource with no
+ * shard chosen). The first time another shard is used, its schema is copied from shard 0
+ * with H2's SCRIPT NODATA and its sequences are restarted at the shard's first ID.
+ */
+public final class ShardRoutingDataSource extends AbstractRoutingDataSource {
+    private static final Logger log = LoggerFactory.getLogger(ShardRoutingDataSource.class);
+
+    private final List<DataSource> shards;
+    private final Set<Integer> initialized = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param shards - Primary DataSource of each shard
+     * @param readers - DataSource for the read-only transactions of each shard, or null to read from the primaries
+     */
+    public ShardRoutingDataSource(List<DataSource> shards, List<DataSource> readers) {
+        this.shards = List.copyOf(shards);
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            DataSource target = shards.get(shard);
+            if (readers != null) {
+                LazyConnectionDataSourceProxy splitting = new LazyConnectionDataSourceProxy(target);
+                splitting.setReadOnlyDataSource(readers.get(shard));
+                target = splitting;
+            }
+            targets.put(shard, target);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(targets.get(0));
+        setLenientFallback(false);
+        initialized.add(0);
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    /**
+     * @return DataSource - The primary of the shard (reads included)
+     */
+    DataSource shard(int shard) {
+        ensureSchema(shard);
+        return shards.get(shard);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+
+    @Override
+    protected DataSource determineTargetDataSource() {
+        Integer shard = ShardContext.current();
+        if (shard != null) {
+            ensureSchema(shard);
+        }
+        return super.determineTargetDataSource();
+    }
+
+    private void ensureSchema(int shard) {
+        if (initialized.contains(shard)) {
+            return;
+        }
+        synchronized (this) {
+            if (initialized.contains(shard)) {
+                return;
+            }
+            try {
+                copySchema(shard);
+            } catch (SQLException e) {
+                throw new IllegalStateException("Cannot create the schema of shard " + shard, e);
+            }
+            initialized.add(shard);
+        }
+    }
+
+    private void copySchema(int shard) throws SQLException {
+        List<String> ddl = new ArrayList<>();
+        try (Connection source = shards.get(0).getConnection();
+             Statement statement = source.createStatement();
+             ResultSet script = statement.executeQuery("SCRIPT NODATA")) {
+            while (script.next()) {
+                ddl.add(script.getString(1));
+            }
+        }
+        try (Connection target = shards.get(shard).getConnection();
+             Statement statement = target.createStatement()) {
+            for (String sql : ddl) {
+                statement.execute(sql);
+            }
+            List<String> sequences = new ArrayList<>();
+            try (ResultSet rs = statement.executeQuery(
+                    "SELECT sequence_name FROM information_schema.sequences WHERE sequence_schema = 'PUBLIC'")) {
+                while (rs.next()) {
+                    sequences.add(rs.getString(1));
+                }
+            }
+            for (String sequence : sequences) {
+                statement.execute("ALTER SEQUENCE \"" + sequence + "\" RESTART WITH " + ShardRouter.firstId(shard));
+            }
+        }
+        log.info("Created schema of shard {} ({} statements, IDs from {})", shard, ddl.size(), ShardRouter.firstId(shard));
+    }
+}
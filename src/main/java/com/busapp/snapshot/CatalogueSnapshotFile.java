@@ -0,0 +1,253 @@
+package com.busapp.snapshot;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary file format of the catalogue snapshot (stations, routes, route stops and buses)
+ *
+ * Layout (big-endian, as written by DataOutputStream):
+ * - header: magic "BUSC", format version, creation time (epoch millis) and the row count of each section
+ * - sections in insert order (parents first): stations, routes, route stops, buses
+ * - trailer: CRC32 of everything before it
+ *
+ * Strings are an int byte length (-1 for null) followed by UTF-8 bytes; a null capacity
+ * is written as -1, a missing station location as two NaN doubles. Version 1 files (stations
+ * without a location) are still read. A new file is written next to the old one and renamed over it, so a
+ * crash while writing never leaves a truncated snapshot behind.
+ *
+ * Reading maps the file into memory and decodes it in place; the checksum is verified
+ * before the first row is handed out, so a damaged file is rejected as a whole.
+ */
+public final class CatalogueSnapshotFile {
+    static final int MAGIC = 0x42555343; // "BUSC"
+    static final int FORMAT_VERSION = 2;
+    // Oldest version read(): version 1 stations have no latitude / longitude
+    static final int OLDEST_FORMAT_VERSION = 1;
+
+    /**
+     * Receives the rows of a snapshot, section by section
+     */
+    public interface Visitor {
+        void station(long id, String name, String nameKey, Double latitude, Double longitude);
+
+        void route(long id, long version, String title, String source, String destination, String stations);
+
+        void routeStop(long id, long routeId, long stationId, int stopSequence);
+
+        void bus(long id, long version, long routeId, String busNo, String color, Integer capacity);
+    }
+
+    /**
+     * Row counts of a snapshot, in section order
+     */
+    public record Counts(int stations, int routes, int routeStops, int buses) {
+    }
+
+    private CatalogueSnapshotFile() {
+    }
+
+    /**
+     * Streams rows into a temporary file; commit() verifies the counts and moves it into place
+     */
+    public static final class Writer implements Closeable {
+        private final Path target;
+        private final Path temporary;
+        private final Counts expected;
+        private final CRC32 crc = new CRC32();
+        private final OutputStream file;
+        private final DataOutputStream out;
+        private int stations;
+        private int routes;
+        private int routeStops;
+        private int buses;
+        private boolean committed;
+
+        public Writer(Path target, Counts counts, long createdAtMillis) throws IOException {
+            this.target = target;
+            this.expected = counts;
+            Path directory = target.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            this.temporary = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+            this.file = Files.newOutputStream(temporary);
+            this.out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(file, 1 << 16), crc));
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(createdAtMillis);
+            out.writeInt(counts.stations());
+            out.writeInt(counts.routes());
+            out.writeInt(counts.routeStops());
+            out.writeInt(counts.buses());
+        }
+
+        public void station(long id, String name, String nameKey, Double latitude, Double longitude) throws IOException {
+            out.writeLong(id);
+            writeString(name);
+            writeString(nameKey);
+            out.writeDouble(latitude == null ? Double.NaN : latitude);
+            out.writeDouble(longitude == null ? Double.NaN : longitude);
+            stations++;
+        }
+
+        public void route(long id, long version, String title, String source, String destination, String stationList) throws IOException {
+            out.writeLong(id);
+            out.writeLong(version);
+            writeString(title);
+            writeString(source);
+            writeString(destination);
+            writeString(stationList);
+            routes++;
+        }
+
+        public void routeStop(long id, long routeId, long stationId, int stopSequence) throws IOException {
+            out.writeLong(id);
+            out.writeLong(routeId);
+            out.writeLong(stationId);
+            out.writeInt(stopSequence);
+            routeStops++;
+        }
+
+        public void bus(long id, long version, long routeId, String busNo, String color, Integer capacity) throws IOException {
+            out.writeLong(id);
+            out.writeLong(version);
+            out.writeLong(routeId);
+            writeString(busNo);
+            writeString(color);
+            out.writeInt(capacity == null ? -1 : capacity);
+            buses++;
+        }
+
+        /**
+         * Writes the checksum, forces the file to disk and atomically replaces the previous snapshot
+         */
+        public void commit() throws IOException {
+            Counts written = new Counts(stations, routes, routeStops, buses);
+            if (!written.equals(expected)) {
+                throw new IOException("Snapshot rows " + written + " do not match the header " + expected);
+            }
+            out.flush();
+            new DataOutputStream(file).writeLong(crc.getValue()); // Not part of the checksum itself
+            file.flush();
+            out.close();
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!committed) {
+                out.close();
+                Files.deleteIfExists(temporary);
+            }
+        }
+
+        private void writeString(String value) throws IOException {
+            if (value == null) {
+                out.writeInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Maps the snapshot, verifies its checksum and hands every row to the visitor
+     *
+     * @return Counts - Rows read per section
+     */
+    public static Counts read(Path path, Visitor visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot " + path + " is larger than 2 GB");
+            }
+            if (size < 40) {
+                throw new IOException("Snapshot " + path + " is truncated");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(0, (int) size - 8));
+            if (crc.getValue() != buffer.getLong((int) size - 8)) {
+                throw new IOException("Snapshot " + path + " is damaged (checksum mismatch)");
+            }
+            buffer.limit((int) size - 8);
+
+            int formatVersion = readVersion(buffer, path);
+            buffer.getLong(); // Creation time
+            Counts counts = new Counts(buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.getInt());
+            byte[] scratch = new byte[256];
+            for (int i = 0; i < counts.stations(); i++) {
+                long id = buffer.getLong();
+                String name = readString(buffer, scratch);
+                String nameKey = readString(buffer, scratch);
+                double latitude = formatVersion >= 2 ? buffer.getDouble() : Double.NaN;
+                double longitude = formatVersion >= 2 ? buffer.getDouble() : Double.NaN;
+                visitor.station(id, name, nameKey, Double.isNaN(latitude) ? null : latitude, Double.isNaN(longitude) ? null : longitude);
+            }
+            for (int i = 0; i < counts.routes(); i++) {
+                long id = buffer.getLong();
+                long version = buffer.getLong();
+                String title = readString(buffer, scratch);
+                String source = readString(buffer, scratch);
+                String destination = readString(buffer, scratch);
+                visitor.route(id, version, title, source, destination, readString(buffer, scratch));
+            }
+            for (int i = 0; i < counts.routeStops(); i++) {
+                visitor.routeStop(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getInt());
+            }
+            for (int i = 0; i < counts.buses(); i++) {
+                long id = buffer.getLong();
+                long version = buffer.getLong();
+                long routeId = buffer.getLong();
+                String busNo = readString(buffer, scratch);
+                String color = readString(buffer, scratch);
+                int capacity = buffer.getInt();
+                visitor.bus(id, version, routeId, busNo, color, capacity == -1 ? null : capacity);
+            }
+            if (buffer.hasRemaining()) {
+                throw new IOException("Snapshot " + path + " has " + buffer.remaining() + " unexpected trailing bytes");
+            }
+            return counts;
+        }
+    }
+
+    private static int readVersion(ByteBuffer buffer, Path path) throws IOException {
+        if (buffer.remaining() < 32 || buffer.getInt() != MAGIC) {
+            throw new IOException(path + " is not a catalogue snapshot");
+        }
+        int version = buffer.getInt();
+        if (version < OLDEST_FORMAT_VERSION || version > FORMAT_VERSION) {
+            throw new IOException("Snapshot " + path + " has format version " + version + ", expected "
+                    + OLDEST_FORMAT_VERSION + " to " + FORMAT_VERSION);
+        }
+        return version;
+    }
+
+    private static String readString(ByteBuffer buffer, byte[] scratch) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = length <= scratch.length ? scratch : new byte[length];
+        buffer.get(bytes, 0, length);
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,337 @@
+package com.busapp.snapshot;
+
+import com.busapp.event.BusCreatedEvent;
+import com.busapp.event.CatalogueLoadedEvent;
+import com.busapp.event.RouteCreatedEvent;
+import com.busapp.event.StationLocatedEvent;
+import com.busapp.shard.ShardRouter;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Keeps the route and bus catalogue across restarts of the in-memory database
+ *
+ * Enabled with transport.catalogue.snapshot.enabled=true:
+ * - at startup (after all beans are created, before requests are accepted) the snapshot file is
+ *   mapped and its rows are bulk-inserted with batched JDBC INSERTs in one transaction; the ID
+ *   sequences are moved past the loaded IDs and a CatalogueLoadedEvent makes the in-memory
+ *   indexes rebuild
+ * - every "transport.catalogue.snapshot.interval-ms" (only if routes or buses were created since
+ *   the last write) and on shutdown the tables are streamed into a new snapshot file
+ *
+ * Nothing is loaded if the database already contains routes. A damaged or incompatible
+ * snapshot stops the startup rather than being overwritten by an empty catalogue.
+ *
+ * With several shards the file holds the rows of all of them (shard by shard, so still in ID
+ * order); loading sends each row to the shard owning its ID. Both directions work on one
+ * connection per shard, committed together at the end.
+ */
+@Component
+@ConditionalOnProperty(name = "transport.catalogue.snapshot.enabled", havingValue = "true")
+public class CatalogueSnapshotService implements SmartInitializingSingleton {
+    private static final Logger log = LoggerFactory.getLogger(CatalogueSnapshotService.class);
+    private static final int BATCH_SIZE = 1000;
+    // allocationSize of the entity sequences: Hibernate may hand out a whole block below the next value
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final String INSERT_STATION = "INSERT INTO stations (id, name, name_key, latitude, longitude) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_ROUTE =
+            "INSERT INTO bus_routes (id, version, title, source, destination, stations) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_ROUTE_STOP = "INSERT INTO route_stops (id, route_id, station_id, stop_sequence) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_BUS = "INSERT INTO buses (id, version, route_id, bus_no, color, capacity) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final AtomicBoolean changed = new AtomicBoolean();
+
+    @Value("${transport.catalogue.snapshot.path:data/catalogue.snapshot}")
+    private Path path;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!Files.exists(path)) {
+            log.info("No catalogue snapshot at {}, starting with an empty catalogue", path.toAbsolutePath());
+            return;
+        }
+        long existingRoutes = shardRouter.gather(shard -> count("bus_routes")).stream().mapToLong(Integer::longValue).sum();
+        if (existingRoutes > 0) {
+            log.warn("Database already contains {} routes, catalogue snapshot {} is not loaded", existingRoutes, path);
+            return;
+        }
+        long start = System.nanoTime();
+        CatalogueSnapshotFile.Counts counts = onAllShards(false, this::load);
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            shardRouter.onShard(shard, () -> {
+                restartSequence("station_seq", "stations");
+                restartSequence("bus_route_seq", "bus_routes");
+                restartSequence("route_stop_seq", "route_stops");
+                restartSequence("bus_seq", "buses");
+                return null;
+            });
+        }
+        long inserted = System.nanoTime();
+        eventPublisher.publishEvent(new CatalogueLoadedEvent(counts.routes(), counts.buses()));
+        log.info("Loaded catalogue snapshot {} ({} routes, {} buses) in {} ms, indexes rebuilt in {} ms", path, counts.routes(),
+                counts.buses(), (inserted - start) / 1_000_000, (System.nanoTime() - inserted) / 1_000_000);
+    }
+
+    @TransactionalEventListener
+    public void onRouteCreated(RouteCreatedEvent event) {
+        changed.set(true);
+    }
+
+    @TransactionalEventListener
+    public void onBusCreated(BusCreatedEvent event) {
+        changed.set(true);
+    }
+
+    @TransactionalEventListener
+    public void onStationLocated(StationLocatedEvent event) {
+        changed.set(true);
+    }
+
+    @Scheduled(fixedDelayString = "${transport.catalogue.snapshot.interval-ms:60000}",
+               initialDelayString = "${transport.catalogue.snapshot.interval-ms:60000}")
+    @PreDestroy
+    public synchronized void write() {
+        if (!changed.getAndSet(false)) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            CatalogueSnapshotFile.Counts counts = export();
+            log.info("Wrote catalogue snapshot {} ({} routes, {} buses) in {} ms",
+                    path, counts.routes(), counts.buses(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            changed.set(true);
+            log.error("Writing catalogue snapshot {} failed, retrying with the next interval", path, e);
+        }
+    }
+
+    private CatalogueSnapshotFile.Counts load(List<JdbcTemplate> shards) {
+        Batch stations = new Batch(INSERT_STATION, shards);
+        Batch routes = new Batch(INSERT_ROUTE, shards);
+        Batch routeStops = new Batch(INSERT_ROUTE_STOP, shards);
+        Batch buses = new Batch(INSERT_BUS, shards);
+        CatalogueSnapshotFile.Counts counts;
+        try {
+            // Sections arrive parents first, so each batch is flushed before the next section starts
+            counts = CatalogueSnapshotFile.read(path, new CatalogueSnapshotFile.Visitor() {
+                @Override
+                public void station(long id, String name, String nameKey, Double latitude, Double longitude) {
+                    stations.add(id, name, nameKey, latitude, longitude);
+                }
+
+                @Override
+                public void route(long id, long version, String title, String source, String destination, String stationList) {
+                    stations.flush();
+                    routes.add(id, version, title, source, destination, stationList);
+                }
+
+                @Override
+                public void routeStop(long id, long routeId, long stationId, int stopSequence) {
+                    routes.flush();
+                    routeStops.add(id, routeId, stationId, stopSequence);
+                }
+
+                @Override
+                public void bus(long id, long version, long routeId, String busNo, String color, Integer capacity) {
+                    routeStops.flush();
+                    buses.add(id, version, routeId, busNo, color, capacity);
+                }
+            });
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot load catalogue snapshot " + path.toAbsolutePath()
+                    + " (move it away to start with an empty catalogue)", e);
+        }
+        stations.flush();
+        routes.flush();
+        routeStops.flush();
+        buses.flush();
+        return counts;
+    }
+
+    /**
+     * Streams the tables into a new snapshot file within one serializable read-only
+     * transaction per shard, so buses never refer to routes missing from the snapshot
+     */
+    private CatalogueSnapshotFile.Counts export() {
+        return onAllShards(true, shards -> {
+            CatalogueSnapshotFile.Counts counts = new CatalogueSnapshotFile.Counts(count(shards, "stations"), count(shards, "bus_routes"),
+                    count(shards, "route_stops"), count(shards, "buses"));
+            try (CatalogueSnapshotFile.Writer writer = new CatalogueSnapshotFile.Writer(path, counts, System.currentTimeMillis())) {
+                for (JdbcTemplate shard : shards) {
+                    shard.query("SELECT id, name, name_key, latitude, longitude FROM stations ORDER BY id", rs -> {
+                        try {
+                            writer.station(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getObject(4, Double.class),
+                                    rs.getObject(5, Double.class));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                }
+                for (JdbcTemplate shard : shards) {
+                    shard.query("SELECT id, version, title, source, destination, stations FROM bus_routes ORDER BY id", rs -> {
+                        try {
+                            writer.route(rs.getLong(1), rs.getLong(2), rs.getString(3), rs.getString(4), rs.getString(5), rs.getString(6));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                }
+                for (JdbcTemplate shard : shards) {
+                    shard.query("SELECT id, route_id, station_id, stop_sequence FROM route_stops ORDER BY id", rs -> {
+                        try {
+                            writer.routeStop(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getInt(4));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                }
+                for (JdbcTemplate shard : shards) {
+                    shard.query("SELECT id, version, route_id, bus_no, color, capacity FROM buses ORDER BY id", rs -> {
+                        try {
+                            writer.bus(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getString(4), rs.getString(5),
+                                    rs.getObject(6, Integer.class));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                }
+                writer.commit();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return counts;
+        });
+    }
+
+    /**
+     * Runs the work with one connection (and transaction) per shard, in shard order;
+     * the transactions are committed after the work has completed, or all rolled back
+     *
+     * @param readOnly - true for read-only serializable transactions
+     */
+    private <T> T onAllShards(boolean readOnly, Function<List<JdbcTemplate>, T> work) {
+        List<Connection> connections = new ArrayList<>();
+        try {
+            List<JdbcTemplate> shards = new ArrayList<>();
+            for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+                Connection connection = shardRouter.dataSource(shard).getConnection();
+                connections.add(connection);
+                connection.setAutoCommit(false);
+                if (readOnly) {
+                    connection.setReadOnly(true);
+                    connection.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+                }
+                shards.add(new JdbcTemplate(new SingleConnectionDataSource(connection, true)));
+            }
+            T result = work.apply(shards);
+            for (Connection connection : connections) {
+                connection.commit();
+            }
+            return result;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot access the shards for the catalogue snapshot", e);
+        } finally {
+            for (Connection connection : connections) {
+                try {
+                    connection.rollback(); // No-op after a commit
+                    connection.close();
+                } catch (SQLException e) {
+                    log.warn("Cannot release a shard connection", e);
+                }
+            }
+        }
+    }
+
+    private static int count(List<JdbcTemplate> shards, String table) {
+        return shards.stream().mapToInt(shard -> count(shard, table)).sum();
+    }
+
+    private int count(String table) {
+        return count(jdbcTemplate, table);
+    }
+
+    private static int count(JdbcTemplate jdbcTemplate, String table) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Moves the current shard's sequence past the loaded IDs; on a shard without rows
+     * the sequence keeps its start (the first ID of the shard's range)
+     */
+    private void restartSequence(String sequence, String table) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        if (maxId == 0) {
+            return;
+        }
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (maxId + 1 + ALLOCATION_SIZE));
+    }
+
+    /**
+     * Rows of one INSERT statement, sent to the shard owning their ID (first column) BATCH_SIZE at a time
+     */
+    private final class Batch {
+        private final String sql;
+        private final List<JdbcTemplate> shards;
+        private final List<List<Object[]>> rows = new ArrayList<>();
+
+        Batch(String sql, List<JdbcTemplate> shards) {
+            this.sql = sql;
+            this.shards = shards;
+            shards.forEach(shard -> rows.add(new ArrayList<>(BATCH_SIZE)));
+        }
+
+        void add(Object... row) {
+            int shard = shardRouter.shardOf((Long) row[0]);
+            rows.get(shard).add(row);
+            if (rows.get(shard).size() == BATCH_SIZE) {
+                flush(shard);
+            }
+        }
+
+        void flush() {
+            for (int shard = 0; shard < shards.size(); shard++) {
+                flush(shard);
+            }
+        }
+
+        private void flush(int shard) {
+            List<Object[]> shardRows = rows.get(shard);
+            if (!shardRows.isEmpty()) {
+                shards.get(shard).batchUpdate(sql, shardRows);
+                shardRows.clear();
+            }
+        }
+    }
+}
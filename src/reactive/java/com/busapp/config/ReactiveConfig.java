@@ -0,0 +1,121 @@
+package com.busapp.config;
+
+import io.netty.channel.ChannelOption;
+import io.netty.channel.WriteBufferWaterMark;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Option;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.TransactionalEventPublisher;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import java.time.Duration;
+
+/**
+ * ReactiveConfig - Non-blocking stack for the "reactive" profile (WebFlux on Netty + R2DBC)
+ *
+ * Active only when the application runs as a reactive web application
+ * (spring.main.web-application-type=reactive, set by application-reactive.properties).
+ * The servlet controllers are switched off then, and /transport/bus and /transport/route
+ * are served by the handlers in the com.busapp.reactive package.
+ *
+ * R2DBC connects to the same in-memory H2 database as the JDBC pool (the schema is still
+ * created by Hibernate at startup). Boot's own R2DBC auto-configuration is excluded in
+ * application.properties: its transaction manager would sit next to the JPA one and make
+ * every @Transactional ambiguous. The R2DBC transaction manager therefore only backs the
+ * TransactionalOperator below and is not a bean.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveConfig {
+
+    /**
+     * Netty instead of Tomcat (which is on the classpath for the servlet stack and would
+     * otherwise also be picked for the reactive one)
+     *
+     * The write buffer water mark is how much response data Netty queues per connection
+     * before it stops asking the Flux for more (default 32/64 KB). A small one keeps the
+     * memory of a slow client's connection low and passes its backpressure on sooner.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory(@Value("${transport.reactive.write-buffer.low-kb:8}") int lowKb,
+                                                                       @Value("${transport.reactive.write-buffer.high-kb:16}") int highKb) {
+        NettyReactiveWebServerFactory factory = new NettyReactiveWebServerFactory();
+        factory.addServerCustomizers(server -> server.childOption(ChannelOption.WRITE_BUFFER_WATER_MARK,
+                new WriteBufferWaterMark(lowKb * 1024, highKb * 1024)));
+        return factory;
+    }
+
+    /**
+     * Creates the R2DBC connection pool ("r2dbc.pool.*" metrics)
+     *
+     * Sharding and read replicas work on the JDBC DataSource only, so the reactive
+     * profile refuses to start with either of them.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool connectionFactory(@Value("${transport.reactive.r2dbc.url}") String url,
+                                            @Value("${spring.datasource.username:}") String username,
+                                            @Value("${spring.datasource.password:}") String password,
+                                            @Value("${transport.reactive.r2dbc.pool.max-size:20}") int maxSize,
+                                            @Value("${transport.reactive.r2dbc.pool.max-acquire-time-ms:5000}") long maxAcquireMillis,
+                                            @Value("${transport.shards.count:1}") int shardCount,
+                                            @Value("${transport.replica.enabled:false}") boolean replicaEnabled) {
+        if (shardCount != 1 || replicaEnabled) {
+            throw new IllegalStateException("The reactive profile needs transport.shards.count=1 and transport.replica.enabled=false");
+        }
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        ConnectionFactory connectionFactory = ConnectionFactories.get(options);
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .name("r2dbc")
+                .initialSize(Math.min(maxSize, 10))
+                .maxSize(maxSize)
+                .maxAcquireTime(Duration.ofMillis(maxAcquireMillis))
+                .build());
+    }
+
+    @Bean
+    public DatabaseClient databaseClient(ConnectionFactory connectionFactory) {
+        return DatabaseClient.create(connectionFactory);
+    }
+
+    @Bean
+    public TransactionalOperator transactionalOperator(ConnectionFactory connectionFactory) {
+        R2dbcTransactionManager transactionManager = new R2dbcTransactionManager(connectionFactory) {
+            @Override
+            protected io.r2dbc.spi.TransactionDefinition createTransactionDefinition(TransactionDefinition definition) {
+                // The H2 driver logs a warning for every transaction that carries the read-only
+                // attribute, even when it is false (H2 only supports read-only per connection URL)
+                io.r2dbc.spi.TransactionDefinition target = super.createTransactionDefinition(definition);
+                return new io.r2dbc.spi.TransactionDefinition() {
+                    @Override
+                    public <T> T getAttribute(Option<T> option) {
+                        return io.r2dbc.spi.TransactionDefinition.READ_ONLY.equals(option) ? null : target.getAttribute(option);
+                    }
+                };
+            }
+        };
+        return TransactionalOperator.create(transactionManager);
+    }
+
+    /**
+     * Publishes events inside a reactive transaction, so the @TransactionalEventListeners
+     * (RouteIdSet, RouteVersionMap, PositionStore, ...) still only see committed data
+     */
+    @Bean
+    public TransactionalEventPublisher transactionalEventPublisher(ApplicationEventPublisher eventPublisher) {
+        return new TransactionalEventPublisher(eventPublisher);
+    }
+}
@@ -0,0 +1,112 @@
+package com.busapp.exception;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ReactiveExceptionHandler - GlobalExceptionHandler for the reactive profile
+ * 
+ * Same response format and "transport.invalid.route.id" metric as GlobalExceptionHandler,
+ * for the WebFlux handlers in com.busapp.reactive (which only raise route, validation and
+ * unexpected errors).
+ */
+@ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveExceptionHandler {
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    /**
+     * Handles InvalidRouteIdException
+     * 
+     * @return ResponseEntity with error details and HTTP 404 NOT FOUND status
+     */
+    @ExceptionHandler(InvalidRouteIdException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidRouteId(InvalidRouteIdException ex, ServerWebExchange exchange) {
+        Object pattern = exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        meterRegistry.counter("transport.invalid.route.id", "uri", pattern != null ? pattern.toString() : "UNKNOWN").increment();
+        
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("timestamp", LocalDateTime.now());
+        errorResponse.put("status", HttpStatus.NOT_FOUND.value());  // 404
+        errorResponse.put("error", HttpStatus.NOT_FOUND.getReasonPhrase());  // "Not Found"
+        errorResponse.put("message", ex.getMessage());
+        
+        // Always JSON, even when the client asked for another format (e.g. application/x-ndjson)
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON).body(errorResponse);
+    }
+    
+    /**
+     * Handles validation errors from @Valid annotation
+     * 
+     * WebFlux reports them as WebExchangeBindException (MethodArgumentNotValidException
+     * on the servlet stack)
+     * 
+     * @return ResponseEntity with validation error details and HTTP 400 BAD REQUEST status
+     */
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<Map<String, Object>> handleValidationExceptions(WebExchangeBindException ex) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        Map<String, String> errors = new HashMap<>();
+        
+        ex.getBindingResult().getAllErrors().forEach((error) -> {
+            String fieldName = ((FieldError) error).getField();
+            String errorMessage = error.getDefaultMessage();
+            errors.put(fieldName, errorMessage);
+        });
+        
+        errorResponse.put("timestamp", LocalDateTime.now());
+        errorResponse.put("status", HttpStatus.BAD_REQUEST.value());  // 400
+        errorResponse.put("error", "Validation Failed");
+        errorResponse.put("errors", errors);
+        
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).contentType(MediaType.APPLICATION_JSON).body(errorResponse);
+    }
+    
+    /**
+     * Handles the errors WebFlux raises with a status of their own (unreadable body,
+     * path variable that is not a number, ...), keeping that status
+     */
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<Map<String, Object>> handleResponseStatus(ResponseStatusException ex) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("timestamp", LocalDateTime.now());
+        errorResponse.put("status", ex.getStatusCode().value());
+        errorResponse.put("error", ex.getBody().getTitle());
+        errorResponse.put("message", ex.getReason());
+        
+        return ResponseEntity.status(ex.getStatusCode()).contentType(MediaType.APPLICATION_JSON).body(errorResponse);
+    }
+    
+    /**
+     * Handles all other unexpected exceptions
+     * 
+     * @return ResponseEntity with error details and HTTP 500 INTERNAL SERVER ERROR status
+     */
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<Map<String, Object>> handleGlobalException(Exception ex) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("timestamp", LocalDateTime.now());
+        errorResponse.put("status", HttpStatus.INTERNAL_SERVER_ERROR.value());  // 500
+        errorResponse.put("error", HttpStatus.INTERNAL_SERVER_ERROR.getReasonPhrase());
+        errorResponse.put("message", "An unexpected error occurred: " + ex.getMessage());
+        
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).contentType(MediaType.APPLICATION_JSON).body(errorResponse);
+    }
+}
@@ -0,0 +1,47 @@
+package com.busapp.reactive;
+
+import com.busapp.dto.BusRequest;
+import com.busapp.dto.BusResponse;
+import com.busapp.service.BusRouteService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of BusController (profile "reactive")
+ *
+ * The bus search streams in both formats: a JSON array or NDJSON (Accept: application/x-ndjson),
+ * written row by row as the database produces them. Batch creation and afterId/limit
+ * paging stay on the servlet stack.
+ */
+@RestController
+@RequestMapping("/transport")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveBusController {
+    @Autowired
+    private ReactiveBusService reactiveBusService;
+    
+    @PostMapping("/bus")
+    public Mono<ResponseEntity<BusResponse>> createBus(@Valid @RequestBody BusRequest request) {
+        return reactiveBusService.createBus(request).map(response -> new ResponseEntity<>(response, HttpStatus.CREATED));
+    }
+    
+    @GetMapping(value = "/bus/search/{routeId}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<ResponseEntity<Flux<BusResponse>>> getBusesByRouteId(@PathVariable Long routeId, ServerWebExchange exchange) {
+        return reactiveBusService.getRouteVersion(routeId).map(version -> {
+            // Same ETag as the servlet endpoint: the route's version changes whenever a bus is added to it
+            String eTag = BusRouteService.routeETag(routeId, version, false);
+            if (exchange.checkNotModified(eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+            return ResponseEntity.ok().eTag(eTag).body(reactiveBusService.getBusesByRouteId(routeId));
+        });
+    }
+}
@@ -0,0 +1,46 @@
+package com.busapp.reactive;
+
+import com.busapp.dto.BusRouteRequest;
+import com.busapp.dto.BusRouteResponse;
+import com.busapp.service.BusRouteService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of BusRouteController (profile "reactive")
+ *
+ * Routes are read from the database on every request (no route body cache, no gzip);
+ * conditional GETs are answered from the version column alone.
+ */
+@RestController
+@RequestMapping("/transport")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveBusRouteController {
+    @Autowired
+    private ReactiveBusRouteService reactiveBusRouteService;
+    
+    @Autowired
+    private ReactiveBusService reactiveBusService;
+    
+    @PostMapping("/route")
+    public Mono<ResponseEntity<BusRouteResponse>> createRoute(@Valid @RequestBody BusRouteRequest request) {
+        return reactiveBusRouteService.createRoute(request).map(response -> new ResponseEntity<>(response, HttpStatus.CREATED));
+    }
+    
+    @GetMapping("/route/{id}")
+    public Mono<ResponseEntity<BusRouteResponse>> getRouteById(@PathVariable Long id, ServerWebExchange exchange) {
+        return reactiveBusService.getRouteVersion(id).flatMap(version -> {
+            String eTag = BusRouteService.routeETag(id, version, false);
+            if (exchange.checkNotModified(eTag)) {
+                return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).<BusRouteResponse>build());
+            }
+            return reactiveBusRouteService.getRouteById(id).map(route -> ResponseEntity.ok().eTag(eTag).body(route));
+        });
+    }
+}
@@ -0,0 +1,149 @@
+package com.busapp.reactive;
+
+import com.busapp.config.CacheConfig;
+import com.busapp.dto.BusRouteRequest;
+import com.busapp.dto.BusRouteResponse;
+import com.busapp.entity.Station;
+import com.busapp.event.RouteCreatedEvent;
+import com.busapp.exception.InvalidRouteIdException;
+import com.busapp.index.RouteIdSet;
+import com.busapp.service.StationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.cache.CacheManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalEventPublisher;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BusRouteService for the reactive profile, on R2DBC
+ *
+ * A new route is written like StationService.attachStops does it: missing stations are
+ * created, the route gets one route_stops row per stop, and the RouteCreatedEvent is
+ * published inside the transaction. IDs come from the Hibernate sequences (see
+ * ReactiveBusService).
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveBusRouteService {
+
+    /**
+     * A row of the stations table
+     */
+    private record StationRow(Long id, String name, String nameKey) {
+    }
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    @Autowired
+    private TransactionalEventPublisher eventPublisher;
+
+    @Autowired
+    private RouteIdSet routeIdSet;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    public Mono<BusRouteResponse> createRoute(BusRouteRequest request) {
+        List<String> names = StationService.stopNames(request.getSource(), request.getStations(), request.getDestination());
+        Map<String, String> nameByKey = new LinkedHashMap<>();
+        names.forEach(name -> nameByKey.putIfAbsent(Station.normalize(name), name));
+
+        Mono<BusRouteResponse> work = stations(nameByKey).flatMap(stationsByKey ->
+                ReactiveBusService.nextId(databaseClient, "bus_route_seq").flatMap(routeId -> {
+                    List<StationRow> stops = names.stream().map(name -> stationsByKey.get(Station.normalize(name))).toList();
+                    DatabaseClient.GenericExecuteSpec insert = databaseClient
+                            .sql("INSERT INTO bus_routes (id, version, title, source, destination, stations) VALUES (:id, 0, :title, :source, :destination, :stations)")
+                            .bind("id", routeId)
+                            .bind("title", request.getTitle())
+                            .bind("source", request.getSource())
+                            .bind("destination", request.getDestination());
+                    insert = ReactiveBusService.bind(insert, "stations", request.getStations(), String.class);
+                    RouteCreatedEvent event = new RouteCreatedEvent(routeId,
+                            stops.stream().map(StationRow::nameKey).toList(), stops.stream().map(StationRow::name).toList());
+                    return insert.then()
+                            .thenMany(Flux.range(0, stops.size()).concatMap(i -> insertStop(routeId, stops.get(i).id(), i)))
+                            .then(eventPublisher.publishEvent(event))
+                            .thenReturn(new BusRouteResponse(routeId, request.getTitle(), request.getSource(), request.getDestination(), request.getStations()));
+                }));
+        return work.as(transactionalOperator::transactional)
+                .doOnSuccess(route -> cacheManager.getCache(CacheConfig.ROUTE_BODIES_CACHE).evict(route.getId()));
+    }
+
+    /**
+     * The route with its buses (two queries, no cache: every request reads the database)
+     */
+    public Mono<BusRouteResponse> getRouteById(Long id) {
+        if (!routeIdSet.contains(id)) {
+            return Mono.error(new InvalidRouteIdException(id));
+        }
+        return databaseClient.sql("SELECT id, title, source, destination, stations FROM bus_routes WHERE id = :id")
+                .bind("id", id)
+                .map(row -> new BusRouteResponse(row.get("id", Long.class), row.get("title", String.class),
+                        row.get("source", String.class), row.get("destination", String.class), row.get("stations", String.class)))
+                .one()
+                .switchIfEmpty(Mono.error(() -> new InvalidRouteIdException(id)))
+                .flatMap(route -> databaseClient.sql(ReactiveBusService.SELECT_BUSES)
+                        .bind("routeId", id)
+                        .map(ReactiveBusService::busResponse)
+                        .all()
+                        .collectList()
+                        .map(buses -> {
+                            route.setBuses(buses);
+                            return route;
+                        }));
+    }
+
+    /**
+     * Looks up the stations by normalized name with one query and creates the missing ones
+     *
+     * @return Mono<Map<String, StationRow>> - Every station of the route by name key
+     */
+    private Mono<Map<String, StationRow>> stations(Map<String, String> nameByKey) {
+        return databaseClient.sql("SELECT id, name, name_key FROM stations WHERE name_key IN (:keys)")
+                .bind("keys", new ArrayList<>(nameByKey.keySet()))
+                .map(row -> new StationRow(row.get("id", Long.class), row.get("name", String.class), row.get("name_key", String.class)))
+                .all()
+                .collectMap(StationRow::nameKey)
+                .flatMap(existing -> Flux.fromIterable(nameByKey.entrySet())
+                        .filter(entry -> !existing.containsKey(entry.getKey()))
+                        .concatMap(entry -> insertStation(entry.getValue(), entry.getKey()))
+                        .collectMap(StationRow::nameKey)
+                        .map(created -> {
+                            Map<String, StationRow> all = new LinkedHashMap<>(existing);
+                            all.putAll(created);
+                            return all;
+                        }));
+    }
+
+    private Mono<StationRow> insertStation(String name, String nameKey) {
+        return ReactiveBusService.nextId(databaseClient, "station_seq").flatMap(id -> databaseClient
+                .sql("INSERT INTO stations (id, name, name_key) VALUES (:id, :name, :nameKey)")
+                .bind("id", id)
+                .bind("name", name)
+                .bind("nameKey", nameKey)
+                .then()
+                .thenReturn(new StationRow(id, name, nameKey)));
+    }
+
+    private Mono<Void> insertStop(Long routeId, Long stationId, int stopSequence) {
+        return ReactiveBusService.nextId(databaseClient, "route_stop_seq").flatMap(id -> databaseClient
+                .sql("INSERT INTO route_stops (id, route_id, station_id, stop_sequence) VALUES (:id, :routeId, :stationId, :stopSequence)")
+                .bind("id", id)
+                .bind("routeId", routeId)
+                .bind("stationId", stationId)
+                .bind("stopSequence", stopSequence)
+                .then());
+    }
+}
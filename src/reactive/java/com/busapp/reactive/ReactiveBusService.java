@@ -0,0 +1,145 @@
+package com.busapp.reactive;
+
+import com.busapp.config.CacheConfig;
+import com.busapp.dto.BusRequest;
+import com.busapp.dto.BusResponse;
+import com.busapp.event.BusCreatedEvent;
+import com.busapp.exception.InvalidRouteIdException;
+import com.busapp.index.RouteIdSet;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.cache.CacheManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalEventPublisher;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.util.List;
+
+/**
+ * BusService for the reactive profile, on R2DBC
+ *
+ * Writes the same rows and publishes the same BusCreatedEvent as BusService, so the
+ * in-memory indexes (RouteVersionMap, PositionStore, ...) stay current. Bus IDs come from
+ * the Hibernate sequence: each insert takes one NEXT VALUE and uses it as is. Hibernate's
+ * pooled optimizer only hands out the block below a sequence value it fetched itself, so
+ * both paths can create buses without ever producing the same ID.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveBusService {
+    static final String SELECT_BUSES = "SELECT id, bus_no, color, capacity, route_id FROM buses WHERE route_id = :routeId ORDER BY id";
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    @Autowired
+    private TransactionalEventPublisher eventPublisher;
+
+    @Autowired
+    private RouteIdSet routeIdSet;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Value("${transport.reactive.search.page-size:100}")
+    private int searchPageSize;
+
+    public Mono<BusResponse> createBus(BusRequest request) {
+        Long routeId = request.getRouteId();
+        // Locks the route and bumps its version until commit, like findForUpdateById
+        Mono<BusResponse> work = databaseClient.sql("UPDATE bus_routes SET version = version + 1 WHERE id = :id")
+                .bind("id", routeId)
+                .fetch().rowsUpdated()
+                .filter(updated -> updated > 0)
+                .switchIfEmpty(Mono.error(() -> new InvalidRouteIdException(routeId)))
+                .then(selectVersion(routeId))
+                .flatMap(version -> nextId(databaseClient, "bus_seq").flatMap(busId -> {
+                    DatabaseClient.GenericExecuteSpec insert = databaseClient
+                            .sql("INSERT INTO buses (id, version, bus_no, color, capacity, route_id) VALUES (:id, 0, :busNo, :color, :capacity, :routeId)")
+                            .bind("id", busId)
+                            .bind("busNo", request.getBusNo())
+                            .bind("routeId", routeId);
+                    insert = bind(insert, "color", request.getColor(), String.class);
+                    insert = bind(insert, "capacity", request.getCapacity(), Integer.class);
+                    return insert.then()
+                            .then(eventPublisher.publishEvent(new BusCreatedEvent(busId, routeId, version)))
+                            .thenReturn(new BusResponse(busId, request.getBusNo(), request.getColor(), request.getCapacity(), routeId));
+                }));
+        return work.as(transactionalOperator::transactional)
+                .doOnSuccess(bus -> cacheManager.getCache(CacheConfig.ROUTE_BODIES_CACHE).evict(routeId));
+    }
+
+    /**
+     * The buses of a route, in ID order, fetched page by page as the client reads them
+     *
+     * Each page is one keyset query of "transport.reactive.search.page-size" rows (on the
+     * (route_id, id) index) that holds a pooled connection only while it runs. The next
+     * page is queried once the previous one has been handed to the client, so demand flows
+     * from the HTTP connection back to the database: a slow reader holds at most two pages
+     * in memory and no connection, and the pool is not drained by thousands of slow clients
+     * the way a cursor kept open for the whole response would drain it.
+     *
+     * Unlike one query, the pages are not a single snapshot: buses added while a client is
+     * still reading show up at the end (new IDs are higher).
+     */
+    public Flux<BusResponse> getBusesByRouteId(Long routeId) {
+        return fetchPage(routeId, 0L)
+                .expand(page -> page.size() < searchPageSize ? Mono.empty() : fetchPage(routeId, page.get(page.size() - 1).getId()))
+                .concatMapIterable(page -> page, 1);
+    }
+
+    private Mono<List<BusResponse>> fetchPage(Long routeId, long afterId) {
+        return databaseClient.sql("SELECT id, bus_no, color, capacity, route_id FROM buses WHERE route_id = :routeId AND id > :afterId ORDER BY id LIMIT :limit")
+                .bind("routeId", routeId)
+                .bind("afterId", afterId)
+                .bind("limit", searchPageSize)
+                .map(ReactiveBusService::busResponse)
+                .all()
+                .collectList();
+    }
+
+    /**
+     * @return Mono<Long> - The route's version (for the ETag), or InvalidRouteIdException
+     */
+    public Mono<Long> getRouteVersion(Long routeId) {
+        if (!routeIdSet.contains(routeId)) {
+            return Mono.error(new InvalidRouteIdException(routeId));
+        }
+        return selectVersion(routeId).switchIfEmpty(Mono.error(() -> new InvalidRouteIdException(routeId)));
+    }
+
+    static BusResponse busResponse(Readable row) {
+        return new BusResponse(row.get("id", Long.class), row.get("bus_no", String.class), row.get("color", String.class),
+                row.get("capacity", Integer.class), row.get("route_id", Long.class));
+    }
+
+    /**
+     * Binds a value that may be null (R2DBC needs the column type for a null)
+     */
+    static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, String name, Object value, Class<?> type) {
+        return value == null ? spec.bindNull(name, type) : spec.bind(name, value);
+    }
+
+    private Mono<Long> selectVersion(Long routeId) {
+        return databaseClient.sql("SELECT version FROM bus_routes WHERE id = :id")
+                .bind("id", routeId)
+                .map(row -> row.get("version", Long.class))
+                .one();
+    }
+
+    /**
+     * @return Mono<Long> - The next value of a Hibernate ID sequence (see the class comment)
+     */
+    static Mono<Long> nextId(DatabaseClient databaseClient, String sequence) {
+        return databaseClient.sql("SELECT NEXT VALUE FOR " + sequence)
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+}
@@ -0,0 +1,155 @@
+package com.busapp;
+
+import com.busapp.dto.BusRequest;
+import com.busapp.dto.BusRouteRequest;
+import com.busapp.service.BusRouteService;
+import com.busapp.service.BusService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load comparison of request handling on Tomcat's platform threads and on virtual threads
+ * (the "virtual" profile)
+ *
+ * Starts the application once per mode on a random port and has "load.clients" clients
+ * (default 200) call the bus search of a route with "load.fleet-size" buses for
+ * "load.seconds" seconds each. Coalescing is switched off, so every request runs its query.
+ * Prints throughput and latency percentiles per mode; fails on any error response.
+ *
+ * Not part of mvn test (tagged "load"): run it with
+ *   mvn -Pload-test test -Dload.clients=500 -Dload.seconds=30
+ * Client and server share the machine, so compare the two modes on the target hardware.
+ */
+@Tag("load")
+class VirtualThreadLoadTest {
+    private static final int CLIENTS = Integer.getInteger("load.clients", 200);
+    private static final int SECONDS = Integer.getInteger("load.seconds", 10);
+    private static final int FLEET_SIZE = Integer.getInteger("load.fleet-size", 100);
+    private static final int WARMUP_SECONDS = 3;
+
+    /**
+     * Outcome of one run
+     */
+    private record Result(String mode, long requests, long errors, double seconds, long[] latencyNanos) {
+        double throughput() {
+            return requests / seconds;
+        }
+
+        double percentileMillis(double percentile) {
+            if (latencyNanos.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * latencyNanos.length) - 1;
+            return latencyNanos[Math.max(0, index)] / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-9s %8d requests %6d errors %9.1f req/s   p50 %7.1f ms   p99 %7.1f ms   max %7.1f ms",
+                    mode, requests, errors, throughput(), percentileMillis(0.5), percentileMillis(0.99), percentileMillis(1.0));
+        }
+    }
+
+    @Test
+    void platformVersusVirtualThreads() throws Exception {
+        Result platform = run("platform", false);
+        Result virtual = run("virtual", true);
+
+        System.out.printf("%nBus search, %d clients, %d buses, %d s per mode%n%s%n%s%n%n", CLIENTS, FLEET_SIZE, SECONDS, platform, virtual);
+        for (Result result : List.of(platform, virtual)) {
+            assertThat(result.errors()).as(result.mode() + " errors").isZero();
+            assertThat(result.requests()).as(result.mode() + " requests").isPositive();
+        }
+    }
+
+    private Result run(String mode, boolean virtualThreads) throws Exception {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BusTransportationApplication.class)
+                .profiles(virtualThreads ? new String[] {"test", "virtual"} : new String[] {"test"})
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--transport.coalescing.enabled=false",
+                        "--logging.level.root=WARN");
+        try {
+            URI uri = URI.create("http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort()
+                    + "/transport/bus/search/" + seedRoute(context));
+            HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+            drive(client, uri, WARMUP_SECONDS, mode);
+            return drive(client, uri, SECONDS, mode);
+        } finally {
+            context.close();
+        }
+    }
+
+    private static Long seedRoute(ConfigurableApplicationContext context) {
+        Long routeId = context.getBean(BusRouteService.class)
+                .createRoute(new BusRouteRequest("LOAD", "Depot", "Terminal", "Stop 1, Stop 2")).getId();
+        BusService busService = context.getBean(BusService.class);
+        for (int i = 0; i < FLEET_SIZE; i++) {
+            busService.createBus(new BusRequest("LOAD-" + i, "White", 50, routeId));
+        }
+        return routeId;
+    }
+
+    /**
+     * Every client sends its next request as soon as the previous one is answered
+     */
+    private static Result drive(HttpClient client, URI uri, int seconds, String mode) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+        List<Future<long[]>> clients = new ArrayList<>();
+        long[] errors = new long[CLIENTS];
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < CLIENTS; c++) {
+                int clientIndex = c;
+                clients.add(executor.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors[clientIndex]++;
+                            }
+                        } catch (Exception e) {
+                            errors[clientIndex]++;
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - sent;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        long[] all = new long[0];
+        for (Future<long[]> latencies : clients) {
+            long[] clientLatencies = latencies.get();
+            int offset = all.length;
+            all = Arrays.copyOf(all, offset + clientLatencies.length);
+            System.arraycopy(clientLatencies, 0, all, offset, clientLatencies.length);
+        }
+        Arrays.sort(all);
+        return new Result(mode, all.length, Arrays.stream(errors).sum(), elapsed, all);
+    }
+}
@@ -0,0 +1,182 @@
+package com.busapp.coalescing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CoalescingAspectTest {
+    private static final int CALLERS = 16;
+    
+    @Autowired
+    private Lookups lookups;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    /**
+     * A coalesced read whose load counts itself and then blocks until released, so every
+     * caller can be made to arrive while the first load is still running
+     */
+    static class Lookups {
+        private final AtomicInteger loads = new AtomicInteger();
+        private volatile CountDownLatch release = new CountDownLatch(0);
+        private volatile boolean fail;
+        
+        @Coalesce(value = "test", key = "#id")
+        public String find(long id) throws InterruptedException {
+            int load = loads.incrementAndGet();
+            release.await();
+            if (fail) {
+                throw new IllegalStateException("load " + load + " failed");
+            }
+            return "route-" + id + "-load-" + load;
+        }
+        
+        /**
+         * Resets the load count; loads from now on block until release() (and throw if fail)
+         */
+        public void hold(boolean fail) {
+            loads.set(0);
+            release = new CountDownLatch(1);
+            this.fail = fail;
+        }
+        
+        public void release() {
+            release.countDown();
+        }
+        
+        public int loads() {
+            return loads.get();
+        }
+    }
+    
+    @TestConfiguration
+    static class LookupsConfig {
+        @Bean
+        Lookups lookups() {
+            return new Lookups();
+        }
+    }
+    
+    @Test
+    void concurrentIdenticalLookupsRunOneLoad() throws Exception {
+        double loadedBefore = calls("loaded");
+        double sharedBefore = calls("shared");
+        lookups.hold(false);
+        
+        List<Object> results = new CopyOnWriteArrayList<>();
+        List<Thread> callers = startCallers(CALLERS, caller -> 7, results);
+        awaitAllWaiting(callers);
+        // One load running, every other caller parked on it
+        assertThat(lookups.loads()).isEqualTo(1);
+        assertThat(meterRegistry.get("transport.coalescing.in.flight").tag("name", "test").gauge().value()).isEqualTo(1);
+        
+        lookups.release();
+        join(callers);
+        
+        assertThat(lookups.loads()).isEqualTo(1);
+        assertThat(results).hasSize(CALLERS).containsOnly("route-7-load-1");
+        assertThat(calls("loaded") - loadedBefore).isEqualTo(1);
+        assertThat(calls("shared") - sharedBefore).isEqualTo(CALLERS - 1);
+        
+        // Only running loads are shared: the next lookup loads again
+        assertThat(lookups.find(7)).isEqualTo("route-7-load-2");
+    }
+    
+    @Test
+    void differentKeysLoadSeparately() throws Exception {
+        lookups.hold(false);
+        
+        List<Object> results = new CopyOnWriteArrayList<>();
+        List<Thread> callers = startCallers(CALLERS, caller -> caller % 2, results);
+        awaitAllWaiting(callers);
+        lookups.release();
+        join(callers);
+        
+        assertThat(lookups.loads()).isEqualTo(2);
+        assertThat(results).hasSize(CALLERS)
+                .filteredOn(result -> ((String) result).startsWith("route-0-")).hasSize(CALLERS / 2);
+    }
+    
+    @Test
+    void failedLoadFailsEveryWaitingCaller() throws Exception {
+        lookups.hold(true);
+        
+        List<Object> results = new CopyOnWriteArrayList<>();
+        List<Thread> callers = startCallers(CALLERS, caller -> 11, results);
+        awaitAllWaiting(callers);
+        lookups.release();
+        join(callers);
+        
+        assertThat(lookups.loads()).isEqualTo(1);
+        assertThat(results).hasSize(CALLERS).allSatisfy(result ->
+                assertThat((Throwable) result).isInstanceOf(IllegalStateException.class).hasMessage("load 1 failed"));
+        
+        // The failure is not kept either
+        lookups.hold(false);
+        lookups.release();
+        assertThat(lookups.find(11)).isEqualTo("route-11-load-1");
+    }
+    
+    private interface KeyOf {
+        long id(int caller);
+    }
+    
+    /**
+     * Starts the callers on platform threads; each adds its result (or exception) to results
+     */
+    private List<Thread> startCallers(int count, KeyOf keyOf, List<Object> results) {
+        List<Thread> callers = new ArrayList<>();
+        for (int caller = 0; caller < count; caller++) {
+            long id = keyOf.id(caller);
+            callers.add(Thread.ofPlatform().name("lookup-" + caller).start(() -> {
+                try {
+                    results.add(lookups.find(id));
+                } catch (Exception e) {
+                    results.add(e);
+                }
+            }));
+        }
+        return callers;
+    }
+    
+    /**
+     * Waits until every caller is parked: the loading ones on the release latch, the others
+     * on the load they share
+     */
+    private static void awaitAllWaiting(List<Thread> callers) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!callers.stream().allMatch(caller -> caller.getState() == Thread.State.WAITING)) {
+            assertThat(System.nanoTime()).as("callers waiting").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+    
+    private static void join(List<Thread> callers) throws InterruptedException {
+        for (Thread caller : callers) {
+            caller.join(TimeUnit.SECONDS.toMillis(10));
+            assertThat(caller.isAlive()).as(caller.getName() + " finished").isFalse();
+        }
+    }
+    
+    private double calls(String result) {
+        // Registered with the first coalesced call
+        Counter counter = meterRegistry.find("transport.coalescing.calls").tags("name", "test", "result", result).counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
@@ -0,0 +1,35 @@
+package com.busapp.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BusRouteControllerTest {
+    
+    @Test
+    void gzipIsAcceptedWhenListedWithNonZeroQuality() {
+        assertThat(BusRouteController.acceptsGzip("gzip")).isTrue();
+        assertThat(BusRouteController.acceptsGzip("deflate, GZIP;q=0.5")).isTrue();
+        assertThat(BusRouteController.acceptsGzip("br;q=1.0, gzip ; q=0.8")).isTrue();
+        assertThat(BusRouteController.acceptsGzip("x-gzip")).isTrue();
+        assertThat(BusRouteController.acceptsGzip("*")).isTrue();
+    }
+    
+    @Test
+    void gzipIsRefusedWithZeroQualityOrWhenNotListed() {
+        assertThat(BusRouteController.acceptsGzip(null)).isFalse();
+        assertThat(BusRouteController.acceptsGzip("")).isFalse();
+        assertThat(BusRouteController.acceptsGzip("identity")).isFalse();
+        assertThat(BusRouteController.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(BusRouteController.acceptsGzip("gzip;q=0.000, deflate")).isFalse();
+        assertThat(BusRouteController.acceptsGzip("*;q=0")).isFalse();
+        assertThat(BusRouteController.acceptsGzip("gzip;q=abc")).isFalse();
+        assertThat(BusRouteController.acceptsGzip("gzipped, not-gzip")).isFalse();
+    }
+    
+    @Test
+    void explicitGzipCodingOverridesTheWildcard() {
+        assertThat(BusRouteController.acceptsGzip("*, gzip;q=0")).isFalse();
+        assertThat(BusRouteController.acceptsGzip("*;q=0, gzip")).isTrue();
+    }
+}
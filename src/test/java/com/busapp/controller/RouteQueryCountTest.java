@@ -0,0 +1,91 @@
+package com.busapp.controller;
+
+import com.busapp.config.CacheConfig;
+import com.busapp.dto.BusRequest;
+import com.busapp.dto.BusRouteRequest;
+import com.busapp.metrics.SqlStatementCounter;
+import com.busapp.service.BusRouteService;
+import com.busapp.service.BusService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * SQL statements per request on the read paths (counted by SqlStatementCounter, which
+ * SqlCountInterceptor resets when a request starts; MockMvc runs the request on this thread)
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RouteQueryCountTest {
+    private static final int FLEET_SIZE = 5;
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private BusRouteService busRouteService;
+    
+    @Autowired
+    private BusService busService;
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+    
+    private Long routeId;
+    
+    @BeforeEach
+    void createRoute() {
+        routeId = busRouteService.createRoute(new BusRouteRequest("Route 7", "Depot", "Terminal", "North, South")).getId();
+        for (int i = 0; i < FLEET_SIZE; i++) {
+            busService.createBus(new BusRequest("BUS-" + i, "Blue", 40, routeId));
+        }
+        cacheManager.getCache(CacheConfig.ROUTE_BODIES_CACHE).evict(routeId);
+    }
+    
+    @Test
+    void routeWithBusesIsOneStatement() throws Exception {
+        mockMvc.perform(get("/transport/route/{id}", routeId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.buses.length()").value(FLEET_SIZE));
+        
+        assertThat(sqlStatementCounter.current()).isEqualTo(1);
+    }
+    
+    @Test
+    void cachedRouteIsNoStatement() throws Exception {
+        mockMvc.perform(get("/transport/route/{id}", routeId)).andExpect(status().isOk());
+        mockMvc.perform(get("/transport/route/{id}", routeId)).andExpect(status().isOk());
+        
+        assertThat(sqlStatementCounter.current()).isZero();
+    }
+    
+    @Test
+    void busSearchIsOneStatement() throws Exception {
+        mockMvc.perform(get("/transport/bus/search/{routeId}", routeId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(FLEET_SIZE));
+        
+        assertThat(sqlStatementCounter.current()).isEqualTo(1);
+    }
+    
+    @Test
+    void unknownRouteIsNoStatement() throws Exception {
+        mockMvc.perform(get("/transport/route/{id}", 999_999)).andExpect(status().isNotFound());
+        
+        assertThat(sqlStatementCounter.current()).isZero();
+    }
+}
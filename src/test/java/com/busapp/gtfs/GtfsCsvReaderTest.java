@@ -0,0 +1,86 @@
+package com.busapp.gtfs;
+
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GtfsCsvReaderTest {
+    
+    @Test
+    void quotedFieldsKeepCommasQuotesAndNewlines() throws IOException {
+        String csv = """
+                stop_id,stop_name,stop_desc
+                S1,"Market, North","Platform ""A""
+                stairs on the left"
+                S2, Harbour ,
+                """;
+        try (GtfsCsvReader reader = reader(csv)) {
+            int id = reader.column("stop_id");
+            int name = reader.column("stop_name");
+            int description = reader.column("stop_desc");
+            
+            assertThat(reader.next()).isTrue();
+            assertThat(reader.get(id)).isEqualTo("S1");
+            assertThat(reader.get(name)).isEqualTo("Market, North");
+            assertThat(reader.matches(name, "Market, North")).isTrue();
+            assertThat(reader.get(description)).isEqualTo("Platform \"A\"\nstairs on the left");
+            assertThat(reader.line()).isEqualTo(3);
+            
+            // Unquoted fields are trimmed; the empty last field and missing columns read as ""
+            assertThat(reader.next()).isTrue();
+            assertThat(reader.get(name)).isEqualTo("Harbour");
+            assertThat(reader.get(description)).isEmpty();
+            assertThat(reader.get(reader.column("stop_lat"))).isEmpty();
+            assertThat(reader.line()).isEqualTo(4);
+            
+            assertThat(reader.next()).isFalse();
+        }
+    }
+    
+    @Test
+    void byteOrderMarkIsNotPartOfTheFirstColumnName() throws IOException {
+        try (GtfsCsvReader reader = reader("\uFEFFroute_id,route_short_name\r\nR1,42\r\n")) {
+            assertThat(reader.column("route_id")).isZero();
+            assertThat(reader.next()).isTrue();
+            assertThat(reader.get(0)).isEqualTo("R1");
+            assertThat(reader.getInt(1, -1)).isEqualTo(42);
+        }
+        try (GtfsCsvReader reader = reader("\uFEFF\"route_id\",route_short_name\nR1,42\n")) {
+            assertThat(reader.column("route_id")).isZero();
+        }
+    }
+    
+    @Test
+    void blankLinesAreSkippedAndCrLfIsAccepted() throws IOException {
+        try (GtfsCsvReader reader = reader("trip_id,departure_time\r\n\r\nT1,25:10:05\r\n\nT2,\r\n")) {
+            int time = reader.column("departure_time");
+            assertThat(reader.next()).isTrue();
+            assertThat(reader.get(0)).isEqualTo("T1");
+            assertThat(reader.getTime(time)).isEqualTo(25 * 3600 + 10 * 60 + 5);
+            assertThat(reader.next()).isTrue();
+            assertThat(reader.getTime(time)).isEqualTo(-1);
+            assertThat(reader.next()).isFalse();
+        }
+    }
+    
+    @Test
+    void malformedValuesAreRejected() throws IOException {
+        try (GtfsCsvReader reader = reader("stop_sequence,departure_time\nx,8:5:00\n")) {
+            assertThat(reader.next()).isTrue();
+            assertThatThrownBy(() -> reader.getInt(0, 0)).isInstanceOf(NumberFormatException.class);
+            assertThatThrownBy(() -> reader.getTime(1)).isInstanceOf(NumberFormatException.class);
+        }
+        try (GtfsCsvReader reader = reader("stop_id,stop_name\nS1,\"Market\nS2,Harbour\n")) {
+            assertThatThrownBy(reader::next).isInstanceOf(IOException.class).hasMessageEndingWith("quoted field is not closed");
+        }
+        assertThatThrownBy(() -> reader("")).isInstanceOf(IOException.class).hasMessage("File is empty (no header row)");
+    }
+    
+    private static GtfsCsvReader reader(String csv) throws IOException {
+        return new GtfsCsvReader(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+}
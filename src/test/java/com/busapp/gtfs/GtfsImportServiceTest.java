@@ -0,0 +1,194 @@
+package com.busapp.gtfs;
+
+import com.busapp.event.RouteCreatedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fails the second of three chunks (two routes each) and resumes the import: once where the
+ * chunk rolls back after its pending checkpoint is written, and once where it commits but the
+ * checkpoint is not updated (a crash between commit and checkpoint)
+ */
+@SpringBootTest(properties = "transport.gtfs.routes-per-transaction=2")
+@ActiveProfiles("test")
+class GtfsImportServiceTest {
+    private static final int ROUTES = 6;
+    private static final int STOPS_PER_ROUTE = 3;
+    // The third route opens the second chunk
+    private static final int FAILING_ROUTE = 2;
+    
+    @TempDir
+    private static Path workDir;
+    
+    @Autowired
+    private GtfsImportService gtfsImportService;
+    
+    @Autowired
+    private ChunkFailure chunkFailure;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @DynamicPropertySource
+    static void workDir(DynamicPropertyRegistry registry) {
+        registry.add("transport.gtfs.work-dir", () -> workDir.toString());
+    }
+    
+    /**
+     * Once armed, makes the transaction of the next chunk that creates a route through the
+     * station fail before or after its commit
+     */
+    static class ChunkFailure {
+        private volatile String station;
+        private volatile boolean afterCommit;
+        
+        public void arm(String station, boolean afterCommit) {
+            this.station = station;
+            this.afterCommit = afterCommit;
+        }
+        
+        @EventListener
+        public void onRouteCreated(RouteCreatedEvent event) {
+            if (station == null || !event.stationNames().contains(station)) {
+                return;
+            }
+            station = null;
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    if (!afterCommit) {
+                        throw new IllegalStateException("chunk failed before its commit");
+                    }
+                }
+                
+                @Override
+                public void afterCommit() {
+                    if (afterCommit) {
+                        throw new IllegalStateException("chunk failed after its commit");
+                    }
+                }
+            });
+        }
+    }
+    
+    @TestConfiguration
+    static class ChunkFailureConfig {
+        @Bean
+        ChunkFailure chunkFailure() {
+            return new ChunkFailure();
+        }
+    }
+    
+    @Test
+    void chunkRolledBackAfterItsPendingCheckpointIsWrittenAgainOnResume() throws Exception {
+        assertResumedWithoutDuplicates("Rollback", false);
+    }
+    
+    @Test
+    void chunkCommittedBeforeItsCheckpointIsNotWrittenAgainOnResume() throws Exception {
+        assertResumedWithoutDuplicates("Crash", true);
+    }
+    
+    private void assertResumedWithoutDuplicates(String prefix, boolean afterCommit) throws Exception {
+        chunkFailure.arm(prefix + " Stop " + FAILING_ROUTE, afterCommit);
+        GtfsImport gtfsImport = gtfsImportService.start(new ByteArrayInputStream(feed(prefix)));
+        awaitFinished(gtfsImport);
+        
+        assertThat(gtfsImport.getState()).isEqualTo(GtfsImport.State.FAILED);
+        assertThat(gtfsImport.getRoutesImported()).isEqualTo(2);
+        assertThat(routes(prefix)).isEqualTo(afterCommit ? 4 : 2);
+        
+        assertThat(gtfsImportService.resume(gtfsImport.getId())).isSameAs(gtfsImport);
+        awaitFinished(gtfsImport);
+        
+        assertThat(gtfsImport.getState()).isEqualTo(GtfsImport.State.COMPLETED);
+        assertThat(gtfsImport.getRoutesImported()).isEqualTo(ROUTES);
+        assertThat(routes(prefix)).isEqualTo(ROUTES);
+        assertThat(count("SELECT COUNT(DISTINCT title) FROM bus_routes WHERE title LIKE ?", prefix + " %")).isEqualTo(ROUTES);
+        assertThat(count("SELECT COUNT(*) FROM route_stops rs JOIN bus_routes r ON r.id = rs.route_id WHERE r.title LIKE ?", prefix + " %"))
+                .isEqualTo(ROUTES * STOPS_PER_ROUTE);
+        assertThat(count("SELECT COUNT(*) FROM trips t JOIN bus_routes r ON r.id = t.route_id WHERE r.title LIKE ?", prefix + " %"))
+                .isEqualTo(ROUTES);
+        assertThat(count("SELECT COUNT(*) FROM stop_times st JOIN trips t ON t.id = st.trip_id JOIN bus_routes r ON r.id = t.route_id "
+                + "WHERE r.title LIKE ?", prefix + " %")).isEqualTo(ROUTES * STOPS_PER_ROUTE);
+        // The shared first station was inserted once
+        assertThat(count("SELECT COUNT(*) FROM stations WHERE name = ?", prefix + " Central")).isEqualTo(1);
+        assertThat(GtfsCheckpoint.load(workDir.resolve(gtfsImport.getId() + ".checkpoint")))
+                .extracting(GtfsCheckpoint::routesDone, GtfsCheckpoint::pendingRoutes, GtfsCheckpoint::completed)
+                .containsExactly(ROUTES, 0, true);
+    }
+    
+    /**
+     * A feed of ROUTES routes with one trip each: "{prefix} Central", "{prefix} Stop {route}", "{prefix} End {route}"
+     */
+    private static byte[] feed(String prefix) throws IOException {
+        StringBuilder stops = new StringBuilder("stop_id,stop_name\nC,\"" + prefix + " Central\"\n");
+        StringBuilder routes = new StringBuilder("route_id,route_short_name,route_long_name\n");
+        StringBuilder trips = new StringBuilder("route_id,trip_id,trip_headsign\n");
+        StringBuilder stopTimes = new StringBuilder("trip_id,arrival_time,departure_time,stop_id,stop_sequence\n");
+        for (int route = 0; route < ROUTES; route++) {
+            stops.append("S").append(route).append(',').append(prefix).append(" Stop ").append(route).append('\n');
+            stops.append("E").append(route).append(',').append(prefix).append(" End ").append(route).append('\n');
+            routes.append("R").append(route).append(',').append(prefix).append(',').append(route).append('\n');
+            trips.append("R").append(route).append(",T").append(route).append(",End ").append(route).append('\n');
+            String[] stopIds = {"C", "S" + route, "E" + route};
+            for (int stop = 0; stop < STOPS_PER_ROUTE; stop++) {
+                String time = String.format("%02d:%02d:00", 8 + route, stop * 5);
+                stopTimes.append("T").append(route).append(',').append(time).append(',').append(time).append(',')
+                        .append(stopIds[stop]).append(',').append(stop + 1).append('\n');
+            }
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            entry(zip, "stops.txt", stops);
+            entry(zip, "routes.txt", routes);
+            entry(zip, "trips.txt", trips);
+            entry(zip, "stop_times.txt", stopTimes);
+        }
+        return bytes.toByteArray();
+    }
+    
+    private static void entry(ZipOutputStream zip, String name, CharSequence content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content.toString().getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+    
+    private int routes(String prefix) {
+        return count("SELECT COUNT(*) FROM bus_routes WHERE title LIKE ?", prefix + " %");
+    }
+    
+    private int count(String sql, Object... args) {
+        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, args);
+        return count == null ? 0 : count;
+    }
+    
+    private static void awaitFinished(GtfsImport gtfsImport) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(15);
+        while (gtfsImport.getState() == GtfsImport.State.QUEUED || gtfsImport.getState() == GtfsImport.State.RUNNING) {
+            assertThat(System.nanoTime()).as("import not finished within 15 s").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.busapp.index;
+
+import com.busapp.entity.StopTime;
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DepartureIndexTest {
+    private static final long MARKET = 1;
+    private static final long HARBOUR = 2;
+    private static final long ROUTE_ID = 10;
+    
+    private final DepartureIndex departureIndex = new DepartureIndex();
+    
+    @Test
+    void departuresAtTheSameTimeAreOrderedByTripId() {
+        add(5, MARKET, "08:00");
+        add(3, MARKET, "08:00");
+        add(9, MARKET, "07:59");
+        add(4, MARKET, "08:00");
+        add(6, MARKET, "08:01");
+        
+        assertThat(departureIndex.getDepartures(MARKET, time("07:00"), 10))
+                .extracting(DepartureIndex.Departure::tripId).containsExactly(9L, 3L, 4L, 5L, 6L);
+        // "after" itself is included, and the limit cuts the board
+        assertThat(departureIndex.getDepartures(MARKET, time("08:00"), 2))
+                .extracting(DepartureIndex.Departure::tripId).containsExactly(3L, 4L);
+        
+        departureIndex.removeTrip(4, new long[]{MARKET});
+        assertThat(departureIndex.getDepartures(MARKET, time("07:00"), 10))
+                .extracting(DepartureIndex.Departure::tripId).containsExactly(9L, 3L, 5L, 6L);
+    }
+    
+    @Test
+    void tripServingAStationTwiceIsListedAndRemovedTwice() {
+        // A loop: Market - Harbour - Market
+        departureIndex.addTrip(7, ROUTE_ID, "Loop", new long[]{MARKET, HARBOUR, MARKET}, List.of("Market", "Harbour", "Market"),
+                new int[]{time("08:00"), time("08:10"), time("08:20")});
+        add(8, MARKET, "08:10");
+        
+        assertThat(departureIndex.getDepartures(MARKET, time("07:00"), 10))
+                .extracting(DepartureIndex.Departure::tripId, DepartureIndex.Departure::time)
+                .containsExactly(tuple(7L, "08:00"), tuple(8L, "08:10"), tuple(7L, "08:20"));
+        
+        departureIndex.removeTrip(7, new long[]{MARKET, HARBOUR, MARKET});
+        
+        assertThat(departureIndex.getDepartures(MARKET, time("07:00"), 10))
+                .extracting(DepartureIndex.Departure::tripId).containsExactly(8L);
+        assertThat(departureIndex.getDepartures(HARBOUR, time("07:00"), 10)).isEmpty();
+        assertThat(departureIndex.getStationName(HARBOUR)).contains("Harbour");
+    }
+    
+    @Test
+    void boardAfterMidnightListsThePreviousDaysLateTrips() {
+        add(1, MARKET, "00:20");
+        add(2, MARKET, "24:45");
+        add(3, MARKET, "06:00");
+        add(4, MARKET, "23:50");
+        
+        // Yesterday's 24:45 runs at 00:45 today; 00:20 has left already and is back tomorrow
+        assertThat(departureIndex.getDepartures(MARKET, time("00:30"), 10))
+                .extracting(DepartureIndex.Departure::tripId, DepartureIndex.Departure::time)
+                .containsExactly(tuple(2L, "00:45"), tuple(3L, "06:00"), tuple(4L, "23:50"), tuple(1L, "24:20"));
+    }
+    
+    @Test
+    void boardBeforeMidnightWrapsToTheNextMorning() {
+        add(1, MARKET, "00:10");
+        add(2, MARKET, "24:05");
+        add(3, MARKET, "23:58");
+        add(4, MARKET, "23:50");
+        add(5, MARKET, "06:00");
+        
+        assertThat(departureIndex.getDepartures(MARKET, time("23:55"), 3))
+                .extracting(DepartureIndex.Departure::tripId, DepartureIndex.Departure::time)
+                .containsExactly(tuple(3L, "23:58"), tuple(2L, "24:05"), tuple(1L, "24:10"));
+        // Each departure is listed once, up to 24 hours ahead
+        assertThat(departureIndex.getDepartures(MARKET, time("23:55"), 10))
+                .extracting(DepartureIndex.Departure::tripId).containsExactly(3L, 2L, 1L, 5L, 4L);
+    }
+    
+    @Test
+    void boardAfterAnExplicitTimePastMidnightKeepsItsDay() {
+        add(1, MARKET, "24:45");
+        add(2, MARKET, "08:00");
+        
+        assertThat(departureIndex.getDepartures(MARKET, time("24:30"), 10))
+                .extracting(DepartureIndex.Departure::tripId, DepartureIndex.Departure::time)
+                .containsExactly(tuple(1L, "24:45"), tuple(2L, "32:00"));
+    }
+    
+    private void add(long tripId, long stationId, String time) {
+        departureIndex.addTrip(tripId, ROUTE_ID, "Trip " + tripId, new long[]{stationId}, List.of("Station " + stationId), new int[]{time(time)});
+    }
+    
+    private static int time(String time) {
+        return StopTime.parseTime(time);
+    }
+    
+    private static Tuple tuple(long tripId, String time) {
+        return Tuple.tuple(tripId, time(time));
+    }
+}
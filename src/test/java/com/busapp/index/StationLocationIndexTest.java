@@ -0,0 +1,97 @@
+package com.busapp.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.assertj.core.api.Assertions.within;
+
+class StationLocationIndexTest {
+    
+    private final StationLocationIndex stationLocationIndex = new StationLocationIndex();
+    
+    @Test
+    void haversineDistance() {
+        assertThat(StationLocationIndex.distance(52.5251, 13.3694, 52.5251, 13.3694)).isZero();
+        assertThat(StationLocationIndex.distance(0, 0, 1, 0)).isCloseTo(111_194.9, within(0.1));
+        assertThat(StationLocationIndex.distance(52.5251, 13.3694, 52.5219, 13.4132)).isCloseTo(2_984.6, within(0.1));
+        // Shorter way round, across the antimeridian
+        assertThat(StationLocationIndex.distance(0, 179.999, 0, -179.998)).isCloseTo(333.6, within(0.1));
+    }
+    
+    @Test
+    void stationsJustInsideTheRadiusAreFoundAndJustOutsideAreNot() {
+        // 500.4 m and 511.5 m east of the point, on the equator
+        locate(1, 0, 0.0045);
+        locate(2, 0, 0.0046);
+        
+        assertThat(stationLocationIndex.findNearby(0, 0, 501, 10)).extracting(StationLocationIndex.Nearby::stationId).containsExactly(1L);
+        assertThat(stationLocationIndex.findNearby(0, 0, 500, 10)).isEmpty();
+        assertThat(stationLocationIndex.findNearby(0, 0, 512, 10)).extracting(StationLocationIndex.Nearby::stationId).containsExactly(1L, 2L);
+    }
+    
+    @Test
+    void searchWrapsAroundTheAntimeridian() {
+        locate(1, 0, -179.998);
+        locate(2, 0, 179.9995);
+        locate(3, 0, -179.9);
+        
+        assertThat(stationLocationIndex.findNearby(0, 179.999, 500, 10))
+                .extracting(StationLocationIndex.Nearby::stationId).containsExactly(2L, 1L);
+        assertThat(stationLocationIndex.findNearby(0, -180, 500, 10))
+                .extracting(StationLocationIndex.Nearby::stationId).containsExactly(2L, 1L);
+    }
+    
+    @Test
+    void limitKeepsTheNearestStationsInDistanceOrder() {
+        for (int i = 1; i <= 6; i++) {
+            locate(i, 48.0, 11.0 + (7 - i) * 0.001);
+        }
+        // Same grid row, far outside the circle
+        locate(7, 48.0, 12.0);
+        
+        assertThat(stationLocationIndex.findNearby(48.0, 11.0, 1000, 3))
+                .extracting(StationLocationIndex.Nearby::stationId).containsExactly(6L, 5L, 4L);
+        assertThat(stationLocationIndex.findNearby(48.0, 11.0, 1000, 10))
+                .extracting(StationLocationIndex.Nearby::stationId).containsExactly(6L, 5L, 4L, 3L, 2L, 1L);
+    }
+    
+    @Test
+    void movedStationIsOnlyFoundAtItsNewLocation() {
+        locate(1, 52.52, 13.40);
+        locate(2, 52.52, 13.401);
+        locate(1, 40.0, -3.7);
+        
+        assertThat(stationLocationIndex.findNearby(52.52, 13.40, 500, 10))
+                .extracting(StationLocationIndex.Nearby::stationId).containsExactly(2L);
+        assertThat(stationLocationIndex.findNearby(40.0, -3.7, 500, 10))
+                .extracting(StationLocationIndex.Nearby::stationId, StationLocationIndex.Nearby::latitude)
+                .containsExactly(tuple(1L, 40.0));
+        
+        // Moving within its cell, and back to its old one (now emptied and dropped from its row)
+        locate(1, 40.0001, -3.7001);
+        assertThat(stationLocationIndex.findNearby(40.0, -3.7, 500, 10)).hasSize(1);
+        locate(1, 52.52, 13.40);
+        assertThat(stationLocationIndex.findNearby(40.0, -3.7, 500, 10)).isEmpty();
+        assertThat(stationLocationIndex.findNearby(52.52, 13.40, 500, 10))
+                .extracting(StationLocationIndex.Nearby::stationId).containsExactly(1L, 2L);
+        assertThat(stationLocationIndex.size()).isEqualTo(2);
+    }
+    
+    @Test
+    void searchNearThePoleCoversAllLongitudes() {
+        locate(1, 89.999, 120);
+        locate(2, 89.99, 10);
+        locate(3, 89.96, 10);
+        locate(4, 89.995, -170.001);
+        
+        assertThat(stationLocationIndex.findNearby(89.995, -170, 2000, 10))
+                .extracting(StationLocationIndex.Nearby::stationId).containsExactly(4L, 1L, 2L);
+        assertThat(stationLocationIndex.findNearby(90, 0, 1000, 10))
+                .extracting(StationLocationIndex.Nearby::stationId).containsExactly(1L, 4L);
+    }
+    
+    private void locate(long stationId, double latitude, double longitude) {
+        stationLocationIndex.locate(stationId, "Station " + stationId, "station " + stationId, latitude, longitude);
+    }
+}
@@ -0,0 +1,151 @@
+package com.busapp.live;
+
+import com.busapp.event.BusCreatedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "transport.live.drain-threads=2",
+        "transport.live.write-timeout-ms=2000",
+        "transport.live.stall-check-interval-ms=100"
+})
+@ActiveProfiles("test")
+class LiveUpdateHubTest {
+    private static final long ROUTE_ID = 9_999;
+    
+    @Autowired
+    private LiveUpdateHub liveUpdateHub;
+    
+    @Value("${transport.live.buffer-size}")
+    private int bufferSize;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    /**
+     * Records what is sent to it; with a release latch, its first send blocks until released
+     * (a client that stopped reading)
+     */
+    private static final class TestEmitter extends SseEmitter {
+        private final CountDownLatch release;
+        private final CountDownLatch blocked = new CountDownLatch(1);
+        private final List<Long> busIds = new CopyOnWriteArrayList<>();
+        private volatile boolean sentOnVirtualThread;
+        private volatile boolean completed;
+        
+        TestEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+        
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sentOnVirtualThread |= Thread.currentThread().isVirtual();
+            if (release != null) {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+            }
+            busIds.add(builder.build().stream()
+                    .filter(data -> data.getData() instanceof BusCreatedEvent)
+                    .map(data -> ((BusCreatedEvent) data.getData()).busId())
+                    .findFirst().orElse(-1L));
+        }
+        
+        @Override
+        public void complete() {
+            completed = true;
+        }
+        
+        @Override
+        public void completeWithError(Throwable error) {
+            completed = true;
+        }
+    }
+    
+    @Test
+    void stalledSubscriberHoldsUpNeitherPublishingNorOtherSubscribers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        TestEmitter stalled = new TestEmitter(release);
+        TestEmitter fast = new TestEmitter(null);
+        liveUpdateHub.subscribe(ROUTE_ID, LiveUpdateHub.OverflowPolicy.DROP_OLDEST, List.of(), stalled);
+        assertThat(stalled.blocked.await(5, TimeUnit.SECONDS)).isTrue();
+        liveUpdateHub.subscribe(ROUTE_ID, LiveUpdateHub.OverflowPolicy.DROP_OLDEST, List.of(), fast);
+        
+        int published = bufferSize + 100;
+        for (long busId = 0; busId < published; busId++) {
+            liveUpdateHub.onBusCreated(new BusCreatedEvent(busId, ROUTE_ID, busId));
+        }
+        
+        long lastBusId = published - 1;
+        awaitTrue(() -> fast.busIds.contains(lastBusId));
+        assertThat(stalled.busIds).isEmpty();
+        
+        release.countDown();
+        // The snapshot that was stuck, then the newest bufferSize updates
+        awaitTrue(() -> stalled.busIds.size() == 1 + bufferSize);
+        assertThat(stalled.busIds.get(1)).isEqualTo(published - bufferSize);
+        assertThat(stalled.busIds.get(bufferSize)).isEqualTo(lastBusId);
+        assertThat(stalled.sentOnVirtualThread || fast.sentOnVirtualThread).isFalse();
+    }
+    
+    @Test
+    void stalledSubscribersBeyondTheDrainThreadsAreDroppedAndOthersKeepReceiving() throws Exception {
+        long routeId = ROUTE_ID + 1;
+        double stalledBefore = meterRegistry.get("transport.live.stalled").counter().count();
+        CountDownLatch release = new CountDownLatch(1);
+        // One more stalled subscriber than drain threads: every drain thread blocks in a write
+        List<TestEmitter> stalled = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            TestEmitter emitter = new TestEmitter(release);
+            liveUpdateHub.subscribe(routeId, LiveUpdateHub.OverflowPolicy.COALESCE, List.of(), emitter);
+            stalled.add(emitter);
+        }
+        TestEmitter healthy = new TestEmitter(null);
+        liveUpdateHub.subscribe(routeId, LiveUpdateHub.OverflowPolicy.COALESCE, List.of(), healthy);
+        
+        long published = 10;
+        for (long busId = 0; busId < published; busId++) {
+            liveUpdateHub.onBusCreated(new BusCreatedEvent(busId, routeId, busId));
+        }
+        
+        awaitTrue(() -> healthy.busIds.contains(published - 1));
+        awaitTrue(() -> meterRegistry.get("transport.live.stalled").counter().count() - stalledBefore == stalled.size());
+        assertThat(stalled).allSatisfy(emitter -> assertThat(emitter.busIds).isEmpty());
+        
+        // Later updates still reach the healthy subscriber, and only it
+        liveUpdateHub.onBusCreated(new BusCreatedEvent(published, routeId, published));
+        awaitTrue(() -> healthy.busIds.contains(published));
+        
+        release.countDown();
+        // The stuck snapshot write returns, then the dropped subscriber's emitter is completed
+        awaitTrue(() -> stalled.stream().allMatch(emitter -> emitter.completed));
+        assertThat(stalled).allSatisfy(emitter -> assertThat(emitter.busIds).containsExactly(-1L));
+        assertThat(healthy.completed).isFalse();
+    }
+    
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(15);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met within 15 s").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.busapp.live;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PositionStoreTest {
+    
+    @Test
+    void latestIsNewestByRecordedTimeNotArrival() {
+        PositionStore.Track track = new PositionStore.Track(1, 7, 4);
+        track.record(18.50, 73.80, 2_000);
+        // Buffered ping uploaded late
+        track.record(18.40, 73.70, 1_000);
+        
+        PositionStore.Position latest = track.latest();
+        
+        assertThat(latest.recordedAtMillis()).isEqualTo(2_000);
+        assertThat(latest.latitude()).isEqualTo(18.50);
+    }
+    
+    @Test
+    void latestOfEqualTimesIsLastToArrive() {
+        PositionStore.Track track = new PositionStore.Track(1, 7, 4);
+        track.record(18.50, 73.80, 2_000);
+        track.record(18.60, 73.90, 2_000);
+        
+        assertThat(track.latest().latitude()).isEqualTo(18.60);
+    }
+    
+    @Test
+    void historyKeepsTheLastPingsNewestFirst() {
+        PositionStore.Track track = new PositionStore.Track(1, 7, 4);
+        for (int i = 0; i < 6; i++) {
+            track.record(i, i, 1_000 + i);
+        }
+        List<Long> times = new ArrayList<>();
+        track.history(position -> times.add(position.recordedAtMillis()));
+        
+        assertThat(track.recorded()).isEqualTo(6);
+        assertThat(times).containsExactly(1_005L, 1_004L, 1_003L, 1_002L);
+    }
+    
+    @Test
+    void emptyTrackHasNoLatest() {
+        assertThat(new PositionStore.Track(1, 7, 4).latest()).isNull();
+    }
+}
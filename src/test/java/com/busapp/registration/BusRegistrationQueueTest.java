@@ -0,0 +1,285 @@
+package com.busapp.registration;
+
+import com.busapp.dto.BusRequest;
+import com.busapp.dto.BusRouteRequest;
+import com.busapp.event.BusCreatedEvent;
+import com.busapp.exception.BusRegistrationQueueFullException;
+import com.busapp.service.BusRouteService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "transport.bus.write-behind.enabled=true",
+        "transport.bus.write-behind.durability=COMMITTED",
+        "transport.bus.write-behind.batch-size=5",
+        "transport.bus.write-behind.max-delay-ms=2000",
+        "transport.bus.write-behind.queue-capacity=6",
+        "transport.bus.write-behind.commit-timeout-ms=15000"
+})
+@ActiveProfiles("test")
+class BusRegistrationQueueTest {
+    private static final int BATCH_SIZE = 5;
+    private static final long MAX_DELAY_MILLIS = 2000;
+    private static final int QUEUE_CAPACITY = 6;
+    
+    @Autowired
+    private BusRegistrationQueue busRegistrationQueue;
+    
+    @Autowired
+    private BusRouteService busRouteService;
+    
+    @Autowired
+    private FlusherBlock flusherBlock;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private Long routeId;
+    private Long blockedRouteId;
+    
+    /**
+     * Holds the flusher inside the group commit of a bus on the armed route until released,
+     * so registrations pile up in the queue
+     */
+    static class FlusherBlock {
+        private volatile Long routeId;
+        private volatile CountDownLatch blocked = new CountDownLatch(1);
+        private volatile CountDownLatch release = new CountDownLatch(0);
+        
+        public void arm(Long routeId) {
+            blocked = new CountDownLatch(1);
+            release = new CountDownLatch(1);
+            this.routeId = routeId;
+        }
+        
+        public boolean awaitBlocked() throws InterruptedException {
+            return blocked.await(15, TimeUnit.SECONDS);
+        }
+        
+        public void release() {
+            routeId = null;
+            release.countDown();
+        }
+        
+        @EventListener
+        public void onBusCreated(BusCreatedEvent event) throws InterruptedException {
+            if (event.routeId().equals(routeId)) {
+                blocked.countDown();
+                release.await(15, TimeUnit.SECONDS);
+            }
+        }
+    }
+    
+    @TestConfiguration
+    static class FlusherBlockConfig {
+        @Bean
+        FlusherBlock flusherBlock() {
+            return new FlusherBlock();
+        }
+    }
+    
+    @BeforeEach
+    void createRoutes() {
+        routeId = busRouteService.createRoute(new BusRouteRequest("Write-behind", "Depot", "Terminal", "Write-behind Stop")).getId();
+        blockedRouteId = busRouteService.createRoute(new BusRouteRequest("Write-behind blocked", "Depot", "Yard", "Write-behind Stop")).getId();
+    }
+    
+    @Test
+    void fullGroupIsCommittedWithoutWaitingForTheDelay() {
+        double groupsBefore = groupSizes().count();
+        double busesBefore = groupSizes().totalAmount();
+        long start = System.nanoTime();
+        
+        List<BusRegistration> registrations = registerAll(BATCH_SIZE);
+        
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(MAX_DELAY_MILLIS * 3 / 4);
+        assertThat(registrations).extracting(BusRegistration::getState).containsOnly(BusRegistration.State.COMMITTED);
+        assertThat(registrations).extracting(BusRegistration::getBusId).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(groupSizes().count() - groupsBefore).isEqualTo(1);
+        assertThat(groupSizes().totalAmount() - busesBefore).isEqualTo(BATCH_SIZE);
+    }
+    
+    @Test
+    void partialGroupIsCommittedAfterTheDelay() {
+        double groupsBefore = groupSizes().count();
+        double busesBefore = groupSizes().totalAmount();
+        long start = System.nanoTime();
+        
+        List<BusRegistration> registrations = registerAll(2);
+        
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(MAX_DELAY_MILLIS * 9 / 10);
+        assertThat(registrations).extracting(BusRegistration::getState).containsOnly(BusRegistration.State.COMMITTED);
+        assertThat(groupSizes().count() - groupsBefore).isEqualTo(1);
+        assertThat(groupSizes().totalAmount() - busesBefore).isEqualTo(2);
+    }
+    
+    @Test
+    void invalidBusIsRejectedAloneInsideItsGroup() {
+        List<BusRequest> requests = new ArrayList<>();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            requests.add(new BusRequest(i == 2 ? " " : "WB-" + i, "Red", 40, routeId));
+        }
+        
+        List<BusRegistration> registrations = registerAll(requests);
+        
+        assertThat(registrations).extracting(BusRegistration::getState).containsExactly(BusRegistration.State.COMMITTED,
+                BusRegistration.State.COMMITTED, BusRegistration.State.REJECTED, BusRegistration.State.COMMITTED, BusRegistration.State.COMMITTED);
+        assertThat(registrations.get(2).getErrors()).containsKey("busNo");
+        assertThat(registrations.get(2).getBusId()).isNull();
+        assertThat(busRegistrationQueue.getRegistration(registrations.get(2).getId()).getState()).isEqualTo(BusRegistration.State.REJECTED);
+    }
+    
+    @Test
+    void fullQueueIsRefusedAtOnce() throws Exception {
+        double refusedBefore = meterRegistry.find("transport.bus.registrations.rejected.full").counter().count();
+        CompletableFuture<BusRegistration> blocker = blockFlusher();
+        try {
+            List<CompletableFuture<BusRegistration>> queued = new ArrayList<>();
+            for (int i = 0; i < QUEUE_CAPACITY; i++) {
+                queued.add(registerAsync(new BusRequest("WB-queued-" + i, "Red", 40, routeId)));
+            }
+            awaitTrue(() -> queuedCount() == QUEUE_CAPACITY);
+            
+            long start = System.nanoTime();
+            assertThatThrownBy(() -> busRegistrationQueue.register(new BusRequest("WB-refused", "Red", 40, routeId)))
+                    .isInstanceOf(BusRegistrationQueueFullException.class);
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1000);
+            assertThat(meterRegistry.find("transport.bus.registrations.rejected.full").counter().count() - refusedBefore).isEqualTo(1);
+            
+            flusherBlock.release();
+            assertThat(blocker.get(15, TimeUnit.SECONDS).getState()).isEqualTo(BusRegistration.State.COMMITTED);
+            for (CompletableFuture<BusRegistration> registration : queued) {
+                assertThat(registration.get(15, TimeUnit.SECONDS).getState()).isEqualTo(BusRegistration.State.COMMITTED);
+            }
+        } finally {
+            flusherBlock.release();
+        }
+    }
+    
+    @Test
+    void interruptedWaitWithdrawsTheQueuedBus() throws Exception {
+        CompletableFuture<BusRegistration> blocker = blockFlusher();
+        try {
+            CompletableFuture<BusRegistration> result = new CompletableFuture<>();
+            CompletableFuture<Boolean> interrupted = new CompletableFuture<>();
+            Thread waiter = Thread.ofVirtual().start(() -> {
+                result.complete(busRegistrationQueue.register(new BusRequest("WB-interrupted", "Red", 40, routeId)));
+                interrupted.complete(Thread.currentThread().isInterrupted());
+            });
+            awaitTrue(() -> queuedCount() == 1);
+            
+            waiter.interrupt();
+            
+            BusRegistration registration = result.get(15, TimeUnit.SECONDS);
+            assertThat(registration.getState()).isEqualTo(BusRegistration.State.FAILED);
+            assertThat(registration.getErrors()).containsEntry("error", "Interrupted while waiting for the commit");
+            assertThat(interrupted.get(15, TimeUnit.SECONDS)).isTrue();
+            assertThat(queuedCount()).isZero();
+            
+            flusherBlock.release();
+            assertThat(blocker.get(15, TimeUnit.SECONDS).getState()).isEqualTo(BusRegistration.State.COMMITTED);
+            assertThat(registration.getState()).isEqualTo(BusRegistration.State.FAILED);
+        } finally {
+            flusherBlock.release();
+        }
+    }
+    
+    @Test
+    @DirtiesContext
+    void shutdownCommitsTheQueueAndRefusesNewRegistrations() throws Exception {
+        CompletableFuture<BusRegistration> blocker = blockFlusher();
+        List<CompletableFuture<BusRegistration>> queued = new ArrayList<>();
+        try {
+            for (int i = 0; i < 2; i++) {
+                queued.add(registerAsync(new BusRequest("WB-shutdown-" + i, "Red", 40, routeId)));
+            }
+            awaitTrue(() -> queuedCount() == 2);
+        } finally {
+            flusherBlock.release();
+        }
+        
+        busRegistrationQueue.shutdown();
+        
+        assertThat(blocker.get(15, TimeUnit.SECONDS).getState()).isEqualTo(BusRegistration.State.COMMITTED);
+        for (CompletableFuture<BusRegistration> registration : queued) {
+            assertThat(registration.get(15, TimeUnit.SECONDS).getState()).isEqualTo(BusRegistration.State.COMMITTED);
+        }
+        assertThatThrownBy(() -> busRegistrationQueue.register(new BusRequest("WB-late", "Red", 40, routeId)))
+                .isInstanceOf(BusRegistrationQueueFullException.class);
+        assertThat(queuedCount()).isZero();
+    }
+    
+    /**
+     * Registers a bus on the blocked route and waits until the flusher is held in its commit
+     *
+     * @return CompletableFuture - The blocked registration, done once the flusher is released
+     */
+    private CompletableFuture<BusRegistration> blockFlusher() throws InterruptedException {
+        flusherBlock.arm(blockedRouteId);
+        CompletableFuture<BusRegistration> blocker = registerAsync(new BusRequest("WB-blocker", "Red", 40, blockedRouteId));
+        assertThat(flusherBlock.awaitBlocked()).as("flusher blocked").isTrue();
+        return blocker;
+    }
+    
+    private List<BusRegistration> registerAll(int count) {
+        List<BusRequest> requests = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            requests.add(new BusRequest("WB-" + i, "Red", 40, routeId));
+        }
+        return registerAll(requests);
+    }
+    
+    /**
+     * Registers the buses concurrently (COMMITTED durability blocks each caller until its commit)
+     */
+    private List<BusRegistration> registerAll(List<BusRequest> requests) {
+        List<CompletableFuture<BusRegistration>> futures = requests.stream().map(this::registerAsync).toList();
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+    
+    private CompletableFuture<BusRegistration> registerAsync(BusRequest request) {
+        CompletableFuture<BusRegistration> future = new CompletableFuture<>();
+        Thread.ofVirtual().start(() -> {
+            try {
+                future.complete(busRegistrationQueue.register(request));
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+    
+    private DistributionSummary groupSizes() {
+        return meterRegistry.find("transport.bus.registrations.group.size").summary();
+    }
+    
+    private double queuedCount() {
+        return meterRegistry.find("transport.bus.registrations.queued").gauge().value();
+    }
+    
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(15);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met within 15 s").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.busapp.replica;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReplicationLogTest {
+    private static final int WRITERS = 8;
+    private static final int INCREMENTS = 50;
+    
+    private DataSource replica;
+    private ReplicationLog replicationLog;
+    private DataSource primary;
+    
+    @BeforeEach
+    void createDatabases() throws SQLException {
+        replica = h2("replica");
+        replicationLog = new ReplicationLog(0, replica, new AtomicLong(), 1000, 0);
+        primary = new ReplicatingDataSource(h2("primary"), replicationLog);
+        try (Connection connection = primary.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE buses (id BIGINT PRIMARY KEY, bus_no VARCHAR(20), capacity INT)");
+            statement.execute("CREATE TABLE counters (id INT PRIMARY KEY, n INT)");
+            statement.execute("INSERT INTO counters VALUES (1, 0)");
+        }
+    }
+    
+    @Test
+    void replaysCommittedWritesOnTheReplica() throws Exception {
+        try (Connection connection = primary.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO buses (id, bus_no, capacity) VALUES (?, ?, ?)")) {
+                for (long id = 1; id <= 3; id++) {
+                    insert.setLong(1, id);
+                    insert.setString(2, "BUS-" + id);
+                    insert.setInt(3, 40);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+            try (PreparedStatement update = connection.prepareStatement("UPDATE buses SET capacity = ? WHERE id = ?")) {
+                update.setInt(1, 55);
+                update.setLong(2, 2);
+                update.executeUpdate();
+            }
+            connection.commit();
+            
+            // Rolled back: never reaches the replica
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("DELETE FROM buses WHERE id = 1");
+            }
+            connection.rollback();
+        }
+        
+        awaitApplied();
+        assertThat(query(replica, "SELECT id || ':' || bus_no || ':' || capacity FROM buses ORDER BY id"))
+                .containsExactly("1:BUS-1:40", "2:BUS-2:55", "3:BUS-3:40");
+        assertThat(replicationLog.isFresh(0)).isTrue();
+    }
+    
+    @Test
+    void writesRolledBackToASavepointAreNotReplayed() throws Exception {
+        try (Connection connection = primary.getConnection(); Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(false);
+            statement.executeUpdate("INSERT INTO buses VALUES (1, 'BUS-1', 40)");
+            Savepoint outer = connection.setSavepoint();
+            statement.executeUpdate("INSERT INTO buses VALUES (2, 'BUS-2', 40)");
+            connection.setSavepoint("inner");
+            statement.executeUpdate("INSERT INTO buses VALUES (3, 'BUS-3', 40)");
+            // Drops 2 and 3 (and the inner savepoint)
+            connection.rollback(outer);
+            statement.executeUpdate("INSERT INTO buses VALUES (4, 'BUS-4', 40)");
+            Savepoint released = connection.setSavepoint();
+            statement.executeUpdate("INSERT INTO buses VALUES (5, 'BUS-5', 40)");
+            // Keeps 5
+            connection.releaseSavepoint(released);
+            connection.commit();
+        }
+        
+        awaitApplied();
+        assertThat(query(primary, "SELECT bus_no FROM buses ORDER BY id")).containsExactly("BUS-1", "BUS-4", "BUS-5");
+        assertThat(query(replica, "SELECT bus_no FROM buses ORDER BY id")).containsExactly("BUS-1", "BUS-4", "BUS-5");
+    }
+    
+    @Test
+    void failedAutoCommitWriteIsNotReplayed() throws Exception {
+        try (Connection connection = primary.getConnection(); Statement statement = connection.createStatement()) {
+            statement.executeUpdate("INSERT INTO buses VALUES (1, 'BUS-1', 40)");
+            assertThatThrownBy(() -> statement.executeUpdate("INSERT INTO buses VALUES (1, 'DUPLICATE', 40)")).isInstanceOf(SQLException.class);
+            statement.executeUpdate("INSERT INTO buses VALUES (2, 'BUS-2', 40)");
+        }
+        
+        awaitApplied();
+        assertThat(query(replica, "SELECT bus_no FROM buses ORDER BY id")).containsExactly("BUS-1", "BUS-2");
+    }
+    
+    /**
+     * Read-modify-write of one row by concurrent transactions: each writes the value it read
+     * plus one as a parameter, so the replica only ends up with the same total if it applies
+     * them in the primary's order
+     */
+    @Test
+    void concurrentCommitsAreReplayedInOrder() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int w = 0; w < WRITERS; w++) {
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < INCREMENTS; i++) {
+                        increment();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        
+        awaitApplied();
+        String total = String.valueOf(WRITERS * INCREMENTS);
+        assertThat(query(primary, "SELECT n FROM counters")).containsExactly(total);
+        assertThat(query(replica, "SELECT n FROM counters")).containsExactly(total);
+    }
+    
+    private void increment() throws SQLException {
+        try (Connection connection = primary.getConnection()) {
+            connection.setAutoCommit(false);
+            int n;
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT n FROM counters WHERE id = 1 FOR UPDATE")) {
+                rs.next();
+                n = rs.getInt(1);
+            }
+            try (PreparedStatement update = connection.prepareStatement("UPDATE counters SET n = ? WHERE id = 1")) {
+                update.setInt(1, n + 1);
+                update.executeUpdate();
+            }
+            connection.commit();
+        }
+    }
+    
+    private void awaitApplied() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (replicationLog.pendingTransactions() > 0) {
+            assertThat(System.nanoTime()).as("replica not caught up within 5 s").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+    
+    private static List<String> query(DataSource dataSource, String sql) throws SQLException {
+        List<String> rows = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            while (rs.next()) {
+                rows.add(rs.getString(1));
+            }
+        }
+        return rows;
+    }
+    
+    private static DataSource h2(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000");
+        dataSource.setUser("sa");
+        return dataSource;
+    }
+}
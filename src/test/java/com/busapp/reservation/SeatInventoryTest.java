@@ -0,0 +1,101 @@
+package com.busapp.reservation;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SeatInventoryTest {
+    private static final int THREADS = 16;
+    private static final int STRIPES = 4;
+    
+    @Test
+    void takesSeatsAcrossStripes() {
+        SeatInventory inventory = new SeatInventory(10, STRIPES);
+        
+        // No stripe holds 7 seats: taken by the slow path from the total
+        assertThat(inventory.tryAcquire(7)).isTrue();
+        assertThat(inventory.available()).isEqualTo(3);
+        assertThat(inventory.tryAcquire(4)).isFalse();
+        assertThat(inventory.available()).isEqualTo(3);
+    }
+    
+    @Test
+    void concurrentHoldsNeverOverbook() throws Exception {
+        int capacity = 1_000;
+        SeatInventory inventory = new SeatInventory(capacity, STRIPES);
+        
+        List<Integer> taken = runConcurrently(() -> {
+            int seats = 0;
+            int rejected = 0;
+            // A thread stops after a few rejections in a row: the bus is (nearly) full
+            while (rejected < 3) {
+                int request = ThreadLocalRandom.current().nextInt(1, 4);
+                if (inventory.tryAcquire(request)) {
+                    seats += request;
+                    rejected = 0;
+                } else {
+                    rejected++;
+                }
+            }
+            return seats;
+        });
+        
+        int total = taken.stream().mapToInt(Integer::intValue).sum();
+        assertThat(total).isLessThanOrEqualTo(capacity);
+        assertThat(total + inventory.available()).isEqualTo(capacity);
+        assertThat(inventory.available()).isLessThan(3);
+    }
+    
+    @Test
+    void neverSoldOutWhileEnoughSeatsAreFree() throws Exception {
+        // Every thread holds at most 3 seats at a time, so 3 seats per thread are always enough;
+        // with that few seats, stripes often run short and requests take the slow path while
+        // other threads release seats
+        SeatInventory inventory = new SeatInventory(3 * THREADS, STRIPES);
+        
+        List<Integer> rejections = runConcurrently(() -> {
+            int rejected = 0;
+            for (int i = 0; i < 200_000; i++) {
+                if (inventory.tryAcquire(3)) {
+                    inventory.release(3);
+                } else {
+                    rejected++;
+                }
+            }
+            return rejected;
+        });
+        
+        assertThat(rejections).allMatch(rejected -> rejected == 0);
+        assertThat(inventory.available()).isEqualTo(3 * THREADS);
+    }
+    
+    private static List<Integer> runConcurrently(Callable<Integer> work) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return work.call();
+                }));
+            }
+            start.countDown();
+            List<Integer> results = new ArrayList<>();
+            for (Future<Integer> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
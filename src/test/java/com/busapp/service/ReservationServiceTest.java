@@ -0,0 +1,94 @@
+package com.busapp.service;
+
+import com.busapp.dto.BusRequest;
+import com.busapp.dto.BusRouteRequest;
+import com.busapp.dto.ReservationResponse;
+import com.busapp.exception.SeatsUnavailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A flash crowd on one bus: many concurrent holds, releases and confirmations never hand out
+ * more seats than the bus has
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ReservationServiceTest {
+    private static final int CAPACITY = 40;
+    private static final int CLIENTS = 32;
+    private static final int ATTEMPTS_PER_CLIENT = 200;
+    
+    @Autowired
+    private ReservationService reservationService;
+    
+    @Autowired
+    private BusRouteService busRouteService;
+    
+    @Autowired
+    private BusService busService;
+    
+    private Long busId;
+    
+    @BeforeEach
+    void createBus() {
+        Long routeId = busRouteService.createRoute(new BusRouteRequest("Express", "Depot", "Terminal", "Midway")).getId();
+        busId = busService.createBus(new BusRequest("EXP-" + System.nanoTime(), "Red", CAPACITY, routeId)).getId();
+    }
+    
+    @Test
+    void concurrentHoldsNeverOverbook() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CLIENTS);
+        List<Future<List<ReservationResponse>>> clients = new ArrayList<>();
+        try {
+            for (int c = 0; c < CLIENTS; c++) {
+                clients.add(executor.submit(() -> {
+                    start.await();
+                    List<ReservationResponse> kept = new ArrayList<>();
+                    for (int i = 0; i < ATTEMPTS_PER_CLIENT; i++) {
+                        try {
+                            ReservationResponse hold = reservationService.hold(busId, ThreadLocalRandom.current().nextInt(1, 4));
+                            // Most holds are abandoned again, some are kept or confirmed
+                            switch (ThreadLocalRandom.current().nextInt(10)) {
+                                case 0 -> kept.add(reservationService.confirm(busId, hold.getHoldId()));
+                                case 1 -> kept.add(hold);
+                                default -> reservationService.release(busId, hold.getHoldId());
+                            }
+                        } catch (SeatsUnavailableException e) {
+                            // Sold out for now
+                        }
+                    }
+                    return kept;
+                }));
+            }
+            start.countDown();
+            int seatsTaken = 0;
+            for (Future<List<ReservationResponse>> client : clients) {
+                seatsTaken += client.get().stream().mapToInt(ReservationResponse::getSeats).sum();
+            }
+            
+            assertThat(seatsTaken).isLessThanOrEqualTo(CAPACITY);
+            // Whatever is left is still free: held plus free is the whole bus
+            int free = CAPACITY - seatsTaken;
+            if (free > 0) {
+                reservationService.hold(busId, free);
+            }
+            assertThatThrownBy(() -> reservationService.hold(busId, 1)).isInstanceOf(SeatsUnavailableException.class);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.busapp.service;
+
+import com.busapp.dto.BusRouteRequest;
+import com.busapp.dto.BusRouteResponse;
+import com.busapp.entity.Station;
+import com.busapp.repository.StationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class StationServiceTest {
+    private static final int CONCURRENT_ROUTES = 16;
+    
+    @Autowired
+    private BusRouteService busRouteService;
+    
+    @Autowired
+    private StationService stationService;
+    
+    @Autowired
+    private StationRepository stationRepository;
+    
+    @Test
+    void stopNamesSkipBlankAndRepeatedStops() {
+        assertThat(StationService.stopNames("Depot", " , depot ,North,, NORTH ,South", "Terminal"))
+                .containsExactly("Depot", "North", "South", "Terminal");
+    }
+    
+    @Test
+    void concurrentRoutesCreateANewStationOnce() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_ROUTES);
+        try {
+            List<Future<BusRouteResponse>> routes = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_ROUTES; i++) {
+                BusRouteRequest request = new BusRouteRequest("Route " + i, "Harbour", "Airport", "Old Town, Stop " + i);
+                routes.add(executor.submit(() -> {
+                    start.await();
+                    return busRouteService.createRoute(request);
+                }));
+            }
+            start.countDown();
+            for (Future<BusRouteResponse> route : routes) {
+                assertThat(route.get().getId()).isNotNull();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        
+        for (String name : List.of("Harbour", "Airport", "Old Town")) {
+            assertThat(stationRepository.findByNameKey(Station.normalize(name))).isPresent();
+        }
+        assertThat(stationService.getRoutesByStation("old town")).hasSize(CONCURRENT_ROUTES);
+    }
+}
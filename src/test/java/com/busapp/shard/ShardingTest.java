@@ -0,0 +1,114 @@
+package com.busapp.shard;
+
+import com.busapp.dto.BatchItemResult;
+import com.busapp.dto.BatchResponse;
+import com.busapp.dto.BusRequest;
+import com.busapp.dto.BusResponse;
+import com.busapp.dto.BusRouteRequest;
+import com.busapp.dto.BusRouteResponse;
+import com.busapp.service.BusRouteService;
+import com.busapp.service.BusService;
+import com.busapp.service.StationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "transport.shards.count=2",
+        "transport.shards.url-template=jdbc:h2:mem:sharding-test-shard%d;DB_CLOSE_DELAY=-1"
+})
+@ActiveProfiles("test")
+class ShardingTest {
+    private static final int ROUTES = 4;
+    private static final int BUSES_PER_ROUTE = 3;
+    
+    @Autowired
+    private BusRouteService busRouteService;
+    
+    @Autowired
+    private BusService busService;
+    
+    @Autowired
+    private StationService stationService;
+    
+    @Autowired
+    private ShardRouter shardRouter;
+    
+    @Test
+    void idsSelectTheirShardByRange() {
+        assertThat(shardRouter.shardCount()).isEqualTo(2);
+        assertThat(ShardRouter.firstId(0)).isEqualTo(1);
+        assertThat(ShardRouter.firstId(1)).isEqualTo(1L << ShardRouter.ID_BITS);
+        assertThat(shardRouter.shardOf(null)).isZero();
+        assertThat(shardRouter.shardOf(ShardRouter.firstId(1) - 1)).isZero();
+        assertThat(shardRouter.shardOf(ShardRouter.firstId(1))).isEqualTo(1);
+        // Beyond the last range: the last shard, where the ID is not found
+        assertThat(shardRouter.shardOf(ShardRouter.firstId(5))).isEqualTo(1);
+    }
+    
+    @Test
+    void routesAndTheirRowsLiveOnOneShardInItsIdRange() {
+        List<BusRouteResponse> routes = new ArrayList<>();
+        for (int i = 0; i < ROUTES; i++) {
+            routes.add(busRouteService.createRoute(new BusRouteRequest("Sharded " + i, "Depot", "Terminal " + i, "Sharded Market, Sharded Stop " + i)));
+        }
+        assertThat(routes.stream().map(route -> shardRouter.shardOf(route.getId())).collect(Collectors.toSet())).containsExactlyInAnyOrder(0, 1);
+        
+        // Single buses (routed by @Shard) and one batch spanning both shards
+        List<BusRequest> batch = new ArrayList<>();
+        for (BusRouteResponse route : routes) {
+            for (int i = 0; i < BUSES_PER_ROUTE - 1; i++) {
+                busService.createBus(new BusRequest("S-" + route.getId() + "-" + i, "Green", 30, route.getId()));
+            }
+            batch.add(new BusRequest("S-" + route.getId() + "-batch", "Green", 30, route.getId()));
+        }
+        BatchResponse<BusResponse> created = busService.createBuses(batch);
+        assertThat(created.getItems()).extracting(BatchItemResult::getStatus).containsOnly(BatchItemResult.CREATED);
+        
+        for (BusRouteResponse route : routes) {
+            int shard = shardRouter.shardOf(route.getId());
+            JdbcTemplate own = new JdbcTemplate(shardRouter.dataSource(shard));
+            JdbcTemplate other = new JdbcTemplate(shardRouter.dataSource(1 - shard));
+            assertInRange(route.getId(), shard);
+            assertThat(count(own, "SELECT COUNT(*) FROM bus_routes WHERE id = ?", route.getId())).isEqualTo(1);
+            assertThat(count(other, "SELECT COUNT(*) FROM bus_routes WHERE id = ?", route.getId())).isZero();
+            
+            // Buses, stops and stations of the route are on the route's shard
+            List<BusResponse> buses = busService.getBusesByRouteId(route.getId());
+            assertThat(buses).hasSize(BUSES_PER_ROUTE);
+            buses.forEach(bus -> assertInRange(bus.getId(), shard));
+            assertThat(count(own, "SELECT COUNT(*) FROM buses WHERE route_id = ?", route.getId())).isEqualTo(BUSES_PER_ROUTE);
+            assertThat(count(other, "SELECT COUNT(*) FROM buses WHERE route_id = ?", route.getId())).isZero();
+            List<Long> stopStationIds = own.queryForList("SELECT station_id FROM route_stops WHERE route_id = ?", Long.class, route.getId());
+            assertThat(stopStationIds).hasSize(4).allSatisfy(stationId -> assertInRange(stationId, shard));
+            for (Long id : own.queryForList("SELECT id FROM route_stops WHERE route_id = ?", Long.class, route.getId())) {
+                assertInRange(id, shard);
+            }
+        }
+        
+        // Scatter-gather: the shared station name finds the routes of both shards, in ID order
+        Set<Long> routeIds = routes.stream().map(BusRouteResponse::getId).collect(Collectors.toSet());
+        List<Long> found = stationService.getRoutesByStation("Sharded Market").stream().map(BusRouteResponse::getId).toList();
+        assertThat(found).containsExactlyInAnyOrderElementsOf(routeIds).isSorted();
+    }
+    
+    private static void assertInRange(Long id, int shard) {
+        assertThat(id).as("ID of shard " + shard).isGreaterThanOrEqualTo(ShardRouter.firstId(shard));
+        if (shard == 0) {
+            assertThat(id).as("ID of shard 0").isLessThan(ShardRouter.firstId(1));
+        }
+    }
+    
+    private static int count(JdbcTemplate jdbcTemplate, String sql, Object... args) {
+        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, args);
+        return count == null ? 0 : count;
+    }
+}
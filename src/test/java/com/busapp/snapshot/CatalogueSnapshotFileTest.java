@@ -0,0 +1,164 @@
+package com.busapp.snapshot;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CatalogueSnapshotFileTest {
+    @TempDir
+    private Path directory;
+    
+    /**
+     * Every visited row as a list of its values, prefixed with the section
+     */
+    private static final class Rows implements CatalogueSnapshotFile.Visitor {
+        private final List<List<Object>> rows = new ArrayList<>();
+        
+        @Override
+        public void station(long id, String name, String nameKey, Double latitude, Double longitude) {
+            rows.add(Arrays.asList("station", id, name, nameKey, latitude, longitude));
+        }
+        
+        @Override
+        public void route(long id, long version, String title, String source, String destination, String stations) {
+            rows.add(Arrays.asList("route", id, version, title, source, destination, stations));
+        }
+        
+        @Override
+        public void routeStop(long id, long routeId, long stationId, int stopSequence) {
+            rows.add(Arrays.asList("routeStop", id, routeId, stationId, stopSequence));
+        }
+        
+        @Override
+        public void bus(long id, long version, long routeId, String busNo, String color, Integer capacity) {
+            rows.add(Arrays.asList("bus", id, version, routeId, busNo, color, capacity));
+        }
+    }
+    
+    @Test
+    void writtenRowsAreReadBack() throws IOException {
+        Path path = directory.resolve("catalogue.snapshot");
+        try (CatalogueSnapshotFile.Writer writer = new CatalogueSnapshotFile.Writer(path, new CatalogueSnapshotFile.Counts(2, 1, 2, 2), 1L)) {
+            writer.station(1, "Hauptbahnhof", "hauptbahnhof", 52.525, 13.369);
+            writer.station(2, "Zoo", "zoo", null, null);
+            writer.route(10, 3, "Ring", "Hauptbahnhof", "Zoo", "Hauptbahnhof,Zoo");
+            writer.routeStop(20, 10, 1, 0);
+            writer.routeStop(21, 10, 2, 1);
+            writer.bus(30, 0, 10, "B-1", "Yellow", 60);
+            writer.bus(31, 0, 10, "B-2", null, null);
+            writer.commit();
+        }
+        
+        Rows rows = new Rows();
+        CatalogueSnapshotFile.Counts counts = CatalogueSnapshotFile.read(path, rows);
+        
+        assertThat(counts).isEqualTo(new CatalogueSnapshotFile.Counts(2, 1, 2, 2));
+        assertThat(rows.rows).containsExactly(
+                Arrays.asList("station", 1L, "Hauptbahnhof", "hauptbahnhof", 52.525, 13.369),
+                Arrays.asList("station", 2L, "Zoo", "zoo", null, null),
+                Arrays.asList("route", 10L, 3L, "Ring", "Hauptbahnhof", "Zoo", "Hauptbahnhof,Zoo"),
+                Arrays.asList("routeStop", 20L, 10L, 1L, 0),
+                Arrays.asList("routeStop", 21L, 10L, 2L, 1),
+                Arrays.asList("bus", 30L, 0L, 10L, "B-1", "Yellow", 60),
+                Arrays.asList("bus", 31L, 0L, 10L, "B-2", null, null));
+    }
+    
+    @Test
+    void rowsNotMatchingTheHeaderAreNotCommitted() throws IOException {
+        Path path = directory.resolve("catalogue.snapshot");
+        try (CatalogueSnapshotFile.Writer writer = new CatalogueSnapshotFile.Writer(path, new CatalogueSnapshotFile.Counts(0, 2, 0, 0), 1L)) {
+            writer.route(10, 0, "Ring", "A", "B", "A,B");
+            assertThatThrownBy(writer::commit).isInstanceOf(IOException.class).hasMessageContaining("do not match the header");
+        }
+        assertThat(path).doesNotExist();
+        try (var files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+    
+    @Test
+    void damagedSnapshotIsRejectedBeforeAnyRow() throws IOException {
+        Path path = directory.resolve("catalogue.snapshot");
+        try (CatalogueSnapshotFile.Writer writer = new CatalogueSnapshotFile.Writer(path, new CatalogueSnapshotFile.Counts(1, 0, 0, 0), 1L)) {
+            writer.station(1, "Zoo", "zoo", null, null);
+            writer.commit();
+        }
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[40] ^= 0x01; // Inside the station row
+        Files.write(path, bytes);
+        
+        Rows rows = new Rows();
+        assertThatThrownBy(() -> CatalogueSnapshotFile.read(path, rows)).hasMessageContaining("checksum mismatch");
+        assertThat(rows.rows).isEmpty();
+    }
+    
+    @Test
+    void versionOneSnapshotIsReadWithoutLocations() throws IOException {
+        // Version 1 layout: stations are id, name and name key only
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(CatalogueSnapshotFile.MAGIC);
+        out.writeInt(1);
+        out.writeLong(1L);
+        out.writeInt(1);
+        out.writeInt(0);
+        out.writeInt(0);
+        out.writeInt(1);
+        out.writeLong(1);
+        writeString(out, "Zoo");
+        writeString(out, "zoo");
+        out.writeLong(30);
+        out.writeLong(0);
+        out.writeLong(10);
+        writeString(out, "B-1");
+        writeString(out, "Yellow");
+        out.writeInt(-1);
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeLong(crc.getValue());
+        Path path = directory.resolve("v1.snapshot");
+        Files.write(path, bytes.toByteArray());
+        
+        Rows rows = new Rows();
+        CatalogueSnapshotFile.read(path, rows);
+        
+        assertThat(rows.rows).containsExactly(
+                Arrays.asList("station", 1L, "Zoo", "zoo", null, null),
+                Arrays.asList("bus", 30L, 0L, 10L, "B-1", "Yellow", null));
+    }
+    
+    @Test
+    void unknownFormatVersionIsRejected() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(CatalogueSnapshotFile.MAGIC);
+        out.writeInt(CatalogueSnapshotFile.FORMAT_VERSION + 1);
+        out.writeLong(1L);
+        out.write(new byte[16]);
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeLong(crc.getValue());
+        Path path = directory.resolve("future.snapshot");
+        Files.write(path, bytes.toByteArray());
+        
+        assertThatThrownBy(() -> CatalogueSnapshotFile.read(path, new Rows())).hasMessageContaining("format version 3");
+    }
+    
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
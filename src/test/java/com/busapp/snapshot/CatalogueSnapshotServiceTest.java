@@ -0,0 +1,106 @@
+package com.busapp.snapshot;
+
+import com.busapp.BusTransportationApplication;
+import com.busapp.dto.BusRequest;
+import com.busapp.dto.BusRouteRequest;
+import com.busapp.dto.StationLocationRequest;
+import com.busapp.service.BusRouteService;
+import com.busapp.service.BusService;
+import com.busapp.service.StationService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Writes a snapshot from one application context and loads it into a fresh one (each context
+ * has its own in-memory database, see application-test.properties)
+ */
+class CatalogueSnapshotServiceTest {
+    @TempDir
+    private Path directory;
+    
+    @Test
+    void snapshotRoundTripKeepsRowsAndNewIdsDoNotCollide() {
+        Path snapshot = directory.resolve("catalogue.snapshot");
+        Map<String, List<Map<String, Object>>> exported;
+        try (ConfigurableApplicationContext context = start(snapshot)) {
+            BusRouteService routes = context.getBean(BusRouteService.class);
+            BusService buses = context.getBean(BusService.class);
+            for (int route = 0; route < 3; route++) {
+                Long routeId = routes.createRoute(new BusRouteRequest("Route " + route, "Depot", "Terminal " + route, "Market, Stop " + route)).getId();
+                for (int bus = 0; bus < 2; bus++) {
+                    buses.createBus(new BusRequest("BUS-" + route + "-" + bus, "Blue", 40 + bus, routeId));
+                }
+            }
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            Long marketId = jdbcTemplate.queryForObject("SELECT id FROM stations WHERE name = 'Market'", Long.class);
+            context.getBean(StationService.class).updateLocation(marketId, new StationLocationRequest(52.52, 13.405));
+            
+            context.getBean(CatalogueSnapshotService.class).write();
+            assertThat(snapshot).exists();
+            exported = rows(jdbcTemplate);
+        }
+        
+        try (ConfigurableApplicationContext context = start(snapshot)) {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            assertThat(rows(jdbcTemplate)).isEqualTo(exported);
+            
+            // The sequences restarted past the loaded IDs: new rows of every table get fresh IDs
+            Long routeId = context.getBean(BusRouteService.class)
+                    .createRoute(new BusRouteRequest("Route 3", "Depot", "Harbour", "Market, Pier")).getId();
+            Long busId = context.getBean(BusService.class).createBus(new BusRequest("BUS-3-0", "Red", 50, routeId)).getId();
+            
+            assertThat(routeId).isGreaterThan(maxId(exported, "bus_routes"));
+            assertThat(busId).isGreaterThan(maxId(exported, "buses"));
+            Long pierId = jdbcTemplate.queryForObject("SELECT id FROM stations WHERE name = 'Pier'", Long.class);
+            assertThat(pierId).isGreaterThan(maxId(exported, "stations"));
+            assertThat(jdbcTemplate.queryForObject("SELECT MIN(id) FROM route_stops WHERE route_id = ?", Long.class, routeId))
+                    .isGreaterThan(maxId(exported, "route_stops"));
+        }
+    }
+    
+    @Test
+    void damagedSnapshotStopsTheStartup() throws Exception {
+        Path snapshot = directory.resolve("catalogue.snapshot");
+        try (ConfigurableApplicationContext context = start(snapshot)) {
+            context.getBean(BusRouteService.class).createRoute(new BusRouteRequest("Route 0", "Depot", "Terminal", "Market"));
+            context.getBean(CatalogueSnapshotService.class).write();
+        }
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length / 2] ^= 0x01;
+        Files.write(snapshot, bytes);
+        
+        assertThatThrownBy(() -> start(snapshot).close())
+                .hasRootCauseMessage("Snapshot " + snapshot + " is damaged (checksum mismatch)");
+    }
+    
+    private static ConfigurableApplicationContext start(Path snapshot) {
+        return new SpringApplicationBuilder(BusTransportationApplication.class)
+                .profiles("test")
+                .run("--server.port=0",
+                        "--transport.catalogue.snapshot.enabled=true",
+                        "--transport.catalogue.snapshot.path=" + snapshot,
+                        "--logging.level.root=WARN");
+    }
+    
+    private static Map<String, List<Map<String, Object>>> rows(JdbcTemplate jdbcTemplate) {
+        return Map.of(
+                "stations", jdbcTemplate.queryForList("SELECT id, name, name_key, latitude, longitude FROM stations ORDER BY id"),
+                "bus_routes", jdbcTemplate.queryForList("SELECT id, version, title, source, destination, stations FROM bus_routes ORDER BY id"),
+                "route_stops", jdbcTemplate.queryForList("SELECT id, route_id, station_id, stop_sequence FROM route_stops ORDER BY id"),
+                "buses", jdbcTemplate.queryForList("SELECT id, version, route_id, bus_no, color, capacity FROM buses ORDER BY id"));
+    }
+    
+    private static long maxId(Map<String, List<Map<String, Object>>> rows, String table) {
+        return rows.get(table).stream().mapToLong(row -> ((Number) row.get("ID")).longValue()).max().orElseThrow();
+    }
+}